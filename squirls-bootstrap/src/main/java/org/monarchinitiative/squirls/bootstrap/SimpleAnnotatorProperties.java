@@ -88,6 +88,10 @@ public class SimpleAnnotatorProperties implements AnnotatorProperties {
 
     private String version = "agez";
 
+    private String conservationReader = "bigwig";
+
+    private String sequenceFetchMode = "transcript-span";
+
     @Override
     public String getVersion() {
         return version;
@@ -97,23 +101,43 @@ public class SimpleAnnotatorProperties implements AnnotatorProperties {
         this.version = version;
     }
 
+    @Override
+    public String getConservationReader() {
+        return conservationReader;
+    }
+
+    public void setConservationReader(String conservationReader) {
+        this.conservationReader = conservationReader;
+    }
+
+    @Override
+    public String getSequenceFetchMode() {
+        return sequenceFetchMode;
+    }
+
+    public void setSequenceFetchMode(String sequenceFetchMode) {
+        this.sequenceFetchMode = sequenceFetchMode;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         SimpleAnnotatorProperties that = (SimpleAnnotatorProperties) o;
-        return Objects.equals(version, that.version);
+        return Objects.equals(version, that.version) && Objects.equals(conservationReader, that.conservationReader) && Objects.equals(sequenceFetchMode, that.sequenceFetchMode);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(version);
+        return Objects.hash(version, conservationReader, sequenceFetchMode);
     }
 
     @Override
     public String toString() {
         return "SimpleAnnotatorProperties{" +
                 "version='" + version + '\'' +
+                ", conservationReader='" + conservationReader + '\'' +
+                ", sequenceFetchMode='" + sequenceFetchMode + '\'' +
                 '}';
     }
 }
@@ -77,7 +77,10 @@
 package org.monarchinitiative.squirls.bootstrap;
 
 import org.monarchinitiative.squirls.initialize.AnnotatorProperties;
+import org.monarchinitiative.squirls.initialize.AsyncProperties;
 import org.monarchinitiative.squirls.initialize.ClassifierProperties;
+import org.monarchinitiative.squirls.initialize.PrecomputedProperties;
+import org.monarchinitiative.squirls.initialize.ReferenceProperties;
 import org.monarchinitiative.squirls.initialize.SquirlsProperties;
 
 import java.io.File;
@@ -91,9 +94,18 @@ public class SimpleSquirlsProperties implements SquirlsProperties {
 
     private final AnnotatorProperties annotatorProperties;
 
+    private final ReferenceProperties referenceProperties;
+
+    private final PrecomputedProperties precomputedProperties;
+
+    private final AsyncProperties asyncProperties;
+
     private SimpleSquirlsProperties(Builder builder) {
         classifierProperties = builder.classifierProperties;
         annotatorProperties = builder.annotatorProperties;
+        referenceProperties = builder.referenceProperties;
+        precomputedProperties = builder.precomputedProperties;
+        asyncProperties = builder.asyncProperties;
     }
 
     @Override
@@ -106,6 +118,21 @@ public class SimpleSquirlsProperties implements SquirlsProperties {
         return annotatorProperties;
     }
 
+    @Override
+    public ReferenceProperties getReference() {
+        return referenceProperties;
+    }
+
+    @Override
+    public PrecomputedProperties getPrecomputed() {
+        return precomputedProperties;
+    }
+
+    @Override
+    public AsyncProperties getAsync() {
+        return asyncProperties;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -116,6 +143,12 @@ public class SimpleSquirlsProperties implements SquirlsProperties {
 
         private AnnotatorProperties annotatorProperties = new SimpleAnnotatorProperties();
 
+        private ReferenceProperties referenceProperties = new SimpleReferenceProperties();
+
+        private PrecomputedProperties precomputedProperties = new SimplePrecomputedProperties();
+
+        private AsyncProperties asyncProperties = new SimpleAsyncProperties();
+
         private Builder() {
         }
 
@@ -129,6 +162,21 @@ public class SimpleSquirlsProperties implements SquirlsProperties {
             return this;
         }
 
+        public Builder referenceProperties(ReferenceProperties referenceProperties) {
+            this.referenceProperties = referenceProperties;
+            return this;
+        }
+
+        public Builder precomputedProperties(PrecomputedProperties precomputedProperties) {
+            this.precomputedProperties = precomputedProperties;
+            return this;
+        }
+
+        public Builder asyncProperties(AsyncProperties asyncProperties) {
+            this.asyncProperties = asyncProperties;
+            return this;
+        }
+
         public SimpleSquirlsProperties build() {
             return new SimpleSquirlsProperties(this);
         }
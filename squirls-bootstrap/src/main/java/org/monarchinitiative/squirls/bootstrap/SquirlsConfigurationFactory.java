@@ -81,10 +81,14 @@ import com.zaxxer.hikari.HikariDataSource;
 import org.apiguardian.api.API;
 import org.monarchinitiative.sgenes.jannovar.JannovarParser;
 import org.monarchinitiative.sgenes.model.Gene;
+import org.monarchinitiative.squirls.core.AsyncVariantSplicingEvaluator;
+import org.monarchinitiative.squirls.core.EvaluationExecutors;
+import org.monarchinitiative.squirls.core.PrecomputedScoreSource;
 import org.monarchinitiative.squirls.core.Squirls;
 import org.monarchinitiative.squirls.core.SquirlsDataService;
 import org.monarchinitiative.squirls.core.VariantSplicingEvaluator;
 import org.monarchinitiative.squirls.core.classifier.SquirlsClassifier;
+import org.monarchinitiative.squirls.core.config.SequenceFetchMode;
 import org.monarchinitiative.squirls.core.config.SquirlsOptions;
 import org.monarchinitiative.squirls.core.reference.SplicingPwmData;
 import org.monarchinitiative.squirls.core.reference.StrandedSequenceService;
@@ -93,13 +97,18 @@ import org.monarchinitiative.squirls.core.scoring.AGEZSplicingAnnotator;
 import org.monarchinitiative.squirls.core.scoring.DenseSplicingAnnotator;
 import org.monarchinitiative.squirls.core.scoring.SplicingAnnotator;
 import org.monarchinitiative.squirls.core.scoring.calculators.conservation.BigWigAccessor;
+import org.monarchinitiative.squirls.core.scoring.calculators.conservation.ConservationTrack;
 import org.monarchinitiative.squirls.initialize.*;
 import org.monarchinitiative.squirls.io.SquirlsClassifierVersion;
 import org.monarchinitiative.squirls.io.SquirlsResourceException;
 import org.monarchinitiative.squirls.io.db.DbClassifierFactory;
 import org.monarchinitiative.squirls.io.db.DbKMerDao;
 import org.monarchinitiative.squirls.io.db.DbSplicingPositionalWeightMatrixParser;
+import org.monarchinitiative.squirls.io.conservation.DenseConservationTrack;
+import org.monarchinitiative.squirls.io.precomputed.PrecomputedScoreSources;
 import org.monarchinitiative.squirls.io.sequence.FastaStrandedSequenceService;
+import org.monarchinitiative.squirls.io.sequence.MemoryMappedFastaStrandedSequenceService;
+import org.monarchinitiative.squirls.io.sequence.PackedGenomeStrandedSequenceService;
 import org.monarchinitiative.svart.assembly.GenomicAssembly;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -107,8 +116,11 @@ import org.slf4j.LoggerFactory;
 import javax.sql.DataSource;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 /**
@@ -121,6 +133,7 @@ import java.util.stream.Collectors;
  *  |- genome.fa
  *  |- genome.fa.dict
  *  |- genome.fa.fai
+ *  |- genome.packed (optional)
  *  |- phylop.bw
  *  |- squirls.mv.db
  *  |- tx.ensembl.ser
@@ -171,15 +184,47 @@ public class SquirlsConfigurationFactory {
         LOGGER.info("Spooling up Squirls v{} using resources in `{}`", SQUIRLS_VERSION, dataResolver.dataDirectory().toAbsolutePath());
         DataSource squirlsDatasource = squirlsDatasource(dataResolver.dataSourcePath());
 
-        SquirlsDataService squirlsDataService = configureSquirlsDataService(options, dataResolver);
+        SquirlsDataService squirlsDataService = configureSquirlsDataService(properties, options, dataResolver);
 
-        BigWigAccessor phylopBigwigAccessor = new BigWigAccessor(dataResolver.phylopPath());
-        SplicingAnnotator splicingAnnotator = configureSplicingAnnotator(properties, squirlsDatasource, phylopBigwigAccessor);
+        ConservationTrack phylopTrack = configurePhylopTrack(properties, dataResolver);
+        SplicingAnnotator splicingAnnotator = configureSplicingAnnotator(properties, squirlsDatasource, phylopTrack);
 
         SquirlsClassifier squirlsClassifier = configureSquirlsClassifier(properties, squirlsDatasource);
-        VariantSplicingEvaluator variantSplicingEvaluator = VariantSplicingEvaluator.of(squirlsDataService, splicingAnnotator, squirlsClassifier);
+        VariantSplicingEvaluator variantSplicingEvaluator = VariantSplicingEvaluator.of(squirlsDataService, splicingAnnotator, squirlsClassifier, configureSequenceFetchMode(properties));
+        PrecomputedScoreSource precomputedScoreSource = configurePrecomputedScoreSource(properties);
+        if (precomputedScoreSource != PrecomputedScoreSource.empty())
+            variantSplicingEvaluator = VariantSplicingEvaluator.precomputed(precomputedScoreSource, variantSplicingEvaluator);
 
-        return Squirls.of(squirlsDataService, splicingAnnotator, squirlsClassifier, variantSplicingEvaluator);
+        AsyncVariantSplicingEvaluator asyncVariantSplicingEvaluator = configureAsyncVariantSplicingEvaluator(properties, variantSplicingEvaluator);
+
+        return Squirls.of(squirlsDataService, splicingAnnotator, squirlsClassifier, variantSplicingEvaluator, asyncVariantSplicingEvaluator);
+    }
+
+    private static AsyncVariantSplicingEvaluator configureAsyncVariantSplicingEvaluator(SquirlsProperties properties,
+                                                                                       VariantSplicingEvaluator evaluator) throws SquirlsResourceException {
+        AsyncProperties asyncProperties = properties.getAsync();
+        String executorName = asyncProperties.getExecutor();
+        if (LOGGER.isDebugEnabled()) LOGGER.debug("Using `{}` executor for asynchronous evaluation", executorName);
+        Executor executor;
+        switch (executorName) {
+            case "common-pool":
+                executor = ForkJoinPool.commonPool();
+                break;
+            case "fixed":
+                int threads = asyncProperties.getThreads() > 0
+                        ? asyncProperties.getThreads()
+                        : Runtime.getRuntime().availableProcessors();
+                executor = EvaluationExecutors.fixed(threads);
+                break;
+            case "virtual":
+                if (!EvaluationExecutors.virtualThreadsAvailable())
+                    throw new SquirlsResourceException(String.format("The `virtual` executor requires Java 21 or newer, but Java %d is used", Runtime.version().feature()));
+                executor = EvaluationExecutors.virtualThreadPerTask();
+                break;
+            default:
+                throw new SquirlsResourceException(String.format("invalid 'squirls.async.executor' property value: `%s`", executorName));
+        }
+        return AsyncVariantSplicingEvaluator.of(evaluator, executor, asyncProperties.getTimeout());
     }
 
     private static DataSource squirlsDatasource(Path datasourcePath) {
@@ -194,18 +239,83 @@ public class SquirlsConfigurationFactory {
         return new HikariDataSource(config);
     }
 
-    private static SquirlsDataService configureSquirlsDataService(SquirlsOptions options,
+    private static SquirlsDataService configureSquirlsDataService(SquirlsProperties properties,
+                                                                  SquirlsOptions options,
                                                                   SquirlsDataResolver dataResolver) throws SquirlsResourceException {
-        StrandedSequenceService strandedSequenceService = new FastaStrandedSequenceService(dataResolver.genomeAssemblyReportPath(),
-                dataResolver.genomeFastaPath(),
-                dataResolver.genomeFastaFaiPath(),
-                dataResolver.genomeFastaDictPath());
+        StrandedSequenceService strandedSequenceService = configureStrandedSequenceService(properties, dataResolver);
 
         TranscriptModelService transcriptModelService = configureTranscriptModelService(options,
                 strandedSequenceService.genomicAssembly(),
                 dataResolver);
 
-        return SquirlsDataService.of(strandedSequenceService, transcriptModelService);
+        long sequenceCacheSize = properties.getReference().getSequenceCacheSize();
+        if (LOGGER.isDebugEnabled()) LOGGER.debug("Using reference sequence cache of {} bases", sequenceCacheSize);
+        return SquirlsDataService.of(strandedSequenceService, transcriptModelService, sequenceCacheSize);
+    }
+
+    private static StrandedSequenceService configureStrandedSequenceService(SquirlsProperties properties,
+                                                                            SquirlsDataResolver dataResolver) throws SquirlsResourceException {
+        String sequenceReader = properties.getReference().getSequenceReader();
+        if (LOGGER.isDebugEnabled()) LOGGER.debug("Using `{}` reference sequence reader", sequenceReader);
+        switch (sequenceReader) {
+            case "htsjdk":
+                return new FastaStrandedSequenceService(dataResolver.genomeAssemblyReportPath(),
+                        dataResolver.genomeFastaPath(),
+                        dataResolver.genomeFastaFaiPath(),
+                        dataResolver.genomeFastaDictPath());
+            case "mmap":
+                return new MemoryMappedFastaStrandedSequenceService(dataResolver.genomeAssemblyReportPath(),
+                        dataResolver.genomeFastaPath(),
+                        dataResolver.genomeFastaFaiPath(),
+                        dataResolver.genomeFastaDictPath());
+            case "packed":
+                if (!Files.isRegularFile(dataResolver.genomePackedPath()))
+                    throw new MissingSquirlsResourceException(String.format("The file `%s` is missing in SQUIRLS directory", dataResolver.genomePackedPath().toFile().getName()));
+                return new PackedGenomeStrandedSequenceService(dataResolver.genomeAssemblyReportPath(), dataResolver.genomePackedPath());
+            default:
+                throw new SquirlsResourceException(String.format("invalid 'squirls.reference.sequence-reader' property value: `%s`", sequenceReader));
+        }
+    }
+
+    private static ConservationTrack configurePhylopTrack(SquirlsProperties properties,
+                                                          SquirlsDataResolver dataResolver) throws IOException, SquirlsResourceException {
+        String conservationReader = properties.getAnnotator().getConservationReader();
+        if (LOGGER.isDebugEnabled()) LOGGER.debug("Using `{}` phyloP conservation reader", conservationReader);
+        switch (conservationReader) {
+            case "bigwig":
+                return new BigWigAccessor(dataResolver.phylopPath());
+            case "dense":
+                if (!Files.isRegularFile(dataResolver.phylopTrackPath()))
+                    throw new MissingSquirlsResourceException(String.format("The file `%s` is missing in SQUIRLS directory", dataResolver.phylopTrackPath().toFile().getName()));
+                return DenseConservationTrack.open(dataResolver.phylopTrackPath());
+            default:
+                throw new SquirlsResourceException(String.format("invalid 'squirls.annotator.conservation-reader' property value: `%s`", conservationReader));
+        }
+    }
+
+    private static SequenceFetchMode configureSequenceFetchMode(SquirlsProperties properties) throws SquirlsResourceException {
+        String sequenceFetchMode = properties.getAnnotator().getSequenceFetchMode();
+        if (LOGGER.isDebugEnabled()) LOGGER.debug("Using `{}` sequence fetch mode", sequenceFetchMode);
+        switch (sequenceFetchMode) {
+            case "transcript-span":
+                return SequenceFetchMode.TRANSCRIPT_SPAN;
+            case "neighborhood":
+                return SequenceFetchMode.NEIGHBORHOOD;
+            default:
+                throw new SquirlsResourceException(String.format("invalid 'squirls.annotator.sequence-fetch-mode' property value: `%s`", sequenceFetchMode));
+        }
+    }
+
+    private static PrecomputedScoreSource configurePrecomputedScoreSource(SquirlsProperties properties) throws SquirlsResourceException {
+        String scoresPath = properties.getPrecomputed().getScoresPath();
+        if (scoresPath == null || scoresPath.isBlank())
+            return PrecomputedScoreSource.empty();
+
+        Path path = Path.of(scoresPath);
+        if (!Files.isRegularFile(path))
+            throw new MissingSquirlsResourceException(String.format("Precomputed scores file `%s` does not exist", path.toAbsolutePath()));
+        LOGGER.debug("Using precomputed scores from `{}`", path.toAbsolutePath());
+        return PrecomputedScoreSources.open(path);
     }
 
     private static TranscriptModelService configureTranscriptModelService(SquirlsOptions options,
@@ -239,7 +349,7 @@ public class SquirlsConfigurationFactory {
 
     private static SplicingAnnotator configureSplicingAnnotator(SquirlsProperties properties,
                                                                 DataSource squirlsDatasource,
-                                                                BigWigAccessor phylopBigwigAccessor) throws SquirlsResourceException {
+                                                                ConservationTrack phylopTrack) throws SquirlsResourceException {
         SplicingPwmData splicingPwmData = new DbSplicingPositionalWeightMatrixParser(squirlsDatasource).getSplicingPwmData();
         DbKMerDao dbKMerDao = new DbKMerDao(squirlsDatasource);
         AnnotatorProperties annotatorProperties = properties.getAnnotator();
@@ -247,9 +357,9 @@ public class SquirlsConfigurationFactory {
         if (LOGGER.isDebugEnabled()) LOGGER.debug("Using `{}` splicing annotator", version);
         switch (version) {
             case "dense":
-                return new DenseSplicingAnnotator(splicingPwmData, dbKMerDao.getHexamerMap(), dbKMerDao.getSeptamerMap(), phylopBigwigAccessor);
+                return new DenseSplicingAnnotator(splicingPwmData, dbKMerDao.getHexamerMap(), dbKMerDao.getSeptamerMap(), phylopTrack);
             case "agez":
-                return new AGEZSplicingAnnotator(splicingPwmData, dbKMerDao.getHexamerMap(), dbKMerDao.getSeptamerMap(), phylopBigwigAccessor);
+                return new AGEZSplicingAnnotator(splicingPwmData, dbKMerDao.getHexamerMap(), dbKMerDao.getSeptamerMap(), phylopTrack);
             default:
                 throw new SquirlsResourceException(String.format("invalid 'squirls.annotator.version' property value: `%s`", version));
         }
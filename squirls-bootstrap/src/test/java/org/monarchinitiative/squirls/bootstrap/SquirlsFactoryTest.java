@@ -80,6 +80,8 @@ import org.junit.jupiter.api.Test;
 import org.monarchinitiative.squirls.core.Squirls;
 import org.monarchinitiative.squirls.core.config.FeatureSource;
 import org.monarchinitiative.squirls.core.config.SquirlsOptions;
+import org.monarchinitiative.squirls.initialize.MissingSquirlsResourceException;
+import org.monarchinitiative.squirls.io.SquirlsResourceException;
 
 import java.nio.file.Path;
 
@@ -114,6 +116,100 @@ public class SquirlsFactoryTest {
         assertThat(configuration.splicingAnnotator(), is(notNullValue()));
         assertThat(configuration.squirlsClassifier(), is(notNullValue()));
         assertThat(configuration.variantSplicingEvaluator(), is(notNullValue()));
+        assertThat(configuration.asyncVariantSplicingEvaluator(), is(notNullValue()));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void getConfiguration_memoryMappedReference() throws Exception {
+        SimpleReferenceProperties referenceProperties = new SimpleReferenceProperties();
+        referenceProperties.setSequenceReader("mmap");
+        SimpleSquirlsProperties properties = SimpleSquirlsProperties.builder()
+                .referenceProperties(referenceProperties)
+                .build();
+        SquirlsConfigurationFactory factory = SquirlsConfigurationFactory.of(RESOURCES_PATH, properties, OPTIONS);
+        Squirls configuration = factory.getSquirls();
+
+        assertThat(configuration.squirlsDataService(), is(notNullValue()));
+        assertThat(configuration.squirlsDataService().genomicAssembly().name(), equalTo("GRCh37.p13"));
+    }
+
+    @Test
+    public void getConfiguration_missingPackedGenome() throws Exception {
+        SimpleReferenceProperties referenceProperties = new SimpleReferenceProperties();
+        referenceProperties.setSequenceReader("packed");
+        SimpleSquirlsProperties properties = SimpleSquirlsProperties.builder()
+                .referenceProperties(referenceProperties)
+                .build();
+        SquirlsConfigurationFactory factory = SquirlsConfigurationFactory.of(RESOURCES_PATH, properties, OPTIONS);
+
+        MissingSquirlsResourceException e = assertThrows(MissingSquirlsResourceException.class, factory::getSquirls);
+        assertThat(e.getMessage(), equalTo("The file `genome.packed` is missing in SQUIRLS directory"));
+    }
+
+    @Test
+    public void getConfiguration_missingConservationTrack() throws Exception {
+        SimpleAnnotatorProperties annotatorProperties = new SimpleAnnotatorProperties();
+        annotatorProperties.setConservationReader("dense");
+        SimpleSquirlsProperties properties = SimpleSquirlsProperties.builder()
+                .annotatorProperties(annotatorProperties)
+                .build();
+        SquirlsConfigurationFactory factory = SquirlsConfigurationFactory.of(RESOURCES_PATH, properties, OPTIONS);
+
+        MissingSquirlsResourceException e = assertThrows(MissingSquirlsResourceException.class, factory::getSquirls);
+        assertThat(e.getMessage(), equalTo("The file `phylop.track` is missing in SQUIRLS directory"));
+    }
+
+    @Test
+    public void getConfiguration_invalidSequenceFetchMode() throws Exception {
+        SimpleAnnotatorProperties annotatorProperties = new SimpleAnnotatorProperties();
+        annotatorProperties.setSequenceFetchMode("non-existing");
+        SimpleSquirlsProperties properties = SimpleSquirlsProperties.builder()
+                .annotatorProperties(annotatorProperties)
+                .build();
+        SquirlsConfigurationFactory factory = SquirlsConfigurationFactory.of(RESOURCES_PATH, properties, OPTIONS);
+
+        SquirlsResourceException e = assertThrows(SquirlsResourceException.class, factory::getSquirls);
+        assertThat(e.getMessage(), equalTo("invalid 'squirls.annotator.sequence-fetch-mode' property value: `non-existing`"));
+    }
+
+    @Test
+    public void getConfiguration_missingPrecomputedScores() throws Exception {
+        SimplePrecomputedProperties precomputedProperties = new SimplePrecomputedProperties();
+        precomputedProperties.setScoresPath(RESOURCES_PATH.resolve("scores.vcf.gz").toString());
+        SimpleSquirlsProperties properties = SimpleSquirlsProperties.builder()
+                .precomputedProperties(precomputedProperties)
+                .build();
+        SquirlsConfigurationFactory factory = SquirlsConfigurationFactory.of(RESOURCES_PATH, properties, OPTIONS);
+
+        MissingSquirlsResourceException e = assertThrows(MissingSquirlsResourceException.class, factory::getSquirls);
+        assertThat(e.getMessage(), containsString("scores.vcf.gz` does not exist"));
+    }
+
+    @Test
+    public void getConfiguration_fixedExecutor() throws Exception {
+        SimpleAsyncProperties asyncProperties = new SimpleAsyncProperties();
+        asyncProperties.setExecutor("fixed");
+        asyncProperties.setThreads(2);
+        SimpleSquirlsProperties properties = SimpleSquirlsProperties.builder()
+                .asyncProperties(asyncProperties)
+                .build();
+        SquirlsConfigurationFactory factory = SquirlsConfigurationFactory.of(RESOURCES_PATH, properties, OPTIONS);
+        Squirls configuration = factory.getSquirls();
+
+        assertThat(configuration.asyncVariantSplicingEvaluator(), is(notNullValue()));
+    }
+
+    @Test
+    public void getConfiguration_invalidExecutor() throws Exception {
+        SimpleAsyncProperties asyncProperties = new SimpleAsyncProperties();
+        asyncProperties.setExecutor("non-existing");
+        SimpleSquirlsProperties properties = SimpleSquirlsProperties.builder()
+                .asyncProperties(asyncProperties)
+                .build();
+        SquirlsConfigurationFactory factory = SquirlsConfigurationFactory.of(RESOURCES_PATH, properties, OPTIONS);
+
+        SquirlsResourceException e = assertThrows(SquirlsResourceException.class, factory::getSquirls);
+        assertThat(e.getMessage(), equalTo("invalid 'squirls.async.executor' property value: `non-existing`"));
+    }
+
+}
@@ -79,7 +79,9 @@ package org.monarchinitiative.squirls.cli;
 import org.monarchinitiative.squirls.cli.cmd.annotate_csv.AnnotateCsvCommand;
 import org.monarchinitiative.squirls.cli.cmd.annotate_pos.AnnotatePosCommand;
 import org.monarchinitiative.squirls.cli.cmd.annotate_vcf.AnnotateVcfCommand;
+import org.monarchinitiative.squirls.cli.cmd.precalculate.MergeCommand;
 import org.monarchinitiative.squirls.cli.cmd.precalculate.PrecalculateCommand;
+import org.monarchinitiative.squirls.cli.cmd.serve.ServeCommand;
 import picocli.CommandLine;
 import picocli.CommandLine.Help.ColorScheme.Builder;
 
@@ -120,7 +122,9 @@ public class Main implements Callable<Integer> {
                 .addSubcommand("annotate-pos", new AnnotatePosCommand())
                 .addSubcommand("annotate-csv", new AnnotateCsvCommand())
                 .addSubcommand("annotate-vcf", new AnnotateVcfCommand())
-                .addSubcommand("precalculate", new PrecalculateCommand());
+                .addSubcommand("precalculate", new PrecalculateCommand())
+                .addSubcommand("merge", new MergeCommand())
+                .addSubcommand("serve", new ServeCommand());
         System.exit(cline.execute(args));
     }
 
@@ -77,6 +77,10 @@
 package org.monarchinitiative.squirls.cli.cmd;
 
 import org.monarchinitiative.squirls.cli.writers.*;
+import org.monarchinitiative.squirls.core.PrecomputedScoreSource;
+import org.monarchinitiative.squirls.core.Squirls;
+import org.monarchinitiative.squirls.io.SquirlsResourceException;
+import org.springframework.context.ConfigurableApplicationContext;
 import picocli.CommandLine;
 
 import java.io.File;
@@ -84,12 +88,22 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
 
 /**
  * @author Daniel Danis
  */
 public abstract class AnnotatingSquirlsCommand extends SquirlsCommand {
 
+    /**
+     * Number of chunks that can be submitted for annotation per worker thread before the reader waits for the consumer.
+     */
+    private static final int PENDING_CHUNKS_PER_THREAD = 4;
+
     @CommandLine.Option(names = {"--all-transcripts"},
             description = "Report Squirls predictions for all overlapping transcripts (default: ${DEFAULT-VALUE})")
     public boolean reportAllTranscripts = false;
@@ -138,6 +152,85 @@ public abstract class AnnotatingSquirlsCommand extends SquirlsCommand {
         return formats;
     }
 
+    /**
+     * @return <code>true</code> if the selected outputs need the feature values, i.e. the HTML report graphics or the
+     * reported features
+     */
+    protected boolean featuresRequired() {
+        return reportFeatures || parseOutputFormats(outputFormats).contains(OutputFormat.HTML);
+    }
+
+    /**
+     * Get Squirls that ignores the precomputed scores if the selected outputs need the feature values.
+     */
+    @Override
+    protected Squirls getSquirls(ConfigurableApplicationContext context) throws SquirlsResourceException {
+        if (featuresRequired()) {
+            if (context.getBean(PrecomputedScoreSource.class) != PrecomputedScoreSource.empty())
+                LOGGER.info("Not using the precomputed scores since the selected outputs require the feature values");
+            return getSquirls(context, false);
+        }
+        return super.getSquirls(context);
+    }
+
+    /**
+     * Prepare <code>ForkJoinPool</code> for variant annotation.
+     *
+     * @param parallelism number of threads to use for variant annotation
+     * @return the pool
+     */
+    protected static ForkJoinPool makePool(int parallelism) {
+        return new ForkJoinPool(parallelism, SquirlsWorkerThread::new, null, false);
+    }
+
+    /**
+     * Group the consecutive <code>items</code> into chunks, annotate the chunks on {@link #nThreads} worker threads,
+     * and pass the annotated alleles to the <code>consumer</code> on the calling thread, in the input order. At most
+     * {@link #PENDING_CHUNKS_PER_THREAD} chunks per thread are read ahead of the consumer.
+     *
+     * @param items         items to annotate, read on the calling thread
+     * @param chunkBoundary returns <code>true</code> if the item must not be added to the current non-empty chunk
+     * @param annotateChunk annotates a chunk on a worker thread
+     * @param consumer      receives the annotated alleles of each chunk
+     * @return <code>true</code> if all items were annotated
+     * @throws IOException if the consumer cannot write the results
+     */
+    protected <T> boolean annotateChunks(Iterator<T> items,
+                                         BiPredicate<List<T>, T> chunkBoundary,
+                                         Function<List<T>, List<WritableSplicingAllele>> annotateChunk,
+                                         ChunkConsumer consumer) throws IOException {
+        int capacity = nThreads * PENDING_CHUNKS_PER_THREAD;
+        Deque<Future<List<WritableSplicingAllele>>> pending = new ArrayDeque<>(capacity);
+        ForkJoinPool pool = makePool(nThreads);
+        try {
+            List<T> chunk = new ArrayList<>();
+            while (true) {
+                T item = items.hasNext() ? items.next() : null;
+                boolean flush = !chunk.isEmpty() && (item == null || chunkBoundary.test(chunk, item));
+                if (flush) {
+                    if (pending.size() == capacity)
+                        consumer.accept(pending.removeFirst().get());
+                    List<T> submitted = chunk;
+                    pending.addLast(pool.submit(() -> annotateChunk.apply(submitted)));
+                    chunk = new ArrayList<>();
+                }
+                if (item == null)
+                    break;
+
+                chunk.add(item);
+            }
+
+            while (!pending.isEmpty())
+                consumer.accept(pending.removeFirst().get());
+        } catch (InterruptedException | ExecutionException e) {
+            LOGGER.error("Error: ", e);
+            return false;
+        } finally {
+            pool.shutdownNow();
+        }
+        return true;
+    }
+
     protected OutputOptions prepareOutputOptions(String prefix) throws IOException {
         if (prefix.contains(File.separator)) {
             // +1 to exclude the separator
@@ -161,4 +254,11 @@ public abstract class AnnotatingSquirlsCommand extends SquirlsCommand {
                 .build();
     }
 
+    /**
+     * Receives the annotated alleles of a chunk.
+     */
+    @FunctionalInterface
+    public interface ChunkConsumer {
+        void accept(List<WritableSplicingAllele> alleles) throws IOException;
+    }
 }
@@ -79,25 +79,27 @@ package org.monarchinitiative.squirls.cli.cmd;
 import de.charite.compbio.jannovar.data.JannovarData;
 import de.charite.compbio.jannovar.data.JannovarDataSerializer;
 import de.charite.compbio.jannovar.data.SerializationException;
-import org.monarchinitiative.sgenes.jannovar.JannovarParser;
-import org.monarchinitiative.sgenes.model.Gene;
 import org.monarchinitiative.squirls.cli.visualization.SplicingVariantGraphicsGenerator;
 import org.monarchinitiative.squirls.cli.visualization.panel.PanelGraphicsGenerator;
 import org.monarchinitiative.squirls.cli.visualization.selector.SimpleVisualizationContextSelector;
 import org.monarchinitiative.squirls.cli.visualization.selector.VisualizationContextSelector;
 import org.monarchinitiative.squirls.cli.writers.AnalysisResultsWriter;
 import org.monarchinitiative.squirls.cli.writers.AnalysisResultsWriterDefault;
+import org.monarchinitiative.squirls.core.AsyncVariantSplicingEvaluator;
+import org.monarchinitiative.squirls.core.PrecomputedScoreSource;
 import org.monarchinitiative.squirls.core.Prediction;
 import org.monarchinitiative.squirls.core.Squirls;
 import org.monarchinitiative.squirls.core.SquirlsDataService;
 import org.monarchinitiative.squirls.core.VariantSplicingEvaluator;
 import org.monarchinitiative.squirls.core.classifier.SquirlsClassifier;
 import org.monarchinitiative.squirls.core.config.FeatureSource;
+import org.monarchinitiative.squirls.core.config.SequenceFetchMode;
 import org.monarchinitiative.squirls.core.reference.SplicingPwmData;
 import org.monarchinitiative.squirls.core.reference.StrandedSequenceService;
 import org.monarchinitiative.squirls.core.reference.TranscriptModelService;
 import org.monarchinitiative.squirls.core.scoring.SplicingAnnotator;
 import org.monarchinitiative.squirls.initialize.SquirlsDataResolver;
+import org.monarchinitiative.squirls.initialize.SquirlsProperties;
 import org.monarchinitiative.squirls.io.SquirlsResourceException;
 import org.monarchinitiative.vmvt.core.VmvtGenerator;
 import org.slf4j.Logger;
@@ -111,10 +113,10 @@ import picocli.CommandLine;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
-import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 /**
@@ -175,22 +177,46 @@ public abstract class SquirlsCommand implements Callable<Integer> {
     }
 
     protected Squirls getSquirls(ConfigurableApplicationContext context) throws SquirlsResourceException {
-        StrandedSequenceService strandedSequenceService = context.getBean(StrandedSequenceService.class);
-        JannovarData jannovarData = context.getBean(JannovarData.class);
+        return getSquirls(context, true);
+    }
 
-        JannovarParser parser = JannovarParser.of(jannovarData, strandedSequenceService.genomicAssembly());
-        List<Gene> genes = parser.stream()
-                .collect(Collectors.toUnmodifiableList());
-        TranscriptModelService transcriptService = TranscriptModelService.of(genes);
-        SquirlsDataService squirlsDataService = SquirlsDataService.of(strandedSequenceService, transcriptService);
+    /**
+     * @param usePrecomputed use the precomputed scores, if configured. The precomputed results carry neither the feature
+     *                       values nor, in some files, the transcript accessions, hence use <code>false</code> if these
+     *                       are required
+     */
+    protected Squirls getSquirls(ConfigurableApplicationContext context, boolean usePrecomputed) throws SquirlsResourceException {
+        StrandedSequenceService strandedSequenceService = context.getBean(StrandedSequenceService.class);
+        TranscriptModelService transcriptService = context.getBean(TranscriptStore.class);
+        SquirlsProperties squirlsProperties = context.getBean(SquirlsProperties.class);
+        long sequenceCacheSize = squirlsProperties.getReference().getSequenceCacheSize();
+        SquirlsDataService squirlsDataService = SquirlsDataService.of(strandedSequenceService, transcriptService, sequenceCacheSize);
 
         SplicingAnnotator splicingAnnotator = context.getBean(SplicingAnnotator.class);
         SquirlsClassifier squirlsClassifier = context.getBean(SquirlsClassifier.class);
 
         VariantSplicingEvaluator evaluator = VariantSplicingEvaluator.of(squirlsDataService,
                 splicingAnnotator,
-                squirlsClassifier);
-        return Squirls.of(squirlsDataService, splicingAnnotator, squirlsClassifier, evaluator);
+                squirlsClassifier,
+                context.getBean(SequenceFetchMode.class));
+        if (usePrecomputed)
+            evaluator = withPrecomputedScores(context, evaluator);
+        AsyncVariantSplicingEvaluator asyncEvaluator = AsyncVariantSplicingEvaluator.of(evaluator,
+                context.getBean("squirlsEvaluationExecutor", Executor.class),
+                squirlsProperties.getAsync().getTimeout());
+        return Squirls.of(squirlsDataService, splicingAnnotator, squirlsClassifier, evaluator, asyncEvaluator);
+    }
+
+    /**
+     * @return evaluator that returns the precomputed scores and evaluates the other variants by the <code>evaluator</code>,
+     * or the <code>evaluator</code> if no precomputed scores are configured
+     */
+    protected static VariantSplicingEvaluator withPrecomputedScores(ConfigurableApplicationContext context,
+                                                                    VariantSplicingEvaluator evaluator) {
+        PrecomputedScoreSource precomputedScoreSource = context.getBean(PrecomputedScoreSource.class);
+        return precomputedScoreSource == PrecomputedScoreSource.empty()
+                ? evaluator
+                : VariantSplicingEvaluator.precomputed(precomputedScoreSource, evaluator);
     }
 
     protected SplicingVariantGraphicsGenerator splicingVariantGraphicsGenerator(VmvtGenerator vmvtGenerator,
@@ -214,8 +240,12 @@ public abstract class SquirlsCommand implements Callable<Integer> {
         return new VmvtGenerator();
     }
 
+    /**
+     * Load the Jannovar transcripts once to serve both the functional annotation and the Squirls transcript models.
+     */
     @Bean
-    public JannovarData jannovarData(SquirlsDataResolver squirlsDataResolver) throws SerializationException {
+    public TranscriptStore transcriptStore(SquirlsDataResolver squirlsDataResolver,
+                                           StrandedSequenceService strandedSequenceService) throws SerializationException {
         Path transcriptSerPath;
         switch (FS) {
             case REFSEQ:
@@ -232,7 +262,8 @@ public abstract class SquirlsCommand implements Callable<Integer> {
                 transcriptSerPath = squirlsDataResolver.refseqSerPath();
                 break;
         }
-        return new JannovarDataSerializer(transcriptSerPath.toAbsolutePath().toString()).load();
+        JannovarData jannovarData = new JannovarDataSerializer(transcriptSerPath.toAbsolutePath().toString()).load();
+        return TranscriptStore.of(jannovarData, strandedSequenceService.genomicAssembly());
     }
 
     @Bean
@@ -0,0 +1,283 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2020
+ */
+
+package org.monarchinitiative.squirls.cli.cmd;
+
+import com.google.common.collect.ImmutableList;
+import de.charite.compbio.jannovar.annotation.VariantAnnotator;
+import de.charite.compbio.jannovar.annotation.builders.AnnotationBuilderOptions;
+import de.charite.compbio.jannovar.data.JannovarData;
+import de.charite.compbio.jannovar.data.ReferenceDictionary;
+import de.charite.compbio.jannovar.reference.GenomeInterval;
+import de.charite.compbio.jannovar.reference.TranscriptModel;
+import org.monarchinitiative.sgenes.jannovar.JannovarParser;
+import org.monarchinitiative.sgenes.model.Gene;
+import org.monarchinitiative.sgenes.model.Transcript;
+import org.monarchinitiative.squirls.core.reference.TranscriptModelService;
+import org.monarchinitiative.squirls.core.reference.jannovar.IntervalArray;
+import org.monarchinitiative.squirls.core.reference.jannovar.IntervalEndExtractor;
+import org.monarchinitiative.svart.Contig;
+import org.monarchinitiative.svart.CoordinateSystem;
+import org.monarchinitiative.svart.GenomicRegion;
+import org.monarchinitiative.svart.Strand;
+import org.monarchinitiative.svart.assembly.GenomicAssembly;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Transcript store backed by a single {@link JannovarData} instance that serves both the functional annotation
+ * and the {@link TranscriptModelService}.
+ * <p>
+ * Instead of converting all Jannovar transcripts into {@link Gene}s upfront, the store indexes the span of each gene
+ * and converts the transcripts of a gene when the gene is first queried. The converted genes are retained,
+ * hence the repeated queries return the same instances.
+ */
+public class TranscriptStore implements TranscriptModelService {
+
+    private final JannovarData jannovarData;
+
+    private final GenomicAssembly assembly;
+
+    private final VariantAnnotator variantAnnotator;
+
+    /**
+     * Gene spans indexed by contig ID.
+     */
+    private final Map<Integer, IntervalArray<GeneSpan>> spansByContig;
+
+    private final Map<String, List<Gene>> genesBySymbol = new ConcurrentHashMap<>();
+
+    private TranscriptStore(JannovarData jannovarData, GenomicAssembly assembly) {
+        this.jannovarData = jannovarData;
+        this.assembly = assembly;
+        this.variantAnnotator = new VariantAnnotator(jannovarData.getRefDict(), jannovarData.getChromosomes(), new AnnotationBuilderOptions());
+        this.spansByContig = indexGeneSpans(jannovarData, assembly);
+    }
+
+    public static TranscriptStore of(JannovarData jannovarData, GenomicAssembly assembly) {
+        Objects.requireNonNull(jannovarData, "Jannovar data must not be null");
+        Objects.requireNonNull(assembly, "Assembly must not be null");
+        return new TranscriptStore(jannovarData, assembly);
+    }
+
+    /**
+     * Index the span of the transcripts of each gene symbol on each contig. The span is the union of the spans of
+     * the genes, hence the index yields a superset of the overlapping genes.
+     */
+    private static Map<Integer, IntervalArray<GeneSpan>> indexGeneSpans(JannovarData jannovarData, GenomicAssembly assembly) {
+        ReferenceDictionary rd = jannovarData.getRefDict();
+        Map<Integer, List<GeneSpan>> spansByContig = new HashMap<>();
+        for (Map.Entry<String, Collection<TranscriptModel>> entry : jannovarData.getTmByGeneSymbol().asMap().entrySet()) {
+            Map<Integer, GeneSpan> spans = new HashMap<>(2);
+            for (TranscriptModel tm : entry.getValue()) {
+                GenomeInterval txRegion = tm.getTXRegion().withStrand(de.charite.compbio.jannovar.reference.Strand.FWD);
+                Contig contig = assembly.contigByName(rd.getContigIDToName().get(txRegion.getChr()));
+                if (contig.isUnknown())
+                    continue;
+
+                GeneSpan span = spans.get(contig.id());
+                spans.put(contig.id(), span == null
+                        ? new GeneSpan(entry.getKey(), txRegion.getBeginPos(), txRegion.getEndPos())
+                        : new GeneSpan(entry.getKey(), Math.min(span.begin, txRegion.getBeginPos()), Math.max(span.end, txRegion.getEndPos())));
+            }
+            for (Map.Entry<Integer, GeneSpan> span : spans.entrySet()) {
+                spansByContig.computeIfAbsent(span.getKey(), k -> new ArrayList<>()).add(span.getValue());
+            }
+        }
+
+        Map<Integer, IntervalArray<GeneSpan>> arrays = new HashMap<>(spansByContig.size());
+        for (Map.Entry<Integer, List<GeneSpan>> entry : spansByContig.entrySet()) {
+            arrays.put(entry.getKey(), new IntervalArray<>(entry.getValue(), GeneSpanEndExtractor.INSTANCE));
+        }
+        return Collections.unmodifiableMap(arrays);
+    }
+
+    public JannovarData jannovarData() {
+        return jannovarData;
+    }
+
+    public ReferenceDictionary referenceDictionary() {
+        return jannovarData.getRefDict();
+    }
+
+    /**
+     * @return Jannovar's variant annotator. The annotator is thread-safe and shared by all callers
+     */
+    public VariantAnnotator variantAnnotator() {
+        return variantAnnotator;
+    }
+
+    @Override
+    public Stream<? extends Gene> genes() {
+        // do not retain the genes that have not been queried yet, the stream usually visits all genes
+        return jannovarData.getTmByGeneSymbol().keySet().stream()
+                .flatMap(symbol -> {
+                    List<Gene> genes = genesBySymbol.get(symbol);
+                    return genes == null
+                            ? parseGenes(symbol).stream()
+                            : genes.stream();
+                });
+    }
+
+    @Override
+    public List<Gene> overlappingGenes(GenomicRegion query) {
+        IntervalArray<GeneSpan> intervalArray = spansByContig.get(query.contigId());
+        if (intervalArray == null)
+            return List.of();
+
+        int start = query.startOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased());
+        int end = query.endOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased());
+        List<GeneSpan> spans = intervalArray.findOverlappingWithInterval(start, end).getEntries();
+        if (spans.isEmpty())
+            return List.of();
+
+        List<Gene> genes = new ArrayList<>(spans.size());
+        for (GeneSpan span : spans) {
+            for (Gene gene : genesForSymbol(span.symbol)) {
+                // the same overlap test as in the interval array
+                if (gene.contigId() == query.contigId()
+                        && start < gene.endOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased())
+                        && gene.startOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased()) < end)
+                    genes.add(gene);
+            }
+        }
+        genes.sort(Comparator.comparingInt(g -> g.startOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased())));
+        return Collections.unmodifiableList(genes);
+    }
+
+    @Override
+    public Optional<Transcript> transcriptByAccession(String txAccession) {
+        TranscriptModel tm = jannovarData.getTmByAccession().get(txAccession);
+        if (tm == null)
+            return Optional.empty();
+
+        for (Gene gene : genesForSymbol(tm.getGeneSymbol())) {
+            Optional<? extends Transcript> tx = gene.transcriptStream()
+                    .filter(t -> t.accession().equals(txAccession))
+                    .findFirst();
+            if (tx.isPresent())
+                return Optional.of(tx.get());
+        }
+        return Optional.empty();
+    }
+
+    private List<Gene> genesForSymbol(String symbol) {
+        return genesBySymbol.computeIfAbsent(symbol, this::parseGenes);
+    }
+
+    /**
+     * Convert the transcripts of the gene <code>symbol</code> in the same way as when converting the complete
+     * {@link JannovarData}.
+     */
+    private List<Gene> parseGenes(String symbol) {
+        ImmutableList<TranscriptModel> tms = ImmutableList.copyOf(jannovarData.getTmByGeneSymbol().get(symbol));
+        if (tms.isEmpty())
+            return List.of();
+
+        JannovarData geneData = new JannovarData(jannovarData.getRefDict(), tms);
+        return JannovarParser.of(geneData, assembly).stream()
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    private static class GeneSpan {
+        private final String symbol;
+        private final int begin, end;
+
+        private GeneSpan(String symbol, int begin, int end) {
+            this.symbol = symbol;
+            this.begin = begin;
+            this.end = end;
+        }
+    }
+
+    private static class GeneSpanEndExtractor implements IntervalEndExtractor<GeneSpan> {
+
+        private static final GeneSpanEndExtractor INSTANCE = new GeneSpanEndExtractor();
+
+        @Override
+        public int getBegin(GeneSpan span) {
+            return span.begin;
+        }
+
+        @Override
+        public int getEnd(GeneSpan span) {
+            return span.end;
+        }
+    }
+}
@@ -79,8 +79,6 @@ package org.monarchinitiative.squirls.cli.cmd.annotate_csv;
 import de.charite.compbio.jannovar.annotation.AnnotationException;
 import de.charite.compbio.jannovar.annotation.VariantAnnotations;
 import de.charite.compbio.jannovar.annotation.VariantAnnotator;
-import de.charite.compbio.jannovar.annotation.builders.AnnotationBuilderOptions;
-import de.charite.compbio.jannovar.data.JannovarData;
 import de.charite.compbio.jannovar.data.ReferenceDictionary;
 import de.charite.compbio.jannovar.reference.GenomePosition;
 import de.charite.compbio.jannovar.reference.GenomeVariant;
@@ -90,6 +88,8 @@ import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 import org.monarchinitiative.squirls.cli.Main;
 import org.monarchinitiative.squirls.cli.cmd.AnnotatingSquirlsCommand;
+import org.monarchinitiative.squirls.cli.cmd.ProgressReporter;
+import org.monarchinitiative.squirls.cli.cmd.TranscriptStore;
 import org.monarchinitiative.squirls.cli.visualization.selector.VisualizationContextSelector;
 import org.monarchinitiative.squirls.cli.writers.*;
 import org.monarchinitiative.squirls.core.*;
@@ -106,8 +106,11 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.StreamSupport;
 
 /**
  * @author Daniel Danis
@@ -127,6 +130,11 @@ public class AnnotateCsvCommand extends AnnotatingSquirlsCommand {
 
     private static final List<String> EXPECTED_HEADER = List.of("CHROM", "POS", "REF", "ALT");
 
+    /**
+     * Number of consecutive CSV records annotated as a batch by a worker thread.
+     */
+    private static final int VARIANTS_PER_CHUNK = 64;
+
     private static boolean NOTIFIED_ABOUT_MISSING_VARIANT_ID = false;
 
     @CommandLine.Parameters(index = "0",
@@ -138,6 +146,11 @@ public class AnnotateCsvCommand extends AnnotatingSquirlsCommand {
             description = "Prefix for the output files")
     public String outputPrefix;
 
+    @CommandLine.Option(names = {"--stream"},
+            description = {"Write the VCF and tabular results incrementally, in the input order, using a bounded amount of memory (default: ${DEFAULT-VALUE}).",
+                    "The tabular output includes all alleles, the HTML report includes --n-variants-to-report most pathogenic alleles"})
+    public boolean stream = false;
+
     private static GenomicVariant parseCsvRecord(GenomicAssembly assembly, CSVRecord record) throws SquirlsException {
         // parse contig
         String chrom = record.get("CHROM");
@@ -191,18 +204,55 @@ public class AnnotateCsvCommand extends AnnotatingSquirlsCommand {
         return annotator.buildAnnotations(gv);
     }
 
+    /**
+     * Annotate a chunk of consecutive variants with Jannovar and Squirls. The chunk is evaluated as a batch to share
+     * the work among the neighboring variants.
+     *
+     * @return annotated alleles in the order of the input variants. The variants that cannot be annotated by Jannovar
+     * are dropped
+     */
+    private static List<WritableSplicingAllele> annotateChunk(VariantSplicingEvaluator evaluator,
+                                                              VariantAnnotator annotator,
+                                                              ReferenceDictionary rd,
+                                                              List<CsvVariant> chunk) {
+        List<GenomicVariant> variants = new ArrayList<>(chunk.size());
+        List<VariantAnnotations> variantAnnotations = new ArrayList<>(chunk.size());
+        for (CsvVariant csvVariant : chunk) {
+            try {
+                variantAnnotations.add(annotateWithJannovar(annotator, rd, csvVariant.variant));
+                variants.add(csvVariant.variant);
+            } catch (AnnotationException | RuntimeException e) {
+                if (LOGGER.isWarnEnabled())
+                    LOGGER.warn("line #{}: {}", csvVariant.recordNumber, e.getMessage());
+            }
+        }
+
+        List<SquirlsResult> squirlsResults = evaluator.evaluateAll(variants);
+        List<WritableSplicingAllele> annotated = new ArrayList<>(variants.size());
+        for (int i = 0; i < variants.size(); i++)
+            annotated.add(WritableSplicingAlleleDefault.of(variants.get(i), variantAnnotations.get(i), squirlsResults.get(i)));
+        return annotated;
+    }
+
     @Override
     public Integer call() {
+        if (nThreads < 1) {
+            LOGGER.error("Thread number must be positive: {}", nThreads);
+            return 1;
+        }
+
+        if (nVariantsToReport <= 0) {
+            LOGGER.error("Number of variants to report must be positive: {}", nVariantsToReport);
+            return 1;
+        }
+
         LOGGER.info("Reading variants from `{}`", inputPath.toAbsolutePath());
 
         try (ConfigurableApplicationContext context = getContext()) {
             Squirls squirls = getSquirls(context);
             SquirlsDataService squirlsDataService = squirls.squirlsDataService();
-            GenomicAssembly assembly = squirlsDataService.genomicAssembly();
 
-            JannovarData jd = context.getBean(JannovarData.class);
-            ReferenceDictionary rd = jd.getRefDict();
-            VariantAnnotator annotator = new VariantAnnotator(jd.getRefDict(), jd.getChromosomes(), new AnnotationBuilderOptions());
+            TranscriptStore transcriptStore = context.getBean(TranscriptStore.class);
 
             // ensure the fail-fast behavior at the cost of being retrieved far from the usage
             AnalysisResultsWriter analysisResultsWriter = analysisResultsWriter(splicingVariantGraphicsGenerator(context.getBean(VmvtGenerator.class),
@@ -210,68 +260,137 @@ public class AnnotateCsvCommand extends AnnotatingSquirlsCommand {
                     context.getBean(VisualizationContextSelector.class),
                     squirlsDataService));
 
-            int allVariants = 0;
-            int annotatedAlleleCount = 0;
-            List<WritableSplicingAllele> annotated = new LinkedList<>();
-            try (CSVParser parser = CSVFormat.DEFAULT.withFirstRecordAsHeader()
-                    .parse(Files.newBufferedReader(inputPath))) {
-
-                // check
-                if (!parser.getHeaderNames().containsAll(EXPECTED_HEADER)) {
-                    LOGGER.warn("The input file header does not contain the required columns");
-                    return 1;
-                }
-
-                // iterate through rows of the tabular file
-                for (CSVRecord record : parser) {
-                    allVariants++;
-
-                    GenomicVariant variant;
-                    try {
-                        variant = parseCsvRecord(assembly, record);
-                    } catch (SquirlsException e) {
-                        if (LOGGER.isWarnEnabled())
-                            LOGGER.warn("line #{}: {}", record.getRecordNumber(), e.getMessage());
-                        continue;
-                    }
-
-                    VariantAnnotations annotations;
-                    try {
-                        annotations = annotateWithJannovar(annotator, rd, variant);
-                    } catch (AnnotationException | RuntimeException e) {
-                        if (LOGGER.isWarnEnabled())
-                            LOGGER.warn("line #{}: {}", record.getRecordNumber(), e.getMessage());
-                        continue;
-                    }
-
-                    SquirlsResult squirlsResult = squirls.variantSplicingEvaluator().evaluate(variant);
-
-                    WritableSplicingAllele allele = WritableSplicingAlleleDefault.of(variant, annotations, squirlsResult);
-                    annotated.add(allele);
-                    annotatedAlleleCount++;
-                }
-            } catch (IOException e) {
-                LOGGER.warn("Error reading input", e);
-                return 1;
-            }
-
-            // write out the results
-            AnalysisResults results = AnalysisResults.builder()
-                    .analysisStats(AnalysisStats.of(allVariants, allVariants, annotatedAlleleCount))
-                    .settingsData(SettingsData.builder()
-                            .inputPath(inputPath.toAbsolutePath().toString())
-                            .featureSource(featureSource)
-                            .nReported(nVariantsToReport)
-                            .build())
-                    .addAllVariants(annotated)
-                    .build();
-
-            analysisResultsWriter.writeResults(results, prepareOutputOptions(outputPrefix));
+            Function<List<CsvVariant>, List<WritableSplicingAllele>> annotateChunk =
+                    chunk -> annotateChunk(squirls.variantSplicingEvaluator(), transcriptStore.variantAnnotator(), transcriptStore.referenceDictionary(), chunk);
+            LOGGER.info("Annotating variants on {} threads", nThreads);
+            return stream
+                    ? annotateAndWriteIncrementally(squirlsDataService.genomicAssembly(), annotateChunk, analysisResultsWriter)
+                    : annotateAndWrite(squirlsDataService.genomicAssembly(), annotateChunk, analysisResultsWriter);
         } catch (Exception e) {
             LOGGER.error("Error occurred: {}", e.getMessage(), e);
             return 1;
         }
+    }
+
+    /**
+     * Annotate all variants and then write the results.
+     */
+    private int annotateAndWrite(GenomicAssembly assembly,
+                                 Function<List<CsvVariant>, List<WritableSplicingAllele>> annotateChunk,
+                                 AnalysisResultsWriter analysisResultsWriter) throws IOException {
+        List<WritableSplicingAllele> annotated = new ArrayList<>();
+        AnalysisStats stats = annotateVariants(assembly, annotateChunk, annotated::addAll);
+        if (stats == null)
+            return 1;
+
+        AnalysisResults results = AnalysisResults.builder()
+                .analysisStats(stats)
+                .settingsData(settingsData())
+                .addAllVariants(annotated)
+                .build();
+
+        analysisResultsWriter.writeResults(results, prepareOutputOptions(outputPrefix));
+        return 0;
+    }
+
+    /**
+     * Write the annotated alleles as soon as they are available, in the input order. The outputs are left incomplete
+     * if the annotation fails, and a warning is logged.
+     */
+    int annotateAndWriteIncrementally(GenomicAssembly assembly,
+                                      Function<List<CsvVariant>, List<WritableSplicingAllele>> annotateChunk,
+                                      AnalysisResultsWriter analysisResultsWriter) throws IOException {
+        OutputOptions outputOptions = prepareOutputOptions(outputPrefix);
+        boolean finished = false;
+        try (AnalysisResultsStreamWriter writer = analysisResultsWriter.openStream(List.of(), settingsData(), outputOptions)) {
+            AnalysisStats stats = annotateVariants(assembly, annotateChunk, alleles -> {
+                for (WritableSplicingAllele allele : alleles)
+                    writer.write(allele);
+            });
+            if (stats == null)
+                return 1;
 
+            writer.finish(stats);
+            finished = true;
+        } finally {
+            if (!finished)
+                LOGGER.warn("The annotation did not finish, the outputs with prefix `{}` in `{}` are incomplete",
+                        outputOptions.prefix(), outputOptions.outputDirectory().toAbsolutePath());
+        }
         return 0;
     }
+
+    /**
+     * Read the variants in chunks of {@link #VARIANTS_PER_CHUNK} records, and annotate the chunks on the worker threads.
+     * The invalid records are skipped.
+     *
+     * @return statistics of the analysis or <code>null</code> if the input is invalid or the annotation failed
+     * @throws IOException if the input cannot be read or the results cannot be written
+     */
+    AnalysisStats annotateVariants(GenomicAssembly assembly,
+                                   Function<List<CsvVariant>, List<WritableSplicingAllele>> annotateChunk,
+                                   ChunkConsumer consumer) throws IOException {
+        ProgressReporter progressReporter = new ProgressReporter(5_000);
+        AtomicInteger allVariants = new AtomicInteger();
+        AtomicInteger annotatedAlleles = new AtomicInteger();
+        try (CSVParser parser = CSVFormat.DEFAULT.withFirstRecordAsHeader()
+                .parse(Files.newBufferedReader(inputPath))) {
+
+            // check
+            if (!parser.getHeaderNames().containsAll(EXPECTED_HEADER)) {
+                LOGGER.warn("The input file header does not contain the required columns");
+                return null;
+            }
+
+            // iterate through rows of the tabular file
+            Iterator<CsvVariant> variants = StreamSupport.stream(parser.spliterator(), false)
+                    .peek(record -> allVariants.incrementAndGet())
+                    .flatMap(record -> parseCsvVariant(assembly, record).stream())
+                    .iterator();
+            boolean success = annotateChunks(variants,
+                    (chunk, variant) -> chunk.size() == VARIANTS_PER_CHUNK,
+                    annotateChunk,
+                    alleles -> {
+                        alleles.forEach(progressReporter::logAllele);
+                        annotatedAlleles.addAndGet(alleles.size());
+                        consumer.accept(alleles);
+                    });
+            if (!success)
+                return null;
+        }
+
+        progressReporter.summarize().run();
+        return AnalysisStats.of(allVariants.get(), allVariants.get(), annotatedAlleles.get());
+    }
+
+    private static Optional<CsvVariant> parseCsvVariant(GenomicAssembly assembly, CSVRecord record) {
+        try {
+            return Optional.of(new CsvVariant(record.getRecordNumber(), parseCsvRecord(assembly, record)));
+        } catch (SquirlsException e) {
+            if (LOGGER.isWarnEnabled())
+                LOGGER.warn("line #{}: {}", record.getRecordNumber(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private SettingsData settingsData() {
+        return SettingsData.builder()
+                .inputPath(inputPath.toAbsolutePath().toString())
+                .featureSource(featureSource)
+                .nReported(nVariantsToReport)
+                .build();
+    }
+
+    /**
+     * Variant parsed from a CSV record, along with the record number for logging.
+     */
+    static class CsvVariant {
+        final long recordNumber;
+        final GenomicVariant variant;
+
+        private CsvVariant(long recordNumber, GenomicVariant variant) {
+            this.recordNumber = recordNumber;
+            this.variant = variant;
+        }
+    }
 }
@@ -114,6 +114,14 @@ public class AnnotatePosCommand extends AnnotatingSquirlsCommand {
             description = "Nucleotide change(s) to annotate")
     public List<String> rawChanges;
 
+    /**
+     * Only the scores are printed, hence the precomputed scores are used regardless of the output options.
+     */
+    @Override
+    protected boolean featuresRequired() {
+        return false;
+    }
+
     @Override
     public Integer call() {
         try (ConfigurableApplicationContext context = getContext()) {
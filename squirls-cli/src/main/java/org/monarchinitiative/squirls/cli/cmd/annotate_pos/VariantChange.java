@@ -87,7 +87,7 @@ import java.util.regex.Pattern;
 /**
  * @author Daniel Danis
  */
-class VariantChange {
+public class VariantChange {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(VariantChange.class);
 
@@ -103,7 +103,7 @@ class VariantChange {
         this.alt = alt;
     }
 
-    static Optional<VariantChange> fromString(String payload) {
+    public static Optional<VariantChange> fromString(String payload) {
         final Matcher matcher = VARIANT_PATTERN.matcher(payload);
         if (!matcher.matches()) {
             LOGGER.warn("Invalid variant data: `{}`", payload);
@@ -78,7 +78,6 @@ package org.monarchinitiative.squirls.cli.cmd.annotate_vcf;
 
 import de.charite.compbio.jannovar.annotation.VariantAnnotations;
 import de.charite.compbio.jannovar.annotation.VariantAnnotator;
-import de.charite.compbio.jannovar.annotation.builders.AnnotationBuilderOptions;
 import de.charite.compbio.jannovar.data.*;
 import de.charite.compbio.jannovar.reference.Strand;
 import de.charite.compbio.jannovar.reference.*;
@@ -89,7 +88,7 @@ import htsjdk.variant.variantcontext.VariantContextBuilder;
 import htsjdk.variant.vcf.VCFFileReader;
 import org.monarchinitiative.squirls.cli.Main;
 import org.monarchinitiative.squirls.cli.cmd.AnnotatingSquirlsCommand;
-import org.monarchinitiative.squirls.cli.cmd.SquirlsWorkerThread;
+import org.monarchinitiative.squirls.cli.cmd.TranscriptStore;
 import org.monarchinitiative.squirls.cli.visualization.selector.VisualizationContextSelector;
 import org.monarchinitiative.squirls.cli.writers.*;
 import org.monarchinitiative.squirls.core.Squirls;
@@ -105,13 +104,10 @@ import org.slf4j.LoggerFactory;
 import org.springframework.context.ConfigurableApplicationContext;
 import picocli.CommandLine;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * @author Daniel Danis
@@ -127,6 +123,11 @@ public class AnnotateVcfCommand extends AnnotatingSquirlsCommand {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AnnotateVcfCommand.class);
 
+    /**
+     * Number of consecutive alleles located on the same contig annotated as a batch by a worker thread.
+     */
+    private static final int ALLELES_PER_CHUNK = 64;
+
     @CommandLine.Parameters(index = "0",
             paramLabel = "input.vcf",
             description = "Path to the input VCF file.")
@@ -136,6 +137,11 @@ public class AnnotateVcfCommand extends AnnotatingSquirlsCommand {
             description = "Prefix for the output files.")
     public String prefix;
 
+    @CommandLine.Option(names = {"--stream"},
+            description = {"Write the VCF and tabular results incrementally, in the input order, using a bounded amount of memory (default: ${DEFAULT-VALUE}).",
+                    "The tabular output includes all alleles, the HTML report includes --n-variants-to-report most pathogenic alleles"})
+    public boolean stream = false;
+
     private static Function<VariantContext, Collection<VariantContext>> meltToSingleAltVariants() {
         return vc -> {
             List<Allele> alts = vc.getAlternateAlleles();
@@ -151,74 +157,74 @@ public class AnnotateVcfCommand extends AnnotatingSquirlsCommand {
     }
 
     /**
-     * Split {@link VariantContext} into <em>alt</em> alleles and annotate each allele with Squirls and Jannovar.
+     * Annotate a chunk of consecutive single-alt {@link VariantContext}s with Jannovar and Squirls. The alleles are
+     * evaluated by Squirls as a batch to share the work among the neighboring variants.
      *
      * @param evaluator variant splicing evaluator to use
      * @param rd        Jannovar's reference dictionary
      * @param annotator Jannovar's variant annotator
-     * @return annotated {@link VariantContext}
+     * @param chunk     single-alt variant contexts
+     * @return annotated alleles in the order of the <code>chunk</code>. The alleles that cannot be annotated by
+     * Jannovar or that are located on an unknown contig are dropped
      */
-    private static Function<VariantContext, Collection<WritableSplicingAllele>> annotateVariant(VariantSplicingEvaluator evaluator,
-                                                                                                ReferenceDictionary rd,
-                                                                                                VariantAnnotator annotator,
-                                                                                                Map<String, Contig> contigMap) {
-        return vc -> {
-            List<WritableSplicingAllele> evaluations = new ArrayList<>(vc.getAlternateAlleles().size());
-            for (Allele allele : vc.getAlternateAlleles()) {
-                String contigName = vc.getContig();
-                // jannovar annotations
-                Integer contigId = rd.getContigNameToID().get(contigName);
-                if (contigId == null) {
-                    LOGGER.warn("Jannovar does not recognize contig {} for variant {}", contigName, vc);
-                    continue;
-                }
-
-                GenomePosition pos = new GenomePosition(rd, Strand.FWD, contigId, vc.getStart(), PositionType.ONE_BASED);
-                GenomeVariant genomeVariant = new GenomeVariant(pos, vc.getReference().getDisplayString(), allele.getDisplayString());
-                VariantAnnotations variantAnnotations;
-                try {
-                    variantAnnotations = annotator.buildAnnotations(genomeVariant);
-                } catch (Exception e) {
-                    LOGGER.warn("Unable to perform functional annotation for variant {}: {}", genomeVariant, e.getMessage());
-                    continue;
-                }
-
-                // Squirls scores
-
-                SquirlsResult squirlsResult;
-                Contig contig = contigMap.getOrDefault(contigName, Contig.unknown());
-                if (contig.isUnknown())
-                    continue;
-
-                GenomicVariant variant = GenomicVariant.of(contig,
-                        vc.getID(),
-                        org.monarchinitiative.svart.Strand.POSITIVE,
-                        CoordinateSystem.oneBased(),
-                        vc.getStart(),
-                        vc.getReference().getDisplayString(),
-                        allele.getDisplayString());
-                if (variantAnnotations.getHighestImpactEffect().isOffTranscript()) {
-                    // don't bother with annotating an off-exome variant
-                    squirlsResult = SquirlsResult.empty();
-                } else {
-                    squirlsResult = evaluator.evaluate(variant);
-                }
+    private static List<WritableSplicingAllele> annotateChunk(VariantSplicingEvaluator evaluator,
+                                                              ReferenceDictionary rd,
+                                                              VariantAnnotator annotator,
+                                                              Map<String, Contig> contigMap,
+                                                              List<VariantContext> chunk) {
+        List<VariantContext> contexts = new ArrayList<>(chunk.size());
+        List<GenomicVariant> variants = new ArrayList<>(chunk.size());
+        List<VariantAnnotations> variantAnnotations = new ArrayList<>(chunk.size());
+        List<GenomicVariant> toEvaluate = new ArrayList<>(chunk.size());
+        for (VariantContext vc : chunk) {
+            Allele allele = vc.getAlternateAllele(0);
+            String contigName = vc.getContig();
+            // jannovar annotations
+            Integer contigId = rd.getContigNameToID().get(contigName);
+            if (contigId == null) {
+                LOGGER.warn("Jannovar does not recognize contig {} for variant {}", contigName, vc);
+                continue;
+            }
 
-                evaluations.add(WritableSplicingAlleleDefault.of(variant, variantAnnotations, squirlsResult, vc));
+            GenomePosition pos = new GenomePosition(rd, Strand.FWD, contigId, vc.getStart(), PositionType.ONE_BASED);
+            GenomeVariant genomeVariant = new GenomeVariant(pos, vc.getReference().getDisplayString(), allele.getDisplayString());
+            VariantAnnotations annotations;
+            try {
+                annotations = annotator.buildAnnotations(genomeVariant);
+            } catch (Exception e) {
+                LOGGER.warn("Unable to perform functional annotation for variant {}: {}", genomeVariant, e.getMessage());
+                continue;
             }
 
-            return evaluations;
-        };
-    }
+            Contig contig = contigMap.getOrDefault(contigName, Contig.unknown());
+            if (contig.isUnknown())
+                continue;
+
+            GenomicVariant variant = GenomicVariant.of(contig,
+                    vc.getID(),
+                    org.monarchinitiative.svart.Strand.POSITIVE,
+                    CoordinateSystem.oneBased(),
+                    vc.getStart(),
+                    vc.getReference().getDisplayString(),
+                    allele.getDisplayString());
+            contexts.add(vc);
+            variants.add(variant);
+            variantAnnotations.add(annotations);
+            // don't bother with annotating an off-exome variant
+            if (!annotations.getHighestImpactEffect().isOffTranscript())
+                toEvaluate.add(variant);
+        }
 
-    /**
-     * Prepare <code>ForkJoinPool</code> for variant annotation.
-     *
-     * @param parallelism number of threads to use for variant annotation
-     * @return the pool
-     */
-    private static ForkJoinPool makePool(int parallelism) {
-        return new ForkJoinPool(parallelism, SquirlsWorkerThread::new, null, false);
+        // Squirls scores
+        Iterator<SquirlsResult> squirlsResults = evaluator.evaluateAll(toEvaluate).iterator();
+        List<WritableSplicingAllele> annotated = new ArrayList<>(variants.size());
+        for (int i = 0; i < variants.size(); i++) {
+            SquirlsResult squirlsResult = variantAnnotations.get(i).getHighestImpactEffect().isOffTranscript()
+                    ? SquirlsResult.empty()
+                    : squirlsResults.next();
+            annotated.add(WritableSplicingAlleleDefault.of(variants.get(i), variantAnnotations.get(i), squirlsResult, contexts.get(i)));
+        }
+        return annotated;
     }
 
     private static Map<String, Contig> prepareContigMap(GenomicAssembly assembly) {
@@ -262,66 +268,121 @@ public class AnnotateVcfCommand extends AnnotatingSquirlsCommand {
                     context.getBean(VisualizationContextSelector.class),
                     squirlsDataService));
 
-            JannovarData jannovarData = context.getBean(JannovarData.class);
-            ReferenceDictionary rd = jannovarData.getRefDict();
-            VariantAnnotator annotator = new VariantAnnotator(jannovarData.getRefDict(), jannovarData.getChromosomes(), new AnnotationBuilderOptions());
-            // annotate the variants
-            // TODO: 29. 5. 2020 improve behavior & logging
-            //  e.g. report progress in % if variant index and thus count is available
-            List<WritableSplicingAllele> annotated;
-            ArrayList<String> sampleNames;
+            TranscriptStore transcriptStore = context.getBean(TranscriptStore.class);
+            ReferenceDictionary rd = transcriptStore.referenceDictionary();
+            VariantAnnotator annotator = transcriptStore.variantAnnotator();
+            Function<List<VariantContext>, List<WritableSplicingAllele>> annotateChunk =
+                    chunk -> annotateChunk(squirls.variantSplicingEvaluator(), rd, annotator, contigMap, chunk);
             LOGGER.info("Annotating variants on {} threads", nThreads);
-            AnnotateVcfProgressReporter progressReporter = new AnnotateVcfProgressReporter(5_000);
             LOGGER.info("Reading variants from `{}`", inputPath);
-            try (VCFFileReader reader = new VCFFileReader(inputPath, false);
-                 CloseableIterator<VariantContext> variantIterator = reader.iterator()) {
-
-                sampleNames = reader.getFileHeader().getSampleNamesInOrder();
-
-
-                try (Stream<VariantContext> stream = variantIterator.stream()) {
-                    Stream<WritableSplicingAllele> alleleStream = stream.parallel()
-                            .onClose(progressReporter.summarize())
-                            .peek(progressReporter::logVariant)
-
-                            .map(meltToSingleAltVariants())
-                            .flatMap(Collection::stream)
-                            .peek(progressReporter::logAllele)
+            int status = stream
+                    ? annotateAndWriteIncrementally(annotateChunk, analysisResultsWriter)
+                    : annotateAndWrite(annotateChunk, analysisResultsWriter);
+            squirlsDataService.sequenceCacheStats()
+                    .ifPresent(stats -> LOGGER.debug("Reference sequence cache: {}", stats));
+            return status;
+        } catch (Exception e) {
+            LOGGER.error("Error: ", e);
+            return 1;
+        }
+    }
 
-                            .map(annotateVariant(squirls.variantSplicingEvaluator(), rd, annotator, contigMap))
-                            .flatMap(Collection::stream)
-                            .peek(wa -> {
-                                if (!wa.squirlsResult().isEmpty()) {
-                                    progressReporter.logAnnotatedAllele(wa);
-                                }
-                            });
+    /**
+     * Annotate all variants and then write the results.
+     */
+    private int annotateAndWrite(Function<List<VariantContext>, List<WritableSplicingAllele>> annotateChunk,
+                                 AnalysisResultsWriter analysisResultsWriter) throws IOException {
+        // TODO: 29. 5. 2020 improve behavior & logging
+        //  e.g. report progress in % if variant index and thus count is available
+        List<WritableSplicingAllele> annotated = new ArrayList<>();
+        ArrayList<String> sampleNames;
+        AnnotateVcfProgressReporter progressReporter = new AnnotateVcfProgressReporter(5_000);
+        try (VCFFileReader reader = new VCFFileReader(inputPath, false);
+             CloseableIterator<VariantContext> variantIterator = reader.iterator()) {
+
+            sampleNames = reader.getFileHeader().getSampleNamesInOrder();
+            if (!annotateVariants(variantIterator, annotateChunk, annotated::addAll, progressReporter))
+                return 1;
+        }
+        progressReporter.summarize().run();
 
-                    ForkJoinPool pool = makePool(nThreads);
-                    annotated = pool.submit(() -> alleleStream.collect(Collectors.toList())).get();
-                } catch (InterruptedException | ExecutionException e) {
-                    LOGGER.error("Error: ", e);
-                    return 1;
-                }
-            }
+        // write out the results TODO - pull up
+        AnalysisResults results = AnalysisResults.builder()
+                .addAllSampleNames(sampleNames)
+                .settingsData(settingsData())
+                .analysisStats(progressReporter.getAnalysisStats())
+                .addAllVariants(annotated)
+                .build();
 
-            // write out the results TODO - pull up
-            AnalysisResults results = AnalysisResults.builder()
-                    .addAllSampleNames(sampleNames)
-                    .settingsData(SettingsData.builder()
-                            .inputPath(inputPath.toString())
-                            .featureSource(featureSource)
-                            .nReported(nVariantsToReport)
-                            .build())
-                    .analysisStats(progressReporter.getAnalysisStats())
-                    .addAllVariants(annotated)
-                    .build();
+        analysisResultsWriter.writeResults(results, prepareOutputOptions(prefix));
+        return 0;
+    }
 
-            analysisResultsWriter.writeResults(results, prepareOutputOptions(prefix));
-        } catch (Exception e) {
-            LOGGER.error("Error: ", e);
-            return 1;
+    /**
+     * Annotate the alleles on the worker threads while reading the variants and writing the results on the calling
+     * thread, in the input order. The outputs are left incomplete if the annotation fails, and a warning is logged.
+     */
+    private int annotateAndWriteIncrementally(Function<List<VariantContext>, List<WritableSplicingAllele>> annotateChunk,
+                                              AnalysisResultsWriter analysisResultsWriter) throws IOException {
+        AnnotateVcfProgressReporter progressReporter = new AnnotateVcfProgressReporter(5_000);
+        OutputOptions outputOptions = prepareOutputOptions(prefix);
+        boolean finished = false;
+        try (VCFFileReader reader = new VCFFileReader(inputPath, false);
+             CloseableIterator<VariantContext> variantIterator = reader.iterator();
+             AnalysisResultsStreamWriter writer = analysisResultsWriter.openStream(reader.getFileHeader().getSampleNamesInOrder(), settingsData(), outputOptions)) {
+            boolean success = annotateVariants(variantIterator, annotateChunk, alleles -> {
+                for (WritableSplicingAllele allele : alleles)
+                    writer.write(allele);
+            }, progressReporter);
+            if (!success)
+                return 1;
+
+            progressReporter.summarize().run();
+            writer.finish(progressReporter.getAnalysisStats());
+            finished = true;
+        } finally {
+            if (!finished)
+                LOGGER.warn("The annotation did not finish, the outputs with prefix `{}` in `{}` are incomplete",
+                        outputOptions.prefix(), outputOptions.outputDirectory().toAbsolutePath());
         }
 
         return 0;
     }
+
+    /**
+     * Split the variants into single-alt alleles, group the consecutive alleles located on the same contig into chunks
+     * of at most {@link #ALLELES_PER_CHUNK} alleles, and annotate the chunks on the worker threads.
+     *
+     * @return <code>true</code> if all variants were annotated
+     * @throws IOException if the results cannot be written
+     */
+    private boolean annotateVariants(CloseableIterator<VariantContext> variants,
+                                     Function<List<VariantContext>, List<WritableSplicingAllele>> annotateChunk,
+                                     ChunkConsumer consumer,
+                                     AnnotateVcfProgressReporter progressReporter) throws IOException {
+        Function<VariantContext, Collection<VariantContext>> meltToSingleAltVariants = meltToSingleAltVariants();
+        Iterator<VariantContext> alleles = variants.stream()
+                .peek(progressReporter::logVariant)
+                .flatMap(vc -> meltToSingleAltVariants.apply(vc).stream())
+                .peek(progressReporter::logAllele)
+                .iterator();
+        return annotateChunks(alleles,
+                (chunk, allele) -> chunk.size() >= ALLELES_PER_CHUNK || !chunk.get(0).getContig().equals(allele.getContig()),
+                annotateChunk,
+                annotated -> {
+                    for (WritableSplicingAllele allele : annotated) {
+                        if (!allele.squirlsResult().isEmpty())
+                            progressReporter.logAnnotatedAllele(allele);
+                    }
+                    consumer.accept(annotated);
+                });
+    }
+
+    private SettingsData settingsData() {
+        return SettingsData.builder()
+                .inputPath(inputPath.toString())
+                .featureSource(featureSource)
+                .nReported(nVariantsToReport)
+                .build();
+    }
 }
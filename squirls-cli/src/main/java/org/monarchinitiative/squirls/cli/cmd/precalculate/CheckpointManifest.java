@@ -0,0 +1,356 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2021
+ */
+
+package org.monarchinitiative.squirls.cli.cmd.precalculate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Manifest of the chunks completed by a checkpointed precalculation.
+ * <p>
+ * The manifest is a tab-separated file <code>manifest.tsv</code> in the checkpoint directory. The header lines
+ * record the settings of the precalculation, and each subsequent line records a chunk whose part file has been
+ * completely written: <code>index</code>, <code>chunk id</code>, <code>part file name</code>, and
+ * <code>number of variants</code>. A line is appended and synced to the disk only after the part file has been
+ * moved to its final location, hence an interrupted run leaves behind only the complete parts.
+ */
+class CheckpointManifest implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CheckpointManifest.class);
+
+    static final String MANIFEST_NAME = "manifest.tsv";
+
+    static final String HEADER_NAME = "header.vcf.gz";
+
+    /**
+     * Key of the setting with the number of chunks of the whole precalculation.
+     */
+    static final String CHUNKS_KEY = "chunks";
+
+    /**
+     * Key of the setting with the shard of a sharded precalculation.
+     */
+    static final String SHARD_KEY = "shard";
+
+    private static final String MAGIC = "#squirls-precalculate-checkpoint\tv1";
+
+    private static final String SETTINGS_PREFIX = "#settings\t";
+
+    private final Path directory;
+
+    private final String settings;
+
+    /**
+     * Channel for appending the completed chunks, <code>null</code> if the manifest is read-only.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Chunk index to the completed chunk.
+     */
+    private final SortedMap<Integer, CompletedChunk> completed;
+
+    private CheckpointManifest(Path directory, String settings, FileChannel channel, SortedMap<Integer, CompletedChunk> completed) {
+        this.directory = directory;
+        this.settings = settings;
+        this.channel = channel;
+        this.completed = completed;
+    }
+
+    /**
+     * Open the manifest of the checkpoint <code>directory</code>, or create a new one if the directory does not
+     * contain any.
+     *
+     * @param directory checkpoint directory
+     * @param settings  description of the settings that influence the precalculated scores
+     * @throws IOException if the manifest cannot be read or written, or if it was created with different settings
+     */
+    static CheckpointManifest open(Path directory, String settings) throws IOException {
+        Files.createDirectories(directory);
+        Path manifestPath = directory.resolve(MANIFEST_NAME);
+
+        SortedMap<Integer, CompletedChunk> completed = new TreeMap<>();
+        boolean exists = Files.isRegularFile(manifestPath);
+        if (exists) {
+            String storedSettings = readManifest(directory, completed);
+            if (!storedSettings.equals(settings))
+                throw new IOException(String.format("The checkpoint at `%s` was created with different settings (`%s`) than the current run (`%s`). Use another checkpoint directory",
+                        directory.toAbsolutePath(), storedSettings, settings));
+        }
+
+        FileChannel channel = FileChannel.open(manifestPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        CheckpointManifest manifest = new CheckpointManifest(directory, settings, channel, completed);
+        if (!exists)
+            manifest.append(MAGIC + '\n' + SETTINGS_PREFIX + settings + '\n');
+        else if (!endsWithNewline(channel))
+            // terminate the line truncated by the interruption
+            manifest.append("\n");
+        return manifest;
+    }
+
+    /**
+     * Read the existing manifest of the checkpoint <code>directory</code> without the possibility to add completed
+     * chunks.
+     *
+     * @param directory checkpoint directory
+     * @throws IOException if the directory does not contain a valid manifest
+     */
+    static CheckpointManifest read(Path directory) throws IOException {
+        if (!Files.isRegularFile(directory.resolve(MANIFEST_NAME)))
+            throw new IOException("No checkpoint manifest found in `" + directory.toAbsolutePath() + '`');
+
+        SortedMap<Integer, CompletedChunk> completed = new TreeMap<>();
+        String settings = readManifest(directory, completed);
+        return new CheckpointManifest(directory, settings, null, completed);
+    }
+
+    /**
+     * Read the manifest of the <code>directory</code>, store the chunks with the existing part files into
+     * <code>completed</code>, and return the settings.
+     */
+    private static String readManifest(Path directory, Map<Integer, CompletedChunk> completed) throws IOException {
+        Path manifestPath = directory.resolve(MANIFEST_NAME);
+        try (BufferedReader reader = Files.newBufferedReader(manifestPath)) {
+            String magic = reader.readLine();
+            String settings = reader.readLine();
+            if (!MAGIC.equals(magic) || settings == null || !settings.startsWith(SETTINGS_PREFIX))
+                throw new IOException("Invalid checkpoint manifest at `" + manifestPath.toAbsolutePath() + '`');
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t");
+                int index;
+                try {
+                    index = fields.length == 4 ? Integer.parseInt(fields[0]) : -1;
+                } catch (NumberFormatException e) {
+                    index = -1;
+                }
+                if (index < 0) {
+                    // most likely a line truncated by the interruption
+                    LOGGER.warn("Ignoring invalid manifest line `{}`", line);
+                    continue;
+                }
+                if (Files.isRegularFile(directory.resolve(fields[2])))
+                    completed.put(index, new CompletedChunk(fields[1], fields[2]));
+            }
+            return settings.substring(SETTINGS_PREFIX.length());
+        }
+    }
+
+    /**
+     * Summarize the settings and the chunks of a precalculation into a single line.
+     */
+    static String settings(Map<String, ?> parameters, List<GenomicChunk> chunks) {
+        StringBuilder builder = new StringBuilder();
+        parameters.forEach((key, value) -> builder.append(key).append('=').append(value).append(';'));
+
+        CRC32 crc = new CRC32();
+        for (GenomicChunk chunk : chunks)
+            crc.update((chunk.index() + ":" + chunk.id() + ':' + chunk.length() + '\n').getBytes(StandardCharsets.UTF_8));
+        builder.append(CHUNKS_KEY).append('=').append(chunks.size()).append(';')
+                .append("checksum=").append(Long.toHexString(crc.getValue()));
+        return builder.toString();
+    }
+
+    /**
+     * @return the checkpoint directory
+     */
+    Path directory() {
+        return directory;
+    }
+
+    /**
+     * @return the settings of the precalculation
+     */
+    String settings() {
+        return settings;
+    }
+
+    /**
+     * @return the settings parsed into key-value pairs, in the order of the settings
+     */
+    Map<String, String> parameters() {
+        Map<String, String> parameters = new LinkedHashMap<>();
+        for (String token : settings.split(";")) {
+            int idx = token.indexOf('=');
+            if (idx > 0)
+                parameters.put(token.substring(0, idx), token.substring(idx + 1));
+        }
+        return parameters;
+    }
+
+    /**
+     * @return path of the bgzipped VCF header of the precalculation
+     */
+    Path headerPath() {
+        return directory.resolve(HEADER_NAME);
+    }
+
+    /**
+     * @return path of the part file of the <code>chunk</code>
+     */
+    Path partPath(GenomicChunk chunk) {
+        return partPath(chunk.index());
+    }
+
+    private Path partPath(int index) {
+        return directory.resolve(String.format("part-%06d.vcf.gz", index));
+    }
+
+    /**
+     * @return <code>true</code> if the part file of the <code>chunk</code> has been completely written
+     */
+    synchronized boolean isComplete(GenomicChunk chunk) {
+        CompletedChunk done = completed.get(chunk.index());
+        return done != null
+                && done.id.equals(chunk.id())
+                && done.part.equals(partPath(chunk).getFileName().toString());
+    }
+
+    /**
+     * @return number of the completed chunks
+     */
+    synchronized int completedCount() {
+        return completed.size();
+    }
+
+    /**
+     * @return paths to the part files of the completed chunks, keyed by the chunk index
+     */
+    synchronized SortedMap<Integer, Path> completedParts() {
+        SortedMap<Integer, Path> parts = new TreeMap<>();
+        completed.forEach((index, chunk) -> parts.put(index, directory.resolve(chunk.part)));
+        return parts;
+    }
+
+    /**
+     * Record the <code>chunk</code> as completed. The part file must be already present at {@link #partPath(GenomicChunk)}.
+     */
+    synchronized void markComplete(GenomicChunk chunk, long nVariants) throws IOException {
+        String part = partPath(chunk).getFileName().toString();
+        append(String.join("\t", String.valueOf(chunk.index()), chunk.id(), part, String.valueOf(nVariants)) + '\n');
+        completed.put(chunk.index(), new CompletedChunk(chunk.id(), part));
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null)
+            channel.close();
+    }
+
+    private static boolean endsWithNewline(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size == 0)
+            return true;
+        ByteBuffer last = ByteBuffer.allocate(1);
+        channel.read(last, size - 1);
+        return last.get(0) == '\n';
+    }
+
+    private void append(String text) throws IOException {
+        if (channel == null)
+            throw new IllegalStateException("The manifest at `" + directory.toAbsolutePath() + "` is read-only");
+
+        ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining())
+            channel.write(buffer, channel.size());
+        channel.force(false);
+    }
+
+    private static class CompletedChunk {
+
+        private final String id;
+        private final String part;
+
+        private CompletedChunk(String id, String part) {
+            this.id = id;
+            this.part = part;
+        }
+    }
+}
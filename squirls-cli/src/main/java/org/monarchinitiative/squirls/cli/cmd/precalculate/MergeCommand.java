@@ -0,0 +1,198 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2021
+ */
+
+package org.monarchinitiative.squirls.cli.cmd.precalculate;
+
+import org.monarchinitiative.squirls.cli.Main;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Merge the checkpoint directories written by the shards of a sharded precalculation into a single VCF file.
+ *
+ * @see PrecalculateCommand
+ */
+@CommandLine.Command(name = "merge",
+        aliases = {"M"},
+        header = "Merge the checkpoint directories of a sharded precalculation into a single bgzipped and indexed VCF file",
+        mixinStandardHelpOptions = true,
+        version = Main.VERSION,
+        usageHelpWidth = Main.WIDTH,
+        footer = Main.FOOTER)
+public class MergeCommand implements Callable<Integer> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MergeCommand.class);
+
+    @CommandLine.Option(names = {"-o", "--output"},
+            description = "Where to write the merged scores (default: ${DEFAULT-VALUE})")
+    public Path outputPath = Path.of("squirls-scores.vcf.gz");
+
+    @CommandLine.Parameters(index = "0..*",
+            arity = "1..*",
+            paramLabel = "path/to/checkpoint-dir",
+            description = "Checkpoint directories of the shards")
+    public List<Path> checkpointDirs = List.of();
+
+    @Override
+    public Integer call() {
+        if (!outputPath.toString().endsWith(".vcf.gz")) {
+            LOGGER.error("The merged scores are written into a bgzipped VCF file, the output path must end with `.vcf.gz`: {}", outputPath);
+            return 1;
+        }
+
+        try {
+            List<CheckpointManifest> manifests = new ArrayList<>(checkpointDirs.size());
+            for (Path checkpointDir : checkpointDirs)
+                manifests.add(CheckpointManifest.read(checkpointDir));
+
+            List<Path> parts = collectParts(manifests);
+            LOGGER.info("Merging {} parts from {} checkpoint directories into `{}`", parts.size(), manifests.size(), outputPath.toAbsolutePath());
+            // the contigs are indexed in the order of the records
+            VcfPartMerger.merge(manifests.get(0).headerPath(), null, parts, outputPath);
+        } catch (IOException e) {
+            LOGGER.error("Error: {}", e.getMessage(), e);
+            return 1;
+        }
+
+        LOGGER.info("Results wrote to `{}`", outputPath.toAbsolutePath());
+        LOGGER.info("Merging finished successfully. Bye.");
+        return 0;
+    }
+
+    /**
+     * Collect the parts of all chunks of the precalculation from the <code>manifests</code> of its shards.
+     *
+     * @return paths to the parts in the order of the chunks
+     * @throws IOException if the shards were run with different settings, or if the chunks are missing or duplicated
+     */
+    static List<Path> collectParts(List<CheckpointManifest> manifests) throws IOException {
+        if (manifests.isEmpty())
+            throw new IOException("No checkpoint directories to merge");
+
+        Map<String, String> settings = sharedSettings(manifests.get(0));
+        SortedMap<Integer, Path> parts = new TreeMap<>();
+        SortedMap<Integer, CheckpointManifest> owners = new TreeMap<>();
+        for (CheckpointManifest manifest : manifests) {
+            if (!sharedSettings(manifest).equals(settings))
+                throw new IOException(String.format("The checkpoint at `%s` was created with different settings (`%s`) than the checkpoint at `%s` (`%s`)",
+                        manifest.directory().toAbsolutePath(), manifest.settings(), manifests.get(0).directory().toAbsolutePath(), manifests.get(0).settings()));
+
+            for (Map.Entry<Integer, Path> part : manifest.completedParts().entrySet()) {
+                CheckpointManifest owner = owners.putIfAbsent(part.getKey(), manifest);
+                if (owner != null)
+                    throw new IOException(String.format("Chunk %d was completed in both `%s` and `%s`",
+                            part.getKey(), owner.directory().toAbsolutePath(), manifest.directory().toAbsolutePath()));
+                parts.put(part.getKey(), part.getValue());
+            }
+        }
+
+        int chunkCount;
+        try {
+            chunkCount = Integer.parseInt(settings.get(CheckpointManifest.CHUNKS_KEY));
+        } catch (NumberFormatException e) {
+            throw new IOException("Missing number of chunks in the checkpoint settings `" + manifests.get(0).settings() + '`', e);
+        }
+
+        List<Integer> missing = IntStream.range(0, chunkCount)
+                .filter(index -> !parts.containsKey(index))
+                .boxed()
+                .collect(Collectors.toList());
+        if (!missing.isEmpty())
+            throw new IOException(String.format("%d out of %d chunks have not been completed (e.g. %s). Run or resume the missing shards",
+                    missing.size(), chunkCount, missing.subList(0, Math.min(missing.size(), 10))));
+        if (parts.size() != chunkCount)
+            throw new IOException(String.format("Found %d parts while the precalculation consists of %d chunks", parts.size(), chunkCount));
+
+        return List.copyOf(parts.values());
+    }
+
+    /**
+     * @return the settings that must be the same for all shards of the precalculation
+     */
+    private static Map<String, String> sharedSettings(CheckpointManifest manifest) {
+        Map<String, String> settings = manifest.parameters();
+        settings.remove(CheckpointManifest.SHARD_KEY);
+        return settings;
+    }
+}
@@ -78,6 +78,7 @@ package org.monarchinitiative.squirls.cli.cmd.precalculate;
 
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.writer.Options;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import htsjdk.variant.variantcontext.writer.VariantContextWriterBuilder;
@@ -85,11 +86,15 @@ import htsjdk.variant.vcf.VCFContigHeaderLine;
 import htsjdk.variant.vcf.VCFHeader;
 import htsjdk.variant.vcf.VCFHeaderLine;
 import htsjdk.variant.vcf.VCFHeaderVersion;
+import org.monarchinitiative.sgenes.model.Gene;
+import org.monarchinitiative.sgenes.model.Transcript;
 import org.monarchinitiative.squirls.cli.Main;
 import org.monarchinitiative.squirls.cli.cmd.ProgressReporter;
 import org.monarchinitiative.squirls.cli.cmd.SquirlsCommand;
 import org.monarchinitiative.squirls.cli.cmd.SquirlsWorkerThread;
 import org.monarchinitiative.squirls.core.*;
+import org.monarchinitiative.squirls.io.precomputed.BinaryScoreStoreWriter;
+import org.monarchinitiative.squirls.io.precomputed.TabixPrecomputedScoreSource;
 import org.monarchinitiative.svart.*;
 import org.monarchinitiative.svart.assembly.GenomicAssembly;
 import org.monarchinitiative.svart.assembly.SequenceRole;
@@ -104,7 +109,7 @@ import java.nio.file.Path;
 import java.text.NumberFormat;
 import java.util.*;
 import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -115,7 +120,7 @@ import java.util.stream.Collectors;
  */
 @CommandLine.Command(name = "precalculate",
         aliases = {"E"},
-        header = "Precalculate SQUIRLS scores for provided regions and store results in a VCF file",
+        header = "Precalculate SQUIRLS scores for provided regions and store results in a VCF or binary file",
         mixinStandardHelpOptions = true,
         version = Main.VERSION,
         usageHelpWidth = Main.WIDTH,
@@ -126,8 +131,10 @@ public class PrecalculateCommand extends SquirlsCommand {
 
     private static final NumberFormat NF = NumberFormat.getInstance();
 
-    // process at most 1 region within a task
-    private static final int GRANULARITY = 1;
+    /**
+     * Number of chunks that can be submitted for precalculation per worker thread before the writer catches up.
+     */
+    private static final int PENDING_CHUNKS_PER_THREAD = 4;
 
     private static final Thread.UncaughtExceptionHandler HANDLER = (thread, throwable) ->
             LOGGER.error("Error on thread {}: {}", thread.getName(), throwable.getMessage());
@@ -146,8 +153,34 @@ public class PrecalculateCommand extends SquirlsCommand {
     public int length = 1;
 
     @CommandLine.Option(names = {"-o", "--output"},
-            description = "Where to write the scores (default: ${DEFAULT-VALUE})")
-    public Path outputPath = Path.of("squirls-scores.vcf.gz");
+            description = "Where to write the scores (default: squirls-scores.vcf.gz or squirls-scores.bin for the binary format)")
+    public Path outputPath = null;
+
+    @CommandLine.Option(names = {"-f", "--output-format"},
+            paramLabel = "{VCF,BINARY}",
+            description = "Format of the scores. The binary format stores the maximum score of the variant and it is smaller and faster to query than VCF (default: ${DEFAULT-VALUE})")
+    public PrecalculateOutputFormat outputFormat = PrecalculateOutputFormat.VCF;
+
+    @CommandLine.Option(names = {"--window-size"},
+            paramLabel = "10000",
+            description = "Split the query regions into windows of n bases that are precalculated as independent tasks (default: ${DEFAULT-VALUE})")
+    public int windowSize = 10_000;
+
+    @CommandLine.Option(names = {"--checkpoint-dir"},
+            description = {"Write the scores of each chunk into a part file in the directory and resume an interrupted run by skipping the completed chunks.",
+                    "The parts are merged into the output once all chunks are completed. Supported for the VCF output format only"})
+    public Path checkpointDir = null;
+
+    @CommandLine.Option(names = {"--chunk-size"},
+            paramLabel = "1000000",
+            description = "Number of query bases per checkpointed chunk (default: ${DEFAULT-VALUE})")
+    public int chunkSize = 1_000_000;
+
+    @CommandLine.Option(names = {"--shard"},
+            paramLabel = "1/4",
+            description = {"Precalculate only the i-th out of N shards of the chunks and write the parts into the checkpoint directory.",
+                    "The shards are balanced by the estimated number of variants. Use the `merge` command to merge the checkpoint directories of all shards"})
+    public String shard = null;
 
     @CommandLine.Option(names = {"--threads"},
             paramLabel = "2",
@@ -173,57 +206,133 @@ public class PrecalculateCommand extends SquirlsCommand {
 
         LOGGER.info("Processing variants on {} threads", nThreads);
 
+        if (windowSize < 1) {
+            LOGGER.error("Window size must be a positive integer: {}", windowSize);
+            return 1;
+        }
+
         if (length < 1) {
             LOGGER.error("Maximum length must be a positive integer: {}", length);
             return 1;
         }
         LOGGER.info("Writing variants up to {}bp long", length);
 
+        if (chunkSize < 1) {
+            LOGGER.error("Chunk size must be a positive integer: {}", chunkSize);
+            return 1;
+        }
+
+        if (outputPath == null)
+            outputPath = Path.of(outputFormat == PrecalculateOutputFormat.BINARY ? "squirls-scores.bin" : "squirls-scores.vcf.gz");
+
+        Shard shard = null;
+        if (this.shard != null) {
+            try {
+                shard = Shard.parse(this.shard);
+            } catch (IllegalArgumentException e) {
+                LOGGER.error("{}", e.getMessage());
+                return 1;
+            }
+            if (checkpointDir == null) {
+                LOGGER.error("Sharded precalculation writes the parts into the checkpoint directory, please provide `--checkpoint-dir`");
+                return 1;
+            }
+        }
+
+        if (checkpointDir != null) {
+            if (outputFormat != PrecalculateOutputFormat.VCF) {
+                LOGGER.error("Checkpointing is supported for the VCF output format only");
+                return 1;
+            }
+            if (shard == null && !outputPath.toString().endsWith(".vcf.gz")) {
+                LOGGER.error("Checkpointing writes a bgzipped VCF file, the output path must end with `.vcf.gz`: {}", outputPath);
+                return 1;
+            }
+        }
+
         try (ConfigurableApplicationContext context = getContext()) {
             Squirls squirls = getSquirls(context);
             SquirlsDataService squirlsDataService = squirls.squirlsDataService();
             GenomicAssembly assembly = squirlsDataService.genomicAssembly();
             List<GenomicRegion> regions = prepareGenomicRegions(assembly);
 
+            // contigs in the order of the sequence dictionary
             Map<Integer, List<GenomicRegion>> regionByContig = regions.stream()
-                    .collect(Collectors.groupingBy(GenomicRegion::contigId, Collectors.toUnmodifiableList()));
-
-
+                    .collect(Collectors.groupingBy(GenomicRegion::contigId, TreeMap::new, Collectors.toUnmodifiableList()));
+            List<GenomicChunk> chunks = prepareChunks(assembly, regionByContig);
 
             VariantGenerator generator = new VariantGenerator(length);
+            List<GenomicChunk> selected = chunks;
+            if (shard != null) {
+                long variantsPerPosition = generator.variantsPerPosition();
+                selected = shard.select(chunks, chunk -> estimateVariantCount(chunk, squirlsDataService, variantsPerPosition));
+                LOGGER.info("Precalculating {} out of {} chunks assigned to shard {}", selected.size(), chunks.size(), shard);
+            }
             VariantContextAdaptor adaptor = new VariantContextAdaptor(writeIndividualPredictions, squirlsDataService);
+            double threshold = squirls.squirlsClassifier().threshold();
+
+            CheckpointManifest manifest = null;
+            if (checkpointDir != null) {
+                manifest = CheckpointManifest.open(checkpointDir, CheckpointManifest.settings(checkpointSettings(shard), chunks));
+                // the header allows merging the parts without the Squirls database
+                VcfPartMerger.writeHeader(prepareHeader(assembly, threshold), prepareSequenceDictionary(assembly), manifest.headerPath());
+                LOGGER.info("Writing parts to `{}`, {} out of {} chunks are already completed", checkpointDir.toAbsolutePath(), manifest.completedCount(), selected.size());
+            } else {
+                LOGGER.info("Writing scores to `{}`", outputPath.toAbsolutePath());
+            }
 
-            LOGGER.info("Writing scores to `{}`", outputPath.toAbsolutePath());
-            try (VariantContextWriter writer = new VariantContextWriterBuilder()
-                    .setOutputPath(outputPath)
-                    .setReferenceDictionary(prepareSequenceDictionary(assembly))
-                    .setOptions(EnumSet.of(Options.USE_ASYNC_IO, Options.DO_NOT_WRITE_GENOTYPES))
-                    .build()) {
-
-                VCFHeader header = prepareHeader(assembly);
-                writer.writeHeader(header);
-
+            ForkJoinPool pool = new ForkJoinPool(nThreads, SquirlsWorkerThread::new, HANDLER, true);
+            try (CheckpointManifest checkpoint = manifest;
+                 ScoreWriter writer = checkpoint == null
+                         ? openScoreWriter(assembly, threshold)
+                         : new CheckpointScoreWriter(checkpoint, prepareHeader(assembly, threshold))) {
+                /*
+                 The windows are processed on the worker threads, while the results are written on this thread in
+                 the coordinate order. At most PENDING_CHUNKS_PER_THREAD windows per thread are buffered.
+                 */
                 ProgressReporter progressReporter = new ProgressReporter(10_000);
-                ForkJoinPool pool = new ForkJoinPool(nThreads, SquirlsWorkerThread::new, HANDLER, true);
-                for (int contigId : regionByContig.keySet()) {
-                    List<GenomicRegion> contigRegions = regionByContig.get(contigId);
-                    if (contigRegions.isEmpty())
+                int capacity = nThreads * PENDING_CHUNKS_PER_THREAD;
+                Deque<PendingWindow> pending = new ArrayDeque<>(capacity);
+                for (GenomicChunk chunk : selected) {
+                    if (checkpoint != null && checkpoint.isComplete(chunk))
                         continue;
 
-                    List<GenomicRegion> preprocessed = RegionUtils.mergeOverlapping(contigRegions);
+                    List<GenomicRegion> chunkRegions = chunk.regions();
+                    for (int i = 0; i < chunkRegions.size(); i++) {
+                        // the windows keep all threads busy even if a single region spans a large part of the contig
+                        List<GenomicRegion> windows = RegionUtils.splitIntoMaxLength(chunkRegions.get(i), windowSize);
+                        for (int j = 0; j < windows.size(); j++) {
+                            if (pending.size() == capacity)
+                                writeWindow(writer, pending.removeFirst());
+
+                            GenomicRegion window = windows.get(j);
+                            Precalculation precalculation = Precalculation.of(window, chunk.queryRegion(i), generator, adaptor, squirlsDataService, squirls.splicingAnnotator(), squirls.squirlsClassifier(), progressReporter);
+                            boolean first = i == 0 && j == 0;
+                            boolean last = i == chunkRegions.size() - 1 && j == windows.size() - 1;
+                            pending.addLast(new PendingWindow(chunk, window, first, last, pool.submit(precalculation)));
+                        }
+                    }
+                }
 
-                    int baseCount = preprocessed.stream().mapToInt(Region::length).sum();
-                    String contigName = assembly.contigById(contigId).name();
-                    LOGGER.info("Precalculating scores for {} positions of chromosome {}", NF.format(baseCount), contigName);
+                while (!pending.isEmpty())
+                    writeWindow(writer, pending.removeFirst());
 
-                    Precalculation precalculation = Precalculation.of(preprocessed, generator, adaptor, squirlsDataService, squirls.splicingAnnotator(), squirls.squirlsClassifier(), writer, GRANULARITY, progressReporter);
-                    pool.submit(precalculation);
-                }
-                pool.shutdown();
+                progressReporter.summarize().run();
+            } finally {
+                pool.shutdownNow();
+            }
 
-                //noinspection StatementWithEmptyBody
-                while (!pool.awaitTermination(2, TimeUnit.SECONDS)) {}
+            if (shard != null) {
+                LOGGER.info("Shard {} wrote to `{}`. Merge the checkpoint directories of all shards with the `merge` command", shard, checkpointDir.toAbsolutePath());
+                return 0;
+            }
 
+            if (manifest != null) {
+                LOGGER.info("Merging {} parts into `{}`", chunks.size(), outputPath.toAbsolutePath());
+                List<Path> parts = chunks.stream()
+                        .map(manifest::partPath)
+                        .collect(Collectors.toUnmodifiableList());
+                VcfPartMerger.merge(manifest.headerPath(), prepareSequenceDictionary(assembly), parts, outputPath);
             }
         } catch (Exception e) {
             LOGGER.error("Error: {}", e.getMessage(), e);
@@ -235,11 +344,86 @@ public class PrecalculateCommand extends SquirlsCommand {
         return 0;
     }
 
-    private static VCFHeader prepareHeader(GenomicAssembly assembly) {
+    private static void writeWindow(ScoreWriter writer, PendingWindow window) throws Exception {
+        if (window.first)
+            writer.startChunk(window.chunk);
+        writer.write(window.region, window.result.get());
+        if (window.last)
+            writer.finishChunk(window.chunk);
+    }
+
+    private List<GenomicChunk> prepareChunks(GenomicAssembly assembly, Map<Integer, List<GenomicRegion>> regionByContig) {
+        List<GenomicChunk> chunks = new ArrayList<>();
+        for (Map.Entry<Integer, List<GenomicRegion>> entry : regionByContig.entrySet()) {
+            if (entry.getValue().isEmpty())
+                continue;
+
+            List<GenomicRegion> preprocessed = RegionUtils.mergeOverlapping(entry.getValue());
+
+            int baseCount = preprocessed.stream().mapToInt(Region::length).sum();
+            String contigName = assembly.contigById(entry.getKey()).name();
+            LOGGER.info("Precalculating scores for {} positions of chromosome {}", NF.format(baseCount), contigName);
+
+            chunks.addAll(GenomicChunk.partition(preprocessed, chunkSize, chunks.size()));
+        }
+        return chunks;
+    }
+
+    /**
+     * Estimate the number of variants of the <code>chunk</code> that are scored, i.e. the variants generated at the
+     * positions that overlap with a multi-exon transcript.
+     */
+    private static long estimateVariantCount(GenomicChunk chunk, SquirlsDataService dataService, long variantsPerPosition) {
+        long bases = 0;
+        for (GenomicRegion region : chunk.regions()) {
+            List<GenomicRegion> transcripts = dataService.overlappingGenes(region).stream()
+                    .flatMap(Gene::transcriptStream)
+                    .filter(tx -> tx.exonCount() > 1)
+                    .map(Transcript::location)
+                    .collect(Collectors.toList());
+            bases += RegionUtils.coveredBases(region, transcripts);
+        }
+        return bases * variantsPerPosition;
+    }
+
+    /**
+     * @return the settings that must not change when resuming a checkpointed run
+     */
+    private Map<String, Object> checkpointSettings(Shard shard) {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("max-length", length);
+        settings.put("individual", writeIndividualPredictions);
+        settings.put("transcript-source", featureSource);
+        settings.put("chunk-size", chunkSize);
+        if (shard != null)
+            settings.put(CheckpointManifest.SHARD_KEY, shard);
+        return settings;
+    }
+
+    private ScoreWriter openScoreWriter(GenomicAssembly assembly, double threshold) throws IOException {
+        switch (outputFormat) {
+            case BINARY:
+                return new BinaryScoreWriter(BinaryScoreStoreWriter.open(outputPath, threshold));
+            case VCF:
+            default:
+                VariantContextWriter writer = new VariantContextWriterBuilder()
+                        .setOutputPath(outputPath)
+                        .setReferenceDictionary(prepareSequenceDictionary(assembly))
+                        .setOptions(EnumSet.of(Options.USE_ASYNC_IO, Options.DO_NOT_WRITE_GENOTYPES, Options.INDEX_ON_THE_FLY))
+                        .build();
+                writer.writeHeader(prepareHeader(assembly, threshold));
+                return new VcfScoreWriter(writer);
+        }
+    }
+
+    private static VCFHeader prepareHeader(GenomicAssembly assembly, double threshold) {
         VCFHeader header = new VCFHeader();
         header.setVCFHeaderVersion(VCFHeaderVersion.VCF4_2);
 
         header.addMetaDataLine(new VCFHeaderLine("reference", assembly.name() + '(' + assembly.genBankAccession() + ')'));
+        // the threshold is required to restore the pathogenicity of the individual predictions from the file
+        if (!Double.isNaN(threshold))
+            header.addMetaDataLine(new VCFHeaderLine(TabixPrecomputedScoreSource.THRESHOLD_HEADER_KEY, String.valueOf(threshold)));
 
         for (Contig contig : assembly.contigs()) {
             if (!contig.sequenceRole().equals(SequenceRole.ASSEMBLED_MOLECULE))
@@ -348,4 +532,19 @@ public class PrecalculateCommand extends SquirlsCommand {
         return Optional.of(GenomicRegion.of(contig, Strand.POSITIVE, CoordinateSystem.zeroBased(), start, end));
     }
 
+    private static class PendingWindow {
+
+        private final GenomicChunk chunk;
+        private final GenomicRegion region;
+        private final boolean first, last;
+        private final Future<List<VariantContext>> result;
+
+        private PendingWindow(GenomicChunk chunk, GenomicRegion region, boolean first, boolean last, Future<List<VariantContext>> result) {
+            this.chunk = chunk;
+            this.region = region;
+            this.first = first;
+            this.last = last;
+            this.result = result;
+        }
+    }
 }
@@ -76,7 +76,7 @@
 
 package org.monarchinitiative.squirls.cli.cmd.precalculate;
 
-import htsjdk.variant.variantcontext.writer.VariantContextWriter;
+import htsjdk.variant.variantcontext.VariantContext;
 import org.monarchinitiative.sgenes.model.Transcript;
 import org.monarchinitiative.squirls.cli.cmd.ProgressReporter;
 import org.monarchinitiative.squirls.core.*;
@@ -88,20 +88,35 @@ import org.monarchinitiative.svart.CoordinateSystem;
 import org.monarchinitiative.svart.GenomicRegion;
 import org.monarchinitiative.svart.GenomicVariant;
 import org.monarchinitiative.svart.Strand;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Callable;
 
 /**
- * Precalculation task formulated to fit into fork-join task framework.
+ * Precalculation task that computes the scores for variants of a single genomic chunk. The variant contexts are
+ * returned sorted by their position, ready to be written into a sorted VCF file.
+ * <p>
+ * The chunk is usually a window of a larger query region. The deletions that start close to the end of the chunk
+ * extend into the next chunk, but not beyond the end of the query region.
  */
-class Precalculation extends RecursiveAction {
+class Precalculation implements Callable<List<VariantContext>> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Precalculation.class);
+
+    private static final Comparator<VariantContext> BY_POSITION = Comparator.comparingInt(VariantContext::getStart);
 
     private final ProgressReporter progressReporter;
 
-    private final List<GenomicRegion> regions;
+    private final GenomicRegion region;
+
+    private final int regionLimit;
 
     private final SquirlsDataService dataService;
 
@@ -111,94 +126,70 @@ class Precalculation extends RecursiveAction {
 
     private final SquirlsClassifier classifier;
 
-    private final VariantContextWriter writer;
-
     private final VariantGenerator generator;
 
-    private final int granularity;
-
-    private final int start, end;
-
-    static Precalculation of(List<GenomicRegion> regions,
+    /**
+     * @param region      chunk to generate the variants for
+     * @param queryRegion query region the chunk belongs to, the deletions do not extend beyond its end
+     */
+    static Precalculation of(GenomicRegion region,
+                             GenomicRegion queryRegion,
                              VariantGenerator generator,
                              VariantContextAdaptor adaptor,
                              SquirlsDataService dataService,
                              SplicingAnnotator annotator,
                              SquirlsClassifier classifier,
-                             VariantContextWriter writer,
-                             int granularity,
                              ProgressReporter progressReporter) {
-        return new Precalculation(regions, generator, adaptor, dataService, annotator, classifier, writer, progressReporter, granularity, 0, regions.size());
+        return new Precalculation(region, queryRegion.endOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased()),
+                generator, adaptor, dataService, annotator, classifier, progressReporter);
     }
 
-    private Precalculation(List<GenomicRegion> regions,
+    private Precalculation(GenomicRegion region,
+                           int regionLimit,
                            VariantGenerator generator,
                            VariantContextAdaptor adaptor,
                            SquirlsDataService dataService,
                            SplicingAnnotator annotator,
                            SquirlsClassifier classifier,
-                           VariantContextWriter writer,
-                           ProgressReporter progressReporter,
-                           int granularity, int start, int end) {
-        this.regions = regions;
+                           ProgressReporter progressReporter) {
+        this.region = region;
+        this.regionLimit = regionLimit;
         this.generator = generator;
         this.adaptor = adaptor;
         this.dataService = dataService;
         this.annotator = annotator;
         this.classifier = classifier;
-        this.writer = writer;
         this.progressReporter = progressReporter;
-        this.granularity = granularity;
-        this.start = start;
-        this.end = end;
     }
 
     @Override
-    protected void compute() {
-        if (end - start <= granularity) {
-            // compute
-            for (GenomicRegion region : regions.subList(start, end))
-                analyze(region);
-        } else {
-            // fork
-            int midpoint = (end - start) / 2;
-            Precalculation left = new Precalculation(regions, generator, adaptor, dataService, annotator, classifier, writer, progressReporter, granularity, start, start + midpoint);
-            Precalculation right = new Precalculation(regions, generator, adaptor, dataService, annotator, classifier, writer, progressReporter, granularity, start + midpoint, end);
-
-            left.fork();
-            right.fork();
-        }
-    }
-
-    private void analyze(GenomicRegion region) {
+    public List<VariantContext> call() {
         List<Transcript> transcripts = dataService.overlappingTranscripts(region);
         if (transcripts.isEmpty())
-            return;
-
-        int min = -1, max = -1;
-        for (Transcript tx : transcripts) {
-            int txs = tx.startOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased());
-            min = (min < 0) ? txs : Math.min(min, txs);
+            return List.of();
 
-            int txe = tx.endOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased());
-            max = Math.max(max, txe);
-        }
+        int start = region.startOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased());
+        int end = region.endOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased());
+        int sequenceEnd = Math.max(end, Math.min(regionLimit, end + generator.maxLength() - 1));
+        StrandedSequence sequence = dataService.sequenceForRegion(GenomicRegion.of(region.contig(), Strand.POSITIVE, CoordinateSystem.zeroBased(), start, sequenceEnd));
 
-        // add some padding
-        min = Math.max(0, min - 50);
-        max = Math.min(region.contig().length(), max + 50);
-        GenomicRegion query = GenomicRegion.of(region.contig(), Strand.POSITIVE, CoordinateSystem.zeroBased(), min, max);
-        StrandedSequence enoughSequence = dataService.sequenceForRegion(query);
-
-        List<GenomicVariant> variants = generator.generate(dataService.sequenceForRegion(region));
-
-        for (GenomicVariant variant : variants) {
+        Map<String, StrandedSequence> sequences = new HashMap<>(transcripts.size());
+        List<VariantContext> contexts = new ArrayList<>();
+        Iterator<GenomicVariant> variants = generator.generate(sequence, end - start).iterator();
+        while (variants.hasNext()) {
+            GenomicVariant variant = variants.next();
             List<SquirlsTxResult> results = new ArrayList<>(transcripts.size());
             for (Transcript tx : transcripts) {
                 if (!tx.location().overlapsWith(variant) || tx.exonCount() == 1)
                     continue;
 
-                VariantOnTranscript vot = VariantOnTranscript.of(variant, tx, enoughSequence);
+                StrandedSequence txSequence = sequenceForTranscript(variant, tx, sequences);
+                if (txSequence == null) {
+                    LOGGER.debug("Unable to get reference sequence when evaluating variant `{}` with respect to `{}`", variant, tx.accession());
+                    continue;
+                }
+
+                VariantOnTranscript vot = VariantOnTranscript.of(variant, tx, txSequence);
                 SquirlsFeatures features = annotator.annotate(vot);
                 Prediction prediction = classifier.predict(features);
                 SquirlsTxResult txResult = SquirlsTxResult.of(tx.accession(), prediction, Map.of()); // Features are not required downstream
@@ -208,8 +199,58 @@ class Precalculation extends RecursiveAction {
             SquirlsResult result = SquirlsResult.of(results);
 
             adaptor.mapToVariantContext(variant, result)
-                    .ifPresent(writer::add);
+                    .ifPresent(contexts::add);
             progressReporter.logAllele(variant);
         }
+
+        /*
+         The deletions are written with the preceding base, hence the VCF position of a deletion precedes the
+         positions of the SNVs and insertions generated at the same position. The sort is stable.
+         */
+        contexts.sort(BY_POSITION);
+        return contexts;
+    }
+
+    /**
+     * Get the reference sequence required to annotate the <code>variant</code> with respect to the transcript.
+     * <p>
+     * The first variant of the transcript fetches the part of the window that overlaps with the transcript, padded
+     * as required by the {@link SplicingAnnotator}. The sequence is reused for the following variants, and fetched
+     * again only if a variant requires a region that is not covered, e.g. the splice sites of a long exon.
+     *
+     * @param sequences sequences fetched for the previous variants, keyed by the transcript accession
+     * @return the sequence or <code>null</code> if the sequence is not available
+     */
+    private StrandedSequence sequenceForTranscript(GenomicVariant variant,
+                                                   Transcript tx,
+                                                   Map<String, StrandedSequence> sequences) {
+        GenomicRegion required = annotator.requiredSequenceRegion(variant, tx);
+        StrandedSequence cached = sequences.get(tx.accession());
+        if (cached != null && cached.location().contains(required))
+            return cached;
+
+        int start = required.startOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased());
+        int end = required.endOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased());
+        if (cached == null) {
+            // the window intersected with the transcript, padded by the regions required for its first and last base
+            int windowStart = Math.max(region.startOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased()),
+                    tx.startOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased()));
+            int windowEnd = Math.min(region.endOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased()),
+                    tx.endOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased()));
+            for (int pos : new int[]{windowStart, windowEnd - 1}) {
+                GenomicVariant snv = GenomicVariant.of(region.contig(), "", Strand.POSITIVE, CoordinateSystem.zeroBased(), pos, "N", "A");
+                GenomicRegion padded = annotator.requiredSequenceRegion(snv, tx);
+                start = Math.min(start, padded.startOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased()));
+                end = Math.max(end, padded.endOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased()));
+            }
+        } else {
+            start = Math.min(start, cached.location().startOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased()));
+            end = Math.max(end, cached.location().endOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased()));
+        }
+
+        StrandedSequence sequence = dataService.sequenceForRegion(GenomicRegion.of(region.contig(), Strand.POSITIVE, CoordinateSystem.zeroBased(), start, end));
+        if (sequence != null)
+            sequences.put(tx.accession(), sequence);
+        return sequence;
     }
 }
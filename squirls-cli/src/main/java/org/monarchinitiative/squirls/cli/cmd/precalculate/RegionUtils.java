@@ -113,13 +113,39 @@ class RegionUtils {
                 results.add(region);
                 previousStart = nextStart;
             }
-            previousEnd = nextEnd;
+            // the next region may be contained in the previous one
+            previousEnd = Math.max(previousEnd, nextEnd);
 
         }
         results.add(GenomicRegion.of(first.contig(), Strand.POSITIVE, CoordinateSystem.zeroBased(), previousStart, previousEnd));
         return results;
     }
 
+    /**
+     * @return number of bases of the <code>region</code> that are covered by at least one of the <code>features</code>
+     */
+    static int coveredBases(GenomicRegion region, List<GenomicRegion> features) {
+        int regionStart = region.startOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased());
+        int regionEnd = region.endOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased());
+
+        List<GenomicRegion> sorted = features.stream()
+                .filter(feature -> feature.contigId() == region.contigId())
+                .sorted(COMPARATOR)
+                .collect(Collectors.toList());
+
+        int covered = 0;
+        int previousEnd = regionStart;
+        for (GenomicRegion feature : sorted) {
+            int start = Math.max(previousEnd, feature.startOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased()));
+            int end = Math.min(regionEnd, feature.endOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased()));
+            if (start < end) {
+                covered += end - start;
+                previousEnd = end;
+            }
+        }
+        return covered;
+    }
+
     static List<GenomicRegion> splitIntoMaxLength(GenomicRegion region, int maxLength) {
         if (maxLength < 1)
             throw new IllegalArgumentException("Maximum length must be positive integer, got " + maxLength);
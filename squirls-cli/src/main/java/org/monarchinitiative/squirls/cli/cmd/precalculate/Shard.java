@@ -0,0 +1,194 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2021
+ */
+
+package org.monarchinitiative.squirls.cli.cmd.precalculate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One of <code>count</code> parts of a precalculation that are run independently, e.g. on different nodes of a cluster.
+ * <p>
+ * The chunks of the precalculation are assigned to the shards deterministically, such that each shard receives
+ * a contiguous run of chunks with approximately the same total weight. All shards of a precalculation must be run
+ * with the same query regions and settings in order to assign the chunks in the same way.
+ */
+class Shard {
+
+    private static final Pattern SHARD_PATTERN = Pattern.compile("^(?<index>\\d+)/(?<count>\\d+)$");
+
+    /**
+     * 1-based index of the shard.
+     */
+    private final int index;
+
+    private final int count;
+
+    private Shard(int index, int count) {
+        this.index = index;
+        this.count = count;
+    }
+
+    static Shard of(int index, int count) {
+        if (count < 1)
+            throw new IllegalArgumentException("Shard count must be a positive integer, got " + count);
+        if (index < 1 || index > count)
+            throw new IllegalArgumentException("Shard index must be in range [1, " + count + "], got " + index);
+        return new Shard(index, count);
+    }
+
+    /**
+     * Parse the shard from a string in format <code>i/N</code>, where <code>i</code> is the 1-based index of the shard.
+     *
+     * @throws IllegalArgumentException if the <code>value</code> does not represent a valid shard
+     */
+    static Shard parse(String value) {
+        Matcher matcher = SHARD_PATTERN.matcher(value);
+        if (!matcher.matches())
+            throw new IllegalArgumentException("Shard `" + value + "` is not in format `i/N`");
+
+        try {
+            return of(Integer.parseInt(matcher.group("index")), Integer.parseInt(matcher.group("count")));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Shard `" + value + "` is not in format `i/N`", e);
+        }
+    }
+
+    int index() {
+        return index;
+    }
+
+    int count() {
+        return count;
+    }
+
+    /**
+     * Select the <code>items</code> assigned to this shard.
+     * <p>
+     * The items are placed one after another on a line, each item taking the space of its weight. The line is cut
+     * into <code>count</code> segments of equal length and an item belongs to the segment that contains its midpoint.
+     *
+     * @param items  items in a stable order, e.g. chunks in the coordinate order
+     * @param weight function for estimating the work required to process an item, e.g. number of variants
+     * @return the items of this shard in the original order
+     */
+    <T> List<T> select(List<T> items, ToLongFunction<? super T> weight) {
+        long[] weights = new long[items.size()];
+        long total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = Math.max(weight.applyAsLong(items.get(i)), 0);
+            total += weights[i];
+        }
+        if (total == 0) {
+            // nothing to estimate, distribute the items evenly
+            for (int i = 0; i < weights.length; i++)
+                weights[i] = 1;
+            total = weights.length;
+        }
+
+        List<T> selected = new ArrayList<>();
+        long offset = 0;
+        for (int i = 0; i < weights.length; i++) {
+            // the midpoint of the item is (offset + weights[i] / 2), the doubling avoids the rounding
+            int segment = (int) Math.min(count - 1, (2 * offset + weights[i]) * count / (2 * total));
+            if (segment == index - 1)
+                selected.add(items.get(i));
+            offset += weights[i];
+        }
+        return selected;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Shard shard = (Shard) o;
+        return index == shard.index && count == shard.count;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * index + count;
+    }
+
+    @Override
+    public String toString() {
+        return index + "/" + count;
+    }
+}
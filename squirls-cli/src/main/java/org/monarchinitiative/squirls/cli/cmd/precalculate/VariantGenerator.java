@@ -81,11 +81,16 @@ import org.monarchinitiative.svart.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * Class for generating all possible variants out of a nucleotide sequence.
+ * <p>
+ * The variants are generated lazily, one position at a time, hence the memory footprint does not depend on the length
+ * of the sequence.
  */
 public class VariantGenerator {
 
@@ -108,55 +113,91 @@ public class VariantGenerator {
         this.maxLength = maxLength;
     }
 
-    public List<GenomicVariant> generate(StrandedSequence sequence) {
-        List<GenomicVariant> variants = new LinkedList<>();
+    /**
+     * @return maximum length of the generated insertions and deletions
+     */
+    public int maxLength() {
+        return maxLength;
+    }
+
+    /**
+     * @return number of variants generated at a position with a known reference base, provided that the sequence
+     * extends at least <code>maxLength - 1</code> bases beyond the position
+     */
+    public long variantsPerPosition() {
+        long insertions = 0, alts = 1;
+        for (int i = 1; i < maxLength; i++) {
+            alts *= BASES.size();
+            insertions += alts;
+        }
+        return BASES.size() - 1 + insertions + maxLength;
+    }
 
+    /**
+     * Generate variants that start at any position of the <code>sequence</code>.
+     *
+     * @param sequence sequence to generate the variants for
+     * @return stream of variants, ordered by position
+     */
+    public Stream<GenomicVariant> generate(StrandedSequence sequence) {
+        return generate(sequence, sequence.sequence().length());
+    }
+
+    /**
+     * Generate variants that start at the first <code>nPositions</code> positions of the <code>sequence</code>. The
+     * remaining bases only provide the reference alleles of the deletions that start close to the last position.
+     *
+     * @param sequence   sequence to generate the variants for
+     * @param nPositions number of positions to generate the variants for
+     * @return stream of variants, ordered by position
+     */
+    public Stream<GenomicVariant> generate(StrandedSequence sequence, int nPositions) {
         String seq = sequence.sequence();
-        Contig contig = sequence.contig();
+        if (nPositions < 0 || nPositions > seq.length())
+            throw new IllegalArgumentException("Number of positions " + nPositions + " must be in range [0, " + seq.length() + "]");
+
+        int start = sequence.startWithCoordinateSystem(CoordinateSystem.oneBased());
+        return IntStream.range(0, nPositions)
+                .mapToObj(i -> variantsAt(sequence.contig(), sequence.strand(), seq, i, start + i))
+                .flatMap(List::stream);
+    }
 
-        for (int i = 0, pos = sequence.startWithCoordinateSystem(CoordinateSystem.oneBased());
-             i < seq.length();
-             i++, pos++) {
-            String refBase = seq.substring(i, i + 1);
-            if (refBase.equalsIgnoreCase("N"))
+    private List<GenomicVariant> variantsAt(Contig contig, Strand strand, String seq, int i, int pos) {
+        String refBase = seq.substring(i, i + 1);
+        if (refBase.equalsIgnoreCase("N"))
+            return List.of();
+
+        List<GenomicVariant> variants = new ArrayList<>();
+        for (String altBase : BASES) {
+            if (altBase.equalsIgnoreCase(refBase))
                 continue;
-            for (String altBase : BASES) {
-                if (altBase.equalsIgnoreCase(refBase))
-                    continue;
-                // SNV
-                variants.add(GenomicVariant.of(contig, ID, sequence.strand(), CoordinateSystem.oneBased(), pos, refBase, altBase));
-            }
-            // INSERTIONS up to given length
-            variants.addAll(generateInsertions(contig, sequence.strand(), CoordinateSystem.oneBased(), pos, refBase, refBase, maxLength));
-
-            // DELETIONS
-            int j = i + 1;
-            int max = Math.min(i + maxLength, seq.length());
-            while (j <= max) {
-                String refBases = seq.substring(i, j);
-                variants.add(GenomicVariant.of(contig, ID, sequence.strand(), CoordinateSystem.oneBased(), pos, refBases, ""));
-                j++;
-            }
+            // SNV
+            variants.add(GenomicVariant.of(contig, ID, strand, CoordinateSystem.oneBased(), pos, refBase, altBase));
+        }
+        // INSERTIONS up to given length
+        generateInsertions(variants, contig, strand, CoordinateSystem.oneBased(), pos, refBase, refBase, maxLength);
+
+        // DELETIONS
+        int max = Math.min(i + maxLength, seq.length());
+        for (int j = i + 1; j <= max; j++) {
+            String refBases = seq.substring(i, j);
+            variants.add(GenomicVariant.of(contig, ID, strand, CoordinateSystem.oneBased(), pos, refBases, ""));
         }
 
         return variants;
     }
 
-    private static List<GenomicVariant> generateInsertions(Contig contig, Strand strand, CoordinateSystem coordinateSystem,
-                                                    int pos, String ref, String alt, int level) {
+    private static void generateInsertions(List<GenomicVariant> variants, Contig contig, Strand strand, CoordinateSystem coordinateSystem,
+                                           int pos, String ref, String alt, int level) {
         if (alt.length() == level)
-            return List.of();
-
-        List<GenomicVariant> variants = new LinkedList<>();
+            return;
 
         for (String base : BASES) {
             String extendedAltAllele = alt + base;
             GenomicVariant variant = GenomicVariant.of(contig, ID, strand, coordinateSystem, pos, ref, extendedAltAllele);
             variants.add(variant);
-            variants.addAll(generateInsertions(contig, strand, coordinateSystem, pos, ref, extendedAltAllele, level));
+            generateInsertions(variants, contig, strand, coordinateSystem, pos, ref, extendedAltAllele, level);
         }
-
-        return variants;
     }
 
 }
@@ -0,0 +1,365 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2020
+ */
+
+package org.monarchinitiative.squirls.cli.cmd.serve;
+
+import java.util.*;
+
+/**
+ * Minimal JSON reader and writer for the request and response bodies of the {@link SquirlsServer}.
+ * <p>
+ * The JSON values are mapped to {@link Map} (objects, keys in the input order), {@link List} (arrays),
+ * {@link String}, {@link Long} (integral numbers), {@link Double} (other numbers), {@link Boolean}, and
+ * <code>null</code>.
+ */
+final class Json {
+
+    private final String text;
+
+    private int pos;
+
+    private Json(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Parse a JSON document.
+     *
+     * @param text JSON document
+     * @return parsed value
+     * @throws IllegalArgumentException if the <code>text</code> is not a valid JSON
+     */
+    static Object parse(String text) {
+        Json json = new Json(Objects.requireNonNull(text, "Text cannot be null"));
+        Object value = json.readValue();
+        json.skipWhitespace();
+        if (json.pos != text.length())
+            throw json.error("Unexpected trailing content");
+        return value;
+    }
+
+    /**
+     * Write the <code>value</code> as JSON. Non-finite numbers are written as <code>null</code>.
+     *
+     * @param value value composed of maps, iterables, strings, numbers, booleans, and <code>null</code>s
+     * @return JSON document
+     */
+    static String write(Object value) {
+        StringBuilder builder = new StringBuilder();
+        write(value, builder);
+        return builder.toString();
+    }
+
+    private static void write(Object value, StringBuilder builder) {
+        if (value == null) {
+            builder.append("null");
+        } else if (value instanceof String) {
+            writeString((String) value, builder);
+        } else if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            if (Double.isFinite(number))
+                builder.append(number);
+            else
+                builder.append("null");
+        } else if (value instanceof Number || value instanceof Boolean) {
+            builder.append(value);
+        } else if (value instanceof Map) {
+            builder.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first)
+                    builder.append(',');
+                first = false;
+                writeString(String.valueOf(entry.getKey()), builder);
+                builder.append(':');
+                write(entry.getValue(), builder);
+            }
+            builder.append('}');
+        } else if (value instanceof Iterable) {
+            builder.append('[');
+            boolean first = true;
+            for (Object item : (Iterable<?>) value) {
+                if (!first)
+                    builder.append(',');
+                first = false;
+                write(item, builder);
+            }
+            builder.append(']');
+        } else {
+            throw new IllegalArgumentException("Unable to write " + value.getClass().getName() + " as JSON");
+        }
+    }
+
+    private static void writeString(String value, StringBuilder builder) {
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20)
+                        builder.append(String.format("\\u%04x", (int) c));
+                    else
+                        builder.append(c);
+            }
+        }
+        builder.append('"');
+    }
+
+    private Object readValue() {
+        skipWhitespace();
+        if (pos >= text.length())
+            throw error("Unexpected end of input");
+
+        char c = text.charAt(pos);
+        switch (c) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                return readString();
+            case 't':
+                return readLiteral("true", Boolean.TRUE);
+            case 'f':
+                return readLiteral("false", Boolean.FALSE);
+            case 'n':
+                return readLiteral("null", null);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9'))
+                    return readNumber();
+                throw error("Unexpected character `" + c + '`');
+        }
+    }
+
+    private Map<String, Object> readObject() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        pos++; // {
+        skipWhitespace();
+        if (consume('}'))
+            return object;
+
+        do {
+            skipWhitespace();
+            if (pos >= text.length() || text.charAt(pos) != '"')
+                throw error("Expected object key");
+            String key = readString();
+            skipWhitespace();
+            if (!consume(':'))
+                throw error("Expected `:`");
+            object.put(key, readValue());
+            skipWhitespace();
+        } while (consume(','));
+
+        if (!consume('}'))
+            throw error("Expected `,` or `}`");
+        return object;
+    }
+
+    private List<Object> readArray() {
+        List<Object> array = new ArrayList<>();
+        pos++; // [
+        skipWhitespace();
+        if (consume(']'))
+            return array;
+
+        do {
+            array.add(readValue());
+            skipWhitespace();
+        } while (consume(','));
+
+        if (!consume(']'))
+            throw error("Expected `,` or `]`");
+        return array;
+    }
+
+    private String readString() {
+        StringBuilder builder = new StringBuilder();
+        pos++; // opening quote
+        while (pos < text.length()) {
+            char c = text.charAt(pos++);
+            if (c == '"')
+                return builder.toString();
+            if (c != '\\') {
+                builder.append(c);
+                continue;
+            }
+            if (pos >= text.length())
+                break;
+            char escaped = text.charAt(pos++);
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    builder.append(escaped);
+                    break;
+                case 'b':
+                    builder.append('\b');
+                    break;
+                case 'f':
+                    builder.append('\f');
+                    break;
+                case 'n':
+                    builder.append('\n');
+                    break;
+                case 'r':
+                    builder.append('\r');
+                    break;
+                case 't':
+                    builder.append('\t');
+                    break;
+                case 'u':
+                    if (pos + 4 > text.length())
+                        throw error("Invalid unicode escape");
+                    try {
+                        builder.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Invalid unicode escape");
+                    }
+                    pos += 4;
+                    break;
+                default:
+                    throw error("Invalid escape `\\" + escaped + '`');
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private Number readNumber() {
+        int start = pos;
+        boolean integral = true;
+        if (text.charAt(pos) == '-')
+            pos++;
+        while (pos < text.length()) {
+            char c = text.charAt(pos);
+            if (c >= '0' && c <= '9') {
+                pos++;
+            } else if (c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                integral = false;
+                pos++;
+            } else {
+                break;
+            }
+        }
+
+        String number = text.substring(start, pos);
+        try {
+            return integral
+                    ? (Number) Long.parseLong(number)
+                    : (Number) Double.parseDouble(number);
+        } catch (NumberFormatException e) {
+            throw error("Invalid number `" + number + '`');
+        }
+    }
+
+    private Object readLiteral(String literal, Object value) {
+        if (!text.startsWith(literal, pos))
+            throw error("Unexpected token");
+        pos += literal.length();
+        return value;
+    }
+
+    private boolean consume(char c) {
+        if (pos < text.length() && text.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos)))
+            pos++;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(String.format("%s at position %d", message, pos));
+    }
+}
@@ -0,0 +1,486 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2020
+ */
+
+package org.monarchinitiative.squirls.cli.cmd.serve;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.monarchinitiative.squirls.cli.cmd.annotate_pos.VariantChange;
+import org.monarchinitiative.squirls.core.AsyncVariantSplicingEvaluator;
+import org.monarchinitiative.squirls.core.SquirlsResult;
+import org.monarchinitiative.squirls.core.SquirlsTxResult;
+import org.monarchinitiative.svart.Contig;
+import org.monarchinitiative.svart.CoordinateSystem;
+import org.monarchinitiative.svart.GenomicVariant;
+import org.monarchinitiative.svart.Strand;
+import org.monarchinitiative.svart.assembly.GenomicAssembly;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * HTTP server exposing the Squirls scoring as JSON endpoints:
+ * <ul>
+ *     <li><code>GET /health</code> - returns <code>{"status":"UP"}</code> once the server is running,</li>
+ *     <li><code>GET /score?variant=chr3:165504107A&gt;C</code> or <code>POST /score</code> - score a single variant,</li>
+ *     <li><code>POST /batch</code> - score a JSON array of variants, the results are returned in the input order.</li>
+ * </ul>
+ * The variant is either a string such as <code>"chr3:165504107A&gt;C"</code> or an object with <code>chrom</code>,
+ * <code>pos</code> (1-based), <code>ref</code>, <code>alt</code>, and an optional <code>id</code>. The feature values
+ * are included in the response if the <code>features=true</code> query parameter is present. Such requests are
+ * evaluated by the <code>featureEvaluator</code>, since the precomputed scores do not carry the feature values.
+ * <p>
+ * The requests are parsed on the server threads and evaluated by the {@link AsyncVariantSplicingEvaluator}, the
+ * response is written by the thread that completes the evaluation. A request that is rejected by the evaluation
+ * executor is answered with <code>503</code>, a request that is not evaluated within the evaluator's timeout with
+ * <code>504</code>.
+ */
+final class SquirlsServer implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SquirlsServer.class);
+
+    /**
+     * Maximum size of the request body in bytes.
+     */
+    static final int MAX_BODY_SIZE = 8 * 1024 * 1024;
+
+    private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+
+    private final HttpServer server;
+
+    private final ExecutorService serverExecutor;
+
+    private final AsyncVariantSplicingEvaluator evaluator;
+
+    private final AsyncVariantSplicingEvaluator featureEvaluator;
+
+    private final GenomicAssembly assembly;
+
+    private final int maxBatchSize;
+
+    private SquirlsServer(HttpServer server,
+                          ExecutorService serverExecutor,
+                          AsyncVariantSplicingEvaluator evaluator,
+                          AsyncVariantSplicingEvaluator featureEvaluator,
+                          GenomicAssembly assembly,
+                          int maxBatchSize) {
+        this.server = server;
+        this.serverExecutor = serverExecutor;
+        this.evaluator = evaluator;
+        this.featureEvaluator = featureEvaluator;
+        this.assembly = assembly;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Start the server that uses the same evaluator for all requests.
+     *
+     * @see #start(InetSocketAddress, int, AsyncVariantSplicingEvaluator, AsyncVariantSplicingEvaluator, GenomicAssembly, int)
+     */
+    static SquirlsServer start(InetSocketAddress address,
+                               int serverThreads,
+                               AsyncVariantSplicingEvaluator evaluator,
+                               GenomicAssembly assembly,
+                               int maxBatchSize) throws IOException {
+        return start(address, serverThreads, evaluator, evaluator, assembly, maxBatchSize);
+    }
+
+    /**
+     * Start the server.
+     *
+     * @param address          address to bind to, use port <code>0</code> to pick a free port
+     * @param serverThreads    number of threads handling the HTTP exchanges
+     * @param evaluator        evaluator to score the variants
+     * @param featureEvaluator evaluator to score the variants if the feature values are requested
+     * @param assembly         assembly to resolve the contigs
+     * @param maxBatchSize     maximum number of variants in a batch request
+     * @return the running server
+     * @throws IOException if the server cannot be bound to the <code>address</code>
+     */
+    static SquirlsServer start(InetSocketAddress address,
+                               int serverThreads,
+                               AsyncVariantSplicingEvaluator evaluator,
+                               AsyncVariantSplicingEvaluator featureEvaluator,
+                               GenomicAssembly assembly,
+                               int maxBatchSize) throws IOException {
+        if (serverThreads < 1)
+            throw new IllegalArgumentException("Number of server threads must be positive: " + serverThreads);
+        if (maxBatchSize < 1)
+            throw new IllegalArgumentException("Maximum batch size must be positive: " + maxBatchSize);
+
+        HttpServer httpServer = HttpServer.create(address, 0);
+        ExecutorService serverExecutor = Executors.newFixedThreadPool(serverThreads, new ServerThreadFactory());
+        SquirlsServer squirlsServer = new SquirlsServer(httpServer,
+                serverExecutor,
+                Objects.requireNonNull(evaluator, "Evaluator cannot be null"),
+                Objects.requireNonNull(featureEvaluator, "Feature evaluator cannot be null"),
+                Objects.requireNonNull(assembly, "Assembly cannot be null"),
+                maxBatchSize);
+
+        httpServer.setExecutor(serverExecutor);
+        httpServer.createContext("/health", squirlsServer.handler("/health", "GET", squirlsServer::health));
+        httpServer.createContext("/score", squirlsServer.handler("/score", "GET,POST", squirlsServer::score));
+        httpServer.createContext("/batch", squirlsServer.handler("/batch", "POST", squirlsServer::batch));
+        httpServer.start();
+        return squirlsServer;
+    }
+
+    /**
+     * @return address the server is bound to
+     */
+    InetSocketAddress address() {
+        return server.getAddress();
+    }
+
+    /**
+     * Stop accepting new requests and stop the server once the exchanges being written are finished.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        serverExecutor.shutdown();
+    }
+
+    private void health(HttpExchange exchange) {
+        send(exchange, 200, Map.of("status", "UP"));
+    }
+
+    private void score(HttpExchange exchange) throws IOException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        boolean features = Boolean.parseBoolean(query.get("features"));
+
+        Object payload;
+        if (exchange.getRequestMethod().equals("GET")) {
+            payload = query.get("variant");
+            if (payload == null) {
+                sendError(exchange, 400, "Missing `variant` query parameter");
+                return;
+            }
+        } else {
+            payload = readBody(exchange);
+            if (payload == null)
+                return;
+        }
+
+        GenomicVariant variant;
+        try {
+            variant = parseVariant(payload);
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+            return;
+        }
+
+        evaluator(features).evaluateAsync(variant)
+                .whenComplete((result, throwable) -> {
+                    if (throwable != null)
+                        sendFailure(exchange, throwable);
+                    else
+                        send(exchange, 200, resultToJson(variant, result, features));
+                });
+    }
+
+    private void batch(HttpExchange exchange) throws IOException {
+        boolean features = Boolean.parseBoolean(parseQuery(exchange.getRequestURI().getRawQuery()).get("features"));
+
+        Object payload = readBody(exchange);
+        if (payload == null)
+            return;
+        if (!(payload instanceof List)) {
+            sendError(exchange, 400, "Expected a JSON array of variants");
+            return;
+        }
+        List<?> items = (List<?>) payload;
+        if (items.size() > maxBatchSize) {
+            sendError(exchange, 413, String.format("Batch of %d variants exceeds the limit of %d variants", items.size(), maxBatchSize));
+            return;
+        }
+
+        // the invalid items are reported in place, the valid ones are evaluated as a single task
+        Object[] responses = new Object[items.size()];
+        List<GenomicVariant> variants = new ArrayList<>(items.size());
+        int[] indices = new int[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            try {
+                indices[variants.size()] = i;
+                variants.add(parseVariant(items.get(i)));
+            } catch (IllegalArgumentException e) {
+                Map<String, Object> error = new LinkedHashMap<>();
+                error.put("input", items.get(i));
+                error.put("error", e.getMessage());
+                responses[i] = error;
+            }
+        }
+
+        evaluator(features).evaluateAllAsync(variants)
+                .whenComplete((results, throwable) -> {
+                    if (throwable != null) {
+                        sendFailure(exchange, throwable);
+                        return;
+                    }
+                    for (int i = 0; i < results.size(); i++) {
+                        responses[indices[i]] = resultToJson(variants.get(i), results.get(i), features);
+                    }
+                    send(exchange, 200, Map.of("results", Arrays.asList(responses)));
+                });
+    }
+
+    private AsyncVariantSplicingEvaluator evaluator(boolean features) {
+        return features ? featureEvaluator : evaluator;
+    }
+
+    /**
+     * Parse the variant from the JSON value.
+     *
+     * @throws IllegalArgumentException if the value does not describe a valid variant
+     */
+    GenomicVariant parseVariant(Object value) {
+        if (value instanceof String) {
+            String payload = (String) value;
+            VariantChange change = VariantChange.fromString(payload)
+                    .orElseThrow(() -> new IllegalArgumentException(String.format("Invalid variant `%s`", payload)));
+            return makeVariant(change.getContig(), "", change.getPos(), change.getRef(), change.getAlt());
+        } else if (value instanceof Map) {
+            Map<?, ?> object = (Map<?, ?>) value;
+            Object id = object.get("id");
+            if (id != null && !(id instanceof String))
+                throw new IllegalArgumentException("`id` must be a string");
+            Object pos = object.get("pos");
+            if (!(pos instanceof Long) || (Long) pos < 1 || (Long) pos > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("`pos` must be a positive integer");
+            return makeVariant(requireString(object, "chrom"), id == null ? "" : (String) id,
+                    ((Long) pos).intValue(), requireString(object, "ref"), requireString(object, "alt"));
+        }
+        throw new IllegalArgumentException("Variant must be a string or an object");
+    }
+
+    private GenomicVariant makeVariant(String contigName, String id, int pos, String ref, String alt) {
+        Contig contig = assembly.contigByName(contigName);
+        if (contig.isUnknown())
+            throw new IllegalArgumentException(String.format("Unknown contig `%s`", contigName));
+        if (pos > contig.length())
+            throw new IllegalArgumentException(String.format("Position %d is beyond the end of contig `%s`", pos, contigName));
+        return GenomicVariant.of(contig, id, Strand.POSITIVE, CoordinateSystem.oneBased(), pos, ref, alt);
+    }
+
+    private static String requireString(Map<?, ?> object, String key) {
+        Object value = object.get(key);
+        if (!(value instanceof String) || ((String) value).isEmpty())
+            throw new IllegalArgumentException(String.format("`%s` must be a non-empty string", key));
+        return (String) value;
+    }
+
+    private static Map<String, Object> resultToJson(GenomicVariant variant, SquirlsResult result, boolean features) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("variant", String.format("%s:%d%s>%s", variant.contigName(),
+                variant.startWithCoordinateSystem(CoordinateSystem.oneBased()), variant.ref(), variant.alt()));
+        if (!variant.id().isEmpty())
+            json.put("id", variant.id());
+        json.put("pathogenic", result.isPathogenic());
+        json.put("maxPathogenicity", result.maxPathogenicity());
+
+        List<Map<String, Object>> transcripts = result.results()
+                .sorted(Comparator.comparing(SquirlsTxResult::accessionId))
+                .map(txResult -> {
+                    Map<String, Object> tx = new LinkedHashMap<>();
+                    tx.put("accession", txResult.accessionId());
+                    tx.put("pathogenic", txResult.prediction().isPositive());
+                    tx.put("pathogenicity", txResult.prediction().getMaxPathogenicity());
+                    if (features)
+                        tx.put("features", new TreeMap<>(txResult.features()));
+                    return tx;
+                })
+                .collect(Collectors.toList());
+        json.put("transcripts", transcripts);
+        return json;
+    }
+
+    /**
+     * Read and parse the JSON request body. The error response is sent if the body cannot be read or parsed.
+     *
+     * @return parsed body or <code>null</code> if the error response has been sent
+     */
+    private static Object readBody(HttpExchange exchange) throws IOException {
+        byte[] body;
+        try (InputStream is = exchange.getRequestBody()) {
+            body = is.readNBytes(MAX_BODY_SIZE + 1);
+        }
+        if (body.length > MAX_BODY_SIZE) {
+            sendError(exchange, 413, String.format("Request body exceeds %d bytes", MAX_BODY_SIZE));
+            return null;
+        }
+
+        try {
+            return Json.parse(new String(body, StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, "Invalid JSON: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty())
+            return Map.of();
+
+        Map<String, String> query = new HashMap<>();
+        for (String parameter : rawQuery.split("&")) {
+            int eq = parameter.indexOf('=');
+            String key = eq < 0 ? parameter : parameter.substring(0, eq);
+            String value = eq < 0 ? "true" : parameter.substring(eq + 1);
+            query.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private HttpHandler handler(String path, String methods, ExchangeHandler handler) {
+        Set<String> allowed = Set.of(methods.split(","));
+        return exchange -> {
+            try {
+                if (!exchange.getRequestURI().getPath().equals(path)) {
+                    sendError(exchange, 404, "Not found");
+                } else if (!allowed.contains(exchange.getRequestMethod())) {
+                    exchange.getResponseHeaders().set("Allow", methods);
+                    sendError(exchange, 405, "Method not allowed");
+                } else {
+                    handler.handle(exchange);
+                }
+            } catch (Exception e) {
+                LOGGER.warn("Error handling request `{} {}`: {}", exchange.getRequestMethod(), exchange.getRequestURI(), e.getMessage(), e);
+                sendError(exchange, 500, "Internal server error");
+            }
+        };
+    }
+
+    private static void sendFailure(HttpExchange exchange, Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause()
+                : throwable;
+        if (cause instanceof RejectedExecutionException) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            sendError(exchange, 503, "Server is busy, retry later");
+        } else if (cause instanceof TimeoutException) {
+            sendError(exchange, 504, "Evaluation timed out");
+        } else {
+            LOGGER.warn("Error evaluating request `{} {}`: {}", exchange.getRequestMethod(), exchange.getRequestURI(), cause.getMessage(), cause);
+            sendError(exchange, 500, "Internal server error");
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        send(exchange, status, Map.of("error", message));
+    }
+
+    private static void send(HttpExchange exchange, int status, Object body) {
+        try (exchange) {
+            byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        } catch (IOException e) {
+            // the client has most likely disconnected
+            LOGGER.debug("Error writing the response: {}", e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    private interface ExchangeHandler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    private static class ServerThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "squirls-server-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
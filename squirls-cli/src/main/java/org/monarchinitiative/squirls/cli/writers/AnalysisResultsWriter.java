@@ -76,6 +76,9 @@
 
 package org.monarchinitiative.squirls.cli.writers;
 
+import java.io.IOException;
+import java.util.List;
+
 /**
  * @author Daniel Danis
  */
@@ -83,4 +86,15 @@ public interface AnalysisResultsWriter {
 
     void writeResults(AnalysisResults results, OutputOptions options);
 
+    /**
+     * Open the outputs for writing the alleles incrementally, as they are annotated.
+     *
+     * @param sampleNames  names of the samples present in the input
+     * @param settingsData analysis settings
+     * @param options      output options
+     * @return writer to write the alleles to
+     * @throws IOException if the outputs cannot be opened
+     */
+    AnalysisResultsStreamWriter openStream(List<String> sampleNames, SettingsData settingsData, OutputOptions options) throws IOException;
+
 }
@@ -85,6 +85,8 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.List;
 
 public class AnalysisResultsWriterDefault implements AnalysisResultsWriter {
 
@@ -111,6 +113,36 @@ public class AnalysisResultsWriterDefault implements AnalysisResultsWriter {
         }
     }
 
+    @Override
+    public AnalysisResultsStreamWriter openStream(List<String> sampleNames, SettingsData settingsData, OutputOptions options) throws IOException {
+        HtmlResultWriter htmlWriter = null;
+        List<AlleleWriter> writers = new ArrayList<>();
+        try {
+            for (OutputFormat format : options.outputFormats()) {
+                ResultWriter writer = resultWriterForFormat(format, options.compress(), options.reportFeatures(), options.reportAllTranscripts());
+                if (writer instanceof StreamingResultWriter) {
+                    writers.add(((StreamingResultWriter) writer).open(settingsData, options));
+                } else if (writer instanceof HtmlResultWriter) {
+                    htmlWriter = (HtmlResultWriter) writer;
+                } else {
+                    // can happen if new ResultWriter is added without updating the streaming support here
+                    throw new RuntimeException("Output format `" + format + "` does not support streaming");
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            for (AlleleWriter writer : writers) {
+                try {
+                    writer.close();
+                } catch (IOException ex) {
+                    e.addSuppressed(ex);
+                }
+            }
+            throw e;
+        }
+
+        return new AnalysisResultsStreamWriter(sampleNames, settingsData, options, writers, htmlWriter);
+    }
+
     private ResultWriter resultWriterForFormat(OutputFormat outputFormat, boolean compress, boolean reportFeatures, boolean reportTranscripts) {
         switch (outputFormat) {
             case HTML:
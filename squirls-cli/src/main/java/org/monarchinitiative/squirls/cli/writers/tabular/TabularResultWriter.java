@@ -79,10 +79,7 @@ package org.monarchinitiative.squirls.cli.writers.tabular;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
-import org.monarchinitiative.squirls.cli.writers.AnalysisResults;
-import org.monarchinitiative.squirls.cli.writers.OutputOptions;
-import org.monarchinitiative.squirls.cli.writers.ResultWriter;
-import org.monarchinitiative.squirls.cli.writers.WritableSplicingAllele;
+import org.monarchinitiative.squirls.cli.writers.*;
 import org.monarchinitiative.squirls.core.SquirlsResult;
 import org.monarchinitiative.squirls.core.SquirlsTxResult;
 import org.monarchinitiative.svart.CoordinateSystem;
@@ -106,7 +103,7 @@ import java.util.stream.Collectors;
  *
  * @author Daniel Danis
  */
-public class TabularResultWriter implements ResultWriter {
+public class TabularResultWriter implements ResultWriter, StreamingResultWriter {
 
     private final String fileExtension;
 
@@ -152,6 +149,35 @@ public class TabularResultWriter implements ResultWriter {
 
     @Override
     public void write(AnalysisResults results, OutputOptions outputOptions) throws IOException {
+        try (CSVPrinter printer = openPrinter(outputOptions)) {
+            results.getVariants().stream()
+                    .sorted(Comparator.comparing(WritableSplicingAllele::maxSquirlsScore).reversed())
+                    .limit(results.getSettingsData().getNReported())
+                    .forEachOrdered(writeAllele(printer));
+        }
+    }
+
+    /**
+     * Open tabular writer where <em>all</em> alleles are written in the order they are provided.
+     */
+    @Override
+    public AlleleWriter open(SettingsData settingsData, OutputOptions outputOptions) throws IOException {
+        CSVPrinter printer = openPrinter(outputOptions);
+        Consumer<WritableSplicingAllele> writeAllele = writeAllele(printer);
+        return new AlleleWriter() {
+            @Override
+            public void write(WritableSplicingAllele allele) {
+                writeAllele.accept(allele);
+            }
+
+            @Override
+            public void close() throws IOException {
+                printer.close();
+            }
+        };
+    }
+
+    private CSVPrinter openPrinter(OutputOptions outputOptions) throws IOException {
         Path outputPath = outputOptions.outputDirectory().resolve(outputOptions.prefix() + '.' + fileExtension + (compress ? ".gz" : ""));
         LOGGER.info("Writing tabular output to `{}`", outputPath);
 
@@ -163,15 +189,10 @@ public class TabularResultWriter implements ResultWriter {
         if (reportFeatures)
             header.add("squirls_features");
 
-        try (CSVPrinter printer = CSVFormat.newFormat(columnSeparator)
+        return CSVFormat.newFormat(columnSeparator)
                 .withRecordSeparator('\n')
                 .withHeader(header.toArray(String[]::new))
-                .print(openWriter(outputPath))) {
-            results.getVariants().stream()
-                    .sorted(Comparator.comparing(WritableSplicingAllele::maxSquirlsScore).reversed())
-                    .limit(results.getSettingsData().getNReported())
-                    .forEachOrdered(writeAllele(printer));
-        }
+                .print(openWriter(outputPath));
     }
 
     private BufferedWriter openWriter(Path outputPath) throws IOException {
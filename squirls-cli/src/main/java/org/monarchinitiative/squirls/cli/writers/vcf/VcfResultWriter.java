@@ -106,7 +106,7 @@ import java.util.stream.Stream;
 /**
  * @author Daniel Danis
  */
-public class VcfResultWriter implements ResultWriter {
+public class VcfResultWriter implements ResultWriter, StreamingResultWriter {
 
     private static final String SQUIRLS_FLAG_FIELD_NAME = "SQUIRLS";
     private static final VCFFilterHeaderLine SQUIRLS_FLAG_LINE = new VCFFilterHeaderLine(SQUIRLS_FLAG_FIELD_NAME,
@@ -213,12 +213,7 @@ public class VcfResultWriter implements ResultWriter {
 
     @Override
     public void write(AnalysisResults results, OutputOptions outputOptions) throws IOException {
-        Path inputVcfPath = Paths.get(results.getSettingsData().getInputPath());
-        String extension = compress ? OutputFormat.VCF.getFileExtension() + ".gz" : OutputFormat.VCF.getFileExtension();
-        Path outputPath = outputOptions.outputDirectory().resolve(outputOptions.prefix() + '.' + extension);
-        LOGGER.info("Writing VCF output to `{}`", outputPath);
-
-        VCFHeader header = prepareVcfHeader(inputVcfPath);
+        VCFHeader header = prepareVcfHeader(Paths.get(results.getSettingsData().getInputPath()));
         VariantContextComparator comparator = null;
         try {
             comparator = header.getVCFRecordComparator();
@@ -226,12 +221,7 @@ public class VcfResultWriter implements ResultWriter {
             if (LOGGER.isInfoEnabled()) LOGGER.info("Cannot sort the annotated variants - the contig lines are missing in the VCF header");
         }
 
-        try (VariantContextWriter writer = new VariantContextWriterBuilder()
-                     .setOutputVCFStream(openOutputStream(outputPath))
-                     .setReferenceDictionary(header.getSequenceDictionary())
-                     .unsetOption(Options.INDEX_ON_THE_FLY).build()) {
-            writer.writeHeader(header);
-
+        try (VariantContextWriter writer = openWriter(header, outputOptions)) {
             Stream<VariantContext> variants = results.getVariants().stream()
                     .map(addInfoFields());
 
@@ -241,6 +231,41 @@ public class VcfResultWriter implements ResultWriter {
         }
     }
 
+    /**
+     * Open VCF writer where the alleles are written in the order they are provided, the records are <em>not</em>
+     * sorted.
+     */
+    @Override
+    public AlleleWriter open(SettingsData settingsData, OutputOptions outputOptions) throws IOException {
+        VCFHeader header = prepareVcfHeader(Paths.get(settingsData.getInputPath()));
+        VariantContextWriter writer = openWriter(header, outputOptions);
+        Function<WritableSplicingAllele, VariantContext> addInfoFields = addInfoFields();
+        return new AlleleWriter() {
+            @Override
+            public void write(WritableSplicingAllele allele) {
+                writer.add(addInfoFields.apply(allele));
+            }
+
+            @Override
+            public void close() {
+                writer.close();
+            }
+        };
+    }
+
+    private VariantContextWriter openWriter(VCFHeader header, OutputOptions outputOptions) throws IOException {
+        String extension = compress ? OutputFormat.VCF.getFileExtension() + ".gz" : OutputFormat.VCF.getFileExtension();
+        Path outputPath = outputOptions.outputDirectory().resolve(outputOptions.prefix() + '.' + extension);
+        LOGGER.info("Writing VCF output to `{}`", outputPath);
+
+        VariantContextWriter writer = new VariantContextWriterBuilder()
+                .setOutputVCFStream(openOutputStream(outputPath))
+                .setReferenceDictionary(header.getSequenceDictionary())
+                .unsetOption(Options.INDEX_ON_THE_FLY).build();
+        writer.writeHeader(header);
+        return writer;
+    }
+
     private BufferedOutputStream openOutputStream(Path outputPath) throws IOException {
         return compress
                 ? new BufferedOutputStream(new BlockCompressedOutputStream(outputPath.toFile()))
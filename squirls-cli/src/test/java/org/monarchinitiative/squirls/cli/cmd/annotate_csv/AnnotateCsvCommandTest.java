@@ -0,0 +1,272 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2020
+ */
+
+package org.monarchinitiative.squirls.cli.cmd.annotate_csv;
+
+import de.charite.compbio.jannovar.annotation.VariantAnnotations;
+import htsjdk.variant.variantcontext.VariantContext;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.monarchinitiative.squirls.cli.writers.AnalysisResultsStreamWriter;
+import org.monarchinitiative.squirls.cli.writers.AnalysisResultsWriter;
+import org.monarchinitiative.squirls.cli.writers.AnalysisStats;
+import org.monarchinitiative.squirls.cli.writers.WritableSplicingAllele;
+import org.monarchinitiative.squirls.core.SquirlsResult;
+import org.monarchinitiative.svart.CoordinateSystem;
+import org.monarchinitiative.svart.GenomicVariant;
+import org.monarchinitiative.svart.assembly.GenomicAssembly;
+import org.monarchinitiative.svart.parsers.GenomicAssemblyParser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class AnnotateCsvCommandTest {
+
+    private static final int N_RECORDS = 200;
+
+    /**
+     * The record with an invalid ALT allele.
+     */
+    private static final int INVALID_RECORD = 70;
+
+    private static GenomicAssembly ASSEMBLY;
+
+    @TempDir
+    public Path tempDir;
+
+    private AnnotateCsvCommand cmd;
+
+    @BeforeAll
+    public static void beforeAll() {
+        ASSEMBLY = GenomicAssemblyParser.parseAssembly(Paths.get("src/test/resources/org/monarchinitiative/squirls/cli/GCF_000001405.25_GRCh37.p13_assembly_report.txt"));
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Path input = tempDir.resolve("variants.csv");
+        List<String> lines = new ArrayList<>();
+        lines.add("CHROM,ID,POS,REF,ALT");
+        for (int i = 1; i <= N_RECORDS; i++)
+            lines.add(String.format("chr1,var%d,%d,A,%s", i, 1_000 + i, i == INVALID_RECORD ? "N" : "G"));
+        Files.write(input, lines);
+
+        cmd = new AnnotateCsvCommand();
+        cmd.inputPath = input;
+        cmd.outputPrefix = "variants";
+        cmd.outDir = tempDir;
+        cmd.outputFormats = "tsv";
+        cmd.nThreads = 4;
+    }
+
+    /**
+     * @return positions of the valid input records, in the input order
+     */
+    private static List<Integer> expectedPositions() {
+        return IntStream.rangeClosed(1, N_RECORDS)
+                .filter(i -> i != INVALID_RECORD)
+                .mapToObj(i -> 1_000 + i)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Annotate the chunk, the earlier chunks take longer to finish than the latter ones.
+     *
+     * @param failAt position of the variant whose chunk fails to be annotated
+     */
+    private static Function<List<AnnotateCsvCommand.CsvVariant>, List<WritableSplicingAllele>> annotateChunk(int failAt) {
+        return chunk -> {
+            int firstPos = position(chunk.get(0).variant);
+            try {
+                Thread.sleep(Math.max(0, 1_200 - firstPos) / 2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            List<WritableSplicingAllele> annotated = new ArrayList<>(chunk.size());
+            for (AnnotateCsvCommand.CsvVariant csvVariant : chunk) {
+                if (position(csvVariant.variant) == failAt)
+                    throw new UncheckedIOException(new IOException("Unable to annotate " + failAt));
+                annotated.add(new TestAllele(csvVariant.variant));
+            }
+            return annotated;
+        };
+    }
+
+    private static int position(GenomicVariant variant) {
+        return variant.startWithCoordinateSystem(CoordinateSystem.oneBased());
+    }
+
+    @Test
+    public void annotateVariants() throws Exception {
+        List<Integer> positions = new ArrayList<>();
+
+        AnalysisStats stats = cmd.annotateVariants(ASSEMBLY, annotateChunk(-1),
+                alleles -> alleles.forEach(allele -> positions.add(position(allele.variant()))));
+
+        assertThat(positions, equalTo(expectedPositions()));
+        assertThat(stats, equalTo(AnalysisStats.of(N_RECORDS, N_RECORDS, N_RECORDS - 1)));
+    }
+
+    @Test
+    public void annotateVariants_workerFails() throws Exception {
+        List<Integer> positions = new ArrayList<>();
+
+        AnalysisStats stats = cmd.annotateVariants(ASSEMBLY, annotateChunk(1_150),
+                alleles -> alleles.forEach(allele -> positions.add(position(allele.variant()))));
+
+        assertThat(stats, is(nullValue()));
+        // the chunks preceding the failed chunk are consumed
+        assertThat(positions, equalTo(expectedPositions().subList(0, positions.size())));
+        assertThat(positions, not(hasItem(1_150)));
+    }
+
+    @Test
+    public void annotateAndWriteIncrementally() throws Exception {
+        AnalysisResultsStreamWriter streamWriter = mock(AnalysisResultsStreamWriter.class);
+        AnalysisResultsWriter resultsWriter = mock(AnalysisResultsWriter.class);
+        when(resultsWriter.openStream(any(), any(), any())).thenReturn(streamWriter);
+
+        int status = cmd.annotateAndWriteIncrementally(ASSEMBLY, annotateChunk(-1), resultsWriter);
+
+        assertThat(status, equalTo(0));
+        ArgumentCaptor<WritableSplicingAllele> captor = ArgumentCaptor.forClass(WritableSplicingAllele.class);
+        verify(streamWriter, times(N_RECORDS - 1)).write(captor.capture());
+        assertThat(captor.getAllValues().stream().map(allele -> position(allele.variant())).collect(Collectors.toList()),
+                equalTo(expectedPositions()));
+        verify(streamWriter).finish(AnalysisStats.of(N_RECORDS, N_RECORDS, N_RECORDS - 1));
+        verify(streamWriter).close();
+    }
+
+    @Test
+    public void annotateAndWriteIncrementally_workerFails() throws Exception {
+        AnalysisResultsStreamWriter streamWriter = mock(AnalysisResultsStreamWriter.class);
+        AnalysisResultsWriter resultsWriter = mock(AnalysisResultsWriter.class);
+        when(resultsWriter.openStream(any(), any(), any())).thenReturn(streamWriter);
+
+        int status = cmd.annotateAndWriteIncrementally(ASSEMBLY, annotateChunk(1_150), resultsWriter);
+
+        assertThat(status, equalTo(1));
+        verify(streamWriter, never()).finish(any());
+        verify(streamWriter).close();
+    }
+
+    /**
+     * Allele that only carries the variant.
+     */
+    private static class TestAllele implements WritableSplicingAllele {
+
+        private final GenomicVariant variant;
+
+        private TestAllele(GenomicVariant variant) {
+            this.variant = variant;
+        }
+
+        @Override
+        public VariantContext variantContext() {
+            return null;
+        }
+
+        @Override
+        public VariantAnnotations variantAnnotations() {
+            return null;
+        }
+
+        @Override
+        public GenomicVariant variant() {
+            return variant;
+        }
+
+        @Override
+        public SquirlsResult squirlsResult() {
+            return SquirlsResult.empty();
+        }
+    }
+}
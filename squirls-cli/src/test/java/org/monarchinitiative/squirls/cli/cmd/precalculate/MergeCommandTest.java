@@ -0,0 +1,204 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2021
+ */
+
+package org.monarchinitiative.squirls.cli.cmd.precalculate;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import htsjdk.variant.vcf.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.monarchinitiative.svart.*;
+import org.monarchinitiative.svart.assembly.AssignedMoleculeType;
+import org.monarchinitiative.svart.assembly.SequenceRole;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MergeCommandTest {
+
+    private static final Contig contig = Contig.of(1, "1", SequenceRole.ASSEMBLED_MOLECULE, "1", AssignedMoleculeType.CHROMOSOME, 1000, "", "", "");
+
+    private static final SAMSequenceDictionary DICTIONARY = new SAMSequenceDictionary(List.of(new SAMSequenceRecord("1", 1000)));
+
+    @TempDir
+    public Path tmp;
+
+    private List<GenomicChunk> chunks;
+
+    private static VCFHeader header() {
+        VCFHeader header = new VCFHeader();
+        header.setVCFHeaderVersion(VCFHeaderVersion.VCF4_2);
+        header.addMetaDataLine(new VCFContigHeaderLine(Map.of("ID", "1", "length", "1000"), 0));
+        VariantContextAdaptor.headerLines().forEach(header::addMetaDataLine);
+        return header;
+    }
+
+    private static VariantContext snv(int pos, String ref, String alt) {
+        return new VariantContextBuilder()
+                .chr("1").start(pos).stop(pos)
+                .alleles(List.of(Allele.create(ref, true), Allele.create(alt)))
+                .attribute(VariantContextAdaptor.MAX_SQUIRLS_SCORE.getID(), .5)
+                .make();
+    }
+
+    private static GenomicRegion region(int start, int end) {
+        return GenomicRegion.of(contig, Strand.POSITIVE, CoordinateSystem.zeroBased(), start, end);
+    }
+
+    @BeforeEach
+    public void setUp() {
+        chunks = GenomicChunk.partition(List.of(region(10, 20), region(100, 110), region(200, 210)), 10, 0);
+    }
+
+    /**
+     * Write the chunks selected for the <code>shard</code> into a checkpoint directory, one SNV per chunk.
+     */
+    private Path runShard(Shard shard, int maxLength) throws IOException {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("max-length", maxLength);
+        parameters.put(CheckpointManifest.SHARD_KEY, shard);
+        Path checkpointDir = tmp.resolve("shard-" + shard.index() + "-" + maxLength);
+
+        try (CheckpointManifest manifest = CheckpointManifest.open(checkpointDir, CheckpointManifest.settings(parameters, chunks));
+             CheckpointScoreWriter writer = new CheckpointScoreWriter(manifest, header())) {
+            VcfPartMerger.writeHeader(header(), DICTIONARY, manifest.headerPath());
+            for (GenomicChunk chunk : shard.select(chunks, GenomicChunk::length)) {
+                GenomicRegion region = chunk.regions().get(0);
+                writer.startChunk(chunk);
+                writer.write(region, List.of(snv(region.startWithCoordinateSystem(CoordinateSystem.oneBased()), "A", "C")));
+                writer.finishChunk(chunk);
+            }
+        }
+        return checkpointDir;
+    }
+
+    @Test
+    public void mergeShards() throws Exception {
+        Path first = runShard(Shard.of(1, 2), 1);
+        Path second = runShard(Shard.of(2, 2), 1);
+        Path output = tmp.resolve("scores.vcf.gz");
+
+        MergeCommand command = new MergeCommand();
+        command.outputPath = output;
+        // the order of the directories does not matter
+        command.checkpointDirs = List.of(second, first);
+
+        assertThat(command.call(), equalTo(0));
+        try (VCFFileReader reader = new VCFFileReader(output, true)) {
+            assertThat(reader.iterator().stream().map(VariantContext::getStart).collect(Collectors.toList()), equalTo(List.of(11, 101, 201)));
+            assertThat(reader.query("1", 200, 300).stream().count(), equalTo(1L));
+        }
+    }
+
+    @Test
+    public void collectParts_missingShard() throws Exception {
+        CheckpointManifest manifest = CheckpointManifest.read(runShard(Shard.of(1, 2), 1));
+
+        IOException e = assertThrows(IOException.class, () -> MergeCommand.collectParts(List.of(manifest)));
+        assertThat(e.getMessage(), containsString("out of 3 chunks have not been completed"));
+    }
+
+    @Test
+    public void collectParts_differentSettings() throws Exception {
+        CheckpointManifest first = CheckpointManifest.read(runShard(Shard.of(1, 2), 1));
+        CheckpointManifest second = CheckpointManifest.read(runShard(Shard.of(2, 2), 2));
+
+        IOException e = assertThrows(IOException.class, () -> MergeCommand.collectParts(List.of(first, second)));
+        assertThat(e.getMessage(), containsString("was created with different settings"));
+    }
+
+    @Test
+    public void collectParts_duplicateShard() throws Exception {
+        Path first = runShard(Shard.of(1, 2), 1);
+        CheckpointManifest manifest = CheckpointManifest.read(first);
+
+        IOException e = assertThrows(IOException.class, () -> MergeCommand.collectParts(List.of(manifest, manifest)));
+        assertThat(e.getMessage(), containsString("was completed in both"));
+    }
+}
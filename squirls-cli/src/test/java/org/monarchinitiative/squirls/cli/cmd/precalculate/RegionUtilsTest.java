@@ -76,6 +76,7 @@
 
 package org.monarchinitiative.squirls.cli.cmd.precalculate;
 
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.monarchinitiative.svart.*;
@@ -112,6 +113,18 @@ public class RegionUtilsTest {
         assertThat(merged, hasSize(count));
     }
 
+    @Test
+    public void mergeOverlapping_containedRegion() {
+        List<GenomicRegion> regions = List.of(
+                GenomicRegion.of(contig, Strand.POSITIVE, CoordinateSystem.zeroBased(), 10, 50),
+                GenomicRegion.of(contig, Strand.POSITIVE, CoordinateSystem.zeroBased(), 20, 30),
+                GenomicRegion.of(contig, Strand.POSITIVE, CoordinateSystem.zeroBased(), 40, 60));
+
+        List<GenomicRegion> merged = RegionUtils.mergeOverlapping(regions);
+
+        assertThat(merged, equalTo(List.of(GenomicRegion.of(contig, Strand.POSITIVE, CoordinateSystem.zeroBased(), 10, 60))));
+    }
+
 
     @ParameterizedTest
     @CsvSource({
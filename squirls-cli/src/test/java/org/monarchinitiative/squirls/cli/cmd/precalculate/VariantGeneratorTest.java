@@ -84,7 +84,9 @@ import org.monarchinitiative.svart.*;
 import org.monarchinitiative.svart.assembly.AssignedMoleculeType;
 import org.monarchinitiative.svart.assembly.SequenceRole;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -109,11 +111,57 @@ public class VariantGeneratorTest {
         StrandedSequence sequence = StrandedSequence.of(region, "ACGTACGT");
 
         VariantGenerator generator = new VariantGenerator(depth);
-        List<GenomicVariant> variants = generator.generate(sequence);
+        List<GenomicVariant> variants = generator.generate(sequence).collect(Collectors.toList());
 
         assertThat(variants, hasSize(size));
     }
 
+    /**
+     * Generating the variants window by window yields the same variants as generating them for the whole sequence,
+     * provided that the windows include the bases required by the deletions that start close to the window end.
+     */
+    @ParameterizedTest
+    @CsvSource({
+            "1, 1",
+            "1, 3",
+            "3, 2",
+            "3, 5",
+            "4, 8",
+    })
+    public void generate_windows(int depth, int windowSize) {
+        String seq = "ACGTNACGTA";
+        GenomicRegion region = GenomicRegion.of(contig, Strand.POSITIVE, CoordinateSystem.zeroBased(), 10, 20);
+        VariantGenerator generator = new VariantGenerator(depth);
+
+        List<GenomicVariant> expected = generator.generate(StrandedSequence.of(region, seq)).collect(Collectors.toList());
+
+        List<GenomicVariant> actual = new ArrayList<>();
+        for (int start = 0; start < seq.length(); start += windowSize) {
+            int end = Math.min(start + windowSize, seq.length());
+            int sequenceEnd = Math.min(end + depth - 1, seq.length());
+            GenomicRegion window = GenomicRegion.of(contig, Strand.POSITIVE, CoordinateSystem.zeroBased(), 10 + start, 10 + sequenceEnd);
+            generator.generate(StrandedSequence.of(window, seq.substring(start, sequenceEnd)), end - start)
+                    .forEach(actual::add);
+        }
+
+        assertThat(actual, equalTo(expected));
+    }
+
+    @Test
+    public void generate_positions() {
+        GenomicRegion region = GenomicRegion.of(contig, Strand.POSITIVE, CoordinateSystem.zeroBased(), 10, 14);
+        StrandedSequence sequence = StrandedSequence.of(region, "ACGT");
+        VariantGenerator generator = new VariantGenerator(3);
+
+        List<GenomicVariant> variants = generator.generate(sequence, 1).collect(Collectors.toList());
+
+        // 3 SNVs, 4 + 16 insertions, and 3 deletions, all starting at the first position
+        assertThat(variants, hasSize(26));
+        assertThat(variants.stream().allMatch(v -> v.startWithCoordinateSystem(CoordinateSystem.oneBased()) == 11), equalTo(true));
+        assertThat(variants.get(variants.size() - 1).ref(), equalTo("ACG"));
+        assertThat((long) variants.size(), equalTo(generator.variantsPerPosition()));
+    }
+
     @Test
     public void generate_illegalInput() {
         IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> new VariantGenerator(0));
@@ -0,0 +1,307 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2020
+ */
+
+package org.monarchinitiative.squirls.cli.cmd.serve;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.squirls.core.*;
+import org.monarchinitiative.svart.CoordinateSystem;
+import org.monarchinitiative.svart.GenomicVariant;
+import org.monarchinitiative.svart.assembly.GenomicAssembly;
+import org.monarchinitiative.svart.parsers.GenomicAssemblyParser;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class SquirlsServerTest {
+
+    private static GenomicAssembly ASSEMBLY;
+
+    /**
+     * The evaluator reports a single transcript with pathogenicity derived from the variant position.
+     */
+    private static final VariantSplicingEvaluator EVALUATOR = variant -> {
+        double pathogenicity = variant.startWithCoordinateSystem(CoordinateSystem.oneBased()) % 2 == 0 ? .9 : .1;
+        return SquirlsResult.of(List.of(SquirlsTxResult.of("NM_000001.1",
+                Prediction.of("fake", pathogenicity, .5),
+                Map.of("donor_offset", 5., "acceptor_offset", -3.))));
+    };
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private ExecutorService executor;
+
+    private SquirlsServer server;
+
+    @BeforeAll
+    public static void beforeAll() {
+        ASSEMBLY = GenomicAssemblyParser.parseAssembly(Paths.get("src/test/resources/org/monarchinitiative/squirls/cli/GCF_000001405.25_GRCh37.p13_assembly_report.txt"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (server != null)
+            server.close();
+        if (executor != null)
+            executor.shutdownNow();
+    }
+
+    private void startServer(VariantSplicingEvaluator evaluator, Executor executor, Duration timeout) throws IOException {
+        AsyncVariantSplicingEvaluator async = AsyncVariantSplicingEvaluator.of(evaluator, executor, timeout);
+        server = SquirlsServer.start(new InetSocketAddress("127.0.0.1", 0), 2, async, ASSEMBLY, 3);
+    }
+
+    private void startServer() throws IOException {
+        executor = EvaluationExecutors.bounded(2, 4);
+        startServer(EVALUATOR, executor, null);
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri(path)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri(path))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create(String.format("http://127.0.0.1:%d%s", server.address().getPort(), path));
+    }
+
+    @Test
+    public void health() throws Exception {
+        startServer();
+
+        HttpResponse<String> response = get("/health");
+
+        assertThat(response.statusCode(), equalTo(200));
+        assertThat(response.body(), equalTo("{\"status\":\"UP\"}"));
+    }
+
+    @Test
+    public void score_get() throws Exception {
+        startServer();
+
+        HttpResponse<String> response = get("/score?variant=chr3:165504108A%3EC");
+
+        assertThat(response.statusCode(), equalTo(200));
+        assertThat(response.headers().firstValue("Content-Type").orElse(""), startsWith("application/json"));
+        assertThat(response.body(), equalTo("{\"variant\":\"3:165504108A>C\",\"pathogenic\":true,\"maxPathogenicity\":0.9," +
+                "\"transcripts\":[{\"accession\":\"NM_000001.1\",\"pathogenic\":true,\"pathogenicity\":0.9}]}"));
+    }
+
+    @Test
+    public void score_postWithFeatures() throws Exception {
+        startServer();
+
+        HttpResponse<String> response = post("/score?features=true", "{\"chrom\": \"chr3\", \"pos\": 165504107, \"ref\": \"A\", \"alt\": \"C\", \"id\": \"rs123\"}");
+
+        assertThat(response.statusCode(), equalTo(200));
+        assertThat(response.body(), equalTo("{\"variant\":\"3:165504107A>C\",\"id\":\"rs123\",\"pathogenic\":false,\"maxPathogenicity\":0.1," +
+                "\"transcripts\":[{\"accession\":\"NM_000001.1\",\"pathogenic\":false,\"pathogenicity\":0.1," +
+                "\"features\":{\"acceptor_offset\":-3.0,\"donor_offset\":5.0}}]}"));
+    }
+
+    /**
+     * The requests for the feature values are answered by the feature evaluator, since the precomputed scores do not
+     * carry the features.
+     */
+    @Test
+    public void featuresAreScoredByFeatureEvaluator() throws Exception {
+        VariantSplicingEvaluator precomputed = variant -> SquirlsResult.of(List.of(SquirlsTxResult.of("N/A",
+                Prediction.of("fake", .1, .5),
+                Map.of())));
+        executor = EvaluationExecutors.bounded(2, 4);
+        server = SquirlsServer.start(new InetSocketAddress("127.0.0.1", 0), 2,
+                AsyncVariantSplicingEvaluator.of(precomputed, executor, null),
+                AsyncVariantSplicingEvaluator.of(EVALUATOR, executor, null),
+                ASSEMBLY, 3);
+
+        assertThat(get("/score?variant=chr3:165504107A%3EC").body(), equalTo("{\"variant\":\"3:165504107A>C\",\"pathogenic\":false,\"maxPathogenicity\":0.1," +
+                "\"transcripts\":[{\"accession\":\"N/A\",\"pathogenic\":false,\"pathogenicity\":0.1}]}"));
+        assertThat(get("/score?variant=chr3:165504107A%3EC&features=true").body(), equalTo("{\"variant\":\"3:165504107A>C\",\"pathogenic\":false,\"maxPathogenicity\":0.1," +
+                "\"transcripts\":[{\"accession\":\"NM_000001.1\",\"pathogenic\":false,\"pathogenicity\":0.1," +
+                "\"features\":{\"acceptor_offset\":-3.0,\"donor_offset\":5.0}}]}"));
+    }
+
+    @Test
+    public void score_invalidRequests() throws Exception {
+        startServer();
+
+        assertThat(get("/score").statusCode(), equalTo(400));
+        assertThat(get("/score?variant=chr3:abcA%3EC").statusCode(), equalTo(400));
+        assertThat(post("/score", "{\"chrom\": \"chrZ\", \"pos\": 10, \"ref\": \"A\", \"alt\": \"C\"}").statusCode(), equalTo(400));
+        assertThat(post("/score", "{\"chrom\": \"chr3\", \"pos\": -10, \"ref\": \"A\", \"alt\": \"C\"}").statusCode(), equalTo(400));
+        assertThat(post("/score", "{\"chrom\": \"chr3\"").statusCode(), equalTo(400));
+        assertThat(get("/batch").statusCode(), equalTo(405));
+        assertThat(get("/unknown").statusCode(), equalTo(404));
+    }
+
+    @Test
+    public void batch() throws Exception {
+        startServer();
+
+        HttpResponse<String> response = post("/batch", "[\"chr3:165504108A>C\", \"chrZ:1A>C\", {\"chrom\": \"3\", \"pos\": 165504107, \"ref\": \"A\", \"alt\": \"G\"}]");
+
+        assertThat(response.statusCode(), equalTo(200));
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> results = (List<Map<String, Object>>) ((Map<String, Object>) Json.parse(response.body())).get("results");
+        assertThat(results, hasSize(3));
+        assertThat(results.get(0).get("variant"), equalTo("3:165504108A>C"));
+        assertThat(results.get(0).get("pathogenic"), equalTo(true));
+        assertThat(results.get(1).get("input"), equalTo("chrZ:1A>C"));
+        assertThat(results.get(1).get("error"), equalTo("Invalid variant `chrZ:1A>C`"));
+        assertThat(results.get(2).get("variant"), equalTo("3:165504107A>G"));
+        assertThat(results.get(2).get("pathogenic"), equalTo(false));
+    }
+
+    @Test
+    public void batch_tooLarge() throws Exception {
+        startServer();
+
+        HttpResponse<String> response = post("/batch", "[\"chr3:100A>C\", \"chr3:101A>C\", \"chr3:102A>C\", \"chr3:103A>C\"]");
+
+        assertThat(response.statusCode(), equalTo(413));
+    }
+
+    @Test
+    public void rejectedEvaluationIsReportedAsBusy() throws Exception {
+        startServer(EVALUATOR, command -> {
+            throw new RejectedExecutionException("Queue is full");
+        }, null);
+
+        HttpResponse<String> response = get("/score?variant=chr3:165504108A%3EC");
+
+        assertThat(response.statusCode(), equalTo(503));
+        assertThat(response.headers().firstValue("Retry-After").isPresent(), is(true));
+    }
+
+    @Test
+    public void slowEvaluationTimesOut() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        VariantSplicingEvaluator slow = variant -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return EVALUATOR.evaluate(variant);
+        };
+        executor = EvaluationExecutors.bounded(1, 1);
+        startServer(slow, executor, Duration.ofMillis(50));
+
+        try {
+            HttpResponse<String> response = get("/score?variant=chr3:165504108A%3EC");
+
+            assertThat(response.statusCode(), equalTo(504));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void parseVariant() throws Exception {
+        startServer();
+
+        GenomicVariant variant = server.parseVariant(Map.of("chrom", "chrX", "pos", 1000L, "ref", "C", "alt", "T"));
+
+        assertThat(variant.contigName(), equalTo("X"));
+        assertThat(variant.startWithCoordinateSystem(CoordinateSystem.oneBased()), equalTo(1000));
+        assertThat(variant.ref(), equalTo("C"));
+        assertThat(variant.alt(), equalTo("T"));
+    }
+}
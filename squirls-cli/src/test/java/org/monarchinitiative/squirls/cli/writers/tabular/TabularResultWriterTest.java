@@ -237,4 +237,32 @@ public class TabularResultWriterTest {
         assertThat(lines, hasItem("BRCA2DonorExon15plus2QUID\t13\t32930748\tT\tG\tBRCA2\tNM_000059.3\tpathogenic\t0.95\tNM_000059.3=0.95"));
         assertThat(lines, hasItem("ALPLDonorExon7Minus2\t1\t21894739\tA\tG\tALPL\tNM_000478.4\tpathogenic\t0.94\tNM_000478.4=0.94"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void open() throws Exception {
+        TabularResultWriter writer = new TabularResultWriter("tsv", '\t', false, false, false);
+        SettingsData settingsData = SettingsData.builder()
+                .nReported(1)
+                .featureSource(FeatureSource.REFSEQ)
+                .build();
+        OutputOptions outputOptions = OutputOptions.builder().setOutputDirectory(OUTPUT).setPrefix("output").build();
+
+        try (AlleleWriter alleleWriter = writer.open(settingsData, outputOptions)) {
+            alleleWriter.write(variantsForTesting.TSC2AcceptorExon11Minus3());
+            alleleWriter.write(variantsForTesting.BRCA2DonorExon15plus2QUID());
+            alleleWriter.write(variantsForTesting.ALPLDonorExon7Minus2());
+        }
+
+        List<String> lines;
+        try (BufferedReader reader = Files.newBufferedReader(OUTPUT.resolve("output.tsv"))) {
+            lines = reader.lines().collect(Collectors.toList());
+        }
+
+        // all alleles are written in the order they were provided
+        assertThat(lines, hasSize(4));
+        assertThat(lines.get(0), equalTo("id\tchrom\tpos\tref\talt\tgene_symbol\ttx_accession\tinterpretation\tsquirls_score"));
+        assertThat(lines.get(1), startsWith("TSC2AcceptorExon11Minus3\t"));
+        assertThat(lines.get(2), equalTo("BRCA2DonorExon15plus2QUID\t13\t32930748\tT\tG\tBRCA2\tNM_000059.3\tpathogenic\t0.95"));
+        assertThat(lines.get(3), equalTo("ALPLDonorExon7Minus2\t1\t21894739\tA\tG\tALPL\tNM_000478.4\tpathogenic\t0.94"));
+    }
+}
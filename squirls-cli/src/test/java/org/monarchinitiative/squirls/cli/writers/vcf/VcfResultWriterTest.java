@@ -197,6 +197,32 @@ public class VcfResultWriterTest {
         assertExpectedOutput(lines);
     }
 
+    @Test
+    public void open() throws Exception {
+        SettingsData settingsData = SettingsData.builder()
+                .inputPath(inputPath.toString())
+                .featureSource(FeatureSource.REFSEQ)
+                .nReported(2)
+                .build();
+        VcfResultWriter writer = new VcfResultWriter(false, true);
+        OutputOptions outputOptions = OutputOptions.builder().setOutputDirectory(OUTPUT).setPrefix("output").build();
+
+        try (AlleleWriter alleleWriter = writer.open(settingsData, outputOptions)) {
+            alleleWriter.write(variantsForTesting.VWFAcceptorExon26minus2QUID());
+            alleleWriter.write(variantsForTesting.ALPLDonorExon7Minus2());
+        }
+
+        List<String> lines;
+        try (BufferedReader reader = Files.newBufferedReader(OUTPUT.resolve("output.vcf"))) {
+            lines = reader.lines().collect(Collectors.toList());
+        }
+
+        // the records are written in the order they were provided
+        assertThat(lines, hasSize(9));
+        assertThat(lines.get(7), startsWith("12\t6132066\tVWF_acceptor_2bp_upstream_exon26_quid"));
+        assertThat(lines.get(8), startsWith("1\t21894739\tALPL_donor_exon7_minus2"));
+    }
+
     private void assertExpectedOutput(List<String> lines) {
         assertThat(lines, hasSize(9));
         assertThat(lines.get(0), equalTo("##fileformat=VCFv4.2"));
@@ -80,6 +80,8 @@ import org.apiguardian.api.API;
 import org.monarchinitiative.squirls.core.classifier.SquirlsClassifier;
 import org.monarchinitiative.squirls.core.scoring.SplicingAnnotator;
 
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * Components of SQUIRLS application.
  *
@@ -96,7 +98,21 @@ public interface Squirls {
         return new SquirlsDefault(squirlsDataService,
                 splicingAnnotator,
                 squirlsClassifier,
-                variantSplicingEvaluator);
+                variantSplicingEvaluator,
+                AsyncVariantSplicingEvaluator.of(variantSplicingEvaluator, ForkJoinPool.commonPool()));
+    }
+
+    @API(status = API.Status.EXPERIMENTAL, since = "2.1.0")
+    static Squirls of(SquirlsDataService squirlsDataService,
+                      SplicingAnnotator splicingAnnotator,
+                      SquirlsClassifier squirlsClassifier,
+                      VariantSplicingEvaluator variantSplicingEvaluator,
+                      AsyncVariantSplicingEvaluator asyncVariantSplicingEvaluator) {
+        return new SquirlsDefault(squirlsDataService,
+                splicingAnnotator,
+                squirlsClassifier,
+                variantSplicingEvaluator,
+                asyncVariantSplicingEvaluator);
     }
 
     SquirlsDataService squirlsDataService();
@@ -107,4 +123,13 @@ public interface Squirls {
 
     VariantSplicingEvaluator variantSplicingEvaluator();
 
+    /**
+     * @return evaluator for evaluating the variants without blocking the calling thread. The default implementation
+     * runs the {@link #variantSplicingEvaluator()} on the common fork-join pool
+     */
+    @API(status = API.Status.EXPERIMENTAL, since = "2.1.0")
+    default AsyncVariantSplicingEvaluator asyncVariantSplicingEvaluator() {
+        return AsyncVariantSplicingEvaluator.of(variantSplicingEvaluator(), ForkJoinPool.commonPool());
+    }
+
 }
@@ -76,9 +76,13 @@
 
 package org.monarchinitiative.squirls.core;
 
+import org.monarchinitiative.squirls.core.reference.CachingStrandedSequenceService;
+import org.monarchinitiative.squirls.core.reference.SequenceCacheStats;
 import org.monarchinitiative.squirls.core.reference.StrandedSequenceService;
 import org.monarchinitiative.squirls.core.reference.TranscriptModelService;
 
+import java.util.Optional;
+
 /**
  * Convenience interface that extends the other services.
  * @author Daniel Danis
@@ -90,4 +94,28 @@ public interface SquirlsDataService extends TranscriptModelService, StrandedSequ
         return new SquirlsDataServiceImpl(sequenceService, transcriptModelService);
     }
 
+    /**
+     * Create the data service that keeps up to <code>sequenceCacheSize</code> bases of the recently fetched reference
+     * sequences in memory.
+     *
+     * @param sequenceService        service for fetching the reference sequence
+     * @param transcriptModelService service for fetching the transcripts
+     * @param sequenceCacheSize      maximum number of bases in the sequence cache, <code>0</code> disables the cache
+     * @return the data service
+     */
+    static SquirlsDataService of(StrandedSequenceService sequenceService,
+                                 TranscriptModelService transcriptModelService,
+                                 long sequenceCacheSize) {
+        if (sequenceCacheSize > 0)
+            sequenceService = CachingStrandedSequenceService.of(sequenceService, sequenceCacheSize);
+        return new SquirlsDataServiceImpl(sequenceService, transcriptModelService);
+    }
+
+    /**
+     * @return statistics of the reference sequence cache or an empty optional if the sequences are not cached
+     */
+    default Optional<SequenceCacheStats> sequenceCacheStats() {
+        return Optional.empty();
+    }
+
 }
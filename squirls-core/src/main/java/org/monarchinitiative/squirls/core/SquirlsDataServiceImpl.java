@@ -78,6 +78,8 @@ package org.monarchinitiative.squirls.core;
 
 import org.monarchinitiative.sgenes.model.Gene;
 import org.monarchinitiative.sgenes.model.Transcript;
+import org.monarchinitiative.squirls.core.reference.CachingStrandedSequenceService;
+import org.monarchinitiative.squirls.core.reference.SequenceCacheStats;
 import org.monarchinitiative.squirls.core.reference.StrandedSequence;
 import org.monarchinitiative.squirls.core.reference.StrandedSequenceService;
 import org.monarchinitiative.squirls.core.reference.TranscriptModelService;
@@ -113,6 +115,13 @@ class SquirlsDataServiceImpl implements SquirlsDataService {
         return sequenceService.sequenceForRegion(region);
     }
 
+    @Override
+    public Optional<SequenceCacheStats> sequenceCacheStats() {
+        return sequenceService instanceof CachingStrandedSequenceService
+                ? Optional.of(((CachingStrandedSequenceService) sequenceService).stats())
+                : Optional.empty();
+    }
+
     @Override
     public Stream<? extends Gene> genes() {
         return transcriptModelService.genes();
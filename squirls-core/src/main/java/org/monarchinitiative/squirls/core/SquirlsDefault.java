@@ -90,15 +90,18 @@ class SquirlsDefault implements Squirls {
     private final SplicingAnnotator splicingAnnotator;
     private final SquirlsClassifier squirlsClassifier;
     private final VariantSplicingEvaluator variantSplicingEvaluator;
+    private final AsyncVariantSplicingEvaluator asyncVariantSplicingEvaluator;
 
     SquirlsDefault(SquirlsDataService squirlsDataService,
                    SplicingAnnotator splicingAnnotator,
                    SquirlsClassifier squirlsClassifier,
-                   VariantSplicingEvaluator variantSplicingEvaluator) {
+                   VariantSplicingEvaluator variantSplicingEvaluator,
+                   AsyncVariantSplicingEvaluator asyncVariantSplicingEvaluator) {
         this.squirlsDataService = squirlsDataService;
         this.splicingAnnotator = splicingAnnotator;
         this.squirlsClassifier = squirlsClassifier;
         this.variantSplicingEvaluator = variantSplicingEvaluator;
+        this.asyncVariantSplicingEvaluator = asyncVariantSplicingEvaluator;
     }
 
     @Override
@@ -120,4 +123,9 @@ class SquirlsDefault implements Squirls {
     public VariantSplicingEvaluator variantSplicingEvaluator() {
         return variantSplicingEvaluator;
     }
+
+    @Override
+    public AsyncVariantSplicingEvaluator asyncVariantSplicingEvaluator() {
+        return asyncVariantSplicingEvaluator;
+    }
 }
@@ -77,6 +77,7 @@
 package org.monarchinitiative.squirls.core;
 
 import org.apiguardian.api.API;
+import org.monarchinitiative.squirls.core.classifier.SquirlsFeatures;
 
 import java.util.Map;
 import java.util.OptionalDouble;
@@ -92,6 +93,14 @@ public interface SquirlsTxResult {
         return SquirlsTxResultDefault.of(accessionId, prediction, featureMap);
     }
 
+    /**
+     * Create the result backed by the <code>features</code>. The feature map is not built until {@link #features()}
+     * is called for the first time.
+     */
+    static SquirlsTxResult of(String accessionId, Prediction prediction, SquirlsFeatures features) {
+        return SquirlsTxResultDefault.of(accessionId, prediction, features);
+    }
+
     /**
      * @return string with transcript accession ID
      */
@@ -76,29 +76,42 @@
 
 package org.monarchinitiative.squirls.core;
 
+import org.monarchinitiative.squirls.core.classifier.SquirlsFeatures;
+
 import java.util.Map;
 import java.util.Objects;
+import java.util.OptionalDouble;
 
 /**
  * Squirls prediction results wrt. single transcript.
+ * <p>
+ * The result created from {@link SquirlsFeatures} builds the feature map on the first {@link #features()} call,
+ * since most results are never asked for the feature values.
  * @author Daniel Danis
  */
 class SquirlsTxResultDefault implements SquirlsTxResult {
 
     private final String accessionId;
     private final Prediction prediction;
-    private final Map<String, Double> features;
+    private final SquirlsFeatures source;
+    private volatile Map<String, Double> features;
 
     private SquirlsTxResultDefault(String accessionId,
                                    Prediction prediction,
+                                   SquirlsFeatures source,
                                    Map<String, Double> features) {
         this.accessionId = accessionId;
         this.prediction = prediction;
+        this.source = source;
         this.features = features;
     }
 
     static SquirlsTxResultDefault of(String accessionId, Prediction prediction, Map<String, Double> featureMap) {
-        return new SquirlsTxResultDefault(accessionId, prediction, featureMap);
+        return new SquirlsTxResultDefault(accessionId, prediction, null, featureMap);
+    }
+
+    static SquirlsTxResultDefault of(String accessionId, Prediction prediction, SquirlsFeatures features) {
+        return new SquirlsTxResultDefault(accessionId, prediction, Objects.requireNonNull(features, "Features cannot be null"), null);
     }
 
     @Override
@@ -113,7 +126,23 @@ class SquirlsTxResultDefault implements SquirlsTxResult {
 
     @Override
     public Map<String, Double> features() {
-        return features;
+        Map<String, Double> map = features;
+        if (map == null) {
+            // racing threads build equal maps, hence no locking
+            map = source.getFeatureMap();
+            features = map;
+        }
+        return map;
+    }
+
+    @Override
+    public OptionalDouble featureValue(String featureName) {
+        if (features == null) {
+            return source.getFeatureNames().contains(featureName)
+                    ? OptionalDouble.of(source.getFeature(featureName))
+                    : OptionalDouble.empty();
+        }
+        return SquirlsTxResult.super.featureValue(featureName);
     }
 
     @Override
@@ -123,12 +152,13 @@ class SquirlsTxResultDefault implements SquirlsTxResult {
         SquirlsTxResultDefault that = (SquirlsTxResultDefault) o;
         return Objects.equals(accessionId, that.accessionId) &&
                 Objects.equals(prediction, that.prediction) &&
-                Objects.equals(features, that.features);
+                Objects.equals(features(), that.features());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(accessionId, prediction, features);
+        // the results are hashed when collected into SquirlsResult, the features are left out to keep the map lazy
+        return Objects.hash(accessionId, prediction);
     }
 
     @Override
@@ -136,7 +166,7 @@ class SquirlsTxResultDefault implements SquirlsTxResult {
         return "SquirlsTxResultDefault{" +
                 "accessionId='" + accessionId + '\'' +
                 ", prediction=" + prediction +
-                ", features=" + features +
+                ", features=" + features() +
                 '}';
     }
 }
@@ -78,10 +78,13 @@ package org.monarchinitiative.squirls.core;
 
 import org.apiguardian.api.API;
 import org.monarchinitiative.squirls.core.classifier.SquirlsClassifier;
+import org.monarchinitiative.squirls.core.config.SequenceFetchMode;
 import org.monarchinitiative.squirls.core.scoring.SplicingAnnotator;
 import org.monarchinitiative.svart.GenomicVariant;
 
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * @author Daniel Danis
@@ -92,7 +95,27 @@ public interface VariantSplicingEvaluator {
     static VariantSplicingEvaluator of(SquirlsDataService squirlsDataService,
                                        SplicingAnnotator annotator,
                                        SquirlsClassifier classifier) {
-        return VariantSplicingEvaluatorImpl.of(squirlsDataService, annotator, classifier);
+        return of(squirlsDataService, annotator, classifier, SequenceFetchMode.TRANSCRIPT_SPAN);
+    }
+
+    static VariantSplicingEvaluator of(SquirlsDataService squirlsDataService,
+                                       SplicingAnnotator annotator,
+                                       SquirlsClassifier classifier,
+                                       SequenceFetchMode sequenceFetchMode) {
+        return VariantSplicingEvaluatorImpl.of(squirlsDataService, annotator, classifier, sequenceFetchMode);
+    }
+
+    /**
+     * Create evaluator that looks up the variant in the precomputed <code>scores</code> first, and evaluates
+     * the variant using the <code>fallback</code> evaluator if the precomputed result is not available.
+     *
+     * @param scores   source of the precomputed results
+     * @param fallback evaluator for the variants that are not present in <code>scores</code>
+     * @return the evaluator
+     */
+    static VariantSplicingEvaluator precomputed(PrecomputedScoreSource scores,
+                                                VariantSplicingEvaluator fallback) {
+        return PrecomputedVariantSplicingEvaluator.of(scores, fallback);
     }
 
     /**
@@ -118,4 +141,21 @@ public interface VariantSplicingEvaluator {
      */
     SquirlsResult evaluate(GenomicVariant variant);
 
+    /**
+     * Calculate splicing scores for a batch of variants.
+     * <p>
+     * The evaluators can share the work (e.g. gene lookup and reference sequence fetch) among neighboring variants,
+     * hence the batch should preferably contain variants sorted by their coordinates. Unsorted batches are evaluated
+     * correctly, albeit with less sharing.
+     *
+     * @param variants variants to evaluate
+     * @return list with results in the order of the <code>variants</code>
+     */
+    @API(status = API.Status.EXPERIMENTAL, since = "2.1.0")
+    default List<SquirlsResult> evaluateAll(List<? extends GenomicVariant> variants) {
+        return variants.stream()
+                .map(this::evaluate)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
 }
@@ -80,14 +80,14 @@ import org.monarchinitiative.sgenes.model.Gene;
 import org.monarchinitiative.sgenes.model.Transcript;
 import org.monarchinitiative.squirls.core.classifier.SquirlsClassifier;
 import org.monarchinitiative.squirls.core.classifier.SquirlsFeatures;
+import org.monarchinitiative.squirls.core.config.SequenceFetchMode;
 import org.monarchinitiative.squirls.core.reference.StrandedSequence;
 import org.monarchinitiative.squirls.core.scoring.SplicingAnnotator;
 import org.monarchinitiative.svart.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -99,25 +99,41 @@ class VariantSplicingEvaluatorImpl implements VariantSplicingEvaluator {
 
     private static final int PADDING = 150;
 
+    /**
+     * Maximum span of a block of variants evaluated by {@link #evaluateAll(List)} that share the gene lookup.
+     */
+    private static final int MAX_BLOCK_SPAN = 1_000_000;
+
     private final SquirlsDataService squirlsDataService;
 
     private final SplicingAnnotator annotator;
     private final SquirlsClassifier classifier;
+    private final SequenceFetchMode sequenceFetchMode;
 
     static VariantSplicingEvaluatorImpl of(SquirlsDataService squirlsDataService,
                                            SplicingAnnotator annotator,
                                            SquirlsClassifier classifier) {
+        return of(squirlsDataService, annotator, classifier, SequenceFetchMode.TRANSCRIPT_SPAN);
+    }
+
+    static VariantSplicingEvaluatorImpl of(SquirlsDataService squirlsDataService,
+                                           SplicingAnnotator annotator,
+                                           SquirlsClassifier classifier,
+                                           SequenceFetchMode sequenceFetchMode) {
         return new VariantSplicingEvaluatorImpl(squirlsDataService,
                 annotator,
-                classifier);
+                classifier,
+                sequenceFetchMode);
     }
 
     private VariantSplicingEvaluatorImpl(SquirlsDataService squirlsDataService,
                                          SplicingAnnotator annotator,
-                                         SquirlsClassifier classifier) {
+                                         SquirlsClassifier classifier,
+                                         SequenceFetchMode sequenceFetchMode) {
         this.squirlsDataService = Objects.requireNonNull(squirlsDataService, "Squirls data service cannot be null");
         this.annotator = Objects.requireNonNull(annotator, "Splicing Annotator cannot be null");
         this.classifier = Objects.requireNonNull(classifier, "Squirls classifier cannot be null");
+        this.sequenceFetchMode = Objects.requireNonNull(sequenceFetchMode, "Sequence fetch mode cannot be null");
     }
 
     /**
@@ -131,25 +147,8 @@ class VariantSplicingEvaluatorImpl implements VariantSplicingEvaluator {
      */
     @Override
     public SquirlsResult evaluate(GenomicVariant variant) {
-        if (VariantType.isSymbolic(variant.ref(), variant.alt())) {
-            LOGGER.debug("Skipping symbolic variant {}:{}-{} {}", variant.contigName(), variant.start(), variant.end(), variant.variantType());
+        if (!isEvaluable(variant))
             return SquirlsResult.empty();
-        } else if (VariantType.isMissingUpstreamDeletion(variant.alt())) {
-            // VCF4.2 specs:
-            // The ‘*’ allele is reserved to indicate that the allele is missing due to a upstream deletion.
-            LOGGER.debug("Skipping variant where alt allele is missing due to an upstream deletion: {}:{}-{} {}",
-                    variant.contigName(), variant.startWithCoordinateSystem(CoordinateSystem.oneBased()), variant.ref(), variant.alt());
-            return SquirlsResult.empty();
-        }
-
-        /*
-         0 - perform some sanity checks at the beginning.
-         */
-        if (!squirlsDataService.genomicAssembly().containsContig(variant.contig())) {
-            // unknown contig, nothing to be done here
-            LOGGER.warn("Unknown contig for variant {}:{}{}>{}", variant.contigName(), variant.start(), variant.ref(), variant.alt());
-            return SquirlsResult.empty();
-        }
 
         /*
          1 - get the overlapping genes and select the relevant transcripts.
@@ -163,10 +162,250 @@ class VariantSplicingEvaluatorImpl implements VariantSplicingEvaluator {
             return SquirlsResult.empty();
         }
 
+        if (sequenceFetchMode == SequenceFetchMode.NEIGHBORHOOD) {
+            return evaluateWithNeighborhoodSequence(variant, transcripts);
+        }
+
         /*
-         2 - get enough reference sequence for evaluation with respect to all transcripts. The sequence is queried
-         on POSITIVE strand using 0-based coordinate system.
+         2 - get enough reference sequence for evaluation with respect to all transcripts.
          */
+        GenomicRegion toFetch = transcriptSpan(variant.contig(), transcripts);
+        StrandedSequence seq = squirlsDataService.sequenceForRegion(toFetch);
+        if (seq == null) {
+            LOGGER.debug("Unable to get reference sequence for `{}` when evaluating variant `{}`", toFetch, variant);
+            return SquirlsResult.empty();
+        }
+
+        /*
+         3 - let's evaluate the variant with respect to all transcripts
+         */
+        return evaluateWithSequence(variant, transcripts, seq);
+    }
+
+    /**
+     * Evaluate the variants in blocks of neighboring variants. The overlapping genes are looked up once per block
+     * of variants located on the same contig in ascending order, and the reference sequence is fetched once per
+     * distinct set of the overlapping transcripts within the block. In the {@link SequenceFetchMode#NEIGHBORHOOD} mode,
+     * the overlapping neighborhoods of the block variants are fetched once per transcript.
+     * <p>
+     * The results are the same as if the variants were evaluated one by one using {@link #evaluate(GenomicVariant)}.
+     *
+     * @return list with results in the order of the <code>variants</code>
+     */
+    @Override
+    public List<SquirlsResult> evaluateAll(List<? extends GenomicVariant> variants) {
+        List<SquirlsResult> results = new ArrayList<>(variants.size());
+        int blockStart = 0;
+        while (blockStart < variants.size()) {
+            int blockEnd = findBlockEnd(variants, blockStart);
+            evaluateBlock(variants.subList(blockStart, blockEnd), results);
+            blockStart = blockEnd;
+        }
+        return Collections.unmodifiableList(results);
+    }
+
+    /**
+     * @return index of the first variant that does not belong to the block starting at <code>blockStart</code>
+     */
+    private static int findBlockEnd(List<? extends GenomicVariant> variants, int blockStart) {
+        GenomicVariant first = variants.get(blockStart);
+        int contigId = first.contigId();
+        int start = first.startOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased());
+        int previousStart = start;
+        int i = blockStart + 1;
+        for (; i < variants.size(); i++) {
+            GenomicVariant variant = variants.get(i);
+            if (variant.contigId() != contigId)
+                break;
+            int variantStart = variant.startOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased());
+            int variantEnd = variant.endOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased());
+            if (variantStart < previousStart || variantEnd - start > MAX_BLOCK_SPAN)
+                break;
+            previousStart = variantStart;
+        }
+        return i;
+    }
+
+    /**
+     * Evaluate a block of variants located on the same contig and add the results to <code>results</code>.
+     */
+    private void evaluateBlock(List<? extends GenomicVariant> block, List<SquirlsResult> results) {
+        GenomicVariant first = block.get(0);
+        if (block.size() == 1 || !squirlsDataService.genomicAssembly().containsContig(first.contig())) {
+            // nothing to share
+            for (GenomicVariant variant : block)
+                results.add(evaluate(variant));
+            return;
+        }
+
+        // genes overlapping with any variant of the block
+        int blockStart = Integer.MAX_VALUE, blockEnd = Integer.MIN_VALUE;
+        for (GenomicVariant variant : block) {
+            blockStart = Math.min(blockStart, variant.startOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased()));
+            blockEnd = Math.max(blockEnd, variant.endOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased()));
+        }
+        GenomicRegion blockRegion = GenomicRegion.of(first.contig(), Strand.POSITIVE, Coordinates.of(CoordinateSystem.zeroBased(), blockStart, blockEnd));
+        List<Gene> blockGenes = squirlsDataService.overlappingGenes(blockRegion);
+
+        if (sequenceFetchMode == SequenceFetchMode.NEIGHBORHOOD) {
+            evaluateBlockWithNeighborhoodSequence(block, blockGenes, results);
+            return;
+        }
+
+        Map<GenomicRegion, Optional<StrandedSequence>> sequences = new HashMap<>();
+        for (GenomicVariant variant : block) {
+            if (!isEvaluable(variant)) {
+                results.add(SquirlsResult.empty());
+                continue;
+            }
+
+            List<? extends Transcript> transcripts = overlappingTranscripts(blockGenes, variant);
+            if (transcripts.isEmpty()) {
+                results.add(SquirlsResult.empty());
+                continue;
+            }
+
+            GenomicRegion toFetch = transcriptSpan(variant.contig(), transcripts);
+            Optional<StrandedSequence> seq = sequences.computeIfAbsent(toFetch, region -> Optional.ofNullable(squirlsDataService.sequenceForRegion(region)));
+            if (seq.isEmpty()) {
+                LOGGER.debug("Unable to get reference sequence for `{}` when evaluating variant `{}`", toFetch, variant);
+                results.add(SquirlsResult.empty());
+                continue;
+            }
+
+            results.add(evaluateWithSequence(variant, transcripts, seq.get()));
+        }
+    }
+
+    /**
+     * Evaluate a block of variants in the {@link SequenceFetchMode#NEIGHBORHOOD} mode and add the results to
+     * <code>results</code>. The neighborhoods required to evaluate the variants with respect to a transcript are merged
+     * if they overlap, and each merged neighborhood is fetched once. The bases between the neighborhoods that do not
+     * overlap are never fetched.
+     */
+    private void evaluateBlockWithNeighborhoodSequence(List<? extends GenomicVariant> block,
+                                                       List<Gene> blockGenes,
+                                                       List<SquirlsResult> results) {
+        // 1 - the neighborhoods required to evaluate each variant with respect to each overlapping transcript
+        List<List<? extends Transcript>> transcripts = new ArrayList<>(block.size());
+        List<List<GenomicRegion>> required = new ArrayList<>(block.size());
+        Map<String, List<GenomicRegion>> neighborhoods = new HashMap<>();
+        for (GenomicVariant variant : block) {
+            List<? extends Transcript> txs = isEvaluable(variant)
+                    ? overlappingTranscripts(blockGenes, variant)
+                    : List.of();
+            List<GenomicRegion> regions = new ArrayList<>(txs.size());
+            for (Transcript tx : txs) {
+                GenomicRegion region = annotator.requiredSequenceRegion(variant, tx);
+                regions.add(region);
+                neighborhoods.computeIfAbsent(tx.accession(), k -> new ArrayList<>()).add(region);
+            }
+            transcripts.add(txs);
+            required.add(regions);
+        }
+
+        // 2 - merge the overlapping neighborhoods of each transcript, keyed by the merged region start
+        Map<String, NavigableMap<Integer, GenomicRegion>> merged = new HashMap<>(neighborhoods.size());
+        for (Map.Entry<String, List<GenomicRegion>> entry : neighborhoods.entrySet())
+            merged.put(entry.getKey(), mergeOverlapping(entry.getValue()));
+
+        // 3 - evaluate, fetching each merged neighborhood once
+        Map<GenomicRegion, Optional<StrandedSequence>> sequences = new HashMap<>();
+        for (int i = 0; i < block.size(); i++) {
+            GenomicVariant variant = block.get(i);
+            List<? extends Transcript> txs = transcripts.get(i);
+            List<SquirlsTxResult> squirlsTxResults = new ArrayList<>(txs.size());
+            for (int j = 0; j < txs.size(); j++) {
+                Transcript tx = txs.get(j);
+                int start = required.get(i).get(j).startOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased());
+                GenomicRegion toFetch = merged.get(tx.accession()).floorEntry(start).getValue();
+                Optional<StrandedSequence> seq = sequences.computeIfAbsent(toFetch, region -> Optional.ofNullable(squirlsDataService.sequenceForRegion(region)));
+                if (seq.isEmpty()) {
+                    LOGGER.debug("Unable to get reference sequence for `{}` when evaluating variant `{}` with respect to `{}`", toFetch, variant, tx.accession());
+                    continue;
+                }
+                squirlsTxResults.add(evaluateWithSequence(variant, tx, seq.get()));
+            }
+            results.add(txs.isEmpty() ? SquirlsResult.empty() : SquirlsResult.of(squirlsTxResults));
+        }
+    }
+
+    /**
+     * Merge the overlapping regions located on the same contig.
+     *
+     * @return map with the merged regions keyed by their 0-based start on {@link Strand#POSITIVE} strand
+     */
+    private static NavigableMap<Integer, GenomicRegion> mergeOverlapping(List<GenomicRegion> regions) {
+        List<GenomicRegion> sorted = new ArrayList<>(regions);
+        sorted.sort(Comparator.comparingInt(region -> region.startOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased())));
+
+        NavigableMap<Integer, GenomicRegion> merged = new TreeMap<>();
+        Contig contig = sorted.get(0).contig();
+        int start = -1, end = -1;
+        for (GenomicRegion region : sorted) {
+            int regionStart = region.startOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased());
+            int regionEnd = region.endOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased());
+            if (start >= 0 && regionStart < end) {
+                end = Math.max(end, regionEnd);
+            } else {
+                if (start >= 0)
+                    merged.put(start, GenomicRegion.of(contig, Strand.POSITIVE, Coordinates.of(CoordinateSystem.zeroBased(), start, end)));
+                start = regionStart;
+                end = regionEnd;
+            }
+        }
+        merged.put(start, GenomicRegion.of(contig, Strand.POSITIVE, Coordinates.of(CoordinateSystem.zeroBased(), start, end)));
+        return merged;
+    }
+
+    /**
+     * Select transcripts of the genes that overlap with the <code>variant</code>. The overlap is evaluated in the same
+     * way as in {@link SquirlsDataService#overlappingGenes(GenomicRegion)}, i.e. using half-open intervals on
+     * the positive strand.
+     */
+    private static List<? extends Transcript> overlappingTranscripts(List<Gene> genes, GenomicVariant variant) {
+        int start = variant.startOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased());
+        int end = variant.endOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased());
+        List<Transcript> transcripts = new ArrayList<>();
+        for (Gene gene : genes) {
+            int geneStart = gene.startOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased());
+            int geneEnd = gene.endOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased());
+            if (start < geneEnd && geneStart < end)
+                gene.transcriptStream().forEach(transcripts::add);
+        }
+        return transcripts;
+    }
+
+    /**
+     * Perform some sanity checks at the beginning.
+     *
+     * @return <code>true</code> if the variant can be evaluated
+     */
+    private boolean isEvaluable(GenomicVariant variant) {
+        if (VariantType.isSymbolic(variant.ref(), variant.alt())) {
+            LOGGER.debug("Skipping symbolic variant {}:{}-{} {}", variant.contigName(), variant.start(), variant.end(), variant.variantType());
+            return false;
+        } else if (VariantType.isMissingUpstreamDeletion(variant.alt())) {
+            // VCF4.2 specs:
+            // The ‘*’ allele is reserved to indicate that the allele is missing due to a upstream deletion.
+            LOGGER.debug("Skipping variant where alt allele is missing due to an upstream deletion: {}:{}-{} {}",
+                    variant.contigName(), variant.startWithCoordinateSystem(CoordinateSystem.oneBased()), variant.ref(), variant.alt());
+            return false;
+        }
+
+        if (!squirlsDataService.genomicAssembly().containsContig(variant.contig())) {
+            // unknown contig, nothing to be done here
+            LOGGER.warn("Unknown contig for variant {}:{}{}>{}", variant.contigName(), variant.start(), variant.ref(), variant.alt());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Get region with enough reference sequence for evaluation with respect to all <code>transcripts</code>.
+     * The region is on POSITIVE strand using 0-based coordinate system.
+     */
+    private static GenomicRegion transcriptSpan(Contig contig, List<? extends Transcript> transcripts) {
         Strand strand = Strand.POSITIVE;
         Integer bp = null, ep = null;
         for (Transcript tx : transcripts) {
@@ -183,26 +422,40 @@ class VariantSplicingEvaluatorImpl implements VariantSplicingEvaluator {
         // PADDING should provide enough sequence in most cases
         bp -= PADDING;
         ep += PADDING;
-        GenomicRegion toFetch = GenomicRegion.of(variant.contig(), strand, Coordinates.of(CoordinateSystem.zeroBased(), bp, ep));
-        StrandedSequence seq = squirlsDataService.sequenceForRegion(toFetch);
-        if (seq == null) {
-            LOGGER.debug("Unable to get reference sequence for `{}` when evaluating variant `{}`", toFetch, variant);
-            return SquirlsResult.empty();
-        }
+        return GenomicRegion.of(contig, strand, Coordinates.of(CoordinateSystem.zeroBased(), bp, ep));
+    }
 
-        /*
-         3 - let's evaluate the variant with respect to all transcripts
-         */
+    private SquirlsResult evaluateWithSequence(GenomicVariant variant, List<? extends Transcript> transcripts, StrandedSequence seq) {
         List<SquirlsTxResult> squirlsTxResults = transcripts.stream()
-                .map(tx -> {
-                    VariantOnTranscript vtx = VariantOnTranscript.of(variant, tx, seq);
-                    SquirlsFeatures annotations = annotator.annotate(vtx);
-                    Prediction prediction = classifier.predict(annotations);
-                    return SquirlsTxResult.of(tx.accession(), prediction, annotations.getFeatureMap());
-                })
+                .map(tx -> evaluateWithSequence(variant, tx, seq))
                 .collect(Collectors.toUnmodifiableList());
         return SquirlsResult.of(squirlsTxResults);
     }
 
+    private SquirlsTxResult evaluateWithSequence(GenomicVariant variant, Transcript tx, StrandedSequence seq) {
+        VariantOnTranscript vtx = VariantOnTranscript.of(variant, tx, seq);
+        SquirlsFeatures annotations = annotator.annotate(vtx);
+        Prediction prediction = classifier.predict(annotations);
+        return SquirlsTxResult.of(tx.accession(), prediction, annotations);
+    }
+
+    /**
+     * Evaluate the variant with respect to each transcript using the reference sequence of the variant neighborhood,
+     * as required by the {@link SplicingAnnotator}. The transcripts for which the sequence is not available are skipped.
+     */
+    private SquirlsResult evaluateWithNeighborhoodSequence(GenomicVariant variant, List<? extends Transcript> transcripts) {
+        List<SquirlsTxResult> squirlsTxResults = new ArrayList<>(transcripts.size());
+        for (Transcript tx : transcripts) {
+            GenomicRegion toFetch = annotator.requiredSequenceRegion(variant, tx);
+            StrandedSequence seq = squirlsDataService.sequenceForRegion(toFetch);
+            if (seq == null) {
+                LOGGER.debug("Unable to get reference sequence for `{}` when evaluating variant `{}` with respect to `{}`", toFetch, variant, tx.accession());
+                continue;
+            }
+            squirlsTxResults.add(evaluateWithSequence(variant, tx, seq));
+        }
+        return SquirlsResult.of(squirlsTxResults);
+    }
+
 
 }
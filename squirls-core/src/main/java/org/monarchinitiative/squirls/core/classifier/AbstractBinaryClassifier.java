@@ -100,8 +100,12 @@ public abstract class AbstractBinaryClassifier<T extends SquirlsFeatures> implem
 
 
     protected AbstractBinaryClassifier(Builder<?> builder) {
-        this.classes = toIntArray(builder.classes);
-        this.name = Objects.requireNonNull(builder.name, "Name cannot be null");
+        this(builder.name, builder.classes);
+    }
+
+    protected AbstractBinaryClassifier(String name, List<Integer> classes) {
+        this.classes = toIntArray(classes);
+        this.name = Objects.requireNonNull(name, "Name cannot be null");
         check();
     }
 
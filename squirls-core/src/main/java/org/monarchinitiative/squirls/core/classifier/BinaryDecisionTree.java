@@ -234,57 +234,76 @@ public class BinaryDecisionTree<T extends SquirlsFeatures> extends AbstractBinar
      */
     @Override
     public double predictProba(T instance) {
-        return predictProba(instance, ROOT_IDX);
-    }
-
-    /**
-     * Get class probabilities of this instance.
-     *
-     * @param instance instance
-     * @param nodeIdx  index of the  node that is currently being processed
-     * @return class probabilities in the same order as in {@link #classes} attribute
-     */
-    private double predictProba(T instance, int nodeIdx) {
-        if (childrenLeft[nodeIdx] != childrenRight[nodeIdx]) {
+        int nodeIdx = ROOT_IDX;
+        while (!isLeaf(nodeIdx)) {
             /*
-             * Indices of the child nodes are not equal. In context of our model, this means that the node
-             * is a decision node and not a leaf. We make a decision by:
+             * We are in a decision node. We make a decision by:
              * - get threshold
              * - test feature value and select idx of left/right node
-             * - recurse down
+             * - descend
              */
-            int featureIdx = features[nodeIdx];
-            String featureName = featureIndices.get(featureIdx);
+            String featureName = featureIndices.get(features[nodeIdx]);
 
             /*
              We should not get null pointer here since we check that we have all the features at the level of
              SquirlsClassifier.
              */
             double feature = instance.getFeature(featureName);
-            double threshold = thresholds[nodeIdx];
+            nodeIdx = (feature <= thresholds[nodeIdx])
+                    ? childrenLeft[nodeIdx]
+                    : childrenRight[nodeIdx];
+        }
 
-            return (feature <= threshold)
-                    ? predictProba(instance, childrenLeft[nodeIdx])
-                    : predictProba(instance, childrenRight[nodeIdx]);
-        } else {
-            /*
-             * Both indices are -1, this is a leaf node.
-             * We are making a prediction here
-             */
-            // how many samples of each class do we have in this particular node?
-            int[] classCounts = this.classCounts[nodeIdx];
-            double sum = 0;
-            for (int count : classCounts) {
-                sum += count;
-            }
-            /*
-             Calculate probability as a fraction of positive samples existing in this node. The number of positive
-             samples is stored under idx 1
-             */
-            int nPathogenicSamples = classCounts[1];
+        return leafProba(nodeIdx);
+    }
+
+    /**
+     * @param nodeIdx index of the node
+     * @return true if the node is a leaf. Indices of the child nodes are equal (<code>-1</code>) in leaf nodes
+     */
+    boolean isLeaf(int nodeIdx) {
+        return childrenLeft[nodeIdx] == childrenRight[nodeIdx];
+    }
 
-            return nPathogenicSamples / sum;
+    /**
+     * Calculate probability as a fraction of positive samples existing in the leaf node. The number of positive
+     * samples is stored under idx 1.
+     *
+     * @param nodeIdx index of a leaf node
+     * @return probability of the positive class
+     */
+    double leafProba(int nodeIdx) {
+        // how many samples of each class do we have in this particular node?
+        int[] classCounts = this.classCounts[nodeIdx];
+        double sum = 0;
+        for (int count : classCounts) {
+            sum += count;
         }
+        return classCounts[1] / sum;
+    }
+
+    int nNodes() {
+        return nNodes;
+    }
+
+    int[] features() {
+        return features;
+    }
+
+    double[] thresholds() {
+        return thresholds;
+    }
+
+    int[] childrenLeft() {
+        return childrenLeft;
+    }
+
+    int[] childrenRight() {
+        return childrenRight;
+    }
+
+    Map<Integer, String> featureIndices() {
+        return featureIndices;
     }
 
     @Override
@@ -0,0 +1,302 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2020
+ */
+
+package org.monarchinitiative.squirls.core.classifier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Random forest with all the trees flattened into contiguous primitive arrays. The forest is compiled from a
+ * {@link RandomForest} once, e.g. when the classifier is deserialized, and it makes the same predictions.
+ * <p>
+ * Nodes of all trees are stored one after another, child indices point to absolute positions within the arrays, and
+ * the probability of the positive class is precomputed for each leaf. The trees are evaluated iteratively on the
+ * calling thread, and {@link #predictProba(double[])} does not allocate.
+ * <p>
+ * The features are accessed by position in a <code>double[]</code> feature vector. The position of a feature
+ * corresponds to the column index of the feature matrix used to train the model, see {@link #featureNames()}.
+ *
+ * @param <T> type of the data point
+ */
+public class CompiledRandomForest<T extends SquirlsFeatures> extends AbstractBinaryClassifier<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompiledRandomForest.class);
+
+    /**
+     * Value used in {@link #features} array to denote a leaf node.
+     */
+    private static final int LEAF = -1;
+
+    /**
+     * Feature names ordered by their position in the feature vector. The array may contain <code>null</code>s for
+     * the positions that are not used by the forest.
+     */
+    private final String[] featureNames;
+
+    /**
+     * Index of the root node of each tree.
+     */
+    private final int[] roots;
+
+    /**
+     * Position of the feature used to make a decision in a node, or {@link #LEAF}.
+     */
+    private final int[] features;
+
+    /**
+     * Decision threshold for a decision node, or probability of the positive class for a leaf node.
+     */
+    private final double[] values;
+
+    private final int[] childrenLeft;
+
+    private final int[] childrenRight;
+
+    private CompiledRandomForest(String name,
+                                 List<Integer> classes,
+                                 String[] featureNames,
+                                 int[] roots,
+                                 int[] features,
+                                 double[] values,
+                                 int[] childrenLeft,
+                                 int[] childrenRight) {
+        super(name, classes);
+        this.featureNames = featureNames;
+        this.roots = roots;
+        this.features = features;
+        this.values = values;
+        this.childrenLeft = childrenLeft;
+        this.childrenRight = childrenRight;
+    }
+
+    /**
+     * Flatten the trees of the <code>forest</code> into the array representation.
+     *
+     * @param forest random forest to compile
+     * @param <T>    type of the data point
+     * @return compiled forest that makes the same predictions as the <code>forest</code>
+     */
+    public static <T extends SquirlsFeatures> CompiledRandomForest<T> of(RandomForest<T> forest) {
+        Collection<BinaryDecisionTree<T>> trees = forest.trees();
+
+        // figure out positions of the features in the feature vector
+        Map<Integer, String> featureIndices = new HashMap<>();
+        for (BinaryDecisionTree<T> tree : trees) {
+            for (Map.Entry<Integer, String> entry : tree.featureIndices().entrySet()) {
+                String present = featureIndices.putIfAbsent(entry.getKey(), entry.getValue());
+                if (present != null && !present.equals(entry.getValue())) {
+                    String msg = String.format("Feature index `%d` is assigned to both `%s` and `%s`",
+                            entry.getKey(), present, entry.getValue());
+                    LOGGER.warn(msg);
+                    throw new RuntimeException(msg);
+                }
+            }
+        }
+        int nFeatures = featureIndices.keySet().stream().mapToInt(i -> i + 1).max().orElse(0);
+        String[] featureNames = new String[nFeatures];
+        featureIndices.forEach((idx, name) -> featureNames[idx] = name);
+
+        int nNodes = trees.stream().mapToInt(BinaryDecisionTree::nNodes).sum();
+        int[] roots = new int[trees.size()];
+        int[] features = new int[nNodes];
+        double[] values = new double[nNodes];
+        int[] childrenLeft = new int[nNodes];
+        int[] childrenRight = new int[nNodes];
+
+        int treeIdx = 0, offset = 0;
+        for (BinaryDecisionTree<T> tree : trees) {
+            roots[treeIdx++] = offset;
+            for (int i = 0; i < tree.nNodes(); i++) {
+                int nodeIdx = offset + i;
+                if (tree.isLeaf(i)) {
+                    features[nodeIdx] = LEAF;
+                    values[nodeIdx] = tree.leafProba(i);
+                    childrenLeft[nodeIdx] = LEAF;
+                    childrenRight[nodeIdx] = LEAF;
+                } else {
+                    int featureIdx = tree.features()[i];
+                    if (featureIdx < 0 || featureIdx >= nFeatures || featureNames[featureIdx] == null) {
+                        String msg = String.format("Unknown feature index `%d` in node `%d` of tree `%s`",
+                                featureIdx, i, tree.getName());
+                        LOGGER.warn(msg);
+                        throw new RuntimeException(msg);
+                    }
+                    features[nodeIdx] = featureIdx;
+                    values[nodeIdx] = tree.thresholds()[i];
+                    childrenLeft[nodeIdx] = offset + tree.childrenLeft()[i];
+                    childrenRight[nodeIdx] = offset + tree.childrenRight()[i];
+                }
+            }
+            offset += tree.nNodes();
+        }
+
+        List<Integer> classes = Arrays.stream(forest.classes).boxed().collect(Collectors.toList());
+        return new CompiledRandomForest<>(forest.getName(), classes, featureNames,
+                roots, features, values, childrenLeft, childrenRight);
+    }
+
+    /**
+     * @return feature names ordered by their position in the feature vector. The list contains <code>null</code>
+     * for the positions that are not used by the forest
+     */
+    public List<String> featureNames() {
+        return Collections.unmodifiableList(Arrays.asList(featureNames));
+    }
+
+    @Override
+    public Set<String> usedFeatureNames() {
+        return Arrays.stream(featureNames)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Extract the feature vector from the <code>instance</code> and predict probability of the positive class.
+     *
+     * @param instance to be used for prediction
+     * @return probability of the positive class
+     */
+    @Override
+    public double predictProba(T instance) {
+        double[] featureVector = new double[featureNames.length];
+        for (int i = 0; i < featureNames.length; i++) {
+            featureVector[i] = featureNames[i] == null
+                    ? Double.NaN
+                    : instance.getFeature(featureNames[i]);
+        }
+        return predictProba(featureVector);
+    }
+
+    /**
+     * Predict probability of the positive class as the mean of the probabilities predicted by the individual trees.
+     *
+     * @param featureVector array with feature values ordered as in {@link #featureNames()}
+     * @return probability of the positive class
+     */
+    public double predictProba(double[] featureVector) {
+        double sum = 0.;
+        for (int root : roots) {
+            int nodeIdx = root;
+            int featureIdx;
+            while ((featureIdx = features[nodeIdx]) != LEAF) {
+                nodeIdx = (featureVector[featureIdx] <= values[nodeIdx])
+                        ? childrenLeft[nodeIdx]
+                        : childrenRight[nodeIdx];
+            }
+            sum += values[nodeIdx];
+        }
+        return sum / roots.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        if (!super.equals(o)) return false;
+        CompiledRandomForest<?> that = (CompiledRandomForest<?>) o;
+        return Arrays.equals(featureNames, that.featureNames) &&
+                Arrays.equals(roots, that.roots) &&
+                Arrays.equals(features, that.features) &&
+                Arrays.equals(values, that.values) &&
+                Arrays.equals(childrenLeft, that.childrenLeft) &&
+                Arrays.equals(childrenRight, that.childrenRight);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        result = 31 * result + Arrays.hashCode(featureNames);
+        result = 31 * result + Arrays.hashCode(roots);
+        result = 31 * result + Arrays.hashCode(features);
+        result = 31 * result + Arrays.hashCode(values);
+        result = 31 * result + Arrays.hashCode(childrenLeft);
+        result = 31 * result + Arrays.hashCode(childrenRight);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledRandomForest{" +
+                "nTrees=" + roots.length +
+                ", nNodes=" + features.length +
+                ", featureNames=" + Arrays.toString(featureNames) +
+                "} " + super.toString();
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2020
+ */
+
+package org.monarchinitiative.squirls.core.classifier;
+
+import java.util.*;
+
+/**
+ * Feature schema assigns a fixed index to each feature name. The index is the position of the feature value in the
+ * <code>double[]</code> backing {@link DenseSquirlsFeatures}.
+ * <p>
+ * The annotator creates a single schema instance and uses it for all features it computes. The classifiers can
+ * therefore resolve the indices of the features they use once per schema and then access the feature values by index.
+ * The schemas with the same feature names are equal.
+ */
+public final class FeatureSchema {
+
+    private final List<String> featureNames;
+
+    private final Set<String> featureNameSet;
+
+    private final Map<String, Integer> indices;
+
+    private FeatureSchema(List<String> featureNames) {
+        this.featureNames = featureNames;
+        this.featureNameSet = Set.copyOf(featureNames);
+        Map<String, Integer> indices = new HashMap<>(featureNames.size());
+        for (int i = 0; i < featureNames.size(); i++) {
+            indices.put(featureNames.get(i), i);
+        }
+        this.indices = Map.copyOf(indices);
+    }
+
+    /**
+     * Create the schema for given feature names. The features are indexed in lexicographic order of their names.
+     *
+     * @param featureNames names of the features
+     * @return the schema
+     */
+    public static FeatureSchema of(Collection<String> featureNames) {
+        return new FeatureSchema(List.copyOf(new TreeSet<>(featureNames)));
+    }
+
+    /**
+     * @return number of features in the schema
+     */
+    public int size() {
+        return featureNames.size();
+    }
+
+    /**
+     * @param featureName name of the feature
+     * @return index of the feature or <code>-1</code> if the feature is not part of the schema
+     */
+    public int indexOf(String featureName) {
+        Integer idx = indices.get(featureName);
+        return idx == null ? -1 : idx;
+    }
+
+    /**
+     * @param featureNames names of the features
+     * @return array with indices of the <code>featureNames</code>, <code>-1</code> for a feature that is not part
+     * of the schema
+     */
+    public int[] indicesOf(List<String> featureNames) {
+        int[] result = new int[featureNames.size()];
+        for (int i = 0; i < featureNames.size(); i++) {
+            String featureName = featureNames.get(i);
+            result[i] = featureName == null ? -1 : indexOf(featureName);
+        }
+        return result;
+    }
+
+    /**
+     * @param idx index of the feature
+     * @return feature name
+     */
+    public String featureName(int idx) {
+        return featureNames.get(idx);
+    }
+
+    /**
+     * @return feature names ordered by their index
+     */
+    public List<String> featureNames() {
+        return featureNames;
+    }
+
+    /**
+     * @return set of the feature names
+     */
+    public Set<String> featureNameSet() {
+        return featureNameSet;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        FeatureSchema that = (FeatureSchema) o;
+        return Objects.equals(featureNames, that.featureNames);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(featureNames);
+    }
+
+    @Override
+    public String toString() {
+        return "FeatureSchema{" +
+                "featureNames=" + featureNames +
+                '}';
+    }
+}
@@ -91,7 +91,7 @@ import java.util.stream.Collectors;
  * When predicting probabilities, a mean probability values of individual trees is provided.
  *
  * <p>
- * The predictions are being performed in parallel.
+ * The trees are evaluated on the calling thread. Use {@link CompiledRandomForest} for the prediction-heavy code paths.
  *
  * @param <T> type of the data point
  * @author Daniel Danis
@@ -138,11 +138,16 @@ public class RandomForest<T extends SquirlsFeatures> extends AbstractBinaryClass
 
     @Override
     public double predictProba(final T instance) {
-        return trees.parallelStream() // why not, what the heck
-                .mapToDouble(tree -> tree.predictProba(instance))
-                .average()
-                // this should not happen since we check for that in the constructor
-                .orElseThrow(() -> new RuntimeException("Hoops, there is no tree in the forest!"));
+        // there is at least one tree, we check for that in the constructor
+        double sum = 0.;
+        for (BinaryDecisionTree<T> tree : trees) {
+            sum += tree.predictProba(instance);
+        }
+        return sum / trees.size();
+    }
+
+    Collection<BinaryDecisionTree<T>> trees() {
+        return trees;
     }
 
     @Override
@@ -85,4 +85,12 @@ public interface SquirlsClassifier {
 
     Prediction predict(SquirlsFeatures feature);
 
+    /**
+     * @return the threshold above which the {@link Prediction}s are considered pathogenic or <code>NaN</code> if
+     * the classifier does not use a single threshold
+     */
+    default double threshold() {
+        return Double.NaN;
+    }
+
 }
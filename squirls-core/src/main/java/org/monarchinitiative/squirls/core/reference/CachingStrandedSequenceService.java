@@ -0,0 +1,222 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2020
+ */
+
+package org.monarchinitiative.squirls.core.reference;
+
+import org.monarchinitiative.svart.CoordinateSystem;
+import org.monarchinitiative.svart.GenomicRegion;
+import org.monarchinitiative.svart.Strand;
+import org.monarchinitiative.svart.assembly.GenomicAssembly;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link StrandedSequenceService} that keeps the recently fetched {@link StrandedSequence}s in a least recently used
+ * cache bounded by the total number of bases. The sequences are cached by the exact query region, hence the cache
+ * helps when the same region is queried repeatedly, e.g. when evaluating clustered variants with respect to the same
+ * transcripts.
+ * <p>
+ * The cache is safe to use from multiple threads. The sequence is fetched from the delegate outside of the lock,
+ * hence the same region can be fetched more than once if it is queried by several threads at the same time.
+ */
+public class CachingStrandedSequenceService implements StrandedSequenceService {
+
+    private final StrandedSequenceService delegate;
+
+    private final long maxBytes;
+
+    private final Map<RegionKey, StrandedSequence> cache = new LinkedHashMap<>(16, .75f, true);
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private long bytes = 0;
+
+    /**
+     * @param delegate service to fetch the sequences that are not present in the cache
+     * @param maxBytes maximum number of bases to keep in the cache
+     */
+    public static CachingStrandedSequenceService of(StrandedSequenceService delegate, long maxBytes) {
+        return new CachingStrandedSequenceService(delegate, maxBytes);
+    }
+
+    private CachingStrandedSequenceService(StrandedSequenceService delegate, long maxBytes) {
+        this.delegate = Objects.requireNonNull(delegate, "Delegate sequence service cannot be null");
+        if (maxBytes < 0)
+            throw new IllegalArgumentException("Maximum cache size must not be negative: " + maxBytes);
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public GenomicAssembly genomicAssembly() {
+        return delegate.genomicAssembly();
+    }
+
+    @Override
+    public StrandedSequence sequenceForRegion(GenomicRegion region) {
+        RegionKey key = RegionKey.of(region);
+        synchronized (cache) {
+            StrandedSequence sequence = cache.get(key);
+            if (sequence != null) {
+                hits.increment();
+                return sequence;
+            }
+        }
+
+        misses.increment();
+        StrandedSequence sequence = delegate.sequenceForRegion(region);
+        if (sequence == null || sequence.sequence().length() > maxBytes)
+            return sequence;
+
+        synchronized (cache) {
+            StrandedSequence previous = cache.putIfAbsent(key, sequence);
+            if (previous != null)
+                // fetched by another thread in the meantime
+                return previous;
+
+            bytes += sequence.sequence().length();
+            Iterator<StrandedSequence> iterator = cache.values().iterator();
+            while (bytes > maxBytes && iterator.hasNext()) {
+                StrandedSequence eldest = iterator.next();
+                iterator.remove();
+                bytes -= eldest.sequence().length();
+                evictions.increment();
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * @return snapshot of the cache statistics
+     */
+    public SequenceCacheStats stats() {
+        int entries;
+        long size;
+        synchronized (cache) {
+            entries = cache.size();
+            size = bytes;
+        }
+        return SequenceCacheStats.of(hits.sum(), misses.sum(), evictions.sum(), entries, size, maxBytes);
+    }
+
+    @Override
+    public String toString() {
+        return "CachingStrandedSequenceService{" +
+                "delegate=" + delegate +
+                ", maxBytes=" + maxBytes +
+                '}';
+    }
+
+    private static class RegionKey {
+        private final int contigId;
+        private final Strand strand;
+        private final CoordinateSystem coordinateSystem;
+        private final int start;
+        private final int end;
+
+        private RegionKey(int contigId, Strand strand, CoordinateSystem coordinateSystem, int start, int end) {
+            this.contigId = contigId;
+            this.strand = strand;
+            this.coordinateSystem = coordinateSystem;
+            this.start = start;
+            this.end = end;
+        }
+
+        private static RegionKey of(GenomicRegion region) {
+            return new RegionKey(region.contigId(), region.strand(), region.coordinateSystem(), region.start(), region.end());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            RegionKey regionKey = (RegionKey) o;
+            return contigId == regionKey.contigId && start == regionKey.start && end == regionKey.end && strand == regionKey.strand && coordinateSystem == regionKey.coordinateSystem;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(contigId, strand, coordinateSystem, start, end);
+        }
+    }
+}
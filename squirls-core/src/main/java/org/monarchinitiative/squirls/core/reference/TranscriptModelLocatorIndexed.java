@@ -0,0 +1,316 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2020
+ */
+
+package org.monarchinitiative.squirls.core.reference;
+
+import org.monarchinitiative.sgenes.model.Transcript;
+import org.monarchinitiative.svart.CoordinateSystem;
+import org.monarchinitiative.svart.Coordinates;
+import org.monarchinitiative.svart.GenomicRegion;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Transcript model locator that answers the {@link #locate(GenomicRegion, Transcript)} queries using a binary search
+ * over a precomputed index of the transcript.
+ * <p>
+ * The index contains the donor and acceptor regions of all exons, and the boundaries of the exon/intron pairs
+ * that are examined by {@link TranscriptModelLocatorNaive}. Hence, only the exons and introns in the vicinity of the
+ * variant are examined and the results are identical to the results of {@link TranscriptModelLocatorNaive}.
+ * <p>
+ * The indices of the recently used transcripts are kept in a small direct-mapped cache, where the transcripts are
+ * compared by identity. The locator is thread-safe.
+ */
+public class TranscriptModelLocatorIndexed implements TranscriptModelLocator {
+
+    /**
+     * Default number of transcript indices kept in the cache.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 1024;
+
+    private final SplicingParameters parameters;
+
+    private final AtomicReferenceArray<TranscriptIndex> cache;
+
+    private final int cacheShift;
+
+    public TranscriptModelLocatorIndexed(SplicingParameters parameters) {
+        this(parameters, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param parameters splicing parameters
+     * @param cacheSize  number of transcript indices to keep in memory, rounded up to the nearest power of 2
+     */
+    public TranscriptModelLocatorIndexed(SplicingParameters parameters, int cacheSize) {
+        if (cacheSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + cacheSize);
+        }
+        this.parameters = parameters;
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(cacheSize - 1, 1));
+        this.cache = new AtomicReferenceArray<>(1 << bits);
+        this.cacheShift = 32 - bits;
+    }
+
+    @Override
+    public SplicingLocationData locate(GenomicRegion variant, Transcript transcript) {
+        // variant and transcript must be present on the same contig
+        if (variant.contigId() != transcript.contigId()) {
+            return SplicingLocationData.outside();
+        }
+
+        // return outside if variant does not intersect with transcript
+        if (!transcript.location().overlapsWith(variant)) {
+            return SplicingLocationData.outside();
+        }
+
+        // adjust variant's strand and the coordinate system
+        variant = variant.withCoordinateSystem(transcript.coordinateSystem()).withStrand(transcript.strand());
+
+        List<Coordinates> exons = transcript.exons();
+        List<Coordinates> introns = transcript.introns();
+        int nExons = exons.size();
+        SplicingLocationData.Builder locationData = SplicingLocationData.builder();
+
+        // is this a single exon gene?
+        if (nExons == 1) {
+            return locationData
+                    .setExonIndex(0)
+                    .setSplicingPosition(SplicingLocationData.SplicingPosition.EXON)
+                    .build();
+        }
+
+        TranscriptIndex index = getIndex(transcript);
+        int nIntrons = nExons - 1;
+        Coordinates coordinates = variant.coordinates();
+
+        // Skip the exon/intron pairs that end before the variant start and stop once the pairs begin after
+        // the variant end. The pairs in between are examined in the same order as in the naive locator.
+        int variantStart = variant.startWithCoordinateSystem(CoordinateSystem.zeroBased());
+        int variantEnd = variant.endWithCoordinateSystem(CoordinateSystem.zeroBased());
+        for (int i = index.firstPairEndingAtOrAfter(variantStart); i < nIntrons && index.minStart[i] <= variantEnd; i++) {
+            GenomicRegion donor = index.donors[i];
+            GenomicRegion acceptor = index.acceptors[i + 1];
+
+            // 1 - does the variant overlap with the donor site?
+            if (donor.overlapsWith(variant)) {
+                if (i != 0)
+                    locationData.setAcceptorRegion(index.acceptors[i]);
+
+                return locationData.setSplicingPosition(SplicingLocationData.SplicingPosition.DONOR)
+                        .setDonorRegion(donor)
+                        .setIntronIndex(i)
+                        .setExonIndex(i)
+                        .build();
+            }
+
+            // 2 - does the variant overlap with the acceptor site?
+            if (acceptor.overlapsWith(variant)) {
+                locationData.setSplicingPosition(SplicingLocationData.SplicingPosition.ACCEPTOR)
+                        .setAcceptorRegion(acceptor)
+                        .setIntronIndex(i)
+                        .setExonIndex(i + 1);
+                if (i != nIntrons - 1)
+                    locationData.setDonorRegion(index.donors[i + 1]);
+
+                return locationData.build();
+            }
+
+            // 3 - does the variant overlap with the current intron?
+            if (introns.get(i).overlaps(coordinates)) {
+                return locationData
+                        .setSplicingPosition(SplicingLocationData.SplicingPosition.INTRON)
+                        .setDonorRegion(donor)
+                        .setAcceptorRegion(acceptor)
+                        .setIntronIndex(i)
+                        .build();
+            }
+
+            // 4 - does the variant overlap with the current exon?
+            if (exons.get(i).overlaps(coordinates)) {
+                locationData
+                        .setSplicingPosition(SplicingLocationData.SplicingPosition.EXON)
+                        .setDonorRegion(donor)
+                        .setExonIndex(i);
+                if (i != 0)
+                    locationData.setAcceptorRegion(index.acceptors[i]);
+
+                return locationData.build();
+            }
+        }
+
+        // The variant overlaps with the transcript but not with any of the exon/intron pairs,
+        // hence it must overlap with the last exon. The last exon does not have the donor site.
+        int lastExonIdx = nExons - 1;
+        return locationData
+                .setSplicingPosition(SplicingLocationData.SplicingPosition.EXON)
+                .setExonIndex(lastExonIdx)
+                .setAcceptorRegion(index.acceptors[lastExonIdx])
+                .build();
+    }
+
+    private TranscriptIndex getIndex(Transcript transcript) {
+        int slot = (System.identityHashCode(transcript) * 0x9E3779B9) >>> cacheShift;
+        TranscriptIndex index = cache.get(slot);
+        if (index == null || index.transcript != transcript) {
+            index = new TranscriptIndex(transcript, parameters);
+            cache.set(slot, index);
+        }
+        return index;
+    }
+
+    /**
+     * Donor and acceptor regions of the transcript exons along with the boundaries of the <code>i</code>-th
+     * exon/intron pair. The pair consists of the <code>i</code>-th exon, the <code>i</code>-th intron, donor site
+     * of the <code>i</code>-th exon, and acceptor site of the <code>(i+1)</code>-th exon.
+     */
+    private static final class TranscriptIndex {
+
+        private final Transcript transcript;
+
+        /**
+         * Donor regions of the exons, <code>null</code> for the last exon.
+         */
+        private final GenomicRegion[] donors;
+
+        /**
+         * Acceptor regions of the exons, <code>null</code> for the first exon.
+         */
+        private final GenomicRegion[] acceptors;
+
+        /**
+         * The largest zero-based end of the pairs <code>0..i</code>, non-decreasing.
+         */
+        private final int[] maxEnd;
+
+        /**
+         * The smallest zero-based start of the pairs <code>i..n</code>, non-decreasing.
+         */
+        private final int[] minStart;
+
+        private TranscriptIndex(Transcript transcript, SplicingParameters parameters) {
+            this.transcript = transcript;
+            List<Coordinates> exons = transcript.exons();
+            List<Coordinates> introns = transcript.introns();
+            int nExons = exons.size();
+            int nIntrons = nExons - 1;
+
+            donors = new GenomicRegion[nExons];
+            acceptors = new GenomicRegion[nExons];
+            for (int i = 0; i < nExons; i++) {
+                Coordinates exon = exons.get(i);
+                if (i != nExons - 1)
+                    donors[i] = parameters.makeDonorRegion(transcript.contig(), transcript.strand(), exon);
+                if (i != 0)
+                    acceptors[i] = parameters.makeAcceptorRegion(transcript.contig(), transcript.strand(), exon);
+            }
+
+            maxEnd = new int[nIntrons];
+            minStart = new int[nIntrons];
+            int end = Integer.MIN_VALUE;
+            for (int i = 0; i < nIntrons; i++) {
+                end = Math.max(end, Math.max(
+                        Math.max(exons.get(i).endWithCoordinateSystem(CoordinateSystem.zeroBased()), introns.get(i).endWithCoordinateSystem(CoordinateSystem.zeroBased())),
+                        Math.max(donors[i].endWithCoordinateSystem(CoordinateSystem.zeroBased()), acceptors[i + 1].endWithCoordinateSystem(CoordinateSystem.zeroBased()))));
+                maxEnd[i] = end;
+            }
+            int start = Integer.MAX_VALUE;
+            for (int i = nIntrons - 1; i >= 0; i--) {
+                start = Math.min(start, Math.min(
+                        Math.min(exons.get(i).startWithCoordinateSystem(CoordinateSystem.zeroBased()), introns.get(i).startWithCoordinateSystem(CoordinateSystem.zeroBased())),
+                        Math.min(donors[i].startWithCoordinateSystem(CoordinateSystem.zeroBased()), acceptors[i + 1].startWithCoordinateSystem(CoordinateSystem.zeroBased()))));
+                minStart[i] = start;
+            }
+        }
+
+        /**
+         * @return index of the first pair whose end is at or after the <code>position</code>, or number of the pairs
+         * if there is no such pair
+         */
+        private int firstPairEndingAtOrAfter(int position) {
+            int low = 0, high = maxEnd.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (maxEnd[mid] < position)
+                    low = mid + 1;
+                else
+                    high = mid;
+            }
+            return low;
+        }
+    }
+}
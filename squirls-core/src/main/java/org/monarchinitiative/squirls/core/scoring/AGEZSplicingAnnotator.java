@@ -79,12 +79,12 @@ package org.monarchinitiative.squirls.core.scoring;
 import org.monarchinitiative.squirls.core.reference.AlleleGenerator;
 import org.monarchinitiative.squirls.core.reference.SplicingPwmData;
 import org.monarchinitiative.squirls.core.reference.TranscriptModelLocator;
-import org.monarchinitiative.squirls.core.reference.TranscriptModelLocatorNaive;
+import org.monarchinitiative.squirls.core.reference.TranscriptModelLocatorIndexed;
 import org.monarchinitiative.squirls.core.scoring.calculators.ExclusionZoneFeatureCalculator;
 import org.monarchinitiative.squirls.core.scoring.calculators.FeatureCalculator;
 import org.monarchinitiative.squirls.core.scoring.calculators.PptIsTruncated;
 import org.monarchinitiative.squirls.core.scoring.calculators.PyrimidineToPurineAtMinusThree;
-import org.monarchinitiative.squirls.core.scoring.calculators.conservation.BigWigAccessor;
+import org.monarchinitiative.squirls.core.scoring.calculators.conservation.ConservationTrack;
 
 import java.util.Collection;
 import java.util.Map;
@@ -103,17 +103,17 @@ public class AGEZSplicingAnnotator extends AbstractSplicingAnnotator {
     public AGEZSplicingAnnotator(SplicingPwmData splicingPwmData,
                                  Map<String, Double> hexamerMap,
                                  Map<String, Double> septamerMap,
-                                 BigWigAccessor bigWigAccessor) {
-        super(Stream.of(
+                                 ConservationTrack conservationTrack) {
+        super(splicingPwmData, Stream.of(
                 makeCalculatorMap(splicingPwmData).entrySet(), // agez calculators
                 RichSplicingAnnotator.makeCalculatorMap(splicingPwmData).entrySet(), // rich
-                DenseSplicingAnnotator.makeDenseCalculatorMap(splicingPwmData, hexamerMap, septamerMap, bigWigAccessor).entrySet()) // dense
+                DenseSplicingAnnotator.makeDenseCalculatorMap(splicingPwmData, hexamerMap, septamerMap, conservationTrack).entrySet()) // dense
                 .flatMap(Collection::stream)
                 .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
     }
 
     static Map<String, FeatureCalculator> makeCalculatorMap(SplicingPwmData splicingPwmData) {
-        TranscriptModelLocator locator = new TranscriptModelLocatorNaive(splicingPwmData.getParameters());
+        TranscriptModelLocator locator = new TranscriptModelLocatorIndexed(splicingPwmData.getParameters());
         AlleleGenerator generator = new AlleleGenerator(splicingPwmData.getParameters());
         // TODO - consider externalizing the AGEZ region definitions
         return Map.of(
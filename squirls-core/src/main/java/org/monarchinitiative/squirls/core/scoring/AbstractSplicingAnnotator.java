@@ -78,12 +78,16 @@ package org.monarchinitiative.squirls.core.scoring;
 
 import org.monarchinitiative.sgenes.model.Transcript;
 import org.monarchinitiative.squirls.core.VariantOnTranscript;
+import org.monarchinitiative.squirls.core.classifier.DenseSquirlsFeatures;
+import org.monarchinitiative.squirls.core.classifier.FeatureSchema;
 import org.monarchinitiative.squirls.core.classifier.SquirlsFeatures;
-import org.monarchinitiative.squirls.core.reference.StrandedSequence;
+import org.monarchinitiative.squirls.core.reference.*;
+import org.monarchinitiative.squirls.core.scoring.calculators.EvaluationContext;
 import org.monarchinitiative.squirls.core.scoring.calculators.FeatureCalculator;
-import org.monarchinitiative.svart.GenomicVariant;
+import org.monarchinitiative.squirls.core.scoring.calculators.ic.SplicingInformationContentCalculator;
+import org.monarchinitiative.svart.*;
 
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -91,10 +95,33 @@ import java.util.Map;
  */
 abstract class AbstractSplicingAnnotator implements SplicingAnnotator {
 
-    private final Map<String, FeatureCalculator> calculatorMap;
+    /**
+     * The largest padding used by the k-mer calculators (septamer).
+     */
+    private static final int KMER_PADDING = 7;
 
-    protected AbstractSplicingAnnotator(Map<String, FeatureCalculator> calculatorMap) {
-        this.calculatorMap = calculatorMap;
+    private final FeatureSchema schema;
+    /**
+     * Calculators ordered by the index of their feature in the {@link #schema}.
+     */
+    private final FeatureCalculator[] calculators;
+    private final SplicingParameters parameters;
+    private final TranscriptModelLocator locator;
+    private final SplicingInformationContentCalculator calculator;
+    private final AlleleGenerator generator;
+    private final int padding;
+
+    protected AbstractSplicingAnnotator(SplicingPwmData splicingPwmData, Map<String, FeatureCalculator> calculatorMap) {
+        this.parameters = splicingPwmData.getParameters();
+        this.schema = FeatureSchema.of(calculatorMap.keySet());
+        this.calculators = new FeatureCalculator[schema.size()];
+        for (int i = 0; i < calculators.length; i++) {
+            calculators[i] = calculatorMap.get(schema.featureName(i));
+        }
+        this.locator = new TranscriptModelLocatorIndexed(parameters);
+        this.calculator = new SplicingInformationContentCalculator(splicingPwmData);
+        this.generator = new AlleleGenerator(parameters);
+        this.padding = Math.max(KMER_PADDING, Math.max(parameters.getDonorLength(), parameters.getAcceptorLength()));
     }
 
     @Override
@@ -105,11 +132,65 @@ abstract class AbstractSplicingAnnotator implements SplicingAnnotator {
         GenomicVariant variant = data.variant().withStrand(transcript.strand()).withCoordinateSystem(transcript.coordinateSystem());
         StrandedSequence sequence = data.sequence();
 
-        Map<String, Double> features = new HashMap<>(calculatorMap.size());
-        for (String feature : calculatorMap.keySet()) {
-            features.put(feature, calculatorMap.get(feature).score(variant, transcript, sequence));
+        // the location data, splice site scores, and padded alleles are computed once and shared by all the calculators
+        EvaluationContext context = EvaluationContext.of(variant, transcript, sequence, locator, calculator, generator);
+
+        double[] features = new double[calculators.length];
+        for (int i = 0; i < calculators.length; i++) {
+            features[i] = calculators[i].score(context);
+        }
+
+        return DenseSquirlsFeatures.of(schema, features);
+    }
+
+    /**
+     * Get the smallest region that contains the sequence required by the calculators. The region spans the variant
+     * padded by the splice site length (the cryptic site and alt allele calculations), the splice sites of the
+     * variant neighborhood, and the splice sites of the current and the next exon (the splice site strength
+     * difference calculations).
+     */
+    @Override
+    public GenomicRegion requiredSequenceRegion(GenomicVariant variant, Transcript transcript) {
+        GenomicVariant v = variant.withStrand(transcript.strand()).withCoordinateSystem(transcript.coordinateSystem());
+        SplicingLocationData locationData = locator.locate(v, transcript);
+
+        int start = v.startWithCoordinateSystem(CoordinateSystem.zeroBased()) - padding;
+        int end = v.endWithCoordinateSystem(CoordinateSystem.zeroBased()) + padding;
+
+        GenomicRegion donor = locationData.getDonorRegion().orElse(null);
+        if (donor != null) {
+            start = Math.min(start, donor.startWithCoordinateSystem(CoordinateSystem.zeroBased()));
+            end = Math.max(end, donor.endWithCoordinateSystem(CoordinateSystem.zeroBased()));
+        }
+        GenomicRegion acceptor = locationData.getAcceptorRegion().orElse(null);
+        if (acceptor != null) {
+            start = Math.min(start, acceptor.startWithCoordinateSystem(CoordinateSystem.zeroBased()));
+            end = Math.max(end, acceptor.endWithCoordinateSystem(CoordinateSystem.zeroBased()));
+        }
+
+        switch (locationData.getPosition()) {
+            case EXON:
+            case DONOR:
+            case ACCEPTOR:
+                List<Coordinates> exons = transcript.exons();
+                int last = Math.min(locationData.getExonIdx() + 1, exons.size() - 1);
+                for (int i = Math.max(locationData.getExonIdx(), 0); i <= last; i++) {
+                    Coordinates exon = exons.get(i);
+                    GenomicRegion exonDonor = parameters.makeDonorRegion(transcript.contig(), transcript.strand(), exon);
+                    GenomicRegion exonAcceptor = parameters.makeAcceptorRegion(transcript.contig(), transcript.strand(), exon);
+                    start = Math.min(start, Math.min(exonDonor.startWithCoordinateSystem(CoordinateSystem.zeroBased()), exonAcceptor.startWithCoordinateSystem(CoordinateSystem.zeroBased())));
+                    end = Math.max(end, Math.max(exonDonor.endWithCoordinateSystem(CoordinateSystem.zeroBased()), exonAcceptor.endWithCoordinateSystem(CoordinateSystem.zeroBased())));
+                }
+                break;
+            case INTRON:
+            case OUTSIDE:
+            default:
+                break;
         }
 
-        return SquirlsFeatures.of(features);
+        // the region is on the transcript's strand, the sequence is fetched on the POSITIVE strand
+        return GenomicRegion.of(transcript.contig(), transcript.strand(), CoordinateSystem.zeroBased(),
+                Math.max(start, 0), Math.min(end, transcript.contig().length()))
+                .withStrand(Strand.POSITIVE);
     }
 }
@@ -80,9 +80,9 @@ import org.monarchinitiative.squirls.core.VariantOnTranscript;
 import org.monarchinitiative.squirls.core.reference.AlleleGenerator;
 import org.monarchinitiative.squirls.core.reference.SplicingPwmData;
 import org.monarchinitiative.squirls.core.reference.TranscriptModelLocator;
-import org.monarchinitiative.squirls.core.reference.TranscriptModelLocatorNaive;
+import org.monarchinitiative.squirls.core.reference.TranscriptModelLocatorIndexed;
 import org.monarchinitiative.squirls.core.scoring.calculators.*;
-import org.monarchinitiative.squirls.core.scoring.calculators.conservation.BigWigAccessor;
+import org.monarchinitiative.squirls.core.scoring.calculators.conservation.ConservationTrack;
 import org.monarchinitiative.squirls.core.scoring.calculators.ic.SplicingInformationContentCalculator;
 
 import java.util.Map;
@@ -108,24 +108,24 @@ public class DenseSplicingAnnotator extends AbstractSplicingAnnotator {
     /**
      * Create the annotator.
      *
-     * @param splicingPwmData splice site data
-     * @param hexamerMap      map of hexamer scores from the ESRSeq method
-     * @param septamerMap     map of septamer scores from the SMS method
-     * @param bigWigAccessor  the accessor that allows to get PhyloP scores from a bigwig file
+     * @param splicingPwmData   splice site data
+     * @param hexamerMap        map of hexamer scores from the ESRSeq method
+     * @param septamerMap       map of septamer scores from the SMS method
+     * @param conservationTrack the track with PhyloP scores, e.g. a bigwig file
      */
     public DenseSplicingAnnotator(SplicingPwmData splicingPwmData,
                                   Map<String, Double> hexamerMap,
                                   Map<String, Double> septamerMap,
-                                  BigWigAccessor bigWigAccessor) {
-        super(makeDenseCalculatorMap(splicingPwmData, hexamerMap, septamerMap, bigWigAccessor));
+                                  ConservationTrack conservationTrack) {
+        super(splicingPwmData, makeDenseCalculatorMap(splicingPwmData, hexamerMap, septamerMap, conservationTrack));
     }
 
     static Map<String, FeatureCalculator> makeDenseCalculatorMap(SplicingPwmData splicingPwmData,
                                                                  Map<String, Double> hexamerMap,
                                                                  Map<String, Double> septamerMap,
-                                                                 BigWigAccessor bigWigAccessor) {
+                                                                 ConservationTrack conservationTrack) {
 
-        TranscriptModelLocator locator = new TranscriptModelLocatorNaive(splicingPwmData.getParameters());
+        TranscriptModelLocator locator = new TranscriptModelLocatorIndexed(splicingPwmData.getParameters());
         SplicingInformationContentCalculator calculator = new SplicingInformationContentCalculator(splicingPwmData);
         AlleleGenerator generator = new AlleleGenerator(splicingPwmData.getParameters());
 
@@ -136,7 +136,7 @@ public class DenseSplicingAnnotator extends AbstractSplicingAnnotator {
                 "cryptic_acceptor", new CrypticAcceptor(calculator, generator, locator),
                 "hexamer", new Hexamer(hexamerMap),
                 "septamer", new Septamer(septamerMap),
-                "phylop", new BigWig(bigWigAccessor),
+                "phylop", new BigWig(conservationTrack),
                 "donor_offset", new ClosestDonorDistance(),
                 "acceptor_offset", new ClosestAcceptorDistance());
     }
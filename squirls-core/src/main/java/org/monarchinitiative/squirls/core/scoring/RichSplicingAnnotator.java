@@ -80,9 +80,9 @@ import org.monarchinitiative.squirls.core.VariantOnTranscript;
 import org.monarchinitiative.squirls.core.reference.AlleleGenerator;
 import org.monarchinitiative.squirls.core.reference.SplicingPwmData;
 import org.monarchinitiative.squirls.core.reference.TranscriptModelLocator;
-import org.monarchinitiative.squirls.core.reference.TranscriptModelLocatorNaive;
+import org.monarchinitiative.squirls.core.reference.TranscriptModelLocatorIndexed;
 import org.monarchinitiative.squirls.core.scoring.calculators.*;
-import org.monarchinitiative.squirls.core.scoring.calculators.conservation.BigWigAccessor;
+import org.monarchinitiative.squirls.core.scoring.calculators.conservation.ConservationTrack;
 import org.monarchinitiative.squirls.core.scoring.calculators.ic.SplicingInformationContentCalculator;
 
 import java.util.Collection;
@@ -121,18 +121,18 @@ public class RichSplicingAnnotator extends AbstractSplicingAnnotator {
     public RichSplicingAnnotator(SplicingPwmData splicingPwmData,
                                  Map<String, Double> hexamerMap,
                                  Map<String, Double> septamerMap,
-                                 BigWigAccessor bigWigAccessor) {
-        super(Stream.of(// rich
+                                 ConservationTrack conservationTrack) {
+        super(splicingPwmData, Stream.of(// rich
                 makeCalculatorMap(splicingPwmData).entrySet(),
                 // dense
-                DenseSplicingAnnotator.makeDenseCalculatorMap(splicingPwmData, hexamerMap, septamerMap, bigWigAccessor).entrySet())
+                DenseSplicingAnnotator.makeDenseCalculatorMap(splicingPwmData, hexamerMap, septamerMap, conservationTrack).entrySet())
                 .flatMap(Collection::stream)
                 .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
     }
 
     static Map<String, FeatureCalculator> makeCalculatorMap(SplicingPwmData splicingPwmData) {
 
-        TranscriptModelLocator locator = new TranscriptModelLocatorNaive(splicingPwmData.getParameters());
+        TranscriptModelLocator locator = new TranscriptModelLocatorIndexed(splicingPwmData.getParameters());
         SplicingInformationContentCalculator calculator = new SplicingInformationContentCalculator(splicingPwmData);
         AlleleGenerator generator = new AlleleGenerator(splicingPwmData.getParameters());
 
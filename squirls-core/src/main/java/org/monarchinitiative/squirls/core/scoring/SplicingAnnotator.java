@@ -76,8 +76,13 @@
 
 package org.monarchinitiative.squirls.core.scoring;
 
+import org.monarchinitiative.sgenes.model.Transcript;
 import org.monarchinitiative.squirls.core.VariantOnTranscript;
 import org.monarchinitiative.squirls.core.classifier.SquirlsFeatures;
+import org.monarchinitiative.svart.CoordinateSystem;
+import org.monarchinitiative.svart.GenomicRegion;
+import org.monarchinitiative.svart.GenomicVariant;
+import org.monarchinitiative.svart.Strand;
 
 /**
  * Implementors calculate a set of features for each {@link VariantOnTranscript}.
@@ -92,4 +97,22 @@ public interface SplicingAnnotator {
      */
     SquirlsFeatures annotate(VariantOnTranscript data);
 
+    /**
+     * Get the region of the reference sequence that is required to annotate the <code>variant</code> with respect to
+     * the <code>transcript</code>. The region is on {@link Strand#POSITIVE} strand and uses
+     * {@link CoordinateSystem#zeroBased()} coordinate system.
+     * <p>
+     * The default implementation returns the entire transcript region padded by 150bp.
+     *
+     * @return region with the reference sequence required to annotate the variant
+     */
+    default GenomicRegion requiredSequenceRegion(GenomicVariant variant, Transcript transcript) {
+        int padding = 150;
+        int start = transcript.startOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased());
+        int end = transcript.endOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased());
+        return GenomicRegion.of(transcript.contig(), Strand.POSITIVE, CoordinateSystem.zeroBased(),
+                Math.max(start - padding, 0),
+                Math.min(end + padding, transcript.contig().length()));
+    }
+
 }
@@ -78,6 +78,7 @@ package org.monarchinitiative.squirls.core.scoring.calculators;
 
 import org.monarchinitiative.sgenes.model.Transcript;
 import org.monarchinitiative.squirls.core.reference.SplicingLocationData;
+import org.monarchinitiative.squirls.core.reference.StrandedSequence;
 import org.monarchinitiative.squirls.core.reference.TranscriptModelLocator;
 import org.monarchinitiative.svart.CoordinateSystem;
 import org.monarchinitiative.svart.Coordinates;
@@ -100,9 +101,18 @@ abstract class BaseAgezCalculator implements FeatureCalculator {
         this.agezEnd = agezEnd;
     }
 
-    boolean overlapsWithAgezRegion(GenomicVariant variant, Transcript transcript) {
-        SplicingLocationData locationData = locator.locate(variant, transcript);
+    @Override
+    public double score(GenomicVariant variant, Transcript transcript, StrandedSequence sequence) {
+        return score(EvaluationContext.of(variant, transcript, sequence, locator, null, null));
+    }
+
+    @Override
+    public abstract double score(EvaluationContext context);
 
+    boolean overlapsWithAgezRegion(EvaluationContext context) {
+        GenomicVariant variant = context.variant();
+        Transcript transcript = context.transcript();
+        SplicingLocationData locationData = context.locationData();
         GenomicRegion agezInterval = null;
         switch (locationData.getPosition()) {
             case ACCEPTOR:
@@ -102,8 +102,9 @@ abstract class BaseFeatureCalculator implements FeatureCalculator {
 
     @Override
     public double score(GenomicVariant variant, Transcript transcript, StrandedSequence sequence) {
-        return score(variant, locator.locate(variant, transcript), transcript, sequence);
+        return score(EvaluationContext.of(variant, transcript, sequence, locator, calculator, generator));
     }
 
-    protected abstract double score(GenomicVariant variant, SplicingLocationData locationData, Transcript transcript, StrandedSequence sequence);
+    @Override
+    public abstract double score(EvaluationContext context);
 }
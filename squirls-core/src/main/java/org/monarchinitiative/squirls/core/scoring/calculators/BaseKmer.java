@@ -78,9 +78,7 @@ package org.monarchinitiative.squirls.core.scoring.calculators;
 
 
 import org.monarchinitiative.sgenes.model.Transcript;
-import org.monarchinitiative.squirls.core.reference.AlleleGenerator;
 import org.monarchinitiative.squirls.core.reference.StrandedSequence;
-import org.monarchinitiative.squirls.core.Utils;
 import org.monarchinitiative.svart.GenomicVariant;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -94,10 +92,10 @@ public abstract class BaseKmer implements FeatureCalculator {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BaseKmer.class);
 
-    protected final Map<String, Double> kmerMap;
+    protected final KmerTable kmerTable;
 
     protected BaseKmer(Map<String, Double> kmerMap) {
-        this.kmerMap = Map.copyOf(kmerMap);
+        this.kmerTable = KmerTable.of(kmerMap, getPadding() + 1);
     }
 
     /**
@@ -108,21 +106,23 @@ public abstract class BaseKmer implements FeatureCalculator {
      * length of the {@code sequence} is less than {@link #getPadding()}+1
      */
     double scoreSequence(String sequence) {
-        return Utils.slidingWindow(sequence.toUpperCase(), getPadding() + 1)
-                .map(kmer -> kmerMap.getOrDefault(kmer, Double.NaN))
-                .reduce(Double::sum)
-                .orElse(Double.NaN);
+        return kmerTable.scoreSequence(sequence);
     }
 
     protected abstract int getPadding();
 
     @Override
     public double score(GenomicVariant variant, Transcript transcript, StrandedSequence sequence) {
-        final String paddedRefAllele = AlleleGenerator.getPaddedAllele(variant, sequence, variant.ref(), getPadding());
-        final String paddedAltAllele = AlleleGenerator.getPaddedAllele(variant, sequence, variant.alt(), getPadding());
+        return score(EvaluationContext.of(variant, transcript, sequence, null, null, null));
+    }
+
+    @Override
+    public double score(EvaluationContext context) {
+        final String paddedRefAllele = context.paddedRefAllele(getPadding());
+        final String paddedAltAllele = context.paddedAltAllele(getPadding());
         if (paddedRefAllele == null || paddedAltAllele == null) {
             if (LOGGER.isWarnEnabled())
-                LOGGER.warn("Unable to create neighborhood snippet for variant `{}` using sequence `{}`", variant, sequence);
+                LOGGER.warn("Unable to create neighborhood snippet for variant `{}` using sequence `{}`", context.variant(), context.sequence());
             return Double.NaN;
         }
 
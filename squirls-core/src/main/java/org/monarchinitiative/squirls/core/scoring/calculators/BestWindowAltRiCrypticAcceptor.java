@@ -79,11 +79,8 @@ package org.monarchinitiative.squirls.core.scoring.calculators;
 import org.monarchinitiative.sgenes.model.Transcript;
 import org.monarchinitiative.squirls.core.reference.AlleleGenerator;
 import org.monarchinitiative.squirls.core.reference.StrandedSequence;
-import org.monarchinitiative.squirls.core.Utils;
 import org.monarchinitiative.squirls.core.scoring.calculators.ic.SplicingInformationContentCalculator;
 import org.monarchinitiative.svart.GenomicVariant;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * This class calculates <code>alt_ri_acceptor_best_window</code> feature - maximum individual information observed
@@ -92,10 +89,7 @@ import org.slf4j.LoggerFactory;
  */
 public class BestWindowAltRiCrypticAcceptor implements FeatureCalculator {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(BestWindowAltRiCrypticAcceptor.class);
-
     private final SplicingInformationContentCalculator calculator;
-
     private final AlleleGenerator generator;
 
     public BestWindowAltRiCrypticAcceptor(SplicingInformationContentCalculator calculator,
@@ -112,17 +106,16 @@ public class BestWindowAltRiCrypticAcceptor implements FeatureCalculator {
      */
     @Override
     public double score(GenomicVariant variant, Transcript transcript, StrandedSequence sequence) {
-        String acceptorNeighborSnippet = generator.getAcceptorNeighborSnippet(variant, sequence, variant.alt());
+        return score(EvaluationContext.of(variant, transcript, sequence, null, calculator, generator));
+    }
 
-        if (acceptorNeighborSnippet == null) {
-            if (LOGGER.isWarnEnabled())
-                LOGGER.warn("Unable to create neighborhood snippet for variant `{}` using sequence `{}`", variant, sequence);
+    @Override
+    public double score(EvaluationContext context) {
+        double[] windowScores = context.altAcceptorWindowScores();
+        if (windowScores == null) {
             return Double.NaN;
         }
 
-        return Utils.slidingWindow(acceptorNeighborSnippet, calculator.getSplicingParameters().getAcceptorLength())
-                .map(calculator::getSpliceAcceptorScore)
-                .max(Double::compareTo)
-                .orElse(Double.NaN);
+        return SplicingInformationContentCalculator.maxScore(windowScores, Double.NaN);
     }
 }
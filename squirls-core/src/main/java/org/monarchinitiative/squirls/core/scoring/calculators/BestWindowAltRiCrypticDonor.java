@@ -79,11 +79,8 @@ package org.monarchinitiative.squirls.core.scoring.calculators;
 import org.monarchinitiative.sgenes.model.Transcript;
 import org.monarchinitiative.squirls.core.reference.AlleleGenerator;
 import org.monarchinitiative.squirls.core.reference.StrandedSequence;
-import org.monarchinitiative.squirls.core.Utils;
 import org.monarchinitiative.squirls.core.scoring.calculators.ic.SplicingInformationContentCalculator;
 import org.monarchinitiative.svart.GenomicVariant;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * This class calculates <code>alt_ri_donor_best_window</code> feature - maximum individual information observed
@@ -92,8 +89,6 @@ import org.slf4j.LoggerFactory;
  */
 public class BestWindowAltRiCrypticDonor implements FeatureCalculator {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(BestWindowAltRiCrypticDonor.class);
-
     private final SplicingInformationContentCalculator calculator;
     private final AlleleGenerator generator;
 
@@ -111,17 +106,16 @@ public class BestWindowAltRiCrypticDonor implements FeatureCalculator {
      */
     @Override
     public double score(GenomicVariant variant, Transcript transcript, StrandedSequence sequence) {
-        String donorNeighborSnippet = generator.getDonorNeighborSnippet(variant, sequence, variant.alt());
+        return score(EvaluationContext.of(variant, transcript, sequence, null, calculator, generator));
+    }
 
-        if (donorNeighborSnippet == null) {
-            if (LOGGER.isWarnEnabled())
-                LOGGER.warn("Unable to create neighborhood snippet for variant `{}` using sequence `{}`", variant, sequence);
+    @Override
+    public double score(EvaluationContext context) {
+        double[] windowScores = context.altDonorWindowScores();
+        if (windowScores == null) {
             return Double.NaN;
         }
 
-        return Utils.slidingWindow(donorNeighborSnippet, calculator.getSplicingParameters().getDonorLength())
-                .map(calculator::getSpliceDonorScore)
-                .max(Double::compareTo)
-                .orElse(Double.NaN);
+        return SplicingInformationContentCalculator.maxScore(windowScores, Double.NaN);
     }
 }
@@ -78,25 +78,23 @@ package org.monarchinitiative.squirls.core.scoring.calculators;
 
 import org.monarchinitiative.sgenes.model.Transcript;
 import org.monarchinitiative.squirls.core.reference.StrandedSequence;
-import org.monarchinitiative.squirls.core.scoring.calculators.conservation.BigWigAccessor;
+import org.monarchinitiative.squirls.core.scoring.calculators.conservation.ConservationTrack;
 import org.monarchinitiative.svart.GenomicVariant;
 
-import java.util.List;
-
 /**
- * This class operates on a bigWig file and gets score for a given {@link GenomicVariant} from a bigWig file.
+ * This class gets score for a given {@link GenomicVariant} from a {@link ConservationTrack}, such as a bigWig file.
  * @author Daniel Danis
  */
 public class BigWig implements FeatureCalculator {
 
-    private final BigWigAccessor accessor;
+    private final ConservationTrack track;
 
-    public BigWig(BigWigAccessor accessor) {
-        this.accessor = accessor;
+    public BigWig(ConservationTrack track) {
+        this.track = track;
     }
 
     /**
-     * Get score for <code>variant</code>'s position from the bigWig file. If the <code>variant</code> is a deletion,
+     * Get score for <code>variant</code>'s position from the conservation track. If the <code>variant</code> is a deletion,
      * then return the mean score. If the score is not available, {@link Double#NaN} is returned.
      *
      * @param variant    to be annotated
@@ -106,10 +104,17 @@ public class BigWig implements FeatureCalculator {
      */
     @Override
     public double score(GenomicVariant variant, Transcript transcript, StrandedSequence sequence) {
-        List<Float> scores = accessor.getScores(variant);
-        return scores.stream()
-                .mapToDouble(Float::doubleValue)
-                .average()
-                .orElse(Double.NaN);
+        int length = variant.length();
+        if (length == 0) {
+            return Double.NaN;
+        }
+        float[] scores = new float[length];
+        track.getScores(variant, scores);
+
+        double sum = 0;
+        for (float score : scores) {
+            sum += score;
+        }
+        return sum / length;
     }
 }
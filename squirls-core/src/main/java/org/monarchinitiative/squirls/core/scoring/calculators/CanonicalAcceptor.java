@@ -76,23 +76,15 @@
 
 package org.monarchinitiative.squirls.core.scoring.calculators;
 
-import org.monarchinitiative.sgenes.model.Transcript;
-import org.monarchinitiative.squirls.core.Utils;
 import org.monarchinitiative.squirls.core.reference.*;
 import org.monarchinitiative.squirls.core.scoring.calculators.ic.SplicingInformationContentCalculator;
 import org.monarchinitiative.svart.GenomicRegion;
-import org.monarchinitiative.svart.GenomicVariant;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * @author Daniel Danis
  */
 public class CanonicalAcceptor extends BaseFeatureCalculator {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(CanonicalAcceptor.class);
-
-
     public CanonicalAcceptor(SplicingInformationContentCalculator annotator,
                              AlleleGenerator generator,
                              TranscriptModelLocator locator) {
@@ -100,45 +92,24 @@ public class CanonicalAcceptor extends BaseFeatureCalculator {
     }
 
     @Override
-    protected double score(GenomicVariant variant, SplicingLocationData locationData, Transcript tx, StrandedSequence sequence) {
+    public double score(EvaluationContext context) {
+        SplicingLocationData locationData = context.locationData();
         if (locationData.getPosition() == SplicingLocationData.SplicingPosition.ACCEPTOR) {
             return locationData.getAcceptorRegion()
-                    .map(acceptor -> score(variant, acceptor, sequence))
+                    .map(acceptor -> score(context, acceptor))
                     .orElse(0.);
         }
         return 0.;
     }
 
 
-    private double score(GenomicVariant variant, GenomicRegion acceptor, StrandedSequence sequence) {
-        if (!acceptor.overlapsWith(variant)) {
-            // shortcut - if variant does not affect the donor site
+    private static double score(EvaluationContext context, GenomicRegion acceptor) {
+        if (!acceptor.overlapsWith(context.variant())) {
+            // shortcut - if variant does not affect the acceptor site
             return 0;
         }
 
-        String acceptorSiteSnippet = sequence.subsequence(acceptor);
-        if (acceptorSiteSnippet == null) {
-            if (LOGGER.isDebugEnabled())
-                LOGGER.debug("Unable to create wt snippets for variant `{}` using interval `{}`", variant, Utils.formatAsRegion(sequence.location()));
-            return Double.NaN;
-        }
-        double refScore = calculator.getSpliceAcceptorScore(acceptorSiteSnippet);
-        String acceptorSiteWithAltAllele;
-        try {
-            acceptorSiteWithAltAllele = generator.getAcceptorSiteWithAltAllele(acceptor, variant, sequence);
-        } catch (SpliceSiteDeletedException e) {
-            // I consider the alt score to be 0 if the entire site is deleted
-            return refScore;
-        }
-
-        if (acceptorSiteWithAltAllele == null) {
-            if (LOGGER.isDebugEnabled())
-                LOGGER.debug("Unable to create alt snippets for variant `{}` using interval `{}`", variant, Utils.formatAsRegion(sequence.location()));
-            return Double.NaN;
-        }
-
-        double altScore = calculator.getSpliceAcceptorScore(acceptorSiteWithAltAllele);
-
-        return refScore - altScore;
+        // the alt score is 0 if the entire site is deleted
+        return context.acceptorScore(acceptor) - context.acceptorScoreWithAltAllele(acceptor);
     }
 }
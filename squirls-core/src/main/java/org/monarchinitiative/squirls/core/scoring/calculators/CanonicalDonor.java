@@ -76,22 +76,15 @@
 
 package org.monarchinitiative.squirls.core.scoring.calculators;
 
-import org.monarchinitiative.sgenes.model.Transcript;
-import org.monarchinitiative.squirls.core.Utils;
 import org.monarchinitiative.squirls.core.reference.*;
 import org.monarchinitiative.squirls.core.scoring.calculators.ic.SplicingInformationContentCalculator;
 import org.monarchinitiative.svart.GenomicRegion;
-import org.monarchinitiative.svart.GenomicVariant;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * @author Daniel Danis
  */
 public class CanonicalDonor extends BaseFeatureCalculator {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(CanonicalDonor.class);
-
     public CanonicalDonor(SplicingInformationContentCalculator annotator,
                           AlleleGenerator generator,
                           TranscriptModelLocator locator) {
@@ -99,45 +92,24 @@ public class CanonicalDonor extends BaseFeatureCalculator {
     }
 
     @Override
-    protected double score(GenomicVariant variant, SplicingLocationData locationData, Transcript tx, StrandedSequence sequence) {
+    public double score(EvaluationContext context) {
+        SplicingLocationData locationData = context.locationData();
         if (locationData.getPosition() == SplicingLocationData.SplicingPosition.DONOR) {
             return locationData.getDonorRegion()
-                    .map(donor -> score(variant, donor, sequence))
+                    .map(donor -> score(context, donor))
                     .orElse(0.);
         }
         return 0.;
     }
 
 
-    private double score(GenomicVariant variant, GenomicRegion donor, StrandedSequence sequence) {
-        if (!donor.overlapsWith(variant)) {
+    private static double score(EvaluationContext context, GenomicRegion donor) {
+        if (!donor.overlapsWith(context.variant())) {
             // shortcut - if variant does not affect the donor site
             return 0;
         }
 
-        String donorSiteSnippet = sequence.subsequence(donor);
-        if (donorSiteSnippet == null) {
-            if (LOGGER.isDebugEnabled())
-                LOGGER.debug("Unable to create wt snippets for variant `{}` using interval `{}`", variant, Utils.formatAsRegion(sequence.location()));
-            return Double.NaN;
-        }
-        double refScore = calculator.getSpliceDonorScore(donorSiteSnippet);
-        String donorSiteWithAltAllele;
-        try {
-            donorSiteWithAltAllele = generator.getDonorSiteWithAltAllele(donor, variant, sequence);
-        } catch (SpliceSiteDeletedException e) {
-            // I consider the alt score to be 0 if the entire site is deleted
-            return refScore;
-        }
-
-        if (donorSiteWithAltAllele == null) {
-            if (LOGGER.isDebugEnabled())
-                LOGGER.debug("Unable to create alt snippets for variant `{}` using interval `{}`", variant, Utils.formatAsRegion(sequence.location()));
-            return Double.NaN;
-        }
-
-        double altScore = calculator.getSpliceDonorScore(donorSiteWithAltAllele);
-
-        return refScore - altScore;
+        // the alt score is 0 if the entire site is deleted
+        return context.donorScore(donor) - context.donorScoreWithAltAllele(donor);
     }
 }
@@ -76,44 +76,31 @@
 
 package org.monarchinitiative.squirls.core.scoring.calculators;
 
-import org.monarchinitiative.sgenes.model.Transcript;
 import org.monarchinitiative.squirls.core.reference.*;
-import org.monarchinitiative.squirls.core.Utils;
 import org.monarchinitiative.squirls.core.scoring.calculators.ic.SplicingInformationContentCalculator;
 import org.monarchinitiative.svart.GenomicRegion;
-import org.monarchinitiative.svart.GenomicVariant;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * @author Daniel Danis
  */
 public class CrypticAcceptor extends BaseFeatureCalculator {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(CanonicalAcceptor.class);
-
-    /**
-     * How many bases we add upstream and downstream when creating snippet for sliding window.
-     */
-    private final int padding;
-
     public CrypticAcceptor(SplicingInformationContentCalculator calculator,
                            AlleleGenerator generator,
                            TranscriptModelLocator locator) {
         super(calculator, generator, locator);
-        this.padding = calculator.getSplicingParameters().getAcceptorLength() - 1;
     }
 
     @Override
-    protected double score(GenomicVariant variant, SplicingLocationData locationData, Transcript transcript, StrandedSequence sequence) {
+    public double score(EvaluationContext context) {
+        SplicingLocationData locationData = context.locationData();
         switch (locationData.getPosition()) {
             case EXON:
+            case INTRON:
             case DONOR:
             case ACCEPTOR:
-            case INTRON:
-                // we should have the acceptor region
                 return locationData.getAcceptorRegion()
-                        .map(acceptor -> score(variant, acceptor, sequence))
+                        .map(acceptor -> score(context, acceptor))
                         .orElse(0.);
             case OUTSIDE:
             default:
@@ -122,40 +109,17 @@ public class CrypticAcceptor extends BaseFeatureCalculator {
     }
 
 
-    private double score(GenomicVariant variant, GenomicRegion acceptor, StrandedSequence sequence) {
-        // prepare snippet for sliding window with alt allele
-        String acceptorNeighborSnippet = generator.getAcceptorNeighborSnippet(variant, sequence, variant.alt());
-        if (acceptorNeighborSnippet == null) {
-            if (LOGGER.isWarnEnabled())
-                LOGGER.warn("Unable to create sliding window snippet +- {}bp for variant `{}` using sequence `{}`",
-                        padding, variant, Utils.formatAsRegion(sequence.location()));
-            return Double.NaN;
-        }
-        double crypticMaxScore = Utils.slidingWindow(acceptorNeighborSnippet, calculator.getSplicingParameters().getAcceptorLength())
-                .map(calculator::getSpliceAcceptorScore)
-                .reduce(Double::max)
-                .orElse(0D);
-
-        // prepare wt acceptor snippet
-        final String acceptorSnippet;
-        if (variant.overlapsWith(acceptor)) {
-            try {
-                acceptorSnippet = generator.getAcceptorSiteWithAltAllele(acceptor, variant, sequence);
-            } catch (SpliceSiteDeletedException e) {
-                return crypticMaxScore; // should be covered by the `canonical_acceptor` feature
-            }
-        } else {
-            acceptorSnippet = sequence.subsequence(acceptor);
-        }
-        if (acceptorSnippet == null) {
-            if (LOGGER.isWarnEnabled())
-                LOGGER.warn("Unable to create acceptor snippet at `{}` for variant `{}` using sequence `{}`",
-                        acceptor, variant, Utils.formatAsRegion(sequence.location()));
+    private static double score(EvaluationContext context, GenomicRegion acceptor) {
+        // scores of the sliding window with alt allele
+        double[] windowScores = context.altAcceptorWindowScores();
+        if (windowScores == null) {
             return Double.NaN;
         }
+        double crypticMaxScore = SplicingInformationContentCalculator.maxScore(windowScores, 0D);
 
-        // calculate scores and return result
-        double canonicalAcceptorScore = calculator.getSpliceAcceptorScore(acceptorSnippet);
+        // score of the canonical acceptor site with alt allele, the score is 0 if the variant deletes the entire site
+        // (should be primarily covered by the `canonical_acceptor` feature)
+        double canonicalAcceptorScore = context.acceptorScoreWithAltAllele(acceptor);
 
         return crypticMaxScore - canonicalAcceptorScore;
     }
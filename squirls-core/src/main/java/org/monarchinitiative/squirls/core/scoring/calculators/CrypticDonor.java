@@ -76,44 +76,31 @@
 
 package org.monarchinitiative.squirls.core.scoring.calculators;
 
-import org.monarchinitiative.sgenes.model.Transcript;
 import org.monarchinitiative.squirls.core.reference.*;
-import org.monarchinitiative.squirls.core.Utils;
 import org.monarchinitiative.squirls.core.scoring.calculators.ic.SplicingInformationContentCalculator;
 import org.monarchinitiative.svart.GenomicRegion;
-import org.monarchinitiative.svart.GenomicVariant;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * @author Daniel Danis
  */
 public class CrypticDonor extends BaseFeatureCalculator {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(CrypticDonor.class);
-
-    /**
-     * How many bases we add upstream and downstream when creating snippet for sliding window.
-     */
-    private final int padding;
-
     public CrypticDonor(SplicingInformationContentCalculator calculator,
                         AlleleGenerator generator,
                         TranscriptModelLocator locator) {
         super(calculator, generator, locator);
-        this.padding = calculator.getSplicingParameters().getDonorLength() - 1;
     }
 
     @Override
-    protected double score(GenomicVariant variant, SplicingLocationData locationData, Transcript transcript, StrandedSequence sequence) {
+    public double score(EvaluationContext context) {
+        SplicingLocationData locationData = context.locationData();
         switch (locationData.getPosition()) {
             case EXON:
             case INTRON:
             case DONOR:
             case ACCEPTOR:
-                // we should have an exon
                 return locationData.getDonorRegion()
-                        .map(donor -> score(variant, donor, sequence))
+                        .map(donor -> score(context, donor))
                         .orElse(0.);
             case OUTSIDE:
             default:
@@ -122,40 +109,17 @@ public class CrypticDonor extends BaseFeatureCalculator {
     }
 
 
-    private double score(GenomicVariant variant, GenomicRegion donor, StrandedSequence sequence) {
-        // prepare snippet for sliding window with alt allele
-        String donorNeighborSnippet = generator.getDonorNeighborSnippet(variant, sequence, variant.alt());
-        if (donorNeighborSnippet == null) {
-            if (LOGGER.isWarnEnabled())
-                LOGGER.warn("Unable to create sliding window snippet +- {}bp for variant `{}` using sequence `{}`",
-                        padding, variant, Utils.formatAsRegion(sequence.location()));
-            return Double.NaN;
-        }
-        double crypticMaxScore = Utils.slidingWindow(donorNeighborSnippet, calculator.getSplicingParameters().getDonorLength())
-                .map(calculator::getSpliceDonorScore)
-                .reduce(Double::max)
-                .orElse(0D);
-
-        // prepare wt donor snippet
-        String donorSnippet;
-        if (variant.overlapsWith(donor)) {
-            try {
-                donorSnippet = generator.getDonorSiteWithAltAllele(donor, variant, sequence);
-            } catch (SpliceSiteDeletedException e) {
-                return crypticMaxScore; // should be primarily covered by the `canonical_donor` feature
-            }
-        } else {
-            donorSnippet = sequence.subsequence(donor);
-        }
-        if (donorSnippet == null) {
-            if (LOGGER.isWarnEnabled())
-                LOGGER.warn("Unable to create donor snippet at `{}` for variant `{}` using sequence `{}`",
-                        donor, variant, Utils.formatAsRegion(sequence.location()));
+    private static double score(EvaluationContext context, GenomicRegion donor) {
+        // scores of the sliding window with alt allele
+        double[] windowScores = context.altDonorWindowScores();
+        if (windowScores == null) {
             return Double.NaN;
         }
+        double crypticMaxScore = SplicingInformationContentCalculator.maxScore(windowScores, 0D);
 
-        // calculate scores and return result
-        double canonicalDonorScore = calculator.getSpliceDonorScore(donorSnippet);
+        // score of the canonical donor site with alt allele, the score is 0 if the variant deletes the entire site
+        // (should be primarily covered by the `canonical_donor` feature)
+        double canonicalDonorScore = context.donorScoreWithAltAllele(donor);
 
         return crypticMaxScore - canonicalDonorScore;
     }
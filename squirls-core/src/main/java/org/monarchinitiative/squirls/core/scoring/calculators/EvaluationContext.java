@@ -0,0 +1,397 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2020
+ */
+
+package org.monarchinitiative.squirls.core.scoring.calculators;
+
+import org.monarchinitiative.sgenes.model.Transcript;
+import org.monarchinitiative.squirls.core.Utils;
+import org.monarchinitiative.squirls.core.reference.*;
+import org.monarchinitiative.squirls.core.scoring.calculators.ic.SplicingInformationContentCalculator;
+import org.monarchinitiative.svart.GenomicRegion;
+import org.monarchinitiative.svart.GenomicVariant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Data shared by the {@link FeatureCalculator}s that evaluate a <code>variant</code> with respect to
+ * a <code>transcript</code>.
+ * <p>
+ * The location data, the splice site scores, the sliding window scores, and the padded alleles are computed upon
+ * the first request and then reused by the other calculators. The annotators create the context once per
+ * variant-transcript pair, hence the context is <em>not</em> thread-safe.
+ * <p>
+ * The splice site scores are {@link Double#NaN} if the snippet of the site cannot be created from the
+ * <code>sequence</code>.
+ */
+public final class EvaluationContext {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EvaluationContext.class);
+
+    private final GenomicVariant variant;
+    private final Transcript transcript;
+    private final StrandedSequence sequence;
+    private final TranscriptModelLocator locator;
+    private final SplicingInformationContentCalculator calculator;
+    private final AlleleGenerator generator;
+
+    private SplicingLocationData locationData;
+
+    private final SiteScores donorScores = new SiteScores();
+    private final SiteScores donorScoresWithAltAllele = new SiteScores();
+    private final SiteScores acceptorScores = new SiteScores();
+    private final SiteScores acceptorScoresWithAltAllele = new SiteScores();
+
+    private boolean altDonorWindowScoresComputed, altAcceptorWindowScoresComputed;
+    private double[] altDonorWindowScores, altAcceptorWindowScores;
+
+    private int[] paddings = new int[0];
+    private String[] paddedRefAlleles = new String[0], paddedAltAlleles = new String[0];
+
+    private EvaluationContext(GenomicVariant variant,
+                              Transcript transcript,
+                              StrandedSequence sequence,
+                              TranscriptModelLocator locator,
+                              SplicingInformationContentCalculator calculator,
+                              AlleleGenerator generator) {
+        this.variant = variant;
+        this.transcript = transcript;
+        this.sequence = sequence;
+        this.locator = locator;
+        this.calculator = calculator;
+        this.generator = generator;
+    }
+
+    /**
+     * Create the context. The <code>locator</code>, <code>calculator</code>, and <code>generator</code> can be
+     * <code>null</code> if the location data and the splice site scores are not requested.
+     *
+     * @param variant    variant on the transcript's strand and in the transcript's coordinate system
+     * @param transcript transcript we evaluate the variant against
+     * @param sequence   FASTA sequence for the calculation
+     * @param locator    locator for computing the location data
+     * @param calculator calculator for scoring the splice sites
+     * @param generator  generator for creating the splice site snippets
+     * @return the context
+     */
+    public static EvaluationContext of(GenomicVariant variant,
+                                       Transcript transcript,
+                                       StrandedSequence sequence,
+                                       TranscriptModelLocator locator,
+                                       SplicingInformationContentCalculator calculator,
+                                       AlleleGenerator generator) {
+        return new EvaluationContext(
+                Objects.requireNonNull(variant, "Variant cannot be null"),
+                Objects.requireNonNull(transcript, "Transcript cannot be null"),
+                Objects.requireNonNull(sequence, "Sequence cannot be null"),
+                locator,
+                calculator,
+                generator);
+    }
+
+    public GenomicVariant variant() {
+        return variant;
+    }
+
+    public Transcript transcript() {
+        return transcript;
+    }
+
+    public StrandedSequence sequence() {
+        return sequence;
+    }
+
+    /**
+     * @return location of the variant with respect to the transcript
+     */
+    public SplicingLocationData locationData() {
+        if (locationData == null)
+            locationData = Objects.requireNonNull(locator, "Transcript model locator is required to locate the variant")
+                    .locate(variant, transcript);
+        return locationData;
+    }
+
+    /**
+     * @param donor splice donor site
+     * @return score of the donor site with the REF allele
+     */
+    public double donorScore(GenomicRegion donor) {
+        int idx = donorScores.indexOf(donor);
+        if (idx >= 0)
+            return donorScores.score(idx);
+
+        String snippet = sequence.subsequence(donor);
+        double score;
+        if (snippet == null) {
+            if (LOGGER.isDebugEnabled())
+                LOGGER.debug("Unable to create wt donor snippet at `{}` for variant `{}` using sequence `{}`", donor, variant, Utils.formatAsRegion(sequence.location()));
+            score = Double.NaN;
+        } else {
+            score = calculator().getSpliceDonorScore(snippet);
+        }
+        donorScores.put(donor, score);
+        return score;
+    }
+
+    /**
+     * @param donor splice donor site
+     * @return score of the donor site with the ALT allele, <code>0</code> if the variant deletes the entire site
+     */
+    public double donorScoreWithAltAllele(GenomicRegion donor) {
+        int idx = donorScoresWithAltAllele.indexOf(donor);
+        if (idx >= 0)
+            return donorScoresWithAltAllele.score(idx);
+
+        double score;
+        try {
+            String snippet = generator().getDonorSiteWithAltAllele(donor, variant, sequence);
+            if (snippet == null) {
+                if (LOGGER.isDebugEnabled())
+                    LOGGER.debug("Unable to create alt donor snippet at `{}` for variant `{}` using sequence `{}`", donor, variant, Utils.formatAsRegion(sequence.location()));
+                score = Double.NaN;
+            } else {
+                score = calculator().getSpliceDonorScore(snippet);
+            }
+        } catch (SpliceSiteDeletedException e) {
+            // I consider the alt score to be 0 if the entire site is deleted
+            score = 0.;
+        }
+        donorScoresWithAltAllele.put(donor, score);
+        return score;
+    }
+
+    /**
+     * @param acceptor splice acceptor site
+     * @return score of the acceptor site with the REF allele
+     */
+    public double acceptorScore(GenomicRegion acceptor) {
+        int idx = acceptorScores.indexOf(acceptor);
+        if (idx >= 0)
+            return acceptorScores.score(idx);
+
+        String snippet = sequence.subsequence(acceptor);
+        double score;
+        if (snippet == null) {
+            if (LOGGER.isDebugEnabled())
+                LOGGER.debug("Unable to create wt acceptor snippet at `{}` for variant `{}` using sequence `{}`", acceptor, variant, Utils.formatAsRegion(sequence.location()));
+            score = Double.NaN;
+        } else {
+            score = calculator().getSpliceAcceptorScore(snippet);
+        }
+        acceptorScores.put(acceptor, score);
+        return score;
+    }
+
+    /**
+     * @param acceptor splice acceptor site
+     * @return score of the acceptor site with the ALT allele, <code>0</code> if the variant deletes the entire site
+     */
+    public double acceptorScoreWithAltAllele(GenomicRegion acceptor) {
+        int idx = acceptorScoresWithAltAllele.indexOf(acceptor);
+        if (idx >= 0)
+            return acceptorScoresWithAltAllele.score(idx);
+
+        double score;
+        try {
+            String snippet = generator().getAcceptorSiteWithAltAllele(acceptor, variant, sequence);
+            if (snippet == null) {
+                if (LOGGER.isDebugEnabled())
+                    LOGGER.debug("Unable to create alt acceptor snippet at `{}` for variant `{}` using sequence `{}`", acceptor, variant, Utils.formatAsRegion(sequence.location()));
+                score = Double.NaN;
+            } else {
+                score = calculator().getSpliceAcceptorScore(snippet);
+            }
+        } catch (SpliceSiteDeletedException e) {
+            // I consider the alt score to be 0 if the entire site is deleted
+            score = 0.;
+        }
+        acceptorScoresWithAltAllele.put(acceptor, score);
+        return score;
+    }
+
+    /**
+     * @return donor scores of the sliding windows over the variant neighborhood with the ALT allele or
+     * <code>null</code> if the neighborhood snippet cannot be created. The array must not be modified
+     */
+    public double[] altDonorWindowScores() {
+        if (!altDonorWindowScoresComputed) {
+            String snippet = generator().getDonorNeighborSnippet(variant, sequence, variant.alt());
+            if (snippet == null) {
+                if (LOGGER.isWarnEnabled())
+                    LOGGER.warn("Unable to create donor neighborhood snippet for variant `{}` using sequence `{}`", variant, Utils.formatAsRegion(sequence.location()));
+            } else {
+                altDonorWindowScores = calculator().spliceDonorScores(snippet);
+            }
+            altDonorWindowScoresComputed = true;
+        }
+        return altDonorWindowScores;
+    }
+
+    /**
+     * @return acceptor scores of the sliding windows over the variant neighborhood with the ALT allele or
+     * <code>null</code> if the neighborhood snippet cannot be created. The array must not be modified
+     */
+    public double[] altAcceptorWindowScores() {
+        if (!altAcceptorWindowScoresComputed) {
+            String snippet = generator().getAcceptorNeighborSnippet(variant, sequence, variant.alt());
+            if (snippet == null) {
+                if (LOGGER.isWarnEnabled())
+                    LOGGER.warn("Unable to create acceptor neighborhood snippet for variant `{}` using sequence `{}`", variant, Utils.formatAsRegion(sequence.location()));
+            } else {
+                altAcceptorWindowScores = calculator().spliceAcceptorScores(snippet);
+            }
+            altAcceptorWindowScoresComputed = true;
+        }
+        return altAcceptorWindowScores;
+    }
+
+    /**
+     * @param padding number of bases to add upstream and downstream
+     * @return REF allele padded with the sequence or <code>null</code> if the sequence is insufficient
+     */
+    public String paddedRefAllele(int padding) {
+        int idx = paddedAllelesIndex(padding);
+        return paddedRefAlleles[idx];
+    }
+
+    /**
+     * @param padding number of bases to add upstream and downstream
+     * @return ALT allele padded with the sequence or <code>null</code> if the sequence is insufficient
+     */
+    public String paddedAltAllele(int padding) {
+        int idx = paddedAllelesIndex(padding);
+        return paddedAltAlleles[idx];
+    }
+
+    private int paddedAllelesIndex(int padding) {
+        for (int i = 0; i < paddings.length; i++) {
+            if (paddings[i] == padding)
+                return i;
+        }
+        int idx = paddings.length;
+        paddings = Arrays.copyOf(paddings, idx + 1);
+        paddedRefAlleles = Arrays.copyOf(paddedRefAlleles, idx + 1);
+        paddedAltAlleles = Arrays.copyOf(paddedAltAlleles, idx + 1);
+        paddings[idx] = padding;
+        paddedRefAlleles[idx] = AlleleGenerator.getPaddedAllele(variant, sequence, variant.ref(), padding);
+        paddedAltAlleles[idx] = AlleleGenerator.getPaddedAllele(variant, sequence, variant.alt(), padding);
+        return idx;
+    }
+
+    private SplicingInformationContentCalculator calculator() {
+        return Objects.requireNonNull(calculator, "Splicing information content calculator is required to score splice sites");
+    }
+
+    private AlleleGenerator generator() {
+        return Objects.requireNonNull(generator, "Allele generator is required to score splice sites");
+    }
+
+    /**
+     * Scores of a few splice sites, the context usually scores one or two sites of each kind.
+     */
+    private static final class SiteScores {
+
+        private GenomicRegion[] sites = new GenomicRegion[2];
+
+        private double[] scores = new double[2];
+
+        private int size;
+
+        private int indexOf(GenomicRegion site) {
+            for (int i = 0; i < size; i++) {
+                if (sites[i] == site || sites[i].equals(site))
+                    return i;
+            }
+            return -1;
+        }
+
+        private double score(int idx) {
+            return scores[idx];
+        }
+
+        private void put(GenomicRegion site, double score) {
+            if (size == sites.length) {
+                sites = Arrays.copyOf(sites, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            sites[size] = site;
+            scores[size] = score;
+            size++;
+        }
+    }
+}
@@ -76,11 +76,7 @@
 
 package org.monarchinitiative.squirls.core.scoring.calculators;
 
-import org.monarchinitiative.sgenes.model.Transcript;
-import org.monarchinitiative.squirls.core.reference.AlleleGenerator;
-import org.monarchinitiative.squirls.core.reference.StrandedSequence;
 import org.monarchinitiative.squirls.core.reference.TranscriptModelLocator;
-import org.monarchinitiative.svart.GenomicVariant;
 
 import java.util.regex.Pattern;
 
@@ -155,14 +151,14 @@ public class ExclusionZoneFeatureCalculator extends BaseAgezCalculator {
      * sufficient nucleotide sequence
      */
     @Override
-    public double score(GenomicVariant variant, Transcript transcript, StrandedSequence sequence) {
-        if (!overlapsWithAgezRegion(variant, transcript)) {
+    public double score(EvaluationContext context) {
+        if (!overlapsWithAgezRegion(context)) {
             return 0.;
         }
 
         // get alleles padded by 1 bp from each side
-        String refAllele = AlleleGenerator.getPaddedAllele(variant, sequence, variant.ref(), 2);
-        String altAllele = AlleleGenerator.getPaddedAllele(variant, sequence, variant.alt(), 2);
+        String refAllele = context.paddedRefAllele(2);
+        String altAllele = context.paddedAltAllele(2);
         if (refAllele == null || altAllele == null) {
             // unable to create padded alleles due to insufficient sequence. This should not happen since we fetch
             // the entire sequence of the transcript region +- padding
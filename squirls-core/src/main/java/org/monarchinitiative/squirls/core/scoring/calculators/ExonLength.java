@@ -101,7 +101,13 @@ public class ExonLength implements FeatureCalculator {
 
     @Override
     public double score(GenomicVariant variant, Transcript transcript, StrandedSequence sequence) {
-        SplicingLocationData locationData = locator.locate(variant, transcript);
+        return score(EvaluationContext.of(variant, transcript, sequence, locator, null, null));
+    }
+
+    @Override
+    public double score(EvaluationContext context) {
+        SplicingLocationData locationData = context.locationData();
+        Transcript transcript = context.transcript();
         SplicingLocationData.SplicingPosition position = locationData.getPosition();
         switch (position) {
             case DONOR:
@@ -95,4 +95,18 @@ public interface FeatureCalculator {
      * @return feature value
      */
     double score(GenomicVariant variant, Transcript transcript, StrandedSequence sequence);
+
+    /**
+     * Calculate feature for the variant and transcript of the <code>context</code>.
+     * <p>
+     * The context is created once per variant-transcript pair and shared by all calculators of the annotator, hence
+     * the calculators should obtain the location data, splice site scores, and padded alleles from the context.
+     * The default implementation delegates to {@link #score(GenomicVariant, Transcript, StrandedSequence)}.
+     *
+     * @param context evaluation context
+     * @return feature value
+     */
+    default double score(EvaluationContext context) {
+        return score(context.variant(), context.transcript(), context.sequence());
+    }
 }
@@ -95,7 +95,13 @@ public class IntronLength implements FeatureCalculator {
 
     @Override
     public double score(GenomicVariant variant, Transcript transcript, StrandedSequence sequence) {
-        final SplicingLocationData locationData = locator.locate(variant, transcript);
+        return score(EvaluationContext.of(variant, transcript, sequence, locator, null, null));
+    }
+
+    @Override
+    public double score(EvaluationContext context) {
+        SplicingLocationData locationData = context.locationData();
+        Transcript transcript = context.transcript();
 
         final SplicingLocationData.SplicingPosition position = locationData.getPosition();
         switch (position) {
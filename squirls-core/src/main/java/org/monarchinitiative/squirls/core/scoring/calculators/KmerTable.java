@@ -0,0 +1,216 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2020
+ */
+
+package org.monarchinitiative.squirls.core.scoring.calculators;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Scores of all k-mers of given length stored in a dense <code>double[]</code> indexed by the 2-bit encoding of
+ * the k-mer bases (<code>A=0, C=1, G=2, T=3</code>).
+ * <p>
+ * The sequences are scored in a single pass using a rolling hash of the bases, hence no k-mer {@link String}s are
+ * created. The k-mers that are missing from the source map are scored as {@link Double#NaN}. The rare k-mers
+ * containing other characters than [ACGT] are kept in a map and looked up only for the windows that contain such
+ * a character.
+ */
+public class KmerTable {
+
+    /**
+     * 4^7 entries for septamers is more than enough for SQUIRLS, while 4^15 entries would not fit into an array.
+     */
+    private static final int MAX_K = 15;
+
+    private static final byte INVALID = -1;
+
+    private static final byte[] CODES = new byte[128];
+
+    static {
+        Arrays.fill(CODES, INVALID);
+        CODES['A'] = 0;
+        CODES['a'] = 0;
+        CODES['C'] = 1;
+        CODES['c'] = 1;
+        CODES['G'] = 2;
+        CODES['g'] = 2;
+        CODES['T'] = 3;
+        CODES['t'] = 3;
+    }
+
+    private final int k;
+
+    private final int mask;
+
+    private final double[] scores;
+
+    private final Map<String, Double> irregularKmers;
+
+    /**
+     * @param kmerMap map with k-mer scores, the k-mers must be upper-case
+     * @param k       length of the k-mers
+     * @return the table
+     */
+    public static KmerTable of(Map<String, Double> kmerMap, int k) {
+        return new KmerTable(kmerMap, k);
+    }
+
+    private KmerTable(Map<String, Double> kmerMap, int k) {
+        if (k < 1 || k > MAX_K)
+            throw new IllegalArgumentException("K must be in range [1, " + MAX_K + "] but was " + k);
+        this.k = k;
+        this.mask = (1 << 2 * k) - 1;
+        this.scores = new double[1 << 2 * k];
+        Arrays.fill(scores, Double.NaN);
+
+        Map<String, Double> irregularKmers = new HashMap<>();
+        for (Map.Entry<String, Double> entry : kmerMap.entrySet()) {
+            String kmer = entry.getKey();
+            if (kmer.length() != k)
+                // never matched by a window of length k
+                continue;
+            int hash = hash(kmer);
+            if (hash < 0 || !kmer.equals(kmer.toUpperCase()))
+                irregularKmers.put(kmer, entry.getValue());
+            else
+                scores[hash] = entry.getValue();
+        }
+        this.irregularKmers = Map.copyOf(irregularKmers);
+    }
+
+    private static byte code(char c) {
+        return c < CODES.length ? CODES[c] : INVALID;
+    }
+
+    /**
+     * @return 2-bit encoding of the k-mer or <code>-1</code> if the k-mer contains other characters than [ACGTacgt]
+     */
+    private static int hash(String kmer) {
+        int hash = 0;
+        for (int i = 0; i < kmer.length(); i++) {
+            byte code = code(kmer.charAt(i));
+            if (code == INVALID)
+                return -1;
+            hash = hash << 2 | code;
+        }
+        return hash;
+    }
+
+    /**
+     * @return length of the k-mers
+     */
+    public int k() {
+        return k;
+    }
+
+    /**
+     * Calculate score of the <code>sequence</code> as the sum of scores of all its k-mers. The sequence is
+     * case-insensitive.
+     *
+     * @param sequence sequence to be scored
+     * @return score for the sequence or {@link Double#NaN} if any k-mer of the sequence is missing from the table, or
+     * if the sequence is shorter than <code>k</code>
+     */
+    public double scoreSequence(String sequence) {
+        if (sequence.length() < k)
+            return Double.NaN;
+
+        double sum = 0.;
+        int hash = 0;
+        int validBases = 0; // the number of the last consecutive [ACGT] bases
+        for (int i = 0; i < sequence.length(); i++) {
+            byte code = code(sequence.charAt(i));
+            if (code == INVALID) {
+                validBases = 0;
+            } else {
+                hash = (hash << 2 | code) & mask;
+                validBases++;
+            }
+
+            int windowStart = i - k + 1;
+            if (windowStart < 0)
+                continue;
+
+            double score = validBases >= k
+                    ? scores[hash]
+                    : irregularKmers.getOrDefault(sequence.substring(windowStart, i + 1).toUpperCase(), Double.NaN);
+            // the sum of the first window is the score itself, as when summing the scores in a stream
+            sum = windowStart == 0 ? score : sum + score;
+        }
+        return sum;
+    }
+}
@@ -76,8 +76,6 @@
 
 package org.monarchinitiative.squirls.core.scoring.calculators;
 
-import org.monarchinitiative.sgenes.model.Transcript;
-import org.monarchinitiative.squirls.core.reference.StrandedSequence;
 import org.monarchinitiative.squirls.core.reference.TranscriptModelLocator;
 import org.monarchinitiative.svart.GenomicVariant;
 
@@ -114,11 +112,12 @@ public class PptIsTruncated extends BaseAgezCalculator {
     }
 
     @Override
-    public double score(GenomicVariant variant, Transcript transcript, StrandedSequence sequence) {
+    public double score(EvaluationContext context) {
+        GenomicVariant variant = context.variant();
         switch (variant.variantType().baseType()) {
             case DEL:
             case MNV: // represents SVs but MNVs as well, and we want to catch MNVs!
-                if (overlapsWithAgezRegion(variant, transcript)) {
+                if (overlapsWithAgezRegion(context)) {
                     final int refPyrimidines = countPyrimidinesInAllele(variant.ref());
                     final int altPyrimidines = countPyrimidinesInAllele(variant.alt());
                     return refPyrimidines - altPyrimidines >= 2
@@ -120,7 +120,13 @@ public class PyrimidineToPurineAtMinusThree implements FeatureCalculator {
      */
     @Override
     public double score(GenomicVariant variant, Transcript transcript, StrandedSequence sequence) {
-        SplicingLocationData locationData = locator.locate(variant, transcript);
+        return score(EvaluationContext.of(variant, transcript, sequence, locator, null, generator));
+    }
+
+    @Override
+    public double score(EvaluationContext context) {
+        SplicingLocationData locationData = context.locationData();
+        Transcript transcript = context.transcript();
 
         if (locationData.getPosition() != SplicingLocationData.SplicingPosition.ACCEPTOR) {
             // variant does not affect the acceptor site, therefore does not lead to `..YAG..` -> `..RAG..`
@@ -130,6 +136,8 @@ public class PyrimidineToPurineAtMinusThree implements FeatureCalculator {
         Coordinates exon = transcript.exons().get(locationData.getExonIdx());
         GenomicRegion acceptorInterval = generator.makeAcceptorInterval(transcript.contig(), transcript.strand(), exon);
 
+        GenomicVariant variant = context.variant();
+        StrandedSequence sequence = context.sequence();
         String refAcceptorSnippet = sequence.subsequence(acceptorInterval);
         String altAcceptorSnippet;
         try {
@@ -82,8 +82,6 @@ import org.monarchinitiative.squirls.core.scoring.calculators.ic.SplicingInforma
 import org.monarchinitiative.svart.Coordinates;
 import org.monarchinitiative.svart.GenomicRegion;
 import org.monarchinitiative.svart.GenomicVariant;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * This calculator computes the feature <code>sstrength_diff_acceptor</code> denoting difference between the acceptor
@@ -95,8 +93,6 @@ import org.slf4j.LoggerFactory;
  */
 public class SStrengthDiffAcceptor implements FeatureCalculator {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(SStrengthDiffAcceptor.class);
-
     private final SplicingInformationContentCalculator calculator;
     private final AlleleGenerator generator;
     private final TranscriptModelLocator locator;
@@ -109,7 +105,13 @@ public class SStrengthDiffAcceptor implements FeatureCalculator {
 
     @Override
     public double score(GenomicVariant variant, Transcript transcript, StrandedSequence sequence) {
-        final SplicingLocationData locationData = locator.locate(variant, transcript);
+        return score(EvaluationContext.of(variant, transcript, sequence, locator, calculator, generator));
+    }
+
+    @Override
+    public double score(EvaluationContext context) {
+        SplicingLocationData locationData = context.locationData();
+        Transcript transcript = context.transcript();
         switch (locationData.getPosition()) {
             case EXON:
             case ACCEPTOR:
@@ -118,33 +120,12 @@ public class SStrengthDiffAcceptor implements FeatureCalculator {
                     // the current exon is NOT the last exon of the transcript
                     Coordinates thisExon = transcript.exons().get(exonIdx);
                     GenomicRegion thisAcceptor = generator.makeAcceptorInterval(transcript.contig(), transcript.strand(), thisExon);
-                    double thisAcceptorScore;
-                    try {
-                        String thisAcceptorSiteSnippet = generator.getAcceptorSiteWithAltAllele(thisAcceptor, variant, sequence);
-                        thisAcceptorScore = thisAcceptorSiteSnippet != null
-                                ? calculator.getSpliceAcceptorScore(thisAcceptorSiteSnippet)
-                                : Double.NaN;
-                    } catch (SpliceSiteDeletedException e) {
-                        // I consider the situation where the entire site is deleted as score 0
-                        thisAcceptorScore = 0;
-                    }
-
                     Coordinates nextExon = transcript.exons().get(exonIdx + 1);
                     GenomicRegion nextAcceptor = generator.makeAcceptorInterval(transcript.contig(), transcript.strand(), nextExon);
-                    double nextAcceptorScore;
-                    try {
-                        String nextAcceptorSiteSnippet = generator.getAcceptorSiteWithAltAllele(nextAcceptor, variant, sequence);
-                        nextAcceptorScore = nextAcceptorSiteSnippet != null
-                                ? calculator.getSpliceAcceptorScore(nextAcceptorSiteSnippet)
-                                : Double.NaN;
-                    } catch (SpliceSiteDeletedException e) {
-                        // It shouldn't really happen that the variant deletes this site as well, but let's be on the
-                        // safe side of things.
-                        // I consider the situation where the entire site is deleted as score 0.
-                        if (LOGGER.isWarnEnabled())
-                            LOGGER.warn("Variant deletes the next exon");
-                        nextAcceptorScore = 0;
-                    }
+
+                    // I consider the situation where the entire site is deleted as score 0
+                    double thisAcceptorScore = context.acceptorScoreWithAltAllele(thisAcceptor);
+                    double nextAcceptorScore = context.acceptorScoreWithAltAllele(nextAcceptor);
                     return thisAcceptorScore - nextAcceptorScore;
                 }
             case INTRON:
@@ -82,8 +82,6 @@ import org.monarchinitiative.squirls.core.scoring.calculators.ic.SplicingInforma
 import org.monarchinitiative.svart.Coordinates;
 import org.monarchinitiative.svart.GenomicRegion;
 import org.monarchinitiative.svart.GenomicVariant;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * This calculator computes the feature <code>sstrength_diff_donor</code> denoting the difference between the donor
@@ -96,8 +94,6 @@ import org.slf4j.LoggerFactory;
  */
 public class SStrengthDiffDonor implements FeatureCalculator {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(SStrengthDiffDonor.class);
-
     private final SplicingInformationContentCalculator calculator;
     private final AlleleGenerator generator;
     private final TranscriptModelLocator locator;
@@ -112,7 +108,13 @@ public class SStrengthDiffDonor implements FeatureCalculator {
 
     @Override
     public double score(GenomicVariant variant, Transcript transcript, StrandedSequence sequence) {
-        SplicingLocationData locationData = locator.locate(variant, transcript);
+        return score(EvaluationContext.of(variant, transcript, sequence, locator, calculator, generator));
+    }
+
+    @Override
+    public double score(EvaluationContext context) {
+        SplicingLocationData locationData = context.locationData();
+        Transcript transcript = context.transcript();
         switch (locationData.getPosition()) {
             case EXON:
             case DONOR:
@@ -121,33 +123,12 @@ public class SStrengthDiffDonor implements FeatureCalculator {
                     // the current exon is NOT the last or the second last exon of the transcript
                     Coordinates thisExon = transcript.exons().get(exonIdx);
                     GenomicRegion thisDonor = generator.makeDonorInterval(transcript.contig(), transcript.strand(), thisExon);
-                    double thisDonorScore;
-                    try {
-                        String thisDonorSiteSnippet = generator.getDonorSiteWithAltAllele(thisDonor, variant, sequence);
-                        thisDonorScore = thisDonorSiteSnippet != null
-                                ? calculator.getSpliceDonorScore(thisDonorSiteSnippet)
-                                : Double.NaN;
-                    } catch (SpliceSiteDeletedException e) {
-                        // I consider the situation where the entire site is deleted as score 0
-                        thisDonorScore = 0;
-                    }
-
                     Coordinates nextExon = transcript.exons().get(exonIdx + 1);
                     GenomicRegion nextDonor = generator.makeDonorInterval(transcript.contig(), transcript.strand(), nextExon);
-                    double nextDonorScore;
-                    try {
-                        String nextDonorSiteSnippet = generator.getDonorSiteWithAltAllele(nextDonor, variant, sequence);
-                        nextDonorScore = nextDonorSiteSnippet != null
-                                ? calculator.getSpliceDonorScore(nextDonorSiteSnippet)
-                                : Double.NaN;
-                    } catch (SpliceSiteDeletedException e) {
-                        // It shouldn't really happen that the variant deletes this site as well, but let's be on the
-                        // safe side of things.
-                        // I consider the situation where the entire site is deleted as score 0.
-                        if (LOGGER.isWarnEnabled())
-                            LOGGER.warn("Variant deletes the next exon");
-                        nextDonorScore = 0;
-                    }
+
+                    // I consider the situation where the entire site is deleted as score 0
+                    double thisDonorScore = context.donorScoreWithAltAllele(thisDonor);
+                    double nextDonorScore = context.donorScoreWithAltAllele(nextDonor);
                     return thisDonorScore - nextDonorScore;
                 }
             case INTRON:
@@ -76,13 +76,8 @@
 
 package org.monarchinitiative.squirls.core.scoring.calculators;
 
-import org.monarchinitiative.sgenes.model.Transcript;
 import org.monarchinitiative.squirls.core.reference.*;
 import org.monarchinitiative.squirls.core.scoring.calculators.ic.SplicingInformationContentCalculator;
-import org.monarchinitiative.svart.GenomicRegion;
-import org.monarchinitiative.svart.GenomicVariant;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * This class calculates <code>wt_ri_acceptor</code> feature - individual information of the <em>wt/ref</em> allele of the
@@ -91,8 +86,6 @@ import org.slf4j.LoggerFactory;
  */
 public class WtRiAcceptor extends BaseFeatureCalculator {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(WtRiAcceptor.class);
-
     public WtRiAcceptor(SplicingInformationContentCalculator calculator,
                         AlleleGenerator generator,
                         TranscriptModelLocator locator) {
@@ -100,31 +93,20 @@ public class WtRiAcceptor extends BaseFeatureCalculator {
     }
 
     @Override
-    protected double score(GenomicVariant variant, SplicingLocationData locationData, Transcript tx, StrandedSequence sequence) {
+    public double score(EvaluationContext context) {
+        SplicingLocationData locationData = context.locationData();
         switch (locationData.getPosition()) {
             case DONOR:
             case ACCEPTOR:
             case EXON:
             case INTRON:
                 return locationData.getAcceptorRegion()
-                        .map(acceptor -> score(variant, acceptor, sequence))
+                        .map(context::acceptorScore)
                         .orElse(0.);
             case OUTSIDE:
             default:
                 return 0.;
-        }
-    }
 
-
-    private double score(GenomicVariant variant, GenomicRegion acceptor, StrandedSequence sequence) {
-        String acceptorSiteSnippet = sequence.subsequence(acceptor);
-
-        if (acceptorSiteSnippet == null) {
-            if (LOGGER.isWarnEnabled())
-                LOGGER.warn("Unable to create wt/alt snippets for variant `{}` using sequence `{}`", variant, sequence);
-            return Double.NaN;
         }
-
-        return calculator.getSpliceAcceptorScore(acceptorSiteSnippet);
     }
 }
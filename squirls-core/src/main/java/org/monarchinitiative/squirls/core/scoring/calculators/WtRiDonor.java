@@ -76,13 +76,8 @@
 
 package org.monarchinitiative.squirls.core.scoring.calculators;
 
-import org.monarchinitiative.sgenes.model.Transcript;
 import org.monarchinitiative.squirls.core.reference.*;
 import org.monarchinitiative.squirls.core.scoring.calculators.ic.SplicingInformationContentCalculator;
-import org.monarchinitiative.svart.GenomicRegion;
-import org.monarchinitiative.svart.GenomicVariant;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * This class calculates <code>wt_ri_donor</code> feature - individual information of the <em>wt/ref</em> allele of the
@@ -91,8 +86,6 @@ import org.slf4j.LoggerFactory;
  */
 public class WtRiDonor extends BaseFeatureCalculator {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(WtRiDonor.class);
-
     public WtRiDonor(SplicingInformationContentCalculator calculator,
                      AlleleGenerator generator,
                      TranscriptModelLocator locator) {
@@ -100,14 +93,15 @@ public class WtRiDonor extends BaseFeatureCalculator {
     }
 
     @Override
-    protected double score(GenomicVariant variant, SplicingLocationData locationData, Transcript tx, StrandedSequence sequence) {
+    public double score(EvaluationContext context) {
+        SplicingLocationData locationData = context.locationData();
         switch (locationData.getPosition()) {
             case DONOR:
             case ACCEPTOR:
             case EXON:
             case INTRON:
                 return locationData.getDonorRegion()
-                        .map(donor -> score(variant, donor, sequence))
+                        .map(context::donorScore)
                         .orElse(0.);
             case OUTSIDE:
             default:
@@ -115,17 +109,4 @@ public class WtRiDonor extends BaseFeatureCalculator {
 
         }
     }
-
-
-    private double score(GenomicVariant variant, GenomicRegion donor, StrandedSequence sequence) {
-        String donorSiteSnippet = sequence.subsequence(donor);
-
-        if (donorSiteSnippet == null) {
-            if (LOGGER.isWarnEnabled())
-                LOGGER.warn("Unable to create wt/alt snippets for variant `{}` using sequence `{}`", variant, sequence);
-            return Double.NaN;
-        }
-
-        return calculator.getSpliceDonorScore(donorSiteSnippet);
-    }
 }
@@ -76,10 +76,7 @@
 
 package org.monarchinitiative.squirls.core.scoring.calculators.conservation;
 
-import org.monarchinitiative.squirls.core.scoring.calculators.conservation.bbfile.BBFileHeader;
-import org.monarchinitiative.squirls.core.scoring.calculators.conservation.bbfile.BBFileReader;
-import org.monarchinitiative.squirls.core.scoring.calculators.conservation.bbfile.BigWigIterator;
-import org.monarchinitiative.squirls.core.scoring.calculators.conservation.bbfile.WigItem;
+import org.monarchinitiative.squirls.core.scoring.calculators.conservation.bbfile.BBDecompressor;
 import org.monarchinitiative.svart.GenomicRegion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -88,29 +85,29 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.IntStream;
 
 /**
  * Class designed to be used for extraction of features' values from BigWig files such as genomic position conservation
  * scores.
  * <p>
- * The bigwig parser developed at Broad Institute is used under the hood.
+ * The file is memory-mapped and the scores are read without locking, hence a single accessor can be shared by all
+ * annotation threads. The decompressed data blocks are kept in a bounded cache.
  * <p>
  * @author Daniel Danis
  */
-public class BigWigAccessor implements AutoCloseable {
-
-    private static final Logger LOGGER = LoggerFactory.getLogger(BigWigAccessor.class);
-
-    private final Path bigWigPath;
+public class BigWigAccessor implements ConservationTrack {
 
     /**
-     * Reader that will be used to access BigWig data.
+     * Default number of decompressed data blocks kept in memory.
      */
-    private final BBFileReader reader;
+    public static final int DEFAULT_BLOCK_CACHE_SIZE = 4096;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BigWigAccessor.class);
+
+    private final MappedBigWigFile bigWigFile;
 
     /**
-     * Create Dao for BigWig file on given path. Initialize and perform sanity checks provided by BigWig parser:
+     * Create Dao for BigWig file on given path. Initialize and perform sanity checks:
      * <ul>
      *     <li>check that the header is OK</li>
      *     <li>check that the file actually is in BigWig format</li>
@@ -120,17 +117,18 @@ public class BigWigAccessor implements AutoCloseable {
      * @throws IOException if there is problem during opening of file
      */
     public BigWigAccessor(Path bigWigPath) throws IOException {
-        this.bigWigPath = bigWigPath;
-        this.reader = new BBFileReader(bigWigPath);
-        BBFileHeader header = reader.getBBFileHeader();
+        this(bigWigPath, DEFAULT_BLOCK_CACHE_SIZE);
+    }
 
-        // sanity checks
-        if (!header.isHeaderOK()) {
-            throw new IOException(String.format("Bad header for %s", bigWigPath));
-        }
-        if (!header.isBigWig()) {
-            throw new IOException(String.format("File %s is not BigWig file!", bigWigPath));
-        }
+    /**
+     * Create Dao for BigWig file on given path.
+     *
+     * @param bigWigPath     path to file that should be opened.
+     * @param blockCacheSize maximum number of decompressed data blocks kept in memory, <code>0</code> disables the cache
+     * @throws IOException if there is problem during opening of file
+     */
+    public BigWigAccessor(Path bigWigPath, int blockCacheSize) throws IOException {
+        this.bigWigFile = MappedBigWigFile.open(bigWigPath, blockCacheSize);
     }
 
     /**
@@ -155,57 +153,61 @@ public class BigWigAccessor implements AutoCloseable {
      * @return list of values for the interval
      */
     public List<Float> getScores(String chrom, int begin, int end) {
-        final int length = end - begin;
-
-        // pre-fill the list with NaNs
-        final List<Float> scores = new ArrayList<>(length);
-        IntStream.range(0, length).forEach(i -> scores.add(Float.NaN));
-
-        synchronized (this) {
-            /*
-             We need to make this method synchronized, since the code within `bbfile` sub-package is not thread-safe.
-             Ask me how I know.. ;)
-             */
-            final BigWigIterator iterator = getIterator(chrom, begin, end);
-            while (iterator.hasNext()) {
-                final WigItem item = iterator.next();
-                final int startBase = item.getStartBase();
-                final float value = item.getWigValue();
-                int idx = startBase - begin;
-                scores.set(idx, value);
-            }
+        float[] values = new float[end - begin];
+        getScores(chrom, begin, end, values);
+
+        List<Float> scores = new ArrayList<>(values.length);
+        for (float value : values) {
+            scores.add(value);
         }
         return scores;
     }
 
     /**
-     * Get iterator over given GenomicRegion. Iterator contains {@link WigItem} container objects and there is no
-     * guarantee, that there exist an object for every position in GenomicRegion.
+     * Write feature values for given {@link GenomicRegion} into the first <code>region.length()</code> elements
+     * of the <code>scores</code> array. {@link Float#NaN} is written for positions with no value.
      *
-     * @param chrom chromosome string
-     * @param start 0-based (excluded)
-     * @param end   0-based (included)
-     * @return iterator
+     * @param region {@link GenomicRegion} object to extract values from.
+     * @param scores array to write the values to
      */
-    private BigWigIterator getIterator(String chrom, int start, int end) {
-        /*
-         If true, features must be fully contained by selection region. Frankly, I don't know what this means, it is
-         written in library.
-         */
-        final boolean contained = true;
-        return reader.getBigWigIterator(chrom, start, chrom, end, contained);
+    @Override
+    public void getScores(GenomicRegion region, float[] scores) {
+        // the scores are stored for regions on POSITIVE strand
+        GenomicRegion interval = region.toZeroBased().toPositiveStrand();
+
+        getScores(interval.contig().ucscName(), interval.start(), interval.end(), scores);
     }
 
+    /**
+     * Write feature values for given interval into the first <code>end - begin</code> elements of
+     * the <code>scores</code> array. {@link Float#NaN} is written for positions with no value.
+     *
+     * @param chrom  chromosome name, e.g. `chrX`
+     * @param begin  0-based (excluded) begin coordinate on FWD strand
+     * @param end    0-based (included) end coordinate on FWD strand
+     * @param scores array to write the values to
+     */
+    public void getScores(String chrom, int begin, int end, float[] scores) {
+        if (end < begin) {
+            throw new IllegalArgumentException("End " + end + " must not be less than begin " + begin);
+        }
+        if (scores.length < end - begin) {
+            throw new IllegalArgumentException("Array of length " + scores.length + " cannot hold " + (end - begin) + " scores");
+        }
+        bigWigFile.fillScores(chrom, begin, end, scores);
+    }
 
     /**
      * Close the underlying reader.
      */
     @Override
     public void close() throws Exception {
+        if (LOGGER.isDebugEnabled())
+            LOGGER.debug("Inflated {} bigWig data blocks into {} bytes", BBDecompressor.blocksInflated(), BBDecompressor.bytesInflated());
         try {
-            reader.close();
+            bigWigFile.close();
         } catch (Exception e) {
-            LOGGER.warn("Error closing the bigWig file at `{}`", bigWigPath);
+            LOGGER.warn("Error closing the bigWig file at `{}`", bigWigFile.path());
             throw e;
         }
     }
@@ -0,0 +1,520 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2020
+ */
+
+package org.monarchinitiative.squirls.core.scoring.calculators.conservation;
+
+import org.monarchinitiative.squirls.core.scoring.calculators.conservation.bbfile.BBDecompressor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.zip.DataFormatException;
+
+/**
+ * Read-only view of a bigWig file that is memory-mapped in its entirety.
+ * <p>
+ * The chromosome B+ tree is read into an immutable map when the file is opened. The R+ tree is walked directly
+ * in the mapped buffers on each query and the data blocks are decompressed into {@link WigSection}s that are kept
+ * in a bounded direct-mapped cache keyed by the block file offset. The instance holds no mutable state other than
+ * the cache slots, hence it can be queried by multiple threads without locking.
+ */
+final class MappedBigWigFile implements AutoCloseable {
+
+    private static final int BIGWIG_MAGIC = 0x888FFC26;
+
+    private static final int BIGBED_MAGIC = 0x8789F2EB;
+
+    private static final int CHROMOSOME_TREE_MAGIC = 0x78CA8C91;
+
+    private static final int R_TREE_MAGIC = 0x2468ACE0;
+
+    private static final int FILE_HEADER_SIZE = 64;
+
+    private static final int CHROMOSOME_TREE_HEADER_SIZE = 32;
+
+    private static final int R_TREE_HEADER_SIZE = 48;
+
+    private static final int NODE_HEADER_SIZE = 4;
+
+    private static final int R_TREE_LEAF_ITEM_SIZE = 32;
+
+    private static final int R_TREE_CHILD_ITEM_SIZE = 24;
+
+    private static final int SECTION_HEADER_SIZE = 24;
+
+    private static final int SEGMENT_SIZE = 1 << 30;
+
+    private final Path path;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer[] segments;
+
+    private final long size;
+
+    private final ByteOrder order;
+
+    private final int uncompressBufSize;
+
+    private final long rTreeRootOffset;
+
+    private final Map<String, Integer> chromosomeIds;
+
+    private final AtomicReferenceArray<DataBlock> blockCache;
+
+    private final int blockCacheShift;
+
+    private MappedBigWigFile(Path path, FileChannel channel, int blockCacheSize) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        this.size = channel.size();
+        this.segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+        for (int i = 0; i < segments.length; i++) {
+            long start = (long) i * SEGMENT_SIZE;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+        }
+
+        if (size < FILE_HEADER_SIZE) {
+            throw new IOException(String.format("Bad header for %s", path));
+        }
+        // the byte order is determined by the magic number
+        ByteBuffer header = segments[0].duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int magic = header.getInt(0);
+        if (magic != BIGWIG_MAGIC && magic != BIGBED_MAGIC) {
+            header.order(ByteOrder.BIG_ENDIAN);
+            magic = header.getInt(0);
+        }
+        if (magic == BIGBED_MAGIC) {
+            throw new IOException(String.format("File %s is not BigWig file!", path));
+        } else if (magic != BIGWIG_MAGIC) {
+            throw new IOException(String.format("Bad header for %s", path));
+        }
+        this.order = header.order();
+
+        long chromosomeTreeOffset = header.getLong(8);
+        this.rTreeRootOffset = header.getLong(24) + R_TREE_HEADER_SIZE;
+        this.uncompressBufSize = header.getInt(52);
+
+        if (view(chromosomeTreeOffset, 4).getInt(0) != CHROMOSOME_TREE_MAGIC) {
+            throw new IOException(String.format("Bad chromosome tree header for %s", path));
+        }
+        if (view(rTreeRootOffset - R_TREE_HEADER_SIZE, 4).getInt(0) != R_TREE_MAGIC) {
+            throw new IOException(String.format("Bad R+ tree header for %s", path));
+        }
+        this.chromosomeIds = readChromosomeIds(chromosomeTreeOffset);
+
+        if (blockCacheSize > 0) {
+            int bits = 32 - Integer.numberOfLeadingZeros(Math.max(blockCacheSize - 1, 1));
+            this.blockCache = new AtomicReferenceArray<>(1 << bits);
+            this.blockCacheShift = 64 - bits;
+        } else {
+            this.blockCache = null;
+            this.blockCacheShift = 0;
+        }
+    }
+
+    /**
+     * Open and memory-map the bigWig file.
+     *
+     * @param path           path to the bigWig file
+     * @param blockCacheSize maximum number of decompressed data blocks to keep in memory, rounded up to the nearest
+     *                       power of two. Use <code>0</code> to disable caching
+     * @return the file
+     * @throws IOException if the file cannot be opened or it is not a valid bigWig file
+     */
+    static MappedBigWigFile open(Path path, int blockCacheSize) throws IOException {
+        if (blockCacheSize < 0) {
+            throw new IllegalArgumentException("Block cache size must not be negative: " + blockCacheSize);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new MappedBigWigFile(path, channel, blockCacheSize);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    /**
+     * Write the scores of positions <code>[begin, end)</code> into <code>scores[0, end - begin)</code>. Positions
+     * without a value in the file are set to {@link Float#NaN}.
+     *
+     * @param chrom  chromosome name, e.g. `chrX`
+     * @param begin  0-based (excluded) begin coordinate on FWD strand
+     * @param end    0-based (included) end coordinate on FWD strand
+     * @param scores array to write the scores to
+     */
+    void fillScores(String chrom, int begin, int end, float[] scores) {
+        Arrays.fill(scores, 0, end - begin, Float.NaN);
+        Integer chromId = chromosomeIds.get(chrom);
+        if (chromId == null || begin == end) {
+            return;
+        }
+        fillScores(rTreeRootOffset, chromId, begin, end, scores);
+    }
+
+    private void fillScores(long nodeOffset, int chromId, int begin, int end, float[] scores) {
+        ByteBuffer nodeHeader = view(nodeOffset, NODE_HEADER_SIZE);
+        boolean isLeaf = nodeHeader.get(0) != 0;
+        int count = Short.toUnsignedInt(nodeHeader.getShort(2));
+        int itemSize = isLeaf ? R_TREE_LEAF_ITEM_SIZE : R_TREE_CHILD_ITEM_SIZE;
+        ByteBuffer items = view(nodeOffset + NODE_HEADER_SIZE, count * itemSize);
+
+        for (int i = 0; i < count; i++) {
+            int pos = i * itemSize;
+            int startChromId = items.getInt(pos);
+            int startBase = items.getInt(pos + 4);
+            int endChromId = items.getInt(pos + 8);
+            int endBase = items.getInt(pos + 12);
+
+            if (startChromId > chromId || startChromId == chromId && startBase >= end) {
+                // the items are sorted, all remaining items are disjoint as well
+                break;
+            }
+            if (endChromId < chromId || endChromId == chromId && endBase <= begin) {
+                continue;
+            }
+
+            long dataOffset = items.getLong(pos + 16);
+            if (isLeaf) {
+                long dataSize = items.getLong(pos + 24);
+                for (WigSection section : getBlock(dataOffset, dataSize).sections) {
+                    if (section.chromId == chromId) {
+                        section.fillScores(begin, end, scores);
+                    }
+                }
+            } else {
+                fillScores(dataOffset, chromId, begin, end, scores);
+            }
+        }
+    }
+
+    private DataBlock getBlock(long offset, long dataSize) {
+        if (blockCache == null) {
+            return readBlock(offset, dataSize);
+        }
+        // Fibonacci hashing of the offset selects the slot
+        int slot = (int) ((offset * 0x9E3779B97F4A7C15L) >>> blockCacheShift);
+        DataBlock block = blockCache.get(slot);
+        if (block == null || block.offset != offset) {
+            block = readBlock(offset, dataSize);
+            blockCache.set(slot, block);
+        }
+        return block;
+    }
+
+    private DataBlock readBlock(long offset, long dataSize) {
+        ByteBuffer data = view(offset, Math.toIntExact(dataSize));
+        if (uncompressBufSize > 0) {
+            data = inflate(data);
+        }
+
+        // a block consists of one or more sections
+        WigSection[] sections = new WigSection[1];
+        int n = 0;
+        while (data.remaining() >= SECTION_HEADER_SIZE) {
+            if (n == sections.length) {
+                sections = Arrays.copyOf(sections, n * 2);
+            }
+            sections[n++] = WigSection.read(data);
+        }
+        return new DataBlock(offset, n == sections.length ? sections : Arrays.copyOf(sections, n));
+    }
+
+    /**
+     * Inflate the block into the buffer of the calling thread. The buffer is reused for the next block, hence
+     * the data must be parsed before inflating another block.
+     */
+    private ByteBuffer inflate(ByteBuffer compressed) {
+        try {
+            return BBDecompressor.inflate(compressed, uncompressBufSize).order(order);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException(String.format("Error decompressing data block in %s", path), e);
+        }
+    }
+
+    private Map<String, Integer> readChromosomeIds(long treeOffset) {
+        ByteBuffer header = view(treeOffset, CHROMOSOME_TREE_HEADER_SIZE);
+        int keySize = header.getInt(8);
+        int valSize = header.getInt(12);
+        Map<String, Integer> ids = new HashMap<>();
+        readChromosomeIds(treeOffset + CHROMOSOME_TREE_HEADER_SIZE, keySize, valSize, ids);
+        return Map.copyOf(ids);
+    }
+
+    private void readChromosomeIds(long nodeOffset, int keySize, int valSize, Map<String, Integer> ids) {
+        ByteBuffer nodeHeader = view(nodeOffset, NODE_HEADER_SIZE);
+        boolean isLeaf = nodeHeader.get(0) != 0;
+        int count = Short.toUnsignedInt(nodeHeader.getShort(2));
+        int itemSize = keySize + (isLeaf ? valSize : 8);
+        ByteBuffer items = view(nodeOffset + NODE_HEADER_SIZE, count * itemSize);
+
+        byte[] key = new byte[keySize];
+        for (int i = 0; i < count; i++) {
+            int pos = i * itemSize;
+            if (isLeaf) {
+                items.position(pos);
+                items.get(key);
+                int length = keySize;
+                // the keys are padded with zeros
+                while (length > 0 && key[length - 1] == 0) {
+                    length--;
+                }
+                ids.put(new String(key, 0, length, StandardCharsets.US_ASCII), items.getInt(pos + keySize));
+            } else {
+                readChromosomeIds(items.getLong(pos + keySize), keySize, valSize, ids);
+            }
+        }
+    }
+
+    /**
+     * Get a view of <code>length</code> bytes starting at the file <code>offset</code>. The view is private
+     * to the caller, hence it is safe to use its relative operations.
+     */
+    private ByteBuffer view(long offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > size) {
+            throw new IllegalStateException(String.format("Invalid read of %d bytes at offset %d in %s", length, offset, path));
+        }
+        int index = (int) (offset / SEGMENT_SIZE);
+        int position = (int) (offset % SEGMENT_SIZE);
+        MappedByteBuffer segment = segments[index];
+        if (position + length <= segment.capacity()) {
+            ByteBuffer view = segment.duplicate();
+            view.position(position).limit(position + length);
+            return view.slice().order(order);
+        }
+
+        // the region spans two or more segments
+        byte[] bytes = new byte[length];
+        int copied = 0;
+        while (copied < length) {
+            ByteBuffer view = segments[index++].duplicate();
+            view.position(position);
+            int n = Math.min(view.remaining(), length - copied);
+            view.get(bytes, copied, n);
+            copied += n;
+            position = 0;
+        }
+        return ByteBuffer.wrap(bytes).order(order);
+    }
+
+    /**
+     * The mapped buffers are released when they are garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static final class DataBlock {
+
+        private final long offset;
+
+        private final WigSection[] sections;
+
+        private DataBlock(long offset, WigSection[] sections) {
+            this.offset = offset;
+            this.sections = sections;
+        }
+    }
+
+    /**
+     * A decoded wig section. The fixed step sections store the item values only, the positions are computed.
+     */
+    private static final class WigSection {
+
+        private static final byte BED_GRAPH = 1;
+
+        private static final byte VAR_STEP = 2;
+
+        private static final byte FIXED_STEP = 3;
+
+        private final int chromId;
+
+        private final byte type;
+
+        private final int start;
+
+        private final int step;
+
+        private final int span;
+
+        private final int[] starts;
+
+        private final int[] ends;
+
+        private final float[] values;
+
+        private WigSection(int chromId, byte type, int start, int step, int span, int[] starts, int[] ends, float[] values) {
+            this.chromId = chromId;
+            this.type = type;
+            this.start = start;
+            this.step = step;
+            this.span = span;
+            this.starts = starts;
+            this.ends = ends;
+            this.values = values;
+        }
+
+        private static WigSection read(ByteBuffer data) {
+            int chromId = data.getInt();
+            int chromStart = data.getInt();
+            data.getInt(); // chromEnd
+            int itemStep = data.getInt();
+            int itemSpan = data.getInt();
+            byte type = data.get();
+            data.get(); // reserved
+            int itemCount = Short.toUnsignedInt(data.getShort());
+
+            float[] values = new float[itemCount];
+            switch (type) {
+                case FIXED_STEP:
+                    if (itemStep <= 0) {
+                        throw new IllegalStateException("Invalid fixed step section item step " + itemStep);
+                    }
+                    for (int i = 0; i < itemCount; i++) {
+                        values[i] = data.getFloat();
+                    }
+                    return new WigSection(chromId, type, chromStart, itemStep, itemSpan, null, null, values);
+                case VAR_STEP:
+                    int[] varStarts = new int[itemCount];
+                    for (int i = 0; i < itemCount; i++) {
+                        varStarts[i] = data.getInt();
+                        values[i] = data.getFloat();
+                    }
+                    return new WigSection(chromId, type, chromStart, itemStep, itemSpan, varStarts, null, values);
+                case BED_GRAPH:
+                    int[] starts = new int[itemCount];
+                    int[] ends = new int[itemCount];
+                    for (int i = 0; i < itemCount; i++) {
+                        starts[i] = data.getInt();
+                        ends[i] = data.getInt();
+                        values[i] = data.getFloat();
+                    }
+                    return new WigSection(chromId, type, chromStart, itemStep, itemSpan, starts, ends, values);
+                default:
+                    throw new IllegalStateException("Unknown wig section item type " + type);
+            }
+        }
+
+        /**
+         * Write values of the items that are fully contained in <code>[begin, end)</code> at the item start
+         * positions.
+         */
+        private void fillScores(int begin, int end, float[] scores) {
+            if (type == FIXED_STEP) {
+                int first = begin <= start ? 0 : (int) ((begin - (long) start + step - 1) / step);
+                for (int i = first; i < values.length; i++) {
+                    long itemStart = start + (long) i * step;
+                    if (itemStart + span > end) {
+                        break;
+                    }
+                    scores[(int) (itemStart - begin)] = values[i];
+                }
+            } else {
+                // the items are sorted by start, find the first item starting at or after `begin`
+                int low = 0, high = starts.length;
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (starts[mid] < begin) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                for (int i = low; i < starts.length && starts[i] < end; i++) {
+                    long itemEnd = ends == null ? starts[i] + (long) span : ends[i];
+                    if (itemEnd <= end) {
+                        scores[starts[i] - begin] = values[i];
+                    }
+                }
+            }
+        }
+    }
+}
@@ -23,8 +23,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.zip.DataFormatException;
 
 public class BigWigDataBlock {
 
@@ -50,8 +52,12 @@ public class BigWigDataBlock {
     private final RPTreeLeafNodeItem leafHitItem;   // R+ leaf item containing data block location
 
     // uncompressed byte stream buffer and readers
+    // Note: the buffer is owned by the thread's BBDecompressor, hence the Wig data must be
+    //   extracted before reading another data block on the same thread
     private final byte[] wigBuffer;      // buffer containing leaf block data uncompressed
 
+    private final int wigBufferLength;   // number of bytes of leaf block data in the buffer
+
     private int remDataSize;       // number of uncompressed data bytes not extracted
 
     // Wig data extraction members
@@ -77,27 +83,32 @@ public class BigWigDataBlock {
 
         fileOffset = this.leafHitItem.getDataOffset();
         leafDataSize = this.leafHitItem.geDataSize();
-        byte[] buffer = new byte[(int) leafDataSize];
+        int dataSize = (int) leafDataSize;
+        byte[] buffer = BBDecompressor.inputBuffer(dataSize);
 
         // read Wig data block into a buffer
         try {
             fis.seek(fileOffset);
-            fis.readFully(buffer);
+            fis.readFully(buffer, 0, dataSize);
 
             // decompress if necessary - the buffer size is 0 for uncompressed data
             // Note:  BBFile Table C specifies a decompression buffer size
-            if (uncompressBufSize > 0)
-                wigBuffer = BBCompressionUtils.decompress(buffer, uncompressBufSize);
-            else
+            if (uncompressBufSize > 0) {
+                ByteBuffer inflated = BBDecompressor.inflate(ByteBuffer.wrap(buffer, 0, dataSize), uncompressBufSize);
+                wigBuffer = inflated.array();
+                wigBufferLength = inflated.limit();
+            } else {
                 wigBuffer = buffer;    // use uncompressed read buffer directly
-        } catch (IOException ex) {
+                wigBufferLength = dataSize;
+            }
+        } catch (IOException | DataFormatException ex) {
             log.error("Error reading Wig section for leaf item ", ex);
-            String error = String.format("Error reading Wig section for leaf item %d\n");
+            String error = String.format("Error reading Wig section for leaf item %d\n", leafHitItem.getDataOffset());
             throw new RuntimeException(error, ex);
         }
 
         // initialize unread data size
-        remDataSize = wigBuffer.length;
+        remDataSize = wigBufferLength;
 
         // use getWigData to extract data block items
     }
@@ -125,7 +136,7 @@ public class BigWigDataBlock {
 
             // extract items in the Wig data section
             // Note: A RuntimeException is thrown if wig section is not read properly
-            BigWigSection wigSection = new BigWigSection(wigBuffer, chromosomeMap, isLowToHigh, leafHitItem);
+            BigWigSection wigSection = new BigWigSection(wigBuffer, wigBufferLength, chromosomeMap, isLowToHigh, leafHitItem);
 
             // get wig section items and section bytes read
             int sectionBytes = wigSection.getSectionData(selectionRegion, contained, wigItemList);
@@ -55,6 +55,15 @@ public class BigWigSection {
      * */
     public BigWigSection(byte[] sectionBuffer, HashMap<Integer, String> chromosomeMap,
                          boolean isLowToHigh, RPTreeLeafNodeItem leafHitItem) {
+        this(sectionBuffer, sectionBuffer.length, chromosomeMap, isLowToHigh, leafHitItem);
+    }
+
+    /*
+     *   Constructor for a BigWig data section stored in the first sectionLength bytes
+     *   of the sectionBuffer, e.g. in a reused decompression buffer.
+     * */
+    public BigWigSection(byte[] sectionBuffer, int sectionLength, HashMap<Integer, String> chromosomeMap,
+                         boolean isLowToHigh, RPTreeLeafNodeItem leafHitItem) {
 
         this.chromosomeMap = chromosomeMap;
         this.isLowToHigh = isLowToHigh;
@@ -63,11 +72,11 @@ public class BigWigSection {
         // wrap the Wig section buffer as an input stream and get the section header
         // Note: A RuntimeException is thrown if header is not read properly
         if (this.isLowToHigh) {
-            lbdis = new LittleEndianInputStream(new ByteArrayInputStream(sectionBuffer));
+            lbdis = new LittleEndianInputStream(new ByteArrayInputStream(sectionBuffer, 0, sectionLength));
             wigSectionHeader = new BigWigSectionHeader(lbdis);
 
         } else {
-            dis = new DataInputStream(new ByteArrayInputStream(sectionBuffer));
+            dis = new DataInputStream(new ByteArrayInputStream(sectionBuffer, 0, sectionLength));
             wigSectionHeader = new BigWigSectionHeader(dis);
         }
 
@@ -18,10 +18,13 @@ public abstract class SeekableStream extends InputStream {
      * Read enough bytes to fill the input buffer
      */
     public void readFully(byte[] b) throws IOException {
-        int len = b.length;
+        readFully(b, 0, b.length);
+    }
+
+    public void readFully(byte[] b, int off, int len) throws IOException {
         int n = 0;
         while (n < len) {
-            int count = read(b, n, len - n);
+            int count = read(b, off + n, len - n);
             if (count < 0)
                 throw new EOFException();
             n += count;
@@ -82,12 +82,15 @@ import org.monarchinitiative.squirls.core.reference.SplicingPwmData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.regex.Pattern;
+import java.util.Arrays;
 
 /**
  * This annotator implements splice site scoring method described in publication <a
  * href="https://www.ncbi.nlm.nih.gov/pubmed/9711873">Information Analysis of Human Splice Site Mutations</a> by Rogan
  * et al.<p></p>
+ * The sequences are scored without allocating intermediate matrices. The sliding window methods
+ * {@link #spliceDonorScores(String)} and {@link #spliceAcceptorScores(String)} encode the sequence once and score all
+ * windows in a single pass over the encoded sequence.
  *
  * @author Daniel Danis
  * @version 0.0.1
@@ -98,15 +101,42 @@ public class SplicingInformationContentCalculator {
     private static final Logger LOGGER = LoggerFactory.getLogger(SplicingInformationContentCalculator.class);
 
     /**
-     * Nucleotide sequence submitted for scoring must match this pattern.
+     * Code of a character that is not one of [ACGTacgt], the index of the {@link Double#NaN} row of the information
+     * content arrays.
      */
-    private static final Pattern PATTERN = Pattern.compile("[ACGTacgt]*");
+    private static final byte INVALID = 4;
 
     /**
-     * Double matrices for splice donor and acceptor sites. Columns represent positions and rows represent probabilities
-     * of presence of the nucleotides (A, C, G, T) at the position.
+     * Nucleotide codes, the index of the nucleotide row in the PWM, indexed by character.
      */
-    private final DoubleMatrix donorMatrix, acceptorMatrix;
+    private static final byte[] CODES = new byte[128];
+
+    static {
+        Arrays.fill(CODES, INVALID);
+        CODES['A'] = 0;
+        CODES['a'] = 0;
+        CODES['C'] = 1;
+        CODES['c'] = 1;
+        CODES['G'] = 2;
+        CODES['g'] = 2;
+        CODES['T'] = 3;
+        CODES['t'] = 3;
+    }
+
+    /**
+     * Information content of splice donor and acceptor sites. The arrays are laid out in the row-major order of the
+     * PWM, where the rows represent the nucleotides (A, C, G, T) and the columns represent the positions. The last row
+     * is filled with {@link Double#NaN} and it is used to score the {@link #INVALID} characters.
+     */
+    private final double[] donorIc, acceptorIc;
+
+    private final int donorLength, acceptorLength;
+
+    /**
+     * <code>true</code> if the information content matrix contains a non-finite value, e.g. due to a zero frequency.
+     * Scoring with such matrix yields {@link Double#NaN}.
+     */
+    private final boolean donorIcNonFinite, acceptorIcNonFinite;
 
     private final SplicingParameters splicingParameters;
 
@@ -117,8 +147,12 @@ public class SplicingInformationContentCalculator {
      * @param acceptorMatrix - matrix of nucleotide frequencies observed on splice acceptor sites genome-wise
      */
     public SplicingInformationContentCalculator(DoubleMatrix donorMatrix, DoubleMatrix acceptorMatrix, SplicingParameters splicingParameters) {
-        this.donorMatrix = createICMatrix(donorMatrix);
-        this.acceptorMatrix = createICMatrix(acceptorMatrix);
+        this.donorIc = createICMatrix(donorMatrix);
+        this.donorLength = donorMatrix.columns;
+        this.donorIcNonFinite = containsNonFinite(donorIc, donorLength);
+        this.acceptorIc = createICMatrix(acceptorMatrix);
+        this.acceptorLength = acceptorMatrix.columns;
+        this.acceptorIcNonFinite = containsNonFinite(acceptorIc, acceptorLength);
         this.splicingParameters = splicingParameters;
     }
 
@@ -132,15 +166,16 @@ public class SplicingInformationContentCalculator {
      * Basically, {@link #calculateIC(double)} method is mapped element-wise to given <code>freqMatrix</code>.
      *
      * @param freqMatrix {@link DoubleMatrix} containing nucleotide frequencies at positions of splice site
-     * @return {@link DoubleMatrix} containing information content of nucleotides at positions of splice site with the
-     * same shape as <code>freqMatrix</code>
+     * @return array containing information content of nucleotides at positions of splice site in the row-major order
+     * of the <code>freqMatrix</code>, followed by a row of {@link Double#NaN} values for the {@link #INVALID} code
      */
-    private static DoubleMatrix createICMatrix(DoubleMatrix freqMatrix) {
-        DoubleMatrix icm = new DoubleMatrix(freqMatrix.rows, freqMatrix.columns);
+    private static double[] createICMatrix(DoubleMatrix freqMatrix) {
+        double[] icm = new double[(INVALID + 1) * freqMatrix.columns];
+        Arrays.fill(icm, INVALID * freqMatrix.columns, icm.length, Double.NaN);
 
         for (int rowIdx = 0; rowIdx < freqMatrix.rows; rowIdx++) { // iterate through positions/rows of io
             for (int colIdx = 0; colIdx < freqMatrix.columns; colIdx++) { // iterate through nucleotides at position
-                icm.put(rowIdx, colIdx, calculateIC(freqMatrix.get(rowIdx, colIdx)));
+                icm[rowIdx * freqMatrix.columns + colIdx] = calculateIC(freqMatrix.get(rowIdx, colIdx));
             }
         }
         return icm;
@@ -158,53 +193,77 @@ public class SplicingInformationContentCalculator {
         return 2d - (-Math.log(freq) / Math.log(2));
     }
 
+    private static boolean containsNonFinite(double[] values, int length) {
+        // the row of the INVALID code is not part of the matrix
+        for (int i = 0; i < INVALID * length; i++) {
+            if (!Double.isFinite(values[i]))
+                return true;
+        }
+        return false;
+    }
+
+    private static byte code(char c) {
+        return c < CODES.length ? CODES[c] : INVALID;
+    }
+
     /**
-     * Convert sequence into its binary mask representation. For sequence 'ACGTAT' the corresponding binary mask
-     * is:
+     * Convert sequence into array of nucleotide codes. The characters other than [ACGTacgt] are encoded as
+     * {@link #INVALID}.
+     */
+    private static byte[] encode(String sequence) {
+        byte[] codes = new byte[sequence.length()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = code(sequence.charAt(i));
+        }
+        return codes;
+    }
+
+    /**
+     * Score the window of encoded sequence starting at <code>offset</code>.
+     * <p>
+     * The information content values are summed position by position, in the same order as the sum of the
+     * element-wise product of the column-major matrix and the binary mask of the sequence. An invalid character adds
+     * a {@link Double#NaN} value.
      *
-     * <pre>
-     *    |  0    1    2    3    4    5
-     * ---|------------------------------
-     *  A |  1    0    0    0    1    0
-     *  C |  0    1    0    0    0    0
-     *  G |  0    0    1    0    0    0
-     *  T |  0    0    0    1    0    1
-     * </pre>
+     * @return score or {@link Double#NaN} if the window contains an invalid character
+     */
+    private static double score(byte[] codes, int offset, double[] ic, int length, boolean icNonFinite) {
+        if (icNonFinite)
+            return Double.NaN;
+
+        double sum = 0.;
+        for (int i = 0; i < length; i++) {
+            sum += ic[codes[offset + i] * length + i];
+        }
+        return sum;
+    }
+
+    /**
+     * Score the <code>sequence</code> that has the same length as the matrix, without encoding the sequence.
      *
-     * @param sequence String with nucleotides represented by [ACGTacgt] characters.
-     * @return binary mask {@link DoubleMatrix} with <code>i</code> rows and <code>j</code> columns. <code>i</code> =
-     * 4 (nucleotides) and <code>j</code> = length of the <code>sequence</code>. Presence of the nucleotide at given position is
-     * represented by 1d, absence is represented by 0D
+     * @see #score(byte[], int, double[], int, boolean)
      */
-    private static DoubleMatrix binaryMask(String sequence) {
-        DoubleMatrix binary_mask = new DoubleMatrix(4, sequence.length());
-        char[] nts = sequence.toCharArray();
-        for (int i = 0; i < nts.length; i++) {
-            switch (nts[i]) {
-                case 'A':
-                case 'a':
-                    binary_mask.put(0, i, 1D);
-                    break;
-
-                case 'C':
-                case 'c':
-                    binary_mask.put(1, i, 1D);
-                    break;
-
-                case 'G':
-                case 'g':
-                    binary_mask.put(2, i, 1D);
-                    break;
-
-                case 'T':
-                case 't':
-                    binary_mask.put(3, i, 1D);
-                    break;
-                default:
-                    break; // no special action, we check sequence integrity upstream.
-            }
+    private static double score(String sequence, double[] ic, int length, boolean icNonFinite) {
+        if (icNonFinite)
+            return Double.NaN;
+
+        double sum = 0.;
+        for (int i = 0; i < length; i++) {
+            sum += ic[code(sequence.charAt(i)) * length + i];
+        }
+        return sum;
+    }
+
+    private static double[] slidingWindowScores(String sequence, double[] ic, int length, boolean icNonFinite) {
+        if (sequence.length() < length)
+            return new double[0];
+
+        byte[] codes = encode(sequence);
+        double[] scores = new double[codes.length - length + 1];
+        for (int offset = 0; offset < scores.length; offset++) {
+            scores[offset] = score(codes, offset, ic, length, icNonFinite);
         }
-        return binary_mask;
+        return scores;
     }
 
     public SplicingParameters getSplicingParameters() {
@@ -217,16 +276,16 @@ public class SplicingInformationContentCalculator {
      * method or {@link Double#NaN} if the length of <code>sequence</code> is not equal to length of splice donor site
      */
     public double getSpliceDonorScore(String sequence) {
-        if (sequence.length() != this.donorMatrix.columns) {
-            LOGGER.debug(String.format("Unable to calculate donor score for sequence '%s'. Length of sequence: %d, length " +
-                    "of donor matrix: %d", sequence, sequence.length(), this.donorMatrix.columns));
-            return Double.NaN;
-        } else if (!PATTERN.matcher(sequence).matches()) {
-            LOGGER.debug(String.format("Unable to calculate donor score for sequence '%s'. Only characters A,C,G,T and a," +
-                    "c,g,t are allowed.", sequence));
+        if (sequence.length() != donorLength) {
+            if (LOGGER.isDebugEnabled())
+                LOGGER.debug("Unable to calculate donor score for sequence '{}'. Length of sequence: {}, length of donor matrix: {}",
+                        sequence, sequence.length(), donorLength);
             return Double.NaN;
         }
-        return donorMatrix.mul(binaryMask(sequence)).sum();
+        double score = score(sequence, donorIc, donorLength, donorIcNonFinite);
+        if (Double.isNaN(score) && LOGGER.isDebugEnabled())
+            LOGGER.debug("Unable to calculate donor score for sequence '{}'. Only characters A,C,G,T and a,c,g,t are allowed.", sequence);
+        return score;
     }
 
 
@@ -236,16 +295,57 @@ public class SplicingInformationContentCalculator {
      * method or {@link Double#NaN} if the length of <code>sequence</code> is not equal to length of splice acceptor site
      */
     public double getSpliceAcceptorScore(String sequence) {
-        if (sequence.length() != this.acceptorMatrix.columns) {
-            LOGGER.debug(String.format("Unable to calculate acceptor score for sequence '%s'. Length of sequence: %d, " +
-                    "length of acceptor matrix: %d", sequence, sequence.length(), this.acceptorMatrix.columns));
-            return Double.NaN;
-        } else if (!PATTERN.matcher(sequence).matches()) {
-            LOGGER.debug(String.format("Unable to calculate acceptor score for sequence '%s'. Only characters A,C,G,T " +
-                    "and a,c,g,t are " +
-                    "allowed.", sequence));
+        if (sequence.length() != acceptorLength) {
+            if (LOGGER.isDebugEnabled())
+                LOGGER.debug("Unable to calculate acceptor score for sequence '{}'. Length of sequence: {}, length of acceptor matrix: {}",
+                        sequence, sequence.length(), acceptorLength);
             return Double.NaN;
         }
-        return acceptorMatrix.mul(binaryMask(sequence)).sum();
+        double score = score(sequence, acceptorIc, acceptorLength, acceptorIcNonFinite);
+        if (Double.isNaN(score) && LOGGER.isDebugEnabled())
+            LOGGER.debug("Unable to calculate acceptor score for sequence '{}'. Only characters A,C,G,T and a,c,g,t are allowed.", sequence);
+        return score;
+    }
+
+    /**
+     * Score all windows of the splice donor site length in the <code>sequence</code>.
+     *
+     * @param sequence String with nucleotide sequence to be scored
+     * @return array with scores of the windows starting at positions <code>0, 1, ..., n - donorLength</code>, where
+     * {@link Double#NaN} denotes a window with invalid character. The array is empty if the sequence is shorter than
+     * the splice donor site
+     */
+    public double[] spliceDonorScores(String sequence) {
+        return slidingWindowScores(sequence, donorIc, donorLength, donorIcNonFinite);
+    }
+
+    /**
+     * Score all windows of the splice acceptor site length in the <code>sequence</code>.
+     *
+     * @param sequence String with nucleotide sequence to be scored
+     * @return array with scores of the windows starting at positions <code>0, 1, ..., n - acceptorLength</code>, where
+     * {@link Double#NaN} denotes a window with invalid character. The array is empty if the sequence is shorter than
+     * the splice acceptor site
+     */
+    public double[] spliceAcceptorScores(String sequence) {
+        return slidingWindowScores(sequence, acceptorIc, acceptorLength, acceptorIcNonFinite);
+    }
+
+    /**
+     * Get the maximum of the <code>scores</code>. The result is {@link Double#NaN} if any of the scores is
+     * {@link Double#NaN}, in the same way as in {@link Math#max(double, double)}.
+     *
+     * @param scores   scores, e.g. from {@link #spliceDonorScores(String)}
+     * @param ifEmpty  value to return if the <code>scores</code> are empty
+     * @return the maximum score
+     */
+    public static double maxScore(double[] scores, double ifEmpty) {
+        if (scores.length == 0)
+            return ifEmpty;
+        double max = scores[0];
+        for (int i = 1; i < scores.length; i++) {
+            max = Math.max(max, scores[i]);
+        }
+        return max;
     }
 }
@@ -84,6 +84,7 @@ import org.monarchinitiative.sgenes.model.Gene;
 import org.monarchinitiative.sgenes.model.Transcript;
 import org.monarchinitiative.squirls.core.classifier.SquirlsClassifier;
 import org.monarchinitiative.squirls.core.classifier.SquirlsFeatures;
+import org.monarchinitiative.squirls.core.config.SequenceFetchMode;
 import org.monarchinitiative.squirls.core.reference.StrandedSequence;
 import org.monarchinitiative.squirls.core.scoring.SplicingAnnotator;
 import org.monarchinitiative.svart.*;
@@ -97,8 +98,7 @@ import java.util.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 /**
  * Here we test a real-world variant as an integration test.
@@ -218,4 +218,211 @@ public class VariantSplicingEvaluatorImplTest {
         verify(annotator).annotate(vot);
         verify(classifier).predict(features);
     }
-}
\ No newline at end of file
+
+    /**
+     * The feature map is only built when the features of the result are read.
+     */
+    @Test
+    public void evaluateWrtCoordinates_featureMapIsBuiltLazily() {
+        Contig chr9 = assembly.contigByName("9");
+        GenomicVariant variant = GenomicVariant.of(chr9, "", Strand.POSITIVE, CoordinateSystem.oneBased(), 136_223_949, "G", "C");
+
+        Gene surf2 = PojosForTesting.surf2(chr9);
+        Transcript next = surf2.transcripts().next();
+
+        when(squirlsDataService.sequenceForRegion(any(GenomicRegion.class))).thenReturn(sequence);
+        when(squirlsDataService.overlappingGenes(variant)).thenReturn(List.of(surf2));
+
+        VariantOnTranscript vot = VariantOnTranscript.of(variant, next, sequence);
+        SquirlsFeatures features = spy(SquirlsFeatures.of(Map.of("donor_offset", 5., "acceptor_offset", 1234.))); // not real
+        when(annotator.annotate(vot)).thenReturn(features);
+
+        Prediction prediction = Prediction.of(PartialPrediction.of("donor", .6, .7));
+        when(classifier.predict(features)).thenReturn(prediction);
+
+        // -------------------------------------------------------------------------------------------------------------
+        SquirlsResult squirlsResult = evaluator.evaluate(variant);
+        // -------------------------------------------------------------------------------------------------------------
+
+        SquirlsTxResult actual = squirlsResult.resultForTranscript("NM_017503.5").orElseThrow();
+        assertThat(actual.prediction(), is(prediction));
+        assertThat(actual.featureValue("donor_offset").orElseThrow(), is(5.));
+        verify(features, never()).getFeatureMap();
+
+        assertThat(actual.features(), is(Map.of("donor_offset", 5., "acceptor_offset", 1234.)));
+        assertThat(actual.features(), is(Map.of("donor_offset", 5., "acceptor_offset", 1234.)));
+        verify(features, times(1)).getFeatureMap();
+    }
+
+    /**
+     * In the {@link SequenceFetchMode#NEIGHBORHOOD} mode, the reference sequence is fetched separately for each
+     * transcript using the region provided by the annotator.
+     */
+    @Test
+    public void evaluateWrtCoordinates_neighborhood() {
+        Contig chr9 = assembly.contigByName("9");
+        GenomicVariant variant = GenomicVariant.of(chr9, "", Strand.POSITIVE, CoordinateSystem.oneBased(), 136_223_949, "G", "C");
+
+        Gene surf2 = PojosForTesting.surf2(chr9);
+        Transcript next = surf2.transcripts().next();
+
+        GenomicRegion required = GenomicRegion.of(chr9, Strand.POSITIVE, CoordinateSystem.zeroBased(), 136_223_900, 136_224_000);
+        when(annotator.requiredSequenceRegion(variant, next)).thenReturn(required);
+        when(squirlsDataService.sequenceForRegion(required)).thenReturn(sequence);
+        when(squirlsDataService.overlappingGenes(variant)).thenReturn(List.of(surf2));
+
+        VariantOnTranscript vot = VariantOnTranscript.of(variant, next, sequence);
+        SquirlsFeatures features = SquirlsFeatures.of(Map.of("donor_offset", 5., "acceptor_offset", 1234.)); // not real
+        when(annotator.annotate(vot)).thenReturn(features);
+
+        Prediction prediction = Prediction.of(
+                PartialPrediction.of("donor", .6, .7),
+                PartialPrediction.of("acceptor", .1, .6));
+        when(classifier.predict(features)).thenReturn(prediction);
+
+        VariantSplicingEvaluatorImpl evaluator = VariantSplicingEvaluatorImpl.of(squirlsDataService, annotator, classifier, SequenceFetchMode.NEIGHBORHOOD);
+
+        // -------------------------------------------------------------------------------------------------------------
+        SquirlsResult squirlsResult = evaluator.evaluate(variant);
+        // -------------------------------------------------------------------------------------------------------------
+
+        assertThat(squirlsResult.txAccessionIds(), hasSize(1));
+        SquirlsTxResult actual = squirlsResult.resultForTranscript("NM_017503.5").orElseThrow();
+        assertThat(actual.featureValue("donor_offset").orElseThrow(), is(5.));
+        assertThat(actual.prediction(), is(prediction));
+
+        verify(annotator).requiredSequenceRegion(variant, next);
+        verify(squirlsDataService).sequenceForRegion(required);
+    }
+
+    @Test
+    public void evaluateWrtCoordinates_neighborhoodSequenceNotAvailable() {
+        Contig chr9 = assembly.contigByName("9");
+        GenomicVariant variant = GenomicVariant.of(chr9, "", Strand.POSITIVE, CoordinateSystem.oneBased(), 136_223_949, "G", "C");
+
+        Gene surf2 = PojosForTesting.surf2(chr9);
+        Transcript next = surf2.transcripts().next();
+
+        GenomicRegion required = GenomicRegion.of(chr9, Strand.POSITIVE, CoordinateSystem.zeroBased(), 136_223_900, 136_224_000);
+        when(annotator.requiredSequenceRegion(variant, next)).thenReturn(required);
+        when(squirlsDataService.sequenceForRegion(required)).thenReturn(null);
+        when(squirlsDataService.overlappingGenes(variant)).thenReturn(List.of(surf2));
+
+        VariantSplicingEvaluatorImpl evaluator = VariantSplicingEvaluatorImpl.of(squirlsDataService, annotator, classifier, SequenceFetchMode.NEIGHBORHOOD);
+
+        // -------------------------------------------------------------------------------------------------------------
+        SquirlsResult squirlsResult = evaluator.evaluate(variant);
+        // -------------------------------------------------------------------------------------------------------------
+
+        assertThat(squirlsResult.isEmpty(), is(true));
+    }
+
+    /**
+     * The genes are looked up and the sequence is fetched once for the block of sorted variants. The variant that does
+     * not overlap with the gene of the block and the variant on unknown contig are not evaluated.
+     */
+    @Test
+    public void evaluateAll() {
+        Contig chr9 = assembly.contigByName("9");
+        Contig unknown = Contig.of(1_000, "Unknown", SequenceRole.ASSEMBLED_MOLECULE, "Unknown", AssignedMoleculeType.CHROMOSOME, 1_000_000_000, "", "", "");
+        GenomicVariant first = GenomicVariant.of(chr9, "", Strand.POSITIVE, CoordinateSystem.oneBased(), 136_223_949, "G", "C");
+        GenomicVariant second = GenomicVariant.of(chr9, "", Strand.POSITIVE, CoordinateSystem.oneBased(), 136_224_100, "A", "T");
+        GenomicVariant outsideGene = GenomicVariant.of(chr9, "", Strand.POSITIVE, CoordinateSystem.oneBased(), 136_300_000, "A", "T");
+        GenomicVariant onUnknownContig = GenomicVariant.of(unknown, "", Strand.POSITIVE, CoordinateSystem.oneBased(), 136_223_949, "G", "C");
+
+        Gene surf2 = PojosForTesting.surf2(chr9);
+        when(squirlsDataService.overlappingGenes(any(GenomicRegion.class))).thenReturn(List.of(surf2));
+        when(squirlsDataService.sequenceForRegion(any(GenomicRegion.class))).thenReturn(sequence);
+
+        SquirlsFeatures features = SquirlsFeatures.of(Map.of("donor_offset", 5., "acceptor_offset", 1234.)); // not real
+        when(annotator.annotate(any(VariantOnTranscript.class))).thenReturn(features);
+        Prediction prediction = Prediction.of(
+                PartialPrediction.of("donor", .6, .7),
+                PartialPrediction.of("acceptor", .1, .6));
+        when(classifier.predict(features)).thenReturn(prediction);
+
+        // -------------------------------------------------------------------------------------------------------------
+        List<SquirlsResult> results = evaluator.evaluateAll(List.of(first, second, outsideGene, onUnknownContig));
+        // -------------------------------------------------------------------------------------------------------------
+
+        assertThat(results, hasSize(4));
+        assertThat(results.get(0).resultForTranscript("NM_017503.5").orElseThrow().prediction(), is(prediction));
+        assertThat(results.get(1).resultForTranscript("NM_017503.5").orElseThrow().prediction(), is(prediction));
+        assertThat(results.get(2).isEmpty(), is(true));
+        assertThat(results.get(3).isEmpty(), is(true));
+
+        verify(squirlsDataService).overlappingGenes(GenomicRegion.of(chr9, Strand.POSITIVE, CoordinateSystem.zeroBased(), 136_223_948, 136_300_000));
+        verify(squirlsDataService).sequenceForRegion(GenomicRegion.of(chr9, Strand.POSITIVE, CoordinateSystem.zeroBased(), 136_223_275, 136_228_184));
+    }
+
+    /**
+     * The variants that are not sorted are evaluated in separate blocks, the results are in the input order.
+     */
+    /**
+     * In the {@link SequenceFetchMode#NEIGHBORHOOD} mode, the overlapping neighborhoods of the block variants are
+     * fetched at once, while the bases between the disjoint neighborhoods are not fetched.
+     */
+    @Test
+    public void evaluateAll_neighborhood() {
+        Contig chr9 = assembly.contigByName("9");
+        GenomicVariant first = GenomicVariant.of(chr9, "", Strand.POSITIVE, CoordinateSystem.oneBased(), 136_223_949, "G", "C");
+        GenomicVariant second = GenomicVariant.of(chr9, "", Strand.POSITIVE, CoordinateSystem.oneBased(), 136_224_000, "A", "T");
+        GenomicVariant third = GenomicVariant.of(chr9, "", Strand.POSITIVE, CoordinateSystem.oneBased(), 136_227_000, "A", "T");
+
+        Gene surf2 = PojosForTesting.surf2(chr9);
+        when(squirlsDataService.overlappingGenes(any(GenomicRegion.class))).thenReturn(List.of(surf2));
+        when(annotator.requiredSequenceRegion(eq(first), any(Transcript.class)))
+                .thenReturn(GenomicRegion.of(chr9, Strand.POSITIVE, CoordinateSystem.zeroBased(), 136_223_900, 136_224_000));
+        when(annotator.requiredSequenceRegion(eq(second), any(Transcript.class)))
+                .thenReturn(GenomicRegion.of(chr9, Strand.POSITIVE, CoordinateSystem.zeroBased(), 136_223_950, 136_224_050));
+        when(annotator.requiredSequenceRegion(eq(third), any(Transcript.class)))
+                .thenReturn(GenomicRegion.of(chr9, Strand.POSITIVE, CoordinateSystem.zeroBased(), 136_226_950, 136_227_050));
+        when(squirlsDataService.sequenceForRegion(any(GenomicRegion.class))).thenReturn(sequence);
+
+        SquirlsFeatures features = SquirlsFeatures.of(Map.of("donor_offset", 5., "acceptor_offset", 1234.)); // not real
+        when(annotator.annotate(any(VariantOnTranscript.class))).thenReturn(features);
+        Prediction prediction = Prediction.of(PartialPrediction.of("donor", .6, .7));
+        when(classifier.predict(features)).thenReturn(prediction);
+
+        VariantSplicingEvaluatorImpl evaluator = VariantSplicingEvaluatorImpl.of(squirlsDataService, annotator, classifier, SequenceFetchMode.NEIGHBORHOOD);
+
+        // -------------------------------------------------------------------------------------------------------------
+        List<SquirlsResult> results = evaluator.evaluateAll(List.of(first, second, third));
+        // -------------------------------------------------------------------------------------------------------------
+
+        assertThat(results, hasSize(3));
+        for (SquirlsResult result : results)
+            assertThat(result.resultForTranscript("NM_017503.5").orElseThrow().prediction(), is(prediction));
+
+        verify(squirlsDataService).sequenceForRegion(GenomicRegion.of(chr9, Strand.POSITIVE, CoordinateSystem.zeroBased(), 136_223_900, 136_224_050));
+        verify(squirlsDataService).sequenceForRegion(GenomicRegion.of(chr9, Strand.POSITIVE, CoordinateSystem.zeroBased(), 136_226_950, 136_227_050));
+        verify(squirlsDataService, times(2)).sequenceForRegion(any(GenomicRegion.class));
+    }
+
+    @Test
+    public void evaluateAll_unsorted() {
+        Contig chr9 = assembly.contigByName("9");
+        GenomicVariant first = GenomicVariant.of(chr9, "", Strand.POSITIVE, CoordinateSystem.oneBased(), 136_300_000, "A", "T");
+        GenomicVariant second = GenomicVariant.of(chr9, "", Strand.POSITIVE, CoordinateSystem.oneBased(), 136_223_949, "G", "C");
+
+        Gene surf2 = PojosForTesting.surf2(chr9);
+        when(squirlsDataService.overlappingGenes(first)).thenReturn(List.of());
+        when(squirlsDataService.overlappingGenes(second)).thenReturn(List.of(surf2));
+        when(squirlsDataService.sequenceForRegion(any(GenomicRegion.class))).thenReturn(sequence);
+
+        SquirlsFeatures features = SquirlsFeatures.of(Map.of("donor_offset", 5., "acceptor_offset", 1234.)); // not real
+        when(annotator.annotate(any(VariantOnTranscript.class))).thenReturn(features);
+        Prediction prediction = Prediction.of(
+                PartialPrediction.of("donor", .6, .7),
+                PartialPrediction.of("acceptor", .1, .6));
+        when(classifier.predict(features)).thenReturn(prediction);
+
+        // -------------------------------------------------------------------------------------------------------------
+        List<SquirlsResult> results = evaluator.evaluateAll(List.of(first, second));
+        // -------------------------------------------------------------------------------------------------------------
+
+        assertThat(results, hasSize(2));
+        assertThat(results.get(0).isEmpty(), is(true));
+        assertThat(results.get(1).resultForTranscript("NM_017503.5").orElseThrow().prediction(), is(prediction));
+    }
+}
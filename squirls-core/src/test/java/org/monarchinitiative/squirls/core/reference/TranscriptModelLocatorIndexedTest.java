@@ -0,0 +1,197 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2020
+ */
+
+package org.monarchinitiative.squirls.core.reference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.sgenes.model.Transcript;
+import org.monarchinitiative.sgenes.model.TranscriptIdentifier;
+import org.monarchinitiative.sgenes.model.TranscriptMetadata;
+import org.monarchinitiative.squirls.core.PojosForTesting;
+import org.monarchinitiative.svart.*;
+import org.monarchinitiative.svart.assembly.AssignedMoleculeType;
+import org.monarchinitiative.svart.assembly.SequenceRole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+public class TranscriptModelLocatorIndexedTest {
+
+    private static final Contig CONTIG = Contig.of(1, "1", SequenceRole.ASSEMBLED_MOLECULE, "1", AssignedMoleculeType.CHROMOSOME, 200_000_000, "", "", "");
+
+    private TranscriptModelLocatorNaive naive;
+
+    private TranscriptModelLocatorIndexed indexed;
+
+    @BeforeEach
+    public void setUp() {
+        SplicingParameters parameters = PojosForTesting.makeSplicingParameters();
+        naive = new TranscriptModelLocatorNaive(parameters);
+        indexed = new TranscriptModelLocatorIndexed(parameters);
+    }
+
+    /**
+     * Make a transcript with many short exons and introns, the splice sites of the neighboring exons overlap.
+     */
+    private static Transcript makeTranscriptWithManyExons(Strand strand) {
+        Random random = new Random(123);
+        List<Coordinates> exons = new ArrayList<>();
+        int start = 10_000;
+        for (int i = 0; i < 40; i++) {
+            int end = start + 1 + random.nextInt(60);
+            exons.add(Coordinates.of(CoordinateSystem.zeroBased(), start, end));
+            start = end + 1 + random.nextInt(60);
+        }
+        int txStart = exons.get(0).start();
+        int txEnd = exons.get(exons.size() - 1).end();
+        GenomicRegion location = GenomicRegion.of(CONTIG, Strand.POSITIVE, CoordinateSystem.zeroBased(), txStart, txEnd);
+        if (strand == Strand.NEGATIVE) {
+            List<Coordinates> inverted = new ArrayList<>(exons.size());
+            for (int i = exons.size() - 1; i >= 0; i--)
+                inverted.add(exons.get(i).invert(CONTIG));
+            exons = inverted;
+            location = location.withStrand(Strand.NEGATIVE);
+        }
+        return Transcript.of(TranscriptIdentifier.of("TX_MANY", "MANY_EXONS", null),
+                location, exons, location.coordinates(), TranscriptMetadata.of(null));
+    }
+
+    /**
+     * Check that the indexed locator yields the same results as the naive locator for SNVs, deletions, and
+     * insertions (empty regions) placed at each position in the transcript neighborhood.
+     */
+    private void assertSameAsNaive(Transcript transcript) {
+        GenomicRegion location = transcript.location().withStrand(Strand.POSITIVE);
+        int txStart = location.startWithCoordinateSystem(CoordinateSystem.zeroBased());
+        int txEnd = location.endWithCoordinateSystem(CoordinateSystem.zeroBased());
+        for (int pos = txStart - 50; pos < txEnd + 50; pos++) {
+            for (int length : new int[]{0, 1, 2, 5, 30}) {
+                for (Strand strand : Strand.values()) {
+                    GenomicRegion variant = GenomicRegion.of(CONTIG, Strand.POSITIVE, CoordinateSystem.zeroBased(), pos, pos + length)
+                            .withStrand(strand);
+                    assertThat(variant.toString(), indexed.locate(variant, transcript), equalTo(naive.locate(variant, transcript)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void locate_txOnPositiveStrand() {
+        assertSameAsNaive(PojosForTesting.getTranscriptWithThreeExons(CONTIG));
+    }
+
+    @Test
+    public void locate_txOnNegativeStrand() {
+        assertSameAsNaive(PojosForTesting.getTranscriptWithThreeExonsOnRevStrand(CONTIG));
+    }
+
+    @Test
+    public void locate_singleExonTranscript() {
+        assertSameAsNaive(PojosForTesting.getTranscriptWithSingleExon(CONTIG));
+    }
+
+    @Test
+    public void locate_realTranscript() {
+        assertSameAsNaive(PojosForTesting.surf2_NM_017503_5(CONTIG));
+    }
+
+    @Test
+    public void locate_txWithManyExons() {
+        assertSameAsNaive(makeTranscriptWithManyExons(Strand.POSITIVE));
+        assertSameAsNaive(makeTranscriptWithManyExons(Strand.NEGATIVE));
+    }
+
+    @Test
+    public void locate_evictedTranscriptsAreIndexedAgain() {
+        indexed = new TranscriptModelLocatorIndexed(PojosForTesting.makeSplicingParameters(), 1);
+        Transcript first = PojosForTesting.getTranscriptWithThreeExons(CONTIG);
+        Transcript second = PojosForTesting.surf2_NM_017503_5(CONTIG);
+
+        GenomicRegion inFirst = GenomicRegion.of(CONTIG, Strand.POSITIVE, CoordinateSystem.oneBased(), 1198, 1198);
+        GenomicRegion inSecond = GenomicRegion.of(CONTIG, Strand.POSITIVE, CoordinateSystem.oneBased(), 136_223_900, 136_223_900);
+        for (int i = 0; i < 3; i++) {
+            assertThat(indexed.locate(inFirst, first).getPosition(), is(SplicingLocationData.SplicingPosition.DONOR));
+            assertThat(indexed.locate(inSecond, second).getPosition(), is(SplicingLocationData.SplicingPosition.EXON));
+            assertThat(indexed.locate(inSecond, first), is(SplicingLocationData.outside()));
+        }
+    }
+}
@@ -80,15 +80,20 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.monarchinitiative.sgenes.model.Transcript;
+import org.monarchinitiative.squirls.core.PojosForTesting;
 import org.monarchinitiative.squirls.core.SimpleAnnotatableSquirlsFeatures;
 import org.monarchinitiative.squirls.core.classifier.SquirlsFeatures;
+import org.monarchinitiative.squirls.core.reference.StrandedSequence;
 import org.monarchinitiative.svart.CoordinateSystem;
+import org.monarchinitiative.svart.GenomicRegion;
 import org.monarchinitiative.svart.Strand;
 import org.monarchinitiative.svart.GenomicVariant;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItems;
 
 public class AGEZSplicingAnnotatorTest extends BaseSplicingAnnotatorTest {
@@ -131,4 +136,67 @@ public class AGEZSplicingAnnotatorTest extends BaseSplicingAnnotatorTest {
         // we expect the agez calculator to compute the following features:
         assertThat(features.getFeatureNames(), hasItems("creates_ag_in_agez", "ppt_is_truncated", "yag_at_acceptor_minus_three", "creates_yag_in_agez"));
     }
-}
\ No newline at end of file
+
+    /**
+     * The features calculated using the sequence of the {@link AGEZSplicingAnnotator#requiredSequenceRegion} must be
+     * the same as the features calculated using the sequence of the entire transcript.
+     */
+    @ParameterizedTest
+    @CsvSource({
+            "1100,   1,    a", // exon
+            "1199,   1,    t", // donor
+            "1300,   1, gtca", // intron
+            "1389,   1,    g", // AGEZ
+            "1397,   3,    c", // acceptor
+            "1420,   1,    t", // acceptor, exonic part
+            "1590,  12,    a", // deletion of the donor site
+            "1900,   1,    c", // last exon
+    })
+    public void requiredSequenceRegion(int pos, int refLength, String alt) {
+        String ref = sequence.subsequence(CoordinateSystem.zeroBased(), pos, pos + refLength);
+        GenomicVariant variant = GenomicVariant.of(contig, "", Strand.POSITIVE, CoordinateSystem.zeroBased(), pos, ref, alt);
+
+        GenomicRegion required = annotator.requiredSequenceRegion(variant, st);
+        StrandedSequence trimmed = StrandedSequence.of(required, sequence.subsequence(required));
+
+        assertThat(sequence.location().contains(required), is(true));
+        assertThat(required.length() < sequence.location().length(), is(true));
+
+        SquirlsFeatures expected = annotator.annotate(new SimpleAnnotatableSquirlsFeatures(variant, st, sequence));
+        SquirlsFeatures actual = annotator.annotate(new SimpleAnnotatableSquirlsFeatures(variant, st, trimmed));
+        assertThat(actual.getFeatureMap(), is(equalTo(expected.getFeatureMap())));
+    }
+
+    /**
+     * Same as {@link #requiredSequenceRegion(int, int, String)}, but the transcript is on the negative strand, where
+     * the splice sites are on the opposite sides of the exons.
+     */
+    @ParameterizedTest
+    @CsvSource({
+            "1005,   1,    a", // last exon
+            "1198,   1,    t", // acceptor, intronic part
+            "1203,   1,    g", // acceptor, exonic part
+            "1300,   1, gtca", // intron
+            "1397,   1,    c", // donor
+            "1500,   1,    t", // exon
+            "1596,   8,    a", // deletion of the acceptor site
+            "1802,   1,    c", // donor, exonic part
+            "1995,   1,    g", // first exon
+    })
+    public void requiredSequenceRegion_negativeStrand(int pos, int refLength, String alt) {
+        Transcript rev = PojosForTesting.getTranscriptWithThreeExonsOnRevStrand(contig);
+        String ref = sequence.subsequence(CoordinateSystem.zeroBased(), pos, pos + refLength);
+        GenomicVariant variant = GenomicVariant.of(contig, "", Strand.POSITIVE, CoordinateSystem.zeroBased(), pos, ref, alt);
+
+        GenomicRegion required = annotator.requiredSequenceRegion(variant, rev);
+        StrandedSequence trimmed = StrandedSequence.of(required, sequence.subsequence(required));
+
+        assertThat(required.strand(), is(Strand.POSITIVE));
+        assertThat(sequence.location().contains(required), is(true));
+        assertThat(required.length() < sequence.location().length(), is(true));
+
+        SquirlsFeatures expected = annotator.annotate(new SimpleAnnotatableSquirlsFeatures(variant, rev, sequence));
+        SquirlsFeatures actual = annotator.annotate(new SimpleAnnotatableSquirlsFeatures(variant, rev, trimmed));
+        assertThat(actual.getFeatureMap(), is(equalTo(expected.getFeatureMap())));
+    }
+}
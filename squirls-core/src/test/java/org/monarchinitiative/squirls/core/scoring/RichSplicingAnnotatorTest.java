@@ -84,12 +84,12 @@ import org.monarchinitiative.svart.CoordinateSystem;
 import org.monarchinitiative.svart.Strand;
 import org.monarchinitiative.svart.GenomicVariant;
 
-import java.util.List;
-
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.closeTo;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 
 public class RichSplicingAnnotatorTest extends BaseSplicingAnnotatorTest {
 
@@ -116,7 +116,11 @@ public class RichSplicingAnnotatorTest extends BaseSplicingAnnotatorTest {
     @Test
     public void secondExonDonor() {
         GenomicVariant variant = GenomicVariant.of(contig, "", Strand.POSITIVE, CoordinateSystem.zeroBased(), 1599, "C", "A");
-        when(accessor.getScores(variant)).thenReturn(List.of(.12345F));
+        doAnswer(inv -> {
+            float[] scores = inv.getArgument(1);
+            scores[0] = .12345F;
+            return null;
+        }).when(accessor).getScores(eq(variant), any(float[].class));
 
         SquirlsFeatures features = annotator.annotate(new SimpleAnnotatableSquirlsFeatures(variant, st, sequence));
 
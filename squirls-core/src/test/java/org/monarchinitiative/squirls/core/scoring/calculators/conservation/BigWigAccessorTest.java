@@ -81,14 +81,21 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.monarchinitiative.squirls.core.TestDataSourceConfig;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.hamcrest.CoreMatchers.hasItems;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 
 public class BigWigAccessorTest {
@@ -141,4 +148,61 @@ public class BigWigAccessorTest {
         assertThat(lastPosMissing.get(5), is(Float.NaN));
         assertThat(lastPosMissing.subList(0, 5), is(List.of(-0.557f, -0.952f, 0.747f, 1.958f, 0.706f)));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getScoresIntoArray() {
+        float[] scores = new float[10];
+        Arrays.fill(scores, 5, 10, 100.F);
+
+        dao.getScores("chr9", 99_999, 100_004, scores);
+
+        assertThat(scores, is(new float[]{Float.NaN, 1.206F, 0.27F, 0.007F, 1.206F, 100.F, 100.F, 100.F, 100.F, 100.F}));
+    }
+
+    @Test
+    public void getScoresIntoTooShortArray() {
+        assertThrows(IllegalArgumentException.class, () -> dao.getScores("chr9", 100_000, 100_005, new float[4]));
+    }
+
+    @Test
+    public void getScoresFromUnknownContig() {
+        float[] scores = new float[3];
+
+        dao.getScores("chrUn", 100_000, 100_003, scores);
+
+        assertThat(scores, is(new float[]{Float.NaN, Float.NaN, Float.NaN}));
+    }
+
+    @Test
+    public void getScoresWithoutBlockCache() throws Exception {
+        try (BigWigAccessor uncached = new BigWigAccessor(BW_PATH, 0)) {
+            assertThat(uncached.getScores("chr9", 99_000, 102_000), is(dao.getScores("chr9", 99_000, 102_000)));
+        }
+    }
+
+    @Test
+    public void getScoresConcurrently() throws Exception {
+        List<Float> expected = dao.getScores("chr9", 100_000, 101_000);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Float>>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                int begin = 100_000 + i * 10;
+                futures.add(executor.submit(() -> dao.getScores("chr9", begin, begin + 10)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertThat(futures.get(i).get(), is(expected.subList(i * 10, i * 10 + 10)));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void openNonBigWigFile() {
+        Path path = TestDataSourceConfig.BASE_FOLDER.resolve("hexamer-scores-full.tsv");
+        IOException e = assertThrows(IOException.class, () -> new BigWigAccessor(path));
+        assertThat(e.getMessage(), is("Bad header for " + path));
+    }
+}
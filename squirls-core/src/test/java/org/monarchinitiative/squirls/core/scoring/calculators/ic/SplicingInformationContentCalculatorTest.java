@@ -127,4 +127,43 @@ class SplicingInformationContentCalculatorTest {
         assertThat(instance.getSpliceAcceptorScore("aggtttttttgaaagtctctcgtagZY"), is(Double.NaN));
         assertThat(instance.getSpliceAcceptorScore("aggtttttttagAA"), is(Double.NaN));
     }
-}
\ No newline at end of file
+
+    @Test
+    void spliceDonorScores() {
+        String sequence = "ACAGgtaggcNtcCgtgagtAC";
+        double[] scores = instance.spliceDonorScores(sequence);
+
+        assertThat(scores.length, is(sequence.length() - 9 + 1));
+        for (int i = 0; i < scores.length; i++) {
+            assertThat(scores[i], is(instance.getSpliceDonorScore(sequence.substring(i, i + 9))));
+        }
+        assertThat(scores[1], closeTo(8.66411, EPSILON));
+        assertThat(scores[10], is(Double.NaN));
+        assertThat(scores[11], closeTo(3.01706, EPSILON));
+    }
+
+    @Test
+    void spliceAcceptorScores() {
+        String sequence = "CaggtttttttgaaagtctctcgtagaaaaaaaaaaaNaaaaaaaaaaaaaaaa";
+        double[] scores = instance.spliceAcceptorScores(sequence);
+
+        assertThat(scores.length, is(sequence.length() - 27 + 1));
+        for (int i = 0; i < scores.length; i++) {
+            assertThat(scores[i], is(instance.getSpliceAcceptorScore(sequence.substring(i, i + 27))));
+        }
+    }
+
+    @Test
+    void slidingWindowScoresOfShortSequence() {
+        assertThat(instance.spliceDonorScores("ACGT").length, is(0));
+        assertThat(instance.spliceAcceptorScores("ACGT").length, is(0));
+    }
+
+    @Test
+    void maxScore() {
+        assertThat(SplicingInformationContentCalculator.maxScore(new double[]{1., 3., 2.}, 0.), is(3.));
+        assertThat(SplicingInformationContentCalculator.maxScore(new double[]{1., Double.NaN, 2.}, 0.), is(Double.NaN));
+        assertThat(SplicingInformationContentCalculator.maxScore(new double[0], 0.), is(0.));
+        assertThat(SplicingInformationContentCalculator.maxScore(new double[0], Double.NaN), is(Double.NaN));
+    }
+}
@@ -78,19 +78,31 @@ package org.monarchinitiative.squirls.ingest;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import de.charite.compbio.jannovar.data.JannovarData;
+import de.charite.compbio.jannovar.data.JannovarDataSerializer;
+import de.charite.compbio.jannovar.data.SerializationException;
+import de.charite.compbio.jannovar.reference.GenomeInterval;
+import de.charite.compbio.jannovar.reference.TranscriptModel;
+import com.zaxxer.hikari.HikariDataSource;
 import org.flywaydb.core.Flyway;
 import org.monarchinitiative.squirls.core.SquirlsException;
 import org.monarchinitiative.squirls.core.reference.SplicingParameters;
 import org.monarchinitiative.squirls.core.reference.SplicingPwmData;
+import org.monarchinitiative.squirls.core.scoring.calculators.conservation.BigWigAccessor;
 import org.monarchinitiative.squirls.ingest.data.GenomeAssemblyDownloader;
 import org.monarchinitiative.squirls.ingest.data.UrlResourceDownloader;
 import org.monarchinitiative.squirls.ingest.parse.FileKMerParser;
 import org.monarchinitiative.squirls.ingest.parse.InputStreamBasedPositionalWeightMatrixParser;
 import org.monarchinitiative.squirls.io.SplicingPositionalWeightMatrixParser;
 import org.monarchinitiative.squirls.io.SquirlsClassifierVersion;
+import org.monarchinitiative.squirls.io.conservation.DenseConservationTrackWriter;
 import org.monarchinitiative.squirls.io.db.DbClassifierFactory;
 import org.monarchinitiative.squirls.io.db.DbKMerDao;
 import org.monarchinitiative.squirls.io.db.PwmIngestDao;
+import org.monarchinitiative.squirls.io.sequence.PackedGenomeWriter;
+import org.monarchinitiative.svart.*;
+import org.monarchinitiative.svart.assembly.GenomicAssembly;
+import org.monarchinitiative.svart.parsers.GenomicAssemblyParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -102,7 +114,9 @@ import java.io.InputStream;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -122,6 +136,11 @@ public class SquirlsDataBuilder {
 
     private static final String LOCATIONS = "classpath:db/migration";
 
+    /**
+     * Number of bases upstream and downstream of the transcript that are included in the dense conservation track.
+     */
+    private static final int TRANSCRIPT_FLANK = 500;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(SquirlsDataBuilder.class);
 
     private SquirlsDataBuilder() {
@@ -171,6 +190,60 @@ public class SquirlsDataBuilder {
         return new GenomeAssemblyDownloader(genomeUrl, genomeFastaPath, overwrite);
     }
 
+    /**
+     * Pack the reference genome FASTA file into a file with 2 bits per base.
+     *
+     * @param buildDir path to directory with the reference genome FASTA file where the packed genome will be created
+     */
+    static void packReferenceGenome(Path buildDir) throws IOException {
+        Path genomeFastaPath = buildDir.resolve("genome.fa");
+        Path packedGenomePath = buildDir.resolve("genome.packed");
+        LOGGER.info("Packing reference genome into `{}`", packedGenomePath);
+        PackedGenomeWriter.write(genomeFastaPath, packedGenomePath);
+    }
+
+    /**
+     * Extract phyloP scores of the transcript regions, including {@link #TRANSCRIPT_FLANK} bases upstream and downstream,
+     * from the bigWig file into the dense conservation track.
+     *
+     * @param buildDir path to directory with the downloaded phyloP bigWig file, assembly report, and transcript databases
+     */
+    static void buildConservationTrack(Path buildDir) throws IOException, SerializationException {
+        GenomicAssembly assembly = GenomicAssemblyParser.parseAssembly(buildDir.resolve("assembly_report.txt"));
+        List<GenomicRegion> regions = new ArrayList<>();
+        for (String txSource : List.of("tx.refseq.ser", "tx.ensembl.ser", "tx.ucsc.ser")) {
+            JannovarData jannovarData = new JannovarDataSerializer(buildDir.resolve(txSource).toString()).load();
+            Map<Integer, String> contigIdToName = jannovarData.getRefDict().getContigIDToName();
+            for (TranscriptModel tx : jannovarData.getTmByAccession().values()) {
+                GenomeInterval txRegion = tx.getTXRegion().withStrand(de.charite.compbio.jannovar.reference.Strand.FWD);
+                String contigName = contigIdToName.get(txRegion.getChr());
+                Contig contig = contigName == null ? Contig.unknown() : assembly.contigByName(contigName);
+                if (contig.equals(Contig.unknown()))
+                    continue;
+
+                int begin = Math.max(txRegion.getBeginPos() - TRANSCRIPT_FLANK, 0);
+                int end = Math.min(txRegion.getEndPos() + TRANSCRIPT_FLANK, contig.length());
+                if (begin >= end)
+                    // the transcript is located outside of the contig
+                    continue;
+                regions.add(GenomicRegion.of(contig, Strand.POSITIVE, CoordinateSystem.zeroBased(), begin, end));
+            }
+        }
+
+        Path trackPath = buildDir.resolve("phylop.track");
+        LOGGER.info("Extracting phyloP scores of {} transcript regions into `{}`", regions.size(), trackPath);
+        BigWigAccessor accessor = new BigWigAccessor(buildDir.resolve("phylop.bw"));
+        try {
+            DenseConservationTrackWriter.write(accessor, regions, trackPath, DenseConservationTrackWriter.Precision.SHORT);
+        } finally {
+            try {
+                accessor.close();
+            } catch (Exception e) {
+                LOGGER.warn("Error closing phyloP bigWig file: {}", e.getMessage());
+            }
+        }
+    }
+
     /**
      * Store data for hexamer and septamer-dependent methods.
      *
@@ -283,6 +356,20 @@ public class SquirlsDataBuilder {
             es.shutdownNow();
         }
 
+        // 0b - pack the reference genome
+        try {
+            packReferenceGenome(buildDir);
+        } catch (IOException e) {
+            throw new SquirlsException(e);
+        }
+
+        // 0c - extract phyloP scores of the transcript regions
+        try {
+            buildConservationTrack(buildDir);
+        } catch (IOException | SerializationException e) {
+            throw new SquirlsException(e);
+        }
+
         // 1a - parse YAML with splicing matrices
         SplicingPwmData splicingPwmData;
         try (InputStream is = Files.newInputStream(yamlPath)) {
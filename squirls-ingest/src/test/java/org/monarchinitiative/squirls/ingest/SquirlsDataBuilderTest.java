@@ -144,8 +144,10 @@ public class SquirlsDataBuilderTest {
         assertThat(Files.isRegularFile(buildDir.resolve("genome.fa")), is(false));
         assertThat(Files.isRegularFile(buildDir.resolve("genome.fa.fai")), is(false));
         assertThat(Files.isRegularFile(buildDir.resolve("genome.fa.dict")), is(false));
+        assertThat(Files.isRegularFile(buildDir.resolve("genome.packed")), is(false));
         assertThat(Files.isRegularFile(buildDir.resolve("squirls.mv.db")), is(false));
         assertThat(Files.isRegularFile(buildDir.resolve("phylop.bw")), is(false));
+        assertThat(Files.isRegularFile(buildDir.resolve("phylop.track")), is(false));
         assertThat(Files.isRegularFile(buildDir.resolve("tx.refseq.ser")), is(false));
         assertThat(Files.isRegularFile(buildDir.resolve("tx.ensembl.ser")), is(false));
         assertThat(Files.isRegularFile(buildDir.resolve("tx.ucsc.ser")), is(false));
@@ -158,8 +160,10 @@ public class SquirlsDataBuilderTest {
         assertThat(Files.isRegularFile(buildDir.resolve("genome.fa")), is(true));
         assertThat(Files.isRegularFile(buildDir.resolve("genome.fa.fai")), is(true));
         assertThat(Files.isRegularFile(buildDir.resolve("genome.fa.dict")), is(true));
+        assertThat(Files.isRegularFile(buildDir.resolve("genome.packed")), is(true));
         assertThat(Files.isRegularFile(buildDir.resolve("squirls.mv.db")), is(true));
         assertThat(Files.isRegularFile(buildDir.resolve("phylop.bw")), is(true));
+        assertThat(Files.isRegularFile(buildDir.resolve("phylop.track")), is(true));
         assertThat(Files.isRegularFile(buildDir.resolve("tx.refseq.ser")), is(true));
         assertThat(Files.isRegularFile(buildDir.resolve("tx.ensembl.ser")), is(true));
         assertThat(Files.isRegularFile(buildDir.resolve("tx.ucsc.ser")), is(true));
@@ -85,4 +85,14 @@ public interface AnnotatorProperties {
      * @return version of the splicing annotator (e.g. `agez`).
      */
     String getVersion();
+
+    /**
+     * @return implementation of the phyloP conservation score reader (e.g. `bigwig`, `dense`).
+     */
+    String getConservationReader();
+
+    /**
+     * @return strategy for fetching the reference sequence of the evaluated variants (e.g. `transcript-span`, `neighborhood`).
+     */
+    String getSequenceFetchMode();
 }
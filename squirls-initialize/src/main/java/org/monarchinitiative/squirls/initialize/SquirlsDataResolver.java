@@ -131,6 +131,14 @@ public class SquirlsDataResolver {
         return dataDirectory.resolve("genome.fa.dict");
     }
 
+    /**
+     * @return path to the reference genome in the packed format. Note that the file is optional and it is not present
+     * in the data directories built by older Squirls versions.
+     */
+    public Path genomePackedPath() {
+        return dataDirectory.resolve("genome.packed");
+    }
+
     public Path dataSourcePath() {
         // the actual suffix *.mv.db is not being added
         return dataDirectory.resolve("squirls").toAbsolutePath();
@@ -145,6 +153,15 @@ public class SquirlsDataResolver {
                 .toAbsolutePath();
     }
 
+    /**
+     * @return path to the phyloP scores in the dense conservation track format. Note that the file is optional and
+     * it is not present in the data directories built by older Squirls versions.
+     */
+    public Path phylopTrackPath() {
+        return dataDirectory.resolve("phylop.track")
+                .toAbsolutePath();
+    }
+
     public Path refseqSerPath() {
         return txSerPath("refseq");
     }
@@ -99,4 +99,10 @@ public interface SquirlsProperties {
     ClassifierProperties getClassifier();
 
     AnnotatorProperties getAnnotator();
+
+    ReferenceProperties getReference();
+
+    PrecomputedProperties getPrecomputed();
+
+    AsyncProperties getAsync();
 }
@@ -76,11 +76,9 @@
 
 package org.monarchinitiative.squirls.io.classifier;
 
-import org.monarchinitiative.squirls.core.classifier.AbstractBinaryClassifier;
-import org.monarchinitiative.squirls.core.classifier.BinaryClassifier;
-import org.monarchinitiative.squirls.core.classifier.PredictionException;
-import org.monarchinitiative.squirls.core.classifier.SquirlsFeatures;
+import org.monarchinitiative.squirls.core.classifier.*;
 
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -96,10 +94,24 @@ public class Pipeline<T extends SquirlsFeatures> extends AbstractBinaryClassifie
 
     private final BinaryClassifier<SquirlsFeatures> classifier;
 
+    /**
+     * The {@link #classifier} if it supports prediction from a feature vector, <code>null</code> otherwise.
+     */
+    private final CompiledRandomForest<SquirlsFeatures> compiledForest;
+
+    /**
+     * Indices of the forest features in the most recently seen {@link FeatureSchema}.
+     */
+    private volatile SchemaBinding binding;
+
+    @SuppressWarnings("unchecked")
     private Pipeline(Builder<T> builder) {
         super(builder);
         transformer = builder.transformer;
         classifier = builder.randomForest;
+        compiledForest = classifier instanceof CompiledRandomForest
+                ? (CompiledRandomForest<SquirlsFeatures>) classifier
+                : null;
     }
 
     public static <T extends SquirlsFeatures> Builder<T> builder() {
@@ -115,9 +127,25 @@ public class Pipeline<T extends SquirlsFeatures> extends AbstractBinaryClassifie
 
     @Override
     public double predictProba(T instance) throws PredictionException {
+        if (compiledForest != null && instance instanceof DenseSquirlsFeatures) {
+            DenseSquirlsFeatures features = (DenseSquirlsFeatures) instance;
+            SchemaBinding binding = bind(features.schema());
+            if (binding.isComplete)
+                return compiledForest.predictProba(binding.imputedFeatureVector(features));
+        }
         return classifier.predictProba(transformer.transform(instance));
     }
 
+    private SchemaBinding bind(FeatureSchema schema) {
+        SchemaBinding current = binding;
+        if (current == null || (current.schema != schema && !current.schema.equals(schema))) {
+            // an annotator uses a single schema instance, this should happen only once per annotator
+            current = new SchemaBinding(schema, compiledForest.featureNames(), transformer);
+            binding = current;
+        }
+        return current;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -141,6 +169,37 @@ public class Pipeline<T extends SquirlsFeatures> extends AbstractBinaryClassifie
     }
 
 
+    /**
+     * Maps positions of the forest feature vector to indices of a {@link FeatureSchema}, along with the medians used
+     * for imputation.
+     */
+    private static final class SchemaBinding {
+
+        private final FeatureSchema schema;
+        private final int[] indices;
+        private final double[] medians;
+        /**
+         * <code>false</code> if the schema does not contain all the features required by the imputer.
+         */
+        private final boolean isComplete;
+
+        private SchemaBinding(FeatureSchema schema, List<String> featureNames, SplicingDataImputer<SquirlsFeatures> imputer) {
+            this.schema = schema;
+            this.indices = schema.indicesOf(featureNames);
+            this.medians = imputer.medians(featureNames);
+            this.isComplete = schema.featureNameSet().containsAll(imputer.usedFeatureNames());
+        }
+
+        private double[] imputedFeatureVector(DenseSquirlsFeatures features) {
+            double[] vector = new double[indices.length];
+            for (int i = 0; i < indices.length; i++) {
+                double value = indices[i] < 0 ? Double.NaN : features.getFeature(indices[i]);
+                vector[i] = Double.isNaN(value) ? medians[i] : value;
+            }
+            return vector;
+        }
+    }
+
     public static final class Builder<T extends SquirlsFeatures> extends AbstractBinaryClassifier.Builder<Builder<T>> {
 
         private SplicingDataImputer<SquirlsFeatures> transformer;
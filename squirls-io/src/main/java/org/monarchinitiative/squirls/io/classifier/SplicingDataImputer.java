@@ -112,6 +112,20 @@ public class SplicingDataImputer<T extends SquirlsFeatures> {
         return medianMap.keySet();
     }
 
+    /**
+     * @param featureNames names of the features, may contain <code>null</code>s
+     * @return array with medians of the <code>featureNames</code>, {@link Double#NaN} for the features that are not
+     * imputed
+     */
+    public double[] medians(List<String> featureNames) {
+        double[] medians = new double[featureNames.size()];
+        for (int i = 0; i < featureNames.size(); i++) {
+            Double median = featureNames.get(i) == null ? null : medianMap.get(featureNames.get(i));
+            medians[i] = median == null ? Double.NaN : median;
+        }
+        return medians;
+    }
+
     public SquirlsFeatures transform(T features) throws PredictionException {
         if (!features.getFeatureNames().containsAll(usedFeatureNames())) {
             // instance does not contain all the required features
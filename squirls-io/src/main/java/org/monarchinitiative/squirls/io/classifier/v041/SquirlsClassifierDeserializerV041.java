@@ -114,7 +114,7 @@ public class SquirlsClassifierDeserializerV041 implements SquirlsClassifierDeser
                 .name(Constants.DONOR_PIPE_NAME)
                 .classes(ptm.getRf().getClasses())
                 .transformer(deserializeImputer(ptm.getFeatureNames(), ptm.getFeatureStatistics()))
-                .classifier(deserializeDonorClassifier(ptm))
+                .classifier(CompiledRandomForest.of(deserializeDonorClassifier(ptm)))
                 .build();
     }
 
@@ -151,7 +151,7 @@ public class SquirlsClassifierDeserializerV041 implements SquirlsClassifierDeser
                 .name(Constants.ACCEPTOR_PIPE_NAME)
                 .classes(ptm.getRf().getClasses())
                 .transformer(deserializeImputer(ptm.getFeatureNames(), ptm.getFeatureStatistics()))
-                .classifier(deserializeAcceptorClassifier(ptm))
+                .classifier(CompiledRandomForest.of(deserializeAcceptorClassifier(ptm)))
                 .build();
     }
 
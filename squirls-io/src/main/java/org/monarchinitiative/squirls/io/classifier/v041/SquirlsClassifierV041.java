@@ -160,6 +160,11 @@ class SquirlsClassifierV041 implements SquirlsClassifier {
         return Prediction.emptyPrediction();
     }
 
+    @Override
+    public double threshold() {
+        return threshold;
+    }
+
     private Prediction transform(double donor, double acceptor) {
         return Prediction.of(PartialPrediction.of(PREDICTOR_NAME, logistic(donor, acceptor), threshold));
     }
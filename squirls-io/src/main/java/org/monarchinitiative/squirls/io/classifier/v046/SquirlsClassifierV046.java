@@ -140,4 +140,9 @@ class SquirlsClassifierV046 implements SquirlsClassifier {
         }
     }
 
+    @Override
+    public double threshold() {
+        return threshold;
+    }
+
 }
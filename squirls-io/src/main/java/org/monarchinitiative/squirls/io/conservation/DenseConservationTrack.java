@@ -0,0 +1,277 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2020
+ */
+
+package org.monarchinitiative.squirls.io.conservation;
+
+import org.monarchinitiative.squirls.core.scoring.calculators.conservation.ConservationTrack;
+import org.monarchinitiative.svart.GenomicRegion;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Memory-mapped conservation track in the dense format written by {@link DenseConservationTrackWriter}.
+ * <p>
+ * The track stores quantized scores for pages of {@link #PAGE_SIZE} positions. Each contig has a page directory
+ * with the index of the stored page or <code>-1</code> if the page is not stored, hence the score of a position
+ * is looked up in constant time. The positions of the pages that are not stored have no score.
+ * <p>
+ * The scores are decoded from the read-only buffers using absolute reads, hence the instance can be queried
+ * from multiple threads without synchronization.
+ */
+public class DenseConservationTrack implements ConservationTrack {
+
+    static final byte[] MAGIC = "SQRLSCNS".getBytes(StandardCharsets.US_ASCII);
+
+    static final int VERSION = 1;
+
+    static final int HEADER_LENGTH = MAGIC.length + 3 * Integer.BYTES + Float.BYTES + Long.BYTES;
+
+    static final int PAGE_BITS = 12;
+
+    static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private final Map<String, TrackContig> contigs;
+
+    private final int bytesPerValue;
+
+    private final float valuesPerUnit;
+
+    private DenseConservationTrack(Map<String, TrackContig> contigs, int bytesPerValue, float valuesPerUnit) {
+        this.contigs = contigs;
+        this.bytesPerValue = bytesPerValue;
+        this.valuesPerUnit = valuesPerUnit;
+    }
+
+    static int pageCount(long length) {
+        return (int) ((length + PAGE_SIZE - 1) >>> PAGE_BITS);
+    }
+
+    /**
+     * Open the conservation track stored at <code>path</code>.
+     *
+     * @param path path to the track file
+     * @return the track
+     * @throws IOException if the file is not a valid track file
+     */
+    public static DenseConservationTrack open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            readFully(channel, header, 0);
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, MAGIC))
+                throw new IOException("Not a conservation track file: `" + path + "`");
+            int version = header.getInt();
+            if (version != VERSION)
+                throw new IOException("Unsupported conservation track version " + version);
+            int pageSize = header.getInt();
+            if (pageSize != PAGE_SIZE)
+                throw new IOException("Unsupported conservation track page size " + pageSize);
+            int bytesPerValue = header.getInt();
+            if (bytesPerValue != 1 && bytesPerValue != 2)
+                throw new IOException("Unsupported number of bytes per value " + bytesPerValue);
+            float valuesPerUnit = header.getFloat();
+            long indexOffset = header.getLong();
+            if (indexOffset < HEADER_LENGTH || indexOffset > channel.size())
+                throw new IOException("Invalid index offset " + indexOffset + " in conservation track file: `" + path + "`");
+
+            ByteBuffer index = ByteBuffer.allocate((int) (channel.size() - indexOffset));
+            readFully(channel, index, indexOffset);
+
+            long pageLength = (long) PAGE_SIZE * bytesPerValue;
+            Map<String, TrackContig> contigs = new HashMap<>();
+            try (DataInputStream is = new DataInputStream(new ByteArrayInputStream(index.array()))) {
+                int count = is.readInt();
+                for (int i = 0; i < count; i++) {
+                    String name = is.readUTF();
+                    long length = is.readLong();
+                    long offset = is.readLong();
+                    int storedPageCount = is.readInt();
+                    if (length > Integer.MAX_VALUE)
+                        throw new IOException("Contig `" + name + "` is too long");
+
+                    int[] pages = new int[pageCount(length)];
+                    for (int j = 0; j < pages.length; j++) {
+                        pages[j] = is.readInt();
+                        if (pages[j] >= storedPageCount)
+                            throw new IOException("Invalid page index " + pages[j] + " for contig `" + name + "` in conservation track file: `" + path + "`");
+                    }
+
+                    long mappedLength = storedPageCount * pageLength;
+                    if (mappedLength > Integer.MAX_VALUE || offset + mappedLength > indexOffset)
+                        throw new IOException("Invalid data for contig `" + name + "` in conservation track file: `" + path + "`");
+
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, mappedLength);
+                    contigs.put(name, new TrackContig(buffer, (int) length, pages));
+                }
+            }
+            return new DenseConservationTrack(Map.copyOf(contigs), bytesPerValue, valuesPerUnit);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0)
+                throw new IOException("Unexpected end of conservation track file");
+        }
+        buffer.flip();
+    }
+
+    @Override
+    public void getScores(GenomicRegion region, float[] scores) {
+        // the scores are stored for regions on POSITIVE strand
+        GenomicRegion interval = region.toZeroBased().toPositiveStrand();
+
+        getScores(interval.contig().ucscName(), interval.start(), interval.end(), scores);
+    }
+
+    /**
+     * Write scores of the 0-based half-open interval <code>[begin, end)</code> into the first
+     * <code>end - begin</code> elements of the <code>scores</code> array. {@link Float#NaN} is written for positions
+     * with no score.
+     *
+     * @param contigName UCSC name of the contig, e.g. `chrX`
+     * @param begin      0-based begin coordinate on the positive strand
+     * @param end        0-based end coordinate on the positive strand
+     * @param scores     array to write the scores to
+     */
+    public void getScores(String contigName, int begin, int end, float[] scores) {
+        if (end < begin)
+            throw new IllegalArgumentException("End " + end + " must not be less than begin " + begin);
+        if (scores.length < end - begin)
+            throw new IllegalArgumentException("Array of length " + scores.length + " cannot hold " + (end - begin) + " scores");
+
+        TrackContig contig = contigs.get(contigName);
+        for (int pos = begin; pos < end; pos++) {
+            scores[pos - begin] = contig == null ? Float.NaN : score(contig, pos);
+        }
+    }
+
+    private float score(TrackContig contig, int pos) {
+        if (pos < 0 || pos >= contig.length)
+            return Float.NaN;
+        int page = contig.pages[pos >>> PAGE_BITS];
+        if (page < 0)
+            return Float.NaN;
+
+        int idx = (page << PAGE_BITS) | (pos & PAGE_MASK);
+        int value;
+        if (bytesPerValue == 1) {
+            value = contig.buffer.get(idx);
+            if (value == Byte.MIN_VALUE)
+                return Float.NaN;
+        } else {
+            value = contig.buffer.getShort(idx << 1);
+            if (value == Short.MIN_VALUE)
+                return Float.NaN;
+        }
+        return value / valuesPerUnit;
+    }
+
+    /**
+     * The mapped buffers are released when they are garbage collected.
+     */
+    @Override
+    public void close() {
+        // no-op
+    }
+
+    private static class TrackContig {
+        private final ByteBuffer buffer;
+        private final int length;
+        private final int[] pages;
+
+        private TrackContig(ByteBuffer buffer, int length, int[] pages) {
+            this.buffer = buffer;
+            this.length = length;
+            this.pages = pages;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2020
+ */
+
+package org.monarchinitiative.squirls.io.conservation;
+
+import org.monarchinitiative.squirls.core.scoring.calculators.conservation.ConservationTrack;
+import org.monarchinitiative.svart.Contig;
+import org.monarchinitiative.svart.CoordinateSystem;
+import org.monarchinitiative.svart.GenomicRegion;
+import org.monarchinitiative.svart.Strand;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Write scores of a {@link ConservationTrack}, such as a phyloP bigWig file, into the dense format that is read
+ * by {@link DenseConservationTrack}. Only the pages overlapping with the provided regions are stored.
+ * <p>
+ * The scores are quantized with the selected {@link Precision}. {@link Precision#SHORT} stores the scores with
+ * 3 decimal places exactly, which is the precision of the phyloP bigWig files.
+ * <p>
+ * The file layout is:
+ * <pre>
+ * header:  magic (8 bytes) | version (int) | page size (int) | bytes per value (int) | values per unit (float) | index offset (long)
+ * body:    for each contig - stored pages
+ * index:   contig count (int) | for each contig - name (UTF) | length (long) | body offset (long) | stored page count (int) | page directory (int[])
+ * </pre>
+ * The page directory contains an int for each page of the contig with the index of the page in the body or
+ * <code>-1</code> if the page is not stored.
+ */
+public class DenseConservationTrackWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DenseConservationTrackWriter.class);
+
+    /**
+     * Quantization of the scores.
+     */
+    public enum Precision {
+        /**
+         * Scores are stored in a byte with 1 decimal place, the scores are clamped into <code>[-12.7, 12.7]</code>.
+         */
+        BYTE(1, 10F),
+        /**
+         * Scores are stored in a short with 3 decimal places, the scores are clamped into <code>[-32.767, 32.767]</code>.
+         */
+        SHORT(2, 1000F);
+
+        private final int bytesPerValue;
+        private final float valuesPerUnit;
+
+        Precision(int bytesPerValue, float valuesPerUnit) {
+            this.bytesPerValue = bytesPerValue;
+            this.valuesPerUnit = valuesPerUnit;
+        }
+
+        private int missing() {
+            return bytesPerValue == 1 ? Byte.MIN_VALUE : Short.MIN_VALUE;
+        }
+
+        private int quantize(float score) {
+            if (Float.isNaN(score))
+                return missing();
+            int max = bytesPerValue == 1 ? Byte.MAX_VALUE : Short.MAX_VALUE;
+            long value = Math.round(score * (double) valuesPerUnit);
+            return (int) Math.max(-max, Math.min(max, value));
+        }
+    }
+
+    private DenseConservationTrackWriter() {
+        // static utility class
+    }
+
+    /**
+     * Store the scores of the pages overlapping with <code>regions</code> into <code>destination</code>.
+     *
+     * @param source      track to read the scores from
+     * @param regions     regions whose scores should be stored
+     * @param destination path to the track file
+     * @param precision   quantization of the scores
+     */
+    public static void write(ConservationTrack source,
+                             Collection<? extends GenomicRegion> regions,
+                             Path destination,
+                             Precision precision) throws IOException {
+        // find the pages overlapping with the regions
+        Map<Contig, BitSet> contigPages = new TreeMap<>(Comparator.comparingInt(Contig::id));
+        for (GenomicRegion region : regions) {
+            GenomicRegion interval = region.toZeroBased().toPositiveStrand();
+            int start = Math.max(interval.start(), 0);
+            int end = Math.min(interval.end(), interval.contig().length());
+            if (start >= end)
+                continue;
+            contigPages.computeIfAbsent(interval.contig(), c -> new BitSet())
+                    .set(start >>> DenseConservationTrack.PAGE_BITS, ((end - 1) >>> DenseConservationTrack.PAGE_BITS) + 1);
+        }
+
+        try (FileChannel channel = FileChannel.open(destination, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(DenseConservationTrack.HEADER_LENGTH);
+            header.put(DenseConservationTrack.MAGIC)
+                    .putInt(DenseConservationTrack.VERSION)
+                    .putInt(DenseConservationTrack.PAGE_SIZE)
+                    .putInt(precision.bytesPerValue)
+                    .putFloat(precision.valuesPerUnit)
+                    .putLong(-1L)
+                    .flip();
+            writeFully(channel, header);
+
+            List<IndexEntry> entries = new ArrayList<>(contigPages.size());
+            float[] scores = new float[DenseConservationTrack.PAGE_SIZE];
+            ByteBuffer page = ByteBuffer.allocate(DenseConservationTrack.PAGE_SIZE * precision.bytesPerValue);
+            for (Map.Entry<Contig, BitSet> entry : contigPages.entrySet()) {
+                Contig contig = entry.getKey();
+                BitSet stored = entry.getValue();
+                long offset = channel.position();
+                int[] pages = new int[DenseConservationTrack.pageCount(contig.length())];
+                Arrays.fill(pages, -1);
+
+                int pageIndex = 0;
+                for (int p = stored.nextSetBit(0); p >= 0; p = stored.nextSetBit(p + 1)) {
+                    int start = p << DenseConservationTrack.PAGE_BITS;
+                    int end = Math.min(start + DenseConservationTrack.PAGE_SIZE, contig.length());
+                    Arrays.fill(scores, Float.NaN);
+                    source.getScores(GenomicRegion.of(contig, Strand.POSITIVE, CoordinateSystem.zeroBased(), start, end), scores);
+
+                    page.clear();
+                    for (float score : scores) {
+                        int value = precision.quantize(score);
+                        if (precision.bytesPerValue == 1)
+                            page.put((byte) value);
+                        else
+                            page.putShort((short) value);
+                    }
+                    writeFully(channel, page.flip());
+                    pages[p] = pageIndex++;
+                }
+
+                if (LOGGER.isDebugEnabled())
+                    LOGGER.debug("Stored {}/{} pages of `{}`", pageIndex, pages.length, contig.ucscName());
+                entries.add(new IndexEntry(contig.ucscName(), contig.length(), offset, pageIndex, pages));
+            }
+
+            long indexOffset = channel.position();
+            writeFully(channel, encodeIndex(entries));
+
+            ByteBuffer indexOffsetBuffer = ByteBuffer.allocate(Long.BYTES);
+            indexOffsetBuffer.putLong(indexOffset).flip();
+            channel.position(DenseConservationTrack.HEADER_LENGTH - Long.BYTES);
+            writeFully(channel, indexOffsetBuffer);
+        }
+    }
+
+    private static ByteBuffer encodeIndex(List<IndexEntry> entries) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DataOutputStream os = new DataOutputStream(baos)) {
+            os.writeInt(entries.size());
+            for (IndexEntry entry : entries) {
+                os.writeUTF(entry.name);
+                os.writeLong(entry.length);
+                os.writeLong(entry.offset);
+                os.writeInt(entry.storedPageCount);
+                for (int page : entry.pages) {
+                    os.writeInt(page);
+                }
+            }
+        }
+        return ByteBuffer.wrap(baos.toByteArray());
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static class IndexEntry {
+        private final String name;
+        private final long length;
+        private final long offset;
+        private final int storedPageCount;
+        private final int[] pages;
+
+        private IndexEntry(String name, long length, long offset, int storedPageCount, int[] pages) {
+            this.name = name;
+            this.length = length;
+            this.offset = offset;
+            this.storedPageCount = storedPageCount;
+            this.pages = pages;
+        }
+    }
+}
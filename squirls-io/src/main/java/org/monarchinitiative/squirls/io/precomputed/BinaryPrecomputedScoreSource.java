@@ -0,0 +1,441 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2020
+ */
+
+package org.monarchinitiative.squirls.io.precomputed;
+
+import org.monarchinitiative.squirls.core.*;
+import org.monarchinitiative.squirls.io.SquirlsResourceException;
+import org.monarchinitiative.svart.CoordinateSystem;
+import org.monarchinitiative.svart.GenomicVariant;
+import org.monarchinitiative.svart.Strand;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * {@link PrecomputedScoreSource} backed by a memory-mapped binary score store written by {@link BinaryScoreStoreWriter}.
+ * <p>
+ * The score of an SNV is found by a binary search of the block that contains the variant position, followed by
+ * a direct read of the score at the offset computed from the position and the alt base. The indels are looked up by
+ * a binary search within the indel section of the block.
+ * <p>
+ * The store keeps only the maximum score of a variant, hence the result contains a single prediction made with respect
+ * to the {@link TabixPrecomputedScoreSource#UNKNOWN_ACCESSION} transcript. The blocks are read from the read-only
+ * buffers using absolute reads, hence the instance can be queried from multiple threads without synchronization.
+ */
+public class BinaryPrecomputedScoreSource implements PrecomputedScoreSource {
+
+    static final byte[] MAGIC = "SQRLSSCR".getBytes(StandardCharsets.US_ASCII);
+
+    static final int VERSION = 1;
+
+    static final int HEADER_LENGTH = MAGIC.length + Integer.BYTES + Double.BYTES + Long.BYTES;
+
+    /**
+     * Value of a variant that has no score.
+     */
+    static final char MISSING = 0x7FFF;
+
+    private static final char PATHOGENIC_FLAG = 0x8000;
+
+    private static final int MAX_QUANTIZED = MISSING - 1;
+
+    private static final String BASES = "ACGT";
+
+    private final double threshold;
+
+    private final Map<String, ScoreContig> contigs;
+
+    private BinaryPrecomputedScoreSource(double threshold, Map<String, ScoreContig> contigs) {
+        this.threshold = threshold;
+        this.contigs = contigs;
+    }
+
+    /**
+     * @return true if the file at <code>path</code> starts with the magic bytes of the binary score store
+     */
+    public static boolean isBinaryScoreStore(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(MAGIC.length);
+            while (magic.hasRemaining()) {
+                if (channel.read(magic) < 0)
+                    return false;
+            }
+            return Arrays.equals(magic.array(), MAGIC);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public static BinaryPrecomputedScoreSource of(Path path) throws SquirlsResourceException {
+        if (!Files.isRegularFile(path))
+            throw new SquirlsResourceException(String.format("Precomputed scores file `%s` does not exist", path.toAbsolutePath()));
+        try {
+            return open(path);
+        } catch (IOException e) {
+            throw new SquirlsResourceException(e);
+        }
+    }
+
+    private static BinaryPrecomputedScoreSource open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            readFully(channel, header, 0);
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, MAGIC))
+                throw new IOException("Not a binary score store: `" + path + "`");
+            int version = header.getInt();
+            if (version != VERSION)
+                throw new IOException("Unsupported binary score store version " + version);
+            double threshold = header.getDouble();
+            long indexOffset = header.getLong();
+            if (indexOffset < HEADER_LENGTH || indexOffset > channel.size())
+                throw new IOException("Invalid index offset " + indexOffset + " in binary score store: `" + path + "`");
+
+            ByteBuffer index = ByteBuffer.allocate((int) (channel.size() - indexOffset));
+            readFully(channel, index, indexOffset);
+
+            Map<String, ScoreContig> contigs = new HashMap<>();
+            try (DataInputStream is = new DataInputStream(new ByteArrayInputStream(index.array()))) {
+                int contigCount = is.readInt();
+                for (int i = 0; i < contigCount; i++) {
+                    String name = is.readUTF();
+                    int blockCount = is.readInt();
+                    int[] starts = new int[blockCount];
+                    int[] ends = new int[blockCount];
+                    long[] offsets = new long[blockCount];
+                    int[] indelCounts = new int[blockCount];
+                    int[] allelesLengths = new int[blockCount];
+                    for (int j = 0; j < blockCount; j++) {
+                        starts[j] = is.readInt();
+                        ends[j] = is.readInt();
+                        offsets[j] = is.readLong();
+                        indelCounts[j] = is.readInt();
+                        allelesLengths[j] = is.readInt();
+                    }
+                    if (blockCount == 0)
+                        continue;
+
+                    // the blocks of a contig are stored next to each other, we map them all at once
+                    long contigOffset = offsets[0];
+                    long contigEnd = offsets[blockCount - 1] + blockLength(ends[blockCount - 1] - starts[blockCount - 1],
+                            indelCounts[blockCount - 1], allelesLengths[blockCount - 1]);
+                    if (contigEnd - contigOffset > Integer.MAX_VALUE || contigEnd > indexOffset)
+                        throw new IOException("Invalid data for contig `" + name + "` in binary score store: `" + path + "`");
+
+                    int[] blockOffsets = new int[blockCount];
+                    for (int j = 0; j < blockCount; j++)
+                        blockOffsets[j] = (int) (offsets[j] - contigOffset);
+
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, contigOffset, contigEnd - contigOffset);
+                    contigs.put(name, new ScoreContig(buffer, starts, ends, blockOffsets, indelCounts));
+                }
+            }
+            return new BinaryPrecomputedScoreSource(threshold, Map.copyOf(contigs));
+        }
+    }
+
+    private static long blockLength(int length, int indelCount, int allelesLength) {
+        return length + (long) length * 3 * Character.BYTES
+                + (long) indelCount * (Integer.BYTES + Character.BYTES)
+                + (long) (indelCount + 1) * Integer.BYTES
+                + allelesLength;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0)
+                throw new IOException("Unexpected end of binary score store");
+        }
+        buffer.flip();
+    }
+
+    static char encode(double score, boolean pathogenic) {
+        if (Double.isNaN(score))
+            return MISSING;
+        int quantized = (int) Math.round(Math.max(0., Math.min(1., score)) * MAX_QUANTIZED);
+        return (char) (pathogenic ? quantized | PATHOGENIC_FLAG : quantized);
+    }
+
+    static double decodeScore(char value) {
+        return (double) (value & MISSING) / MAX_QUANTIZED;
+    }
+
+    static boolean decodePathogenic(char value) {
+        return (value & PATHOGENIC_FLAG) != 0;
+    }
+
+    /**
+     * @return index of the SNV score among the three scores stored for the <code>ref</code> base or <code>-1</code>
+     * if the SNV is not stored in the binary score store
+     */
+    static int slot(char ref, char alt) {
+        int refIdx = BASES.indexOf(Character.toUpperCase(ref));
+        int altIdx = BASES.indexOf(Character.toUpperCase(alt));
+        if (refIdx < 0 || altIdx < 0 || refIdx == altIdx)
+            return -1;
+        return altIdx < refIdx ? altIdx : altIdx - 1;
+    }
+
+    /**
+     * @return pathogenicity threshold stored in the file or <code>NaN</code> if the threshold is not available
+     */
+    public double threshold() {
+        return threshold;
+    }
+
+    @Override
+    public Optional<SquirlsResult> lookup(GenomicVariant variant) {
+        ScoreContig contig = contigs.get(variant.contig().name());
+        if (contig == null) {
+            contig = contigs.get(variant.contig().ucscName());
+            if (contig == null)
+                return Optional.empty();
+        }
+
+        GenomicVariant onPositive = variant.withStrand(Strand.POSITIVE);
+        int start = onPositive.startWithCoordinateSystem(CoordinateSystem.oneBased());
+        String ref = onPositive.ref();
+        String alt = onPositive.alt();
+
+        char value;
+        if (ref.length() == 1 && alt.length() == 1) {
+            value = contig.snv(start, ref.charAt(0), alt.charAt(0));
+        } else {
+            // the indels are stored in the VCF notation with the preceding base
+            boolean padded = ref.isEmpty() || alt.isEmpty();
+            int position = padded ? start - 1 : start;
+            value = contig.indel(position, ref, alt, padded);
+        }
+
+        return value == MISSING
+                ? Optional.empty()
+                : Optional.of(result(value));
+    }
+
+    private SquirlsResult result(char value) {
+        double score = decodeScore(value);
+        boolean pathogenic = decodePathogenic(value);
+        // the threshold must be consistent with the pathogenicity despite the quantization of the score
+        double effectiveThreshold;
+        if (pathogenic)
+            effectiveThreshold = Double.isNaN(threshold) ? Math.nextDown(score) : Math.min(threshold, Math.nextDown(score));
+        else
+            effectiveThreshold = Double.isNaN(threshold) ? score : Math.max(threshold, score);
+
+        Prediction prediction = Prediction.of(TabixPrecomputedScoreSource.PREDICTION_NAME, score, effectiveThreshold);
+        return SquirlsResult.of(List.of(SquirlsTxResult.of(TabixPrecomputedScoreSource.UNKNOWN_ACCESSION, prediction, Map.of())));
+    }
+
+    @Override
+    public String toString() {
+        return "BinaryPrecomputedScoreSource{" +
+                "threshold=" + threshold +
+                ", contigs=" + contigs.keySet() +
+                '}';
+    }
+
+    private static class ScoreContig {
+        private final ByteBuffer buffer;
+        private final int[] starts;
+        private final int[] ends;
+        private final int[] offsets;
+        private final int[] indelCounts;
+
+        private ScoreContig(ByteBuffer buffer, int[] starts, int[] ends, int[] offsets, int[] indelCounts) {
+            this.buffer = buffer;
+            this.starts = starts;
+            this.ends = ends;
+            this.offsets = offsets;
+            this.indelCounts = indelCounts;
+        }
+
+        /**
+         * @param pos 0-based position
+         * @return index of the block that contains <code>pos</code> or <code>-1</code>
+         */
+        private int blockIndex(int pos) {
+            int lo = 0, hi = starts.length - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (ends[mid] <= pos)
+                    lo = mid + 1;
+                else if (starts[mid] > pos)
+                    hi = mid - 1;
+                else
+                    return mid;
+            }
+            return -1;
+        }
+
+        /**
+         * @param position 1-based position
+         */
+        private char snv(int position, char ref, char alt) {
+            int block = blockIndex(position - 1);
+            if (block < 0)
+                return MISSING;
+
+            int slot = slot(ref, alt);
+            if (slot < 0)
+                return MISSING;
+
+            int idx = position - 1 - starts[block];
+            int offset = offsets[block];
+            if (buffer.get(offset + idx) != Character.toUpperCase(ref))
+                return MISSING;
+
+            int length = ends[block] - starts[block];
+            return buffer.getChar(offset + length + (3 * idx + slot) * Character.BYTES);
+        }
+
+        /**
+         * @param position 1-based VCF position of the indel
+         */
+        private char indel(int position, String ref, String alt, boolean padded) {
+            // a deletion with the preceding base can start one base before the block it belongs to
+            int block = blockIndex(position - 1);
+            char value = block < 0 ? MISSING : indelInBlock(block, position, ref, alt, padded);
+            if (value == MISSING) {
+                int next = blockIndex(position);
+                if (next >= 0 && next != block)
+                    value = indelInBlock(next, position, ref, alt, padded);
+            }
+            return value;
+        }
+
+        private char indelInBlock(int block, int position, String ref, String alt, boolean padded) {
+            int length = ends[block] - starts[block];
+            int count = indelCounts[block];
+            int positionsOffset = offsets[block] + length + 3 * length * Character.BYTES;
+            int scoresOffset = positionsOffset + count * Integer.BYTES;
+            int allelesOffsetsOffset = scoresOffset + count * Character.BYTES;
+            int allelesOffset = allelesOffsetsOffset + (count + 1) * Integer.BYTES;
+
+            // find the first indel at the position
+            int lo = 0, hi = count;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (buffer.getInt(positionsOffset + mid * Integer.BYTES) < position)
+                    lo = mid + 1;
+                else
+                    hi = mid;
+            }
+
+            for (int i = lo; i < count && buffer.getInt(positionsOffset + i * Integer.BYTES) == position; i++) {
+                int from = allelesOffset + buffer.getInt(allelesOffsetsOffset + i * Integer.BYTES);
+                int to = allelesOffset + buffer.getInt(allelesOffsetsOffset + (i + 1) * Integer.BYTES);
+                if (allelesMatch(from, to, ref, alt, padded))
+                    return buffer.getChar(scoresOffset + i * Character.BYTES);
+            }
+            return MISSING;
+        }
+
+        /**
+         * Compare the alleles stored as <code>REF&gt;ALT</code> in <code>[from, to)</code> with the query alleles.
+         * The first base of the stored alleles is skipped if the query is <code>padded</code>.
+         */
+        private boolean allelesMatch(int from, int to, String ref, String alt, boolean padded) {
+            int skip = padded ? 1 : 0;
+            int refLength = ref.length() + skip;
+            if (to - from != refLength + 1 + alt.length() + skip)
+                return false;
+            if (buffer.get(from + refLength) != '>')
+                return false;
+            for (int i = 0; i < ref.length(); i++) {
+                if (buffer.get(from + skip + i) != Character.toUpperCase(ref.charAt(i)))
+                    return false;
+            }
+            int altFrom = from + refLength + 1 + skip;
+            for (int i = 0; i < alt.length(); i++) {
+                if (buffer.get(altFrom + i) != Character.toUpperCase(alt.charAt(i)))
+                    return false;
+            }
+            return true;
+        }
+    }
+}
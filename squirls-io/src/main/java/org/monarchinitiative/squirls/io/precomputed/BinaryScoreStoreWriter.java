@@ -0,0 +1,339 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2020
+ */
+
+package org.monarchinitiative.squirls.io.precomputed;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Write precomputed scores into the binary score store that is read by {@link BinaryPrecomputedScoreSource}.
+ * <p>
+ * The scores are written in blocks that correspond to the precalculated genomic regions. For each base of a block,
+ * the store holds the reference base and the scores of the three possible SNVs, ordered by the alt base
+ * (<code>A</code>, <code>C</code>, <code>G</code>, <code>T</code>, skipping the reference base). The scores of the
+ * indels are stored in a sparse section that follows the SNV data of the block. The indels are stored in the VCF
+ * notation, where the deletions and insertions include the preceding base.
+ * <p>
+ * A score is quantized into 15 bits of a <code>char</code>, and the remaining bit is set if the variant is
+ * pathogenic. The file layout is:
+ * <pre>
+ * header:  magic (8 bytes) | version (int) | threshold (double) | index offset (long)
+ * body:    for each block - reference bases | SNV scores | indel positions | indel scores | indel allele offsets | indel alleles
+ * index:   contig count (int) | for each contig - name (UTF) | block count (int) | for each block - start (int) | end (int) | body offset (long) | indel count (int) | indel alleles length (int)
+ * </pre>
+ * The block start and end represent a 0-based half-open interval on the positive strand. The indel positions are
+ * 1-based VCF positions, and the alleles of an indel are stored as ASCII <code>REF&gt;ALT</code>.
+ * <p>
+ * The blocks must be written in ascending order of their coordinates and the blocks of a contig must be written
+ * without interleaving with the blocks of other contigs.
+ */
+public class BinaryScoreStoreWriter implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BinaryScoreStoreWriter.class);
+
+    private final FileChannel channel;
+
+    private final Map<String, List<BlockEntry>> index = new LinkedHashMap<>();
+
+    private String currentContig;
+
+    private Block block;
+
+    private boolean closed = false;
+
+    private BinaryScoreStoreWriter(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Open a writer for the scores calculated by a classifier with given <code>threshold</code>.
+     *
+     * @param destination where to write the scores
+     * @param threshold   pathogenicity threshold or <code>NaN</code> if not available
+     * @return the writer
+     */
+    public static BinaryScoreStoreWriter open(Path destination, double threshold) throws IOException {
+        FileChannel channel = FileChannel.open(destination, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(BinaryPrecomputedScoreSource.HEADER_LENGTH);
+        header.put(BinaryPrecomputedScoreSource.MAGIC)
+                .putInt(BinaryPrecomputedScoreSource.VERSION)
+                .putDouble(threshold)
+                .putLong(-1L)
+                .flip();
+        try {
+            writeFully(channel, header);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new BinaryScoreStoreWriter(channel);
+    }
+
+    /**
+     * Start a new block spanning the 0-based half-open interval <code>[start, end)</code> on the positive strand of
+     * the <code>contig</code>. The previous block is written to the file.
+     */
+    public void startBlock(String contig, int start, int end) throws IOException {
+        if (start < 0 || end < start)
+            throw new IllegalArgumentException("Invalid block coordinates " + contig + ':' + start + '-' + end);
+        flushBlock();
+
+        List<BlockEntry> blocks = index.get(contig);
+        if (blocks == null) {
+            index.put(contig, new ArrayList<>());
+        } else if (!contig.equals(currentContig)) {
+            throw new IllegalStateException("Blocks of contig `" + contig + "` must not be interleaved with other contigs");
+        } else if (!blocks.isEmpty() && start < blocks.get(blocks.size() - 1).end) {
+            BlockEntry last = blocks.get(blocks.size() - 1);
+            throw new IllegalStateException("Block " + contig + ':' + start + '-' + end + " overlaps with or precedes the previous block " + contig + ':' + last.start + '-' + last.end);
+        }
+        currentContig = contig;
+        block = new Block(contig, start, end);
+    }
+
+    /**
+     * Add score of a variant in VCF notation to the current block.
+     *
+     * @param position   1-based position of the variant
+     * @param ref        reference allele
+     * @param alt        alternate allele
+     * @param score      Squirls score
+     * @param pathogenic true if the variant is considered to be pathogenic
+     */
+    public void add(int position, String ref, String alt, double score, boolean pathogenic) {
+        if (block == null)
+            throw new IllegalStateException("No block has been started");
+        char value = BinaryPrecomputedScoreSource.encode(score, pathogenic);
+        if (ref.length() == 1 && alt.length() == 1) {
+            int idx = position - 1 - block.start;
+            if (idx < 0 || idx >= block.refs.length)
+                throw new IllegalArgumentException("SNV at " + block.contig + ':' + position + " is outside of the current block " + block.contig + ':' + block.start + '-' + block.end);
+            int slot = BinaryPrecomputedScoreSource.slot(ref.charAt(0), alt.charAt(0));
+            if (slot < 0) {
+                if (LOGGER.isDebugEnabled())
+                    LOGGER.debug("Skipping SNV with unsupported alleles {}:{}{}>{}", block.contig, position, ref, alt);
+                return;
+            }
+            block.refs[idx] = (byte) Character.toUpperCase(ref.charAt(0));
+            block.snvs[3 * idx + slot] = value;
+        } else {
+            block.indels.add(new Indel(position, (ref + '>' + alt).toUpperCase(Locale.ROOT), value));
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (block == null)
+            return;
+
+        List<Indel> indels = block.indels;
+        indels.sort(Comparator.comparingInt(i -> i.position));
+        int allelesLength = 0;
+        for (Indel indel : indels)
+            allelesLength += indel.alleles.length();
+
+        int n = indels.size();
+        ByteBuffer buffer = ByteBuffer.allocate(block.refs.length
+                + block.snvs.length * Character.BYTES
+                + n * (Integer.BYTES + Character.BYTES)
+                + (n + 1) * Integer.BYTES
+                + allelesLength);
+        buffer.put(block.refs);
+        for (char snv : block.snvs)
+            buffer.putChar(snv);
+        for (Indel indel : indels)
+            buffer.putInt(indel.position);
+        for (Indel indel : indels)
+            buffer.putChar(indel.score);
+        int offset = 0;
+        for (Indel indel : indels) {
+            buffer.putInt(offset);
+            offset += indel.alleles.length();
+        }
+        buffer.putInt(offset);
+        for (Indel indel : indels)
+            buffer.put(indel.alleles.getBytes(StandardCharsets.US_ASCII));
+
+        long bodyOffset = channel.position();
+        writeFully(channel, buffer.flip());
+        index.get(block.contig).add(new BlockEntry(block.start, block.end, bodyOffset, n, allelesLength));
+        block = null;
+    }
+
+    private ByteBuffer encodeIndex() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DataOutputStream os = new DataOutputStream(baos)) {
+            os.writeInt(index.size());
+            for (Map.Entry<String, List<BlockEntry>> entry : index.entrySet()) {
+                os.writeUTF(entry.getKey());
+                os.writeInt(entry.getValue().size());
+                for (BlockEntry block : entry.getValue()) {
+                    os.writeInt(block.start);
+                    os.writeInt(block.end);
+                    os.writeLong(block.offset);
+                    os.writeInt(block.indelCount);
+                    os.writeInt(block.allelesLength);
+                }
+            }
+        }
+        return ByteBuffer.wrap(baos.toByteArray());
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Write the current block and the index, and close the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+        try {
+            flushBlock();
+            long indexOffset = channel.position();
+            writeFully(channel, encodeIndex());
+
+            ByteBuffer indexOffsetBuffer = ByteBuffer.allocate(Long.BYTES);
+            indexOffsetBuffer.putLong(indexOffset).flip();
+            channel.position(BinaryPrecomputedScoreSource.HEADER_LENGTH - Long.BYTES);
+            writeFully(channel, indexOffsetBuffer);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static class Block {
+        private final String contig;
+        private final int start;
+        private final int end;
+        private final byte[] refs;
+        private final char[] snvs;
+        private final List<Indel> indels = new ArrayList<>();
+
+        private Block(String contig, int start, int end) {
+            this.contig = contig;
+            this.start = start;
+            this.end = end;
+            this.refs = new byte[end - start];
+            this.snvs = new char[3 * (end - start)];
+            Arrays.fill(snvs, BinaryPrecomputedScoreSource.MISSING);
+        }
+    }
+
+    private static class Indel {
+        private final int position;
+        private final String alleles;
+        private final char score;
+
+        private Indel(int position, String alleles, char score) {
+            this.position = position;
+            this.alleles = alleles;
+            this.score = score;
+        }
+    }
+
+    private static class BlockEntry {
+        private final int start;
+        private final int end;
+        private final long offset;
+        private final int indelCount;
+        private final int allelesLength;
+
+        private BlockEntry(int start, int end, long offset, int indelCount, int allelesLength) {
+            this.start = start;
+            this.end = end;
+            this.offset = offset;
+            this.indelCount = indelCount;
+            this.allelesLength = allelesLength;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2020
+ */
+
+package org.monarchinitiative.squirls.io.precomputed;
+
+import htsjdk.tribble.readers.TabixReader;
+import org.monarchinitiative.squirls.core.*;
+import org.monarchinitiative.squirls.io.SquirlsResourceException;
+import org.monarchinitiative.svart.CoordinateSystem;
+import org.monarchinitiative.svart.GenomicVariant;
+import org.monarchinitiative.svart.Strand;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * {@link PrecomputedScoreSource} backed by a bgzipped and tabix-indexed VCF file with precomputed scores, as written
+ * by the <code>precalculate</code> command.
+ * <p>
+ * The scores are read from the <code>SQ</code> INFO field, or from the <code>ISQ</code> field if the scores for
+ * the individual transcripts are present. The scores are rounded in the file, hence the prediction is considered
+ * pathogenic if the record has the <code>SQ</code> filter. The pathogenicity threshold is read from the
+ * {@link #THRESHOLD_HEADER_KEY} header line and adjusted to be consistent with the filter. If the line is missing,
+ * only the transcripts with the maximum score of a filtered record are pathogenic. Only the score, the transcript
+ * accession IDs and the pathogenicity are restored, the feature values are not stored in the file.
+ * <p>
+ * Each thread queries the file using its own {@link TabixReader}, hence the class is safe to use from multiple threads.
+ */
+public class TabixPrecomputedScoreSource implements PrecomputedScoreSource, Closeable {
+
+    /**
+     * Key of the header line with the pathogenicity threshold of the classifier that calculated the scores.
+     */
+    public static final String THRESHOLD_HEADER_KEY = "squirlsThreshold";
+
+    /**
+     * Name of the {@link PartialPrediction} restored from the file.
+     */
+    public static final String PREDICTION_NAME = "precomputed";
+
+    /**
+     * Transcript accession used when the scores for the individual transcripts are not present in the file.
+     */
+    public static final String UNKNOWN_ACCESSION = "N/A";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TabixPrecomputedScoreSource.class);
+
+    private static final String SCORE_FIELD = "SQ";
+    private static final String INDIVIDUAL_SCORE_FIELD = "ISQ";
+    private static final String PATHOGENIC_FILTER = "SQ";
+
+    private final Path scoresPath;
+
+    private final Path indexPath;
+
+    private final Set<String> chromosomes;
+
+    private final double threshold;
+
+    private final Queue<TabixReader> readers = new ConcurrentLinkedQueue<>();
+
+    private final ThreadLocal<TabixReader> reader = ThreadLocal.withInitial(this::openReader);
+
+    public static TabixPrecomputedScoreSource of(Path scoresPath) throws SquirlsResourceException {
+        return of(scoresPath, Path.of(scoresPath.toAbsolutePath() + ".tbi"));
+    }
+
+    public static TabixPrecomputedScoreSource of(Path scoresPath, Path indexPath) throws SquirlsResourceException {
+        if (!Files.isRegularFile(scoresPath))
+            throw new SquirlsResourceException(String.format("Precomputed scores file `%s` does not exist", scoresPath.toAbsolutePath()));
+        if (!Files.isRegularFile(indexPath))
+            throw new SquirlsResourceException(String.format("Tabix index `%s` does not exist", indexPath.toAbsolutePath()));
+
+        return new TabixPrecomputedScoreSource(scoresPath, indexPath);
+    }
+
+    private TabixPrecomputedScoreSource(Path scoresPath, Path indexPath) throws SquirlsResourceException {
+        this.scoresPath = scoresPath;
+        this.indexPath = indexPath;
+        try (TabixReader tabixReader = new TabixReader(scoresPath.toAbsolutePath().toString(), indexPath.toAbsolutePath().toString())) {
+            this.chromosomes = Set.copyOf(tabixReader.getChromosomes());
+            this.threshold = readThreshold(tabixReader);
+        } catch (IOException e) {
+            throw new SquirlsResourceException(e);
+        }
+        if (Double.isNaN(threshold)) {
+            if (LOGGER.isWarnEnabled())
+                LOGGER.warn("Pathogenicity threshold is missing in `{}`. Using the filter column to decide the pathogenicity", scoresPath.toAbsolutePath());
+        }
+    }
+
+    private static double readThreshold(TabixReader tabixReader) throws IOException {
+        String prefix = "##" + THRESHOLD_HEADER_KEY + '=';
+        String line;
+        while ((line = tabixReader.readLine()) != null && line.startsWith("#")) {
+            if (line.startsWith(prefix)) {
+                try {
+                    return Double.parseDouble(line.substring(prefix.length()));
+                } catch (NumberFormatException e) {
+                    LOGGER.warn("Invalid threshold header line `{}`", line);
+                }
+            }
+        }
+        return Double.NaN;
+    }
+
+    private TabixReader openReader() {
+        try {
+            TabixReader tabixReader = new TabixReader(scoresPath.toAbsolutePath().toString(), indexPath.toAbsolutePath().toString());
+            readers.add(tabixReader);
+            return tabixReader;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return pathogenicity threshold stored in the file or <code>NaN</code> if the threshold is not available
+     */
+    public double threshold() {
+        return threshold;
+    }
+
+    @Override
+    public Optional<SquirlsResult> lookup(GenomicVariant variant) {
+        String chromosome;
+        if (chromosomes.contains(variant.contig().name()))
+            chromosome = variant.contig().name();
+        else if (chromosomes.contains(variant.contig().ucscName()))
+            chromosome = variant.contig().ucscName();
+        else
+            return Optional.empty();
+
+        GenomicVariant onPositive = variant.withStrand(Strand.POSITIVE);
+        int start = onPositive.startWithCoordinateSystem(CoordinateSystem.oneBased());
+        String ref = onPositive.ref();
+        String alt = onPositive.alt();
+        // the record is padded with the preceding base if one of the alleles is empty
+        boolean padded = ref.isEmpty() || alt.isEmpty();
+        int position = padded ? start - 1 : start;
+
+        try {
+            // the query coordinates are 0-based
+            TabixReader.Iterator iterator = reader.get().query(chromosome, position - 1, position);
+            String line;
+            while ((line = iterator.next()) != null) {
+                String[] fields = line.split("\t", 9);
+                if (fields.length < 8 || Integer.parseInt(fields[1]) != position)
+                    continue;
+
+                if (allelesMatch(fields[3], fields[4], ref, alt, padded))
+                    return Optional.of(parseResult(fields[6], fields[7]));
+            }
+        } catch (IOException | UncheckedIOException | NumberFormatException e) {
+            if (LOGGER.isWarnEnabled())
+                LOGGER.warn("Error reading precomputed scores for {}:{}{}>{}: {}", variant.contigName(), start, ref, alt, e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    private static boolean allelesMatch(String recordRef, String recordAlt, String ref, String alt, boolean padded) {
+        if (padded) {
+            return recordRef.length() == ref.length() + 1 && recordAlt.length() == alt.length() + 1
+                    && recordRef.regionMatches(true, 1, ref, 0, ref.length())
+                    && recordAlt.regionMatches(true, 1, alt, 0, alt.length());
+        } else {
+            return recordRef.equalsIgnoreCase(ref) && recordAlt.equalsIgnoreCase(alt);
+        }
+    }
+
+    private SquirlsResult parseResult(String filter, String info) {
+        double score = Double.NaN;
+        String individualScores = null;
+        for (String field : info.split(";")) {
+            int idx = field.indexOf('=');
+            if (idx < 0)
+                continue;
+            String key = field.substring(0, idx);
+            if (key.equals(SCORE_FIELD))
+                score = Double.parseDouble(field.substring(idx + 1));
+            else if (key.equals(INDIVIDUAL_SCORE_FIELD))
+                individualScores = field.substring(idx + 1);
+        }
+
+        List<String> accessionIds = new ArrayList<>();
+        List<Double> scores = new ArrayList<>();
+        if (individualScores == null) {
+            accessionIds.add(UNKNOWN_ACCESSION);
+            scores.add(score);
+        } else {
+            for (String txScore : individualScores.split("\\|")) {
+                int idx = txScore.indexOf('=');
+                if (idx < 0)
+                    continue;
+                accessionIds.add(txScore.substring(0, idx));
+                scores.add(Double.parseDouble(txScore.substring(idx + 1)));
+            }
+        }
+
+        // the scores are rounded in the file, hence the filter decides the pathogenicity
+        // and the threshold must be consistent with it, as in BinaryPrecomputedScoreSource
+        boolean pathogenic = Arrays.asList(filter.split(";")).contains(PATHOGENIC_FILTER);
+        double maxScore = scores.stream().mapToDouble(Double::doubleValue).max().orElse(score);
+        double recordThreshold;
+        if (pathogenic)
+            recordThreshold = Double.isNaN(threshold) ? Math.nextDown(maxScore) : Math.min(threshold, Math.nextDown(maxScore));
+        else
+            recordThreshold = Double.isNaN(threshold) ? maxScore : Math.max(threshold, maxScore);
+
+        List<SquirlsTxResult> results = new ArrayList<>(scores.size());
+        for (int i = 0; i < scores.size(); i++)
+            results.add(txResult(accessionIds.get(i), scores.get(i), recordThreshold));
+        return SquirlsResult.of(results);
+    }
+
+    private static SquirlsTxResult txResult(String accessionId, double score, double threshold) {
+        return SquirlsTxResult.of(accessionId, Prediction.of(PREDICTION_NAME, score, threshold), Map.of());
+    }
+
+    @Override
+    public void close() {
+        TabixReader tabixReader;
+        while ((tabixReader = readers.poll()) != null)
+            tabixReader.close();
+    }
+
+    @Override
+    public String toString() {
+        return "TabixPrecomputedScoreSource{" +
+                "scoresPath=" + scoresPath +
+                ", threshold=" + threshold +
+                '}';
+    }
+}
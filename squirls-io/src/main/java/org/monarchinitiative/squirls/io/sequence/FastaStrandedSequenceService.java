@@ -78,30 +78,20 @@ package org.monarchinitiative.squirls.io.sequence;
 
 import htsjdk.samtools.SAMException;
 import htsjdk.samtools.SAMSequenceDictionary;
-import htsjdk.samtools.SAMSequenceRecord;
 import htsjdk.samtools.reference.FastaSequenceIndex;
 import htsjdk.samtools.reference.IndexedFastaSequenceFile;
 import htsjdk.samtools.reference.ReferenceSequence;
-import htsjdk.variant.utils.SAMSequenceDictionaryExtractor;
 import org.monarchinitiative.squirls.core.reference.StrandedSequence;
 import org.monarchinitiative.squirls.core.reference.StrandedSequenceService;
 import org.monarchinitiative.svart.Contig;
 import org.monarchinitiative.svart.GenomicRegion;
 import org.monarchinitiative.svart.assembly.GenomicAssembly;
-import org.monarchinitiative.svart.assembly.SequenceRole;
 import org.monarchinitiative.svart.parsers.GenomicAssemblyParser;
 import org.monarchinitiative.svart.util.Seq;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.file.Path;
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.function.Function;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 /**
  * Implementation of {@link StrandedSequenceService} that uses HtsJDK to fetch sequence from a single indexed FASTA file
@@ -124,64 +114,9 @@ public class FastaStrandedSequenceService implements StrandedSequenceService, Au
     public FastaStrandedSequenceService(Path assemblyReportPath, Path fastaPath, Path fastaFai, Path fastaDict) throws InvalidFastaFileException {
         this.assembly = GenomicAssemblyParser.parseAssembly(assemblyReportPath);
         this.fasta = new IndexedFastaSequenceFile(fastaPath, new FastaSequenceIndex(fastaFai));
-        SAMSequenceDictionary sequenceDictionary = buildSequenceDictionary(fastaDict);
-        this.usesPrefix = figureOutPrefix(sequenceDictionary);
-        check(assembly, sequenceDictionary);
-    }
-
-    private static void check(GenomicAssembly assembly, SAMSequenceDictionary sequenceDictionary) throws InvalidFastaFileException {
-        // we require assembly contigs with `SequenceRole.ASSEMBLED_MOLECULE` to be present in the FASTA file
-        Set<String> assemblyContigNames = assembly.contigs().stream()
-                .filter(c -> c.sequenceRole().equals(SequenceRole.ASSEMBLED_MOLECULE))
-                .map(c -> List.of(c.name(), c.refSeqAccession(), c.genBankAccession(), c.ucscName()))
-                .flatMap(Collection::stream)
-                .collect(Collectors.toSet());
-        Set<String> dictContigNames = sequenceDictionary.getSequences().stream()
-                .map(SAMSequenceRecord::getSequenceName)
-                .filter(name -> !(name.startsWith("chrUn") || name.contains("random") || name.contains("hap") || name.endsWith("alt")))
-                .collect(Collectors.toSet());
-        if (!assemblyContigNames.containsAll(dictContigNames)) {
-            throw new InvalidFastaFileException("Required contigs are missing in FASTA file");
-        }
-
-        // check that contig lengths match
-        Map<String, Integer> assemblyContigLengths = assemblyContigNames.stream()
-                .collect(Collectors.toMap(Function.identity(), contigName -> assembly.contigByName(contigName).length()));
-
-        Map<String, Integer> dictionaryContigLengths = dictContigNames.stream()
-                .collect(Collectors.toMap(Function.identity(), contigName -> sequenceDictionary.getSequence(contigName).getSequenceLength()));
-
-        boolean lengthMismatch = false;
-        for (String dictContig : dictionaryContigLengths.keySet()) {
-            int dictContigLength = dictionaryContigLengths.get(dictContig);
-            int assemblyContigLength = assemblyContigLengths.get(dictContig);
-            if (dictContigLength != assemblyContigLength) {
-                LOGGER.warn("Contig length mismatch {}!={} between `{}` (genome assembly report)  and `{}` (FASTA sequence dictionary)", assemblyContigLength, dictContigLength, dictContig, dictContig);
-                lengthMismatch = true;
-            }
-        }
-        if (lengthMismatch) throw new InvalidFastaFileException("Contig length mismatch");
-    }
-
-    private static SAMSequenceDictionary buildSequenceDictionary(Path dictPath) {
-        return SAMSequenceDictionaryExtractor.extractDictionary(dictPath);
-    }
-
-    private static boolean figureOutPrefix(SAMSequenceDictionary sequenceDictionary) throws InvalidFastaFileException {
-        Predicate<SAMSequenceRecord> prefixed = e -> e.getSequenceName().startsWith("chr");
-        boolean allPrefixed = sequenceDictionary.getSequences().stream().allMatch(prefixed);
-        boolean nonePrefixed = sequenceDictionary.getSequences().stream().noneMatch(prefixed);
-
-        if (allPrefixed) return true;
-        else if (nonePrefixed) return false;
-        else {
-            String msg = String.format("Found prefixed and unprefixed contigs among fasta dictionary entries - %s",
-                    sequenceDictionary.getSequences().stream()
-                            .map(SAMSequenceRecord::getSequenceName).collect(Collectors.joining(",", "{", "}")));
-            if (LOGGER.isErrorEnabled())
-                LOGGER.error(msg);
-            throw new InvalidFastaFileException(msg);
-        }
+        SAMSequenceDictionary sequenceDictionary = FastaUtils.buildSequenceDictionary(fastaDict);
+        this.usesPrefix = FastaUtils.figureOutPrefix(sequenceDictionary);
+        FastaUtils.check(assembly, sequenceDictionary);
     }
 
     @Override
@@ -0,0 +1,264 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2020
+ */
+
+package org.monarchinitiative.squirls.io.sequence;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.reference.FastaSequenceIndex;
+import htsjdk.samtools.reference.FastaSequenceIndexEntry;
+import org.monarchinitiative.squirls.core.reference.StrandedSequence;
+import org.monarchinitiative.squirls.core.reference.StrandedSequenceService;
+import org.monarchinitiative.svart.CoordinateSystem;
+import org.monarchinitiative.svart.Contig;
+import org.monarchinitiative.svart.GenomicRegion;
+import org.monarchinitiative.svart.Strand;
+import org.monarchinitiative.svart.assembly.GenomicAssembly;
+import org.monarchinitiative.svart.parsers.GenomicAssemblyParser;
+import org.monarchinitiative.svart.util.Seq;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Implementation of {@link StrandedSequenceService} that memory-maps a single indexed FASTA file containing all contigs
+ * of the assembly.
+ * <p>
+ * Each contig is mapped separately using the offsets and line lengths from the FASTA index when the contig is queried
+ * for the first time. The sequence is read using absolute reads from the read-only buffers, hence the queries do not
+ * modify any shared state and it is safe to query the sequence from multiple threads without synchronization.
+ */
+public class MemoryMappedFastaStrandedSequenceService implements StrandedSequenceService, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MemoryMappedFastaStrandedSequenceService.class);
+
+    private final GenomicAssembly assembly;
+
+    private final FileChannel channel;
+
+    private final Map<String, FastaSequenceIndexEntry> indexEntries;
+
+    private final ConcurrentMap<String, MappedContig> contigs;
+
+    /**
+     * True if all chromosomes in FASTA are prefixed with `chr` and false if all chromosomes are not prefixed.
+     */
+    private final boolean usesPrefix;
+
+    public MemoryMappedFastaStrandedSequenceService(Path assemblyReportPath, Path fastaPath, Path fastaFai, Path fastaDict) throws InvalidFastaFileException {
+        this.assembly = GenomicAssemblyParser.parseAssembly(assemblyReportPath);
+        SAMSequenceDictionary sequenceDictionary = FastaUtils.buildSequenceDictionary(fastaDict);
+        this.usesPrefix = FastaUtils.figureOutPrefix(sequenceDictionary);
+        FastaUtils.check(assembly, sequenceDictionary);
+        this.indexEntries = readIndexEntries(new FastaSequenceIndex(fastaFai));
+        this.contigs = new ConcurrentHashMap<>(indexEntries.size());
+        try {
+            this.channel = FileChannel.open(fastaPath, StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new InvalidFastaFileException(e);
+        }
+    }
+
+    private static Map<String, FastaSequenceIndexEntry> readIndexEntries(FastaSequenceIndex index) throws InvalidFastaFileException {
+        Map<String, FastaSequenceIndexEntry> entries = new HashMap<>(index.size());
+        for (FastaSequenceIndexEntry entry : index) {
+            if (entry.getBasesPerLine() <= 0 || entry.getBytesPerLine() < entry.getBasesPerLine())
+                throw new InvalidFastaFileException(String.format("Invalid line lengths for contig `%s` in FASTA index", entry.getContig()));
+
+            long mappedLength = MappedContig.mappedLength(entry);
+            if (mappedLength > Integer.MAX_VALUE)
+                throw new InvalidFastaFileException(String.format("Contig `%s` is too large to be memory-mapped", entry.getContig()));
+            entries.put(entry.getContig(), entry);
+        }
+        return Map.copyOf(entries);
+    }
+
+    private MappedContig mapContig(FastaSequenceIndexEntry entry) {
+        try {
+            long mappedLength = MappedContig.mappedLength(entry);
+            if (entry.getLocation() + mappedLength > channel.size()) {
+                if (LOGGER.isWarnEnabled())
+                    LOGGER.warn("Contig `{}` extends beyond the end of FASTA file", entry.getContig());
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, entry.getLocation(), mappedLength);
+            return new MappedContig(buffer, entry.getSize(), entry.getBasesPerLine(), entry.getBytesPerLine());
+        } catch (IOException e) {
+            if (LOGGER.isWarnEnabled())
+                LOGGER.warn("Error mapping contig `{}`: {}", entry.getContig(), e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public GenomicAssembly genomicAssembly() {
+        return assembly;
+    }
+
+    @Override
+    public StrandedSequence sequenceForRegion(GenomicRegion region) {
+        Contig contig = assembly.contigByName(region.contigName());
+        if (contig.equals(Contig.unknown())) {
+            if (LOGGER.isWarnEnabled())
+                LOGGER.warn("Unknown chromosome `{}`", region.contigName());
+            return null;
+        }
+
+        // the name we use for contig in FASTA file
+        String contigName = usesPrefix ? contig.ucscName() : contig.name();
+        FastaSequenceIndexEntry entry = indexEntries.get(contigName);
+        if (entry == null) {
+            if (LOGGER.isWarnEnabled())
+                LOGGER.warn("Contig `{}` is not present in the FASTA file", contigName);
+            return null;
+        }
+        // the contig is mapped when queried for the first time, subsequent queries do not block
+        MappedContig mappedContig = contigs.computeIfAbsent(contigName, name -> mapContig(entry));
+        if (mappedContig == null)
+            return null;
+
+        int start = region.startOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased());
+        int end = region.endOnStrandWithCoordinateSystem(Strand.POSITIVE, CoordinateSystem.zeroBased());
+        if (start < 0 || end > mappedContig.length || start > end) {
+            if (LOGGER.isWarnEnabled())
+                LOGGER.warn("Error getting sequence for query `{}:{}-{}`: query is out of contig bounds [0, {}]", contigName, start, end, mappedContig.length);
+            return null;
+        }
+
+        String seq = mappedContig.read(start, end);
+        return StrandedSequence.of(region, region.strand().isPositive() ? seq : Seq.reverseComplement(seq));
+    }
+
+    private static class MappedContig {
+
+        private final MappedByteBuffer buffer;
+        private final long length;
+        private final int basesPerLine;
+        private final int bytesPerLine;
+
+        private MappedContig(MappedByteBuffer buffer, long length, int basesPerLine, int bytesPerLine) {
+            this.buffer = buffer;
+            this.length = length;
+            this.basesPerLine = basesPerLine;
+            this.bytesPerLine = bytesPerLine;
+        }
+
+        private static long mappedLength(FastaSequenceIndexEntry entry) {
+            return entry.getSize() == 0
+                    ? 0
+                    : byteOffset(entry.getSize() - 1, entry.getBasesPerLine(), entry.getBytesPerLine()) + 1;
+        }
+
+        private static long byteOffset(long base, int basesPerLine, int bytesPerLine) {
+            return base / basesPerLine * bytesPerLine + base % basesPerLine;
+        }
+
+        /**
+         * Read the bases in the 0-based half-open interval <code>[start, end)</code>. The method uses absolute reads
+         * only, hence it does not modify the state of the buffer.
+         */
+        private String read(int start, int end) {
+            byte[] bases = new byte[end - start];
+            int offset = (int) byteOffset(start, basesPerLine, bytesPerLine);
+            int inLine = start % basesPerLine;
+            int lineTerminator = bytesPerLine - basesPerLine;
+            for (int i = 0; i < bases.length; i++) {
+                bases[i] = buffer.get(offset++);
+                if (++inLine == basesPerLine) {
+                    // skip the line terminator
+                    inLine = 0;
+                    offset += lineTerminator;
+                }
+            }
+            return new String(bases, StandardCharsets.US_ASCII);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        // the mapped buffers remain valid until they are garbage collected
+        channel.close();
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2020
+ */
+
+package org.monarchinitiative.squirls.io.sequence;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Memory-mapped genome in the packed format written by {@link PackedGenomeWriter}.
+ * <p>
+ * The contigs are mapped when the file is opened. The sequence is decoded from the read-only buffers using absolute
+ * reads, hence the instance can be queried from multiple threads without synchronization.
+ */
+class PackedGenome {
+
+    static final byte[] MAGIC = "SQRLSPKG".getBytes(StandardCharsets.US_ASCII);
+
+    static final int VERSION = 1;
+
+    static final int HEADER_LENGTH = MAGIC.length + Integer.BYTES + Long.BYTES;
+
+    static final int BLOCK_LENGTH = 2 * Integer.BYTES;
+
+    private static final byte[] BASES = {'A', 'C', 'G', 'T'};
+
+    private static final byte[] COMPLEMENT_BASES = {'T', 'G', 'C', 'A'};
+
+    private final Map<String, PackedContig> contigs;
+
+    private PackedGenome(Map<String, PackedContig> contigs) {
+        this.contigs = contigs;
+    }
+
+    static int packedLength(long length) {
+        return (int) ((length + 3) / 4);
+    }
+
+    static PackedGenome open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            readFully(channel, header, 0);
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, MAGIC))
+                throw new IOException("Not a packed genome file: `" + path + "`");
+            int version = header.getInt();
+            if (version != VERSION)
+                throw new IOException("Unsupported packed genome version " + version);
+            long indexOffset = header.getLong();
+            if (indexOffset < HEADER_LENGTH || indexOffset > channel.size())
+                throw new IOException("Invalid index offset " + indexOffset + " in packed genome file: `" + path + "`");
+
+            ByteBuffer index = ByteBuffer.allocate((int) (channel.size() - indexOffset));
+            readFully(channel, index, indexOffset);
+
+            Map<String, PackedContig> contigs = new LinkedHashMap<>();
+            try (DataInputStream is = new DataInputStream(new ByteArrayInputStream(index.array()))) {
+                int count = is.readInt();
+                for (int i = 0; i < count; i++) {
+                    String name = is.readUTF();
+                    long length = is.readLong();
+                    long offset = is.readLong();
+                    int nBlockCount = is.readInt();
+                    int maskBlockCount = is.readInt();
+                    if (length > Integer.MAX_VALUE)
+                        throw new IOException("Contig `" + name + "` is too long");
+
+                    int packedLength = packedLength(length);
+                    long mappedLength = packedLength + (long) (nBlockCount + maskBlockCount) * BLOCK_LENGTH;
+                    if (mappedLength > Integer.MAX_VALUE || offset + mappedLength > indexOffset)
+                        throw new IOException("Invalid data for contig `" + name + "` in packed genome file: `" + path + "`");
+
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, mappedLength);
+                    contigs.put(name, new PackedContig(buffer, (int) length,
+                            packedLength, nBlockCount,
+                            packedLength + nBlockCount * BLOCK_LENGTH, maskBlockCount));
+                }
+            }
+            return new PackedGenome(Map.copyOf(contigs));
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0)
+                throw new IOException("Unexpected end of packed genome file");
+        }
+        buffer.flip();
+    }
+
+    /**
+     * @return map with contig names and lengths
+     */
+    Map<String, Integer> contigLengths() {
+        Map<String, Integer> lengths = new LinkedHashMap<>(contigs.size());
+        contigs.forEach((name, contig) -> lengths.put(name, contig.length));
+        return lengths;
+    }
+
+    /**
+     * Get sequence of the 0-based half-open interval <code>[start, end)</code> on the positive strand of the contig.
+     *
+     * @param reverseComplement return reverse complement of the sequence if true
+     * @return the sequence or <code>null</code> if the contig is not present or the interval is out of contig bounds
+     */
+    String sequence(String contigName, int start, int end, boolean reverseComplement) {
+        PackedContig contig = contigs.get(contigName);
+        if (contig == null || start < 0 || end > contig.length || start > end)
+            return null;
+
+        int length = end - start;
+        byte[] bases = new byte[length];
+        ByteBuffer buffer = contig.buffer;
+        for (int i = 0; i < length; i++) {
+            int pos = start + i;
+            int code = (buffer.get(pos >>> 2) >>> (6 - ((pos & 3) << 1))) & 3;
+            if (reverseComplement)
+                bases[length - 1 - i] = COMPLEMENT_BASES[code];
+            else
+                bases[i] = BASES[code];
+        }
+
+        applyBlocks(contig, contig.nBlocksOffset, contig.nBlockCount, start, end, reverseComplement, bases, true);
+        applyBlocks(contig, contig.maskBlocksOffset, contig.maskBlockCount, start, end, reverseComplement, bases, false);
+
+        return new String(bases, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Set the bases overlapping with the blocks to <code>N</code> if <code>n</code> is true or to lowercase otherwise.
+     */
+    private static void applyBlocks(PackedContig contig, int blocksOffset, int blockCount,
+                                    int start, int end, boolean reverseComplement,
+                                    byte[] bases, boolean n) {
+        ByteBuffer buffer = contig.buffer;
+        // find the first block that ends after the start using binary search
+        int lo = 0, hi = blockCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (buffer.getInt(blocksOffset + mid * BLOCK_LENGTH + Integer.BYTES) <= start)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+
+        for (int i = lo; i < blockCount; i++) {
+            int blockStart = buffer.getInt(blocksOffset + i * BLOCK_LENGTH);
+            if (blockStart >= end)
+                break;
+            int blockEnd = buffer.getInt(blocksOffset + i * BLOCK_LENGTH + Integer.BYTES);
+
+            int from = Math.max(blockStart, start) - start;
+            int to = Math.min(blockEnd, end) - start;
+            for (int j = from; j < to; j++) {
+                int idx = reverseComplement ? bases.length - 1 - j : j;
+                bases[idx] = n
+                        ? (byte) 'N'
+                        : (byte) Character.toLowerCase(bases[idx]);
+            }
+        }
+    }
+
+    private static class PackedContig {
+        private final ByteBuffer buffer;
+        private final int length;
+        private final int nBlocksOffset;
+        private final int nBlockCount;
+        private final int maskBlocksOffset;
+        private final int maskBlockCount;
+
+        private PackedContig(ByteBuffer buffer, int length,
+                             int nBlocksOffset, int nBlockCount,
+                             int maskBlocksOffset, int maskBlockCount) {
+            this.buffer = buffer;
+            this.length = length;
+            this.nBlocksOffset = nBlocksOffset;
+            this.nBlockCount = nBlockCount;
+            this.maskBlocksOffset = maskBlocksOffset;
+            this.maskBlockCount = maskBlockCount;
+        }
+    }
+}
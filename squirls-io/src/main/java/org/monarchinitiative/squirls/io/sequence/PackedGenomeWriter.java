@@ -0,0 +1,298 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2020
+ */
+
+package org.monarchinitiative.squirls.io.sequence;
+
+import htsjdk.samtools.reference.ReferenceSequence;
+import htsjdk.samtools.reference.ReferenceSequenceFile;
+import htsjdk.samtools.reference.ReferenceSequenceFileFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Write contigs of a FASTA file into the packed genome format that is read by {@link PackedGenomeStrandedSequenceService}.
+ * <p>
+ * The bases are packed into 2 bits per base. The runs of bases other than <code>A</code>, <code>C</code>,
+ * <code>G</code>, and <code>T</code> are stored as <em>N</em> blocks, and the runs of lowercase (soft-masked) bases
+ * are stored as <em>mask</em> blocks.
+ * <p>
+ * Note that the packing is lossy: all IUPAC ambiguity codes (e.g. <code>R</code>, <code>Y</code>, <code>W</code>) are
+ * stored as <code>N</code>, hence {@link PackedGenomeStrandedSequenceService} returns <code>N</code> where the FASTA
+ * file has an ambiguity code. The number of the replaced bases is logged as a warning.
+ * <p>
+ * The file layout is:
+ * <pre>
+ * header:  magic (8 bytes) | version (int) | index offset (long)
+ * body:    for each contig - packed bases | N blocks | mask blocks
+ * index:   contig count (int) | for each contig - name (UTF) | length (long) | body offset (long) | N block count (int) | mask block count (int)
+ * </pre>
+ * A block is stored as a pair of ints representing a 0-based half-open interval.
+ */
+public class PackedGenomeWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PackedGenomeWriter.class);
+
+    private PackedGenomeWriter() {
+        // static utility class
+    }
+
+    /**
+     * Pack all contigs of the FASTA file at <code>fastaPath</code> into <code>destination</code>.
+     */
+    public static void write(Path fastaPath, Path destination) throws IOException {
+        try (ReferenceSequenceFile fasta = ReferenceSequenceFileFactory.getReferenceSequenceFile(fastaPath);
+             FileChannel channel = FileChannel.open(destination, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(PackedGenome.HEADER_LENGTH);
+            header.put(PackedGenome.MAGIC).putInt(PackedGenome.VERSION).putLong(-1L).flip();
+            writeFully(channel, header);
+
+            List<IndexEntry> entries = new ArrayList<>();
+            long ambiguousTotal = 0;
+            ReferenceSequence sequence;
+            while ((sequence = fasta.nextSequence()) != null) {
+                byte[] bases = sequence.getBases();
+                long offset = channel.position();
+                writeFully(channel, pack(bases));
+
+                List<int[]> nBlocks = findBlocks(bases, true);
+                writeFully(channel, encodeBlocks(nBlocks));
+                List<int[]> maskBlocks = findBlocks(bases, false);
+                writeFully(channel, encodeBlocks(maskBlocks));
+
+                int ambiguous = countAmbiguous(bases);
+                if (ambiguous > 0) {
+                    LOGGER.debug("Stored {} IUPAC ambiguity codes of `{}` as N", ambiguous, sequence.getName());
+                    ambiguousTotal += ambiguous;
+                }
+
+                if (LOGGER.isDebugEnabled())
+                    LOGGER.debug("Packed `{}` ({} bases, {} N blocks, {} mask blocks)", sequence.getName(), bases.length, nBlocks.size(), maskBlocks.size());
+                entries.add(new IndexEntry(sequence.getName(), bases.length, offset, nBlocks.size(), maskBlocks.size()));
+            }
+
+            long indexOffset = channel.position();
+            writeFully(channel, encodeIndex(entries));
+
+            ByteBuffer indexOffsetBuffer = ByteBuffer.allocate(Long.BYTES);
+            indexOffsetBuffer.putLong(indexOffset).flip();
+            channel.position(PackedGenome.HEADER_LENGTH - Long.BYTES);
+            writeFully(channel, indexOffsetBuffer);
+
+            if (ambiguousTotal > 0)
+                LOGGER.warn("Stored {} IUPAC ambiguity codes as N", ambiguousTotal);
+        }
+    }
+
+    private static ByteBuffer pack(byte[] bases) {
+        ByteBuffer packed = ByteBuffer.allocate(PackedGenome.packedLength(bases.length));
+        for (int i = 0; i < bases.length; i += 4) {
+            int value = 0;
+            for (int j = 0; j < 4; j++) {
+                int code = i + j < bases.length ? encode(bases[i + j]) : 0;
+                value = (value << 2) | code;
+            }
+            packed.put((byte) value);
+        }
+        return packed.flip();
+    }
+
+    private static int encode(byte base) {
+        switch (base) {
+            case 'C':
+            case 'c':
+                return 1;
+            case 'G':
+            case 'g':
+                return 2;
+            case 'T':
+            case 't':
+                return 3;
+            case 'A':
+            case 'a':
+            default:
+                // N and the other IUPAC codes are stored in N blocks
+                return 0;
+        }
+    }
+
+    private static boolean isN(byte base) {
+        switch (base) {
+            case 'A':
+            case 'a':
+            case 'C':
+            case 'c':
+            case 'G':
+            case 'g':
+            case 'T':
+            case 't':
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * @return number of bases that are neither <code>ACGT</code> nor <code>N</code>, regardless of the case
+     */
+    private static int countAmbiguous(byte[] bases) {
+        int count = 0;
+        for (byte base : bases) {
+            if (isN(base) && base != 'N' && base != 'n')
+                count++;
+        }
+        return count;
+    }
+
+    private static boolean isMasked(byte base) {
+        return Character.isLowerCase(base);
+    }
+
+    /**
+     * @param n find N blocks if true, mask blocks otherwise
+     * @return list of 0-based half-open intervals
+     */
+    private static List<int[]> findBlocks(byte[] bases, boolean n) {
+        List<int[]> blocks = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i < bases.length; i++) {
+            boolean inBlock = n ? isN(bases[i]) : isMasked(bases[i]);
+            if (inBlock && start < 0) {
+                start = i;
+            } else if (!inBlock && start >= 0) {
+                blocks.add(new int[]{start, i});
+                start = -1;
+            }
+        }
+        if (start >= 0)
+            blocks.add(new int[]{start, bases.length});
+        return blocks;
+    }
+
+    private static ByteBuffer encodeBlocks(List<int[]> blocks) {
+        ByteBuffer buffer = ByteBuffer.allocate(blocks.size() * PackedGenome.BLOCK_LENGTH);
+        for (int[] block : blocks) {
+            buffer.putInt(block[0]).putInt(block[1]);
+        }
+        return buffer.flip();
+    }
+
+    private static ByteBuffer encodeIndex(List<IndexEntry> entries) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DataOutputStream os = new DataOutputStream(baos)) {
+            os.writeInt(entries.size());
+            for (IndexEntry entry : entries) {
+                os.writeUTF(entry.name);
+                os.writeLong(entry.length);
+                os.writeLong(entry.offset);
+                os.writeInt(entry.nBlockCount);
+                os.writeInt(entry.maskBlockCount);
+            }
+        }
+        return ByteBuffer.wrap(baos.toByteArray());
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static class IndexEntry {
+        private final String name;
+        private final long length;
+        private final long offset;
+        private final int nBlockCount;
+        private final int maskBlockCount;
+
+        private IndexEntry(String name, long length, long offset, int nBlockCount, int maskBlockCount) {
+            this.name = name;
+            this.length = length;
+            this.offset = offset;
+            this.nBlockCount = nBlockCount;
+            this.maskBlockCount = maskBlockCount;
+        }
+    }
+}
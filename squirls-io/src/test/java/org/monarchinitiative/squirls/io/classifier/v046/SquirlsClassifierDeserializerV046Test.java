@@ -5,6 +5,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.monarchinitiative.squirls.core.Prediction;
+import org.monarchinitiative.squirls.core.classifier.DenseSquirlsFeatures;
+import org.monarchinitiative.squirls.core.classifier.FeatureSchema;
 import org.monarchinitiative.squirls.core.classifier.SquirlsClassifier;
 import org.monarchinitiative.squirls.core.classifier.SquirlsFeatures;
 import org.monarchinitiative.squirls.io.SquirlsClassifierVersion;
@@ -78,6 +80,13 @@ public class SquirlsClassifierDeserializerV046Test {
         return SquirlsFeatures.of(features);
     }
 
+    private static DenseSquirlsFeatures makeDenseFeature046(String payload) {
+        Map<String, Double> featureMap = makeFeature046(payload).getFeatureMap();
+        DenseSquirlsFeatures features = DenseSquirlsFeatures.of(FeatureSchema.of(featureMap.keySet()));
+        featureMap.forEach((name, value) -> features.setFeature(features.schema().indexOf(name), value));
+        return features;
+    }
+
     @BeforeEach
     public void setUp() throws Exception {
         deserializer = new SquirlsClassifierDeserializerV046();
@@ -113,4 +122,34 @@ public class SquirlsClassifierDeserializerV046Test {
         assertThat(prediction.getMaxPathogenicity(), closeTo(expectedPathogenicity, TOLERANCE));
         assertThat(prediction.isPositive(), equalTo(isPathogenic));
     }
-}
\ No newline at end of file
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    // chr10-14977461-C-T (donor canonical)
+                    ".953819555  | true  | 1,8.960001932068081,1.3581999408672178,-14.235159339682536,5.079853328257856,-2.5219486629430072,7.320000171661378,102.0,1.6480093999999996,1.3925,103,0.0,-12.347213724695143,0.0,0.0",
+                    // chr1-100381954-A-G (AG in AGEZ, likely cryptic site or skipping)
+                    ".999509533  | true  | -100,0.0,-7.191083224974222,0.0,5.262950400223763,-1.9281328247504608,0.22499999403953552,88.0,-0.6826994000000001,-0.7658,-12,-0.1415541442140178,0.08920402336736544,1.0,1.0",
+                    // chr1-100327079-T-C (coding, close to acceptor site)
+                    ".005705941  | false | -191,0.0,-17.039868241197162,2.0503957850253407,10.242210133396183,-6.797658107800977,0.8889999985694885,211.0,1.5518906,1.0495,21,0.0,-6.0547923606482605,0.0,0.0"
+            })
+    public void deserialize_denseFeatures(double expectedPathogenicity, boolean isPathogenic, String payload) throws Exception {
+        Prediction prediction = clf.predict(makeDenseFeature046(payload));
+        assertThat(prediction.getMaxPathogenicity(), closeTo(expectedPathogenicity, TOLERANCE));
+        assertThat(prediction.isPositive(), equalTo(isPathogenic));
+    }
+
+    @Test
+    public void deserialize_denseFeaturesAreImputed() throws Exception {
+        String payload = "-191,0.0,-17.039868241197162,2.0503957850253407,10.242210133396183,-6.797658107800977,0.8889999985694885,211.0,1.5518906,1.0495,21,0.0,-6.0547923606482605,0.0,0.0";
+        DenseSquirlsFeatures dense = makeDenseFeature046(payload);
+        dense.setFeature(dense.schema().indexOf("phylop"), Double.NaN);
+        Map<String, Double> featureMap = new HashMap<>(makeFeature046(payload).getFeatureMap());
+        featureMap.put("phylop", Double.NaN);
+
+        Prediction expected = clf.predict(SquirlsFeatures.of(featureMap));
+        Prediction actual = clf.predict(dense);
+
+        assertThat(actual.getMaxPathogenicity(), closeTo(expected.getMaxPathogenicity(), TOLERANCE));
+    }
+}
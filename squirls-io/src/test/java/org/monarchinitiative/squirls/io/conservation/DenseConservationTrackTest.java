@@ -0,0 +1,217 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2020
+ */
+
+package org.monarchinitiative.squirls.io.conservation;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.monarchinitiative.squirls.core.scoring.calculators.conservation.ConservationTrack;
+import org.monarchinitiative.svart.*;
+import org.monarchinitiative.svart.assembly.GenomicAssembly;
+import org.monarchinitiative.svart.parsers.GenomicAssemblyParser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DenseConservationTrackTest {
+
+    private static final GenomicAssembly GENOMIC_ASSEMBLY = GenomicAssemblyParser.parseAssembly(Paths.get("src/test/resources/org/monarchinitiative/squirls/io/sequence/small_hg19.assembly_report.txt"));
+
+    private static final Contig CHR1 = GENOMIC_ASSEMBLY.contigByName("1");
+
+    private static final Contig CHR2 = GENOMIC_ASSEMBLY.contigByName("2");
+
+    /**
+     * The source track has a score for each position of chr1 except for the positions divisible by 7.
+     */
+    private static final ConservationTrack SOURCE = new ConservationTrack() {
+        @Override
+        public void getScores(GenomicRegion region, float[] scores) {
+            GenomicRegion interval = region.toZeroBased().toPositiveStrand();
+            for (int pos = interval.start(); pos < interval.end(); pos++) {
+                scores[pos - interval.start()] = interval.contig().equals(CHR1)
+                        ? sourceScore(pos)
+                        : Float.NaN;
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    @TempDir
+    public static Path TMP;
+
+    private static DenseConservationTrack track;
+
+    private static float sourceScore(int pos) {
+        return pos % 7 == 0 ? Float.NaN : (pos % 2_000 - 1_000) / 100F;
+    }
+
+    @BeforeAll
+    public static void beforeAll() throws Exception {
+        Path path = TMP.resolve("phylop.track");
+        DenseConservationTrackWriter.write(SOURCE,
+                List.of(GenomicRegion.of(CHR1, Strand.POSITIVE, CoordinateSystem.zeroBased(), 5_000, 6_000),
+                        GenomicRegion.of(CHR1, Strand.NEGATIVE, CoordinateSystem.zeroBased(), 1_000, 1_100),
+                        GenomicRegion.of(CHR2, Strand.POSITIVE, CoordinateSystem.zeroBased(), 100, 200)),
+                path,
+                DenseConservationTrackWriter.Precision.SHORT);
+        track = DenseConservationTrack.open(path);
+    }
+
+    @Test
+    public void getScores() {
+        float[] scores = new float[10];
+        track.getScores("chr1", 5_000, 5_010, scores);
+
+        for (int i = 0; i < scores.length; i++) {
+            assertThat(scores[i], is(sourceScore(5_000 + i)));
+        }
+    }
+
+    @Test
+    public void getScoresFromRegion() {
+        float[] scores = new float[3];
+        // positions 8_998-9_001 on the positive strand
+        track.getScores(GenomicRegion.of(CHR1, Strand.NEGATIVE, CoordinateSystem.zeroBased(), 1_000, 1_003), scores);
+
+        assertThat(scores, is(new float[]{sourceScore(8_998), sourceScore(8_999), sourceScore(9_000)}));
+    }
+
+    @Test
+    public void getScoresOfPageNotOverlappingWithRegions() {
+        float[] scores = new float[2];
+        // the page with positions 4_096-8_191 is stored, while the previous page is not
+        track.getScores("chr1", 4_095, 4_097, scores);
+
+        assertThat(scores, is(new float[]{Float.NaN, sourceScore(4_096)}));
+    }
+
+    @Test
+    public void getScoresBeyondContigEnd() {
+        float[] scores = new float[2];
+        track.getScores("chr1", 10_000, 10_002, scores);
+
+        assertThat(scores, is(new float[]{sourceScore(10_000), Float.NaN}));
+    }
+
+    @Test
+    public void getScoresWithoutSourceScores() {
+        float[] scores = new float[2];
+        track.getScores("chr2", 100, 102, scores);
+        assertThat(scores, is(new float[]{Float.NaN, Float.NaN}));
+
+        track.getScores("chr3", 100, 102, scores);
+        assertThat(scores, is(new float[]{Float.NaN, Float.NaN}));
+    }
+
+    @Test
+    public void getScoresWithBytePrecision() throws Exception {
+        Path path = TMP.resolve("phylop.byte.track");
+        DenseConservationTrackWriter.write(SOURCE,
+                List.of(GenomicRegion.of(CHR1, Strand.POSITIVE, CoordinateSystem.zeroBased(), 2_000, 2_010)),
+                path,
+                DenseConservationTrackWriter.Precision.BYTE);
+
+        DenseConservationTrack byteTrack = DenseConservationTrack.open(path);
+        float[] scores = new float[4];
+        // the scores are rounded to 1 decimal place
+        byteTrack.getScores("chr1", 2_398, 2_402, scores);
+        assertThat(scores, is(new float[]{-6F, -6F, -6F, Float.NaN}));
+
+        scores = new float[2];
+        byteTrack.getScores("chr1", 2_452, 2_454, scores);
+        assertThat(scores, is(new float[]{-5.5F, -5.5F}));
+    }
+
+    @Test
+    public void openInvalidFile() throws Exception {
+        Path path = Files.writeString(TMP.resolve("invalid.track"), "This is not a conservation track file");
+
+        IOException e = assertThrows(IOException.class, () -> DenseConservationTrack.open(path));
+        assertThat(e.getMessage(), is("Not a conservation track file: `" + path + "`"));
+    }
+}
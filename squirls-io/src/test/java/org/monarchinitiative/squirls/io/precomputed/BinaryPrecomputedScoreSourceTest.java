@@ -0,0 +1,256 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2020
+ */
+
+package org.monarchinitiative.squirls.io.precomputed;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.monarchinitiative.squirls.core.SquirlsResult;
+import org.monarchinitiative.svart.CoordinateSystem;
+import org.monarchinitiative.svart.GenomicVariant;
+import org.monarchinitiative.svart.Strand;
+import org.monarchinitiative.svart.assembly.GenomicAssembly;
+import org.monarchinitiative.svart.parsers.GenomicAssemblyParser;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BinaryPrecomputedScoreSourceTest {
+
+    private static final GenomicAssembly GENOMIC_ASSEMBLY = GenomicAssemblyParser.parseAssembly(Paths.get("src/test/resources/org/monarchinitiative/squirls/io/sequence/small_hg19.assembly_report.txt"));
+
+    /**
+     * Maximum error introduced by the score quantization.
+     */
+    private static final double ERROR = 1E-4;
+
+    @TempDir
+    public static Path TMP;
+
+    private static Path STORE;
+
+    private static BinaryPrecomputedScoreSource source;
+
+    @BeforeAll
+    public static void beforeAll() throws Exception {
+        STORE = TMP.resolve("scores.bin");
+        try (BinaryScoreStoreWriter writer = BinaryScoreStoreWriter.open(STORE, .074)) {
+            writer.startBlock("1", 99, 110);
+            // the deletion of the first base of the block is written with the preceding base
+            writer.add(99, "GC", "G", .6, true);
+            writer.add(100, "C", "A", .9, true);
+            writer.add(100, "C", "G", .074, false);
+            writer.add(100, "C", "T", .03, false);
+            writer.add(101, "t", "a", .02, false);
+            writer.add(105, "A", "ACC", .01, false);
+            writer.add(105, "A", "AC", .3, true);
+            writer.add(105, "AG", "A", .2, true);
+
+            writer.startBlock("1", 200, 210);
+            writer.add(205, "G", "C", .5, true);
+
+            writer.startBlock("2", 0, 10);
+            writer.add(1, "T", "G", .02, false);
+        }
+        source = BinaryPrecomputedScoreSource.of(STORE);
+    }
+
+    private static GenomicVariant variant(String contig, int pos, String ref, String alt) {
+        return GenomicVariant.of(GENOMIC_ASSEMBLY.contigByName(contig), ".", Strand.POSITIVE, CoordinateSystem.oneBased(), pos, ref, alt);
+    }
+
+    @Test
+    public void threshold() {
+        assertThat(source.threshold(), closeTo(.074, 1E-12));
+    }
+
+    @Test
+    public void isBinaryScoreStore() {
+        assertThat(BinaryPrecomputedScoreSource.isBinaryScoreStore(STORE), equalTo(true));
+        assertThat(BinaryPrecomputedScoreSource.isBinaryScoreStore(Paths.get("src/test/resources/org/monarchinitiative/squirls/io/precomputed/scores.vcf.gz")), equalTo(false));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            // SNVs
+            "1, 100,   C,   A,   .9,  true",
+            "1, 100,   C,   G, .074, false",
+            "1, 100,   C,   T,  .03, false",
+            "1, 101,   T,   A,  .02, false",
+            "1, 101,   t,   a,  .02, false",
+            "1, 205,   G,   C,   .5,  true",
+            "2,   1,   T,   G,  .02, false",
+            // indels in VCF notation
+            "1,  99,  GC,   G,   .6,  true",
+            "1, 105,   A, ACC,  .01, false",
+            "1, 105,   A,  AC,   .3,  true",
+            "1, 105,  AG,   A,   .2,  true",
+            // indels without the common base
+            "1, 100,   C,  '',   .6,  true",
+            "1, 106,  '',  CC,  .01, false",
+            "1, 106,   G,  '',   .2,  true",
+    })
+    public void lookup(String contig, int pos, String ref, String alt, double score, boolean pathogenic) {
+        GenomicVariant variant = variant(contig, pos, ref, alt);
+
+        SquirlsResult result = source.lookup(variant).orElseThrow();
+        assertThat(result.txAccessionIds(), contains(TabixPrecomputedScoreSource.UNKNOWN_ACCESSION));
+        assertThat(result.maxPathogenicity(), closeTo(score, ERROR));
+        assertThat(result.isPathogenic(), equalTo(pathogenic));
+
+        // the strand of the query must not matter
+        SquirlsResult negative = source.lookup(variant.withStrand(Strand.NEGATIVE)).orElseThrow();
+        assertThat(negative.maxPathogenicity(), closeTo(score, ERROR));
+        assertThat(negative.isPathogenic(), equalTo(pathogenic));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "1,  102,   C,   A",  // position without scores
+            "1,  100,   G,   A",  // reference base does not match
+            "1,  100,   C,   C",  // not an SNV
+            "1,  100,   C,   N",  // unsupported base
+            "1,  150,   C,   A",  // between the blocks
+            "1,  105,   A,  AG",  // different insertion
+            "1,  105, AGG,   A",  // different deletion
+            "MT, 100,   C,   A",  // contig not present in the store
+    })
+    public void lookup_missing(String contig, int pos, String ref, String alt) {
+        assertThat(source.lookup(variant(contig, pos, ref, alt)).isPresent(), equalTo(false));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "   0.,  true",
+            "   0., false",
+            "  .25, false",
+            " .074,  true",
+            "   1.,  true",
+    })
+    public void encodeDecode(double score, boolean pathogenic) {
+        char value = BinaryPrecomputedScoreSource.encode(score, pathogenic);
+
+        assertThat(BinaryPrecomputedScoreSource.decodeScore(value), closeTo(score, ERROR));
+        assertThat(BinaryPrecomputedScoreSource.decodePathogenic(value), equalTo(pathogenic));
+    }
+
+    @Test
+    public void encode_nan() {
+        assertThat(BinaryPrecomputedScoreSource.encode(Double.NaN, true), equalTo(BinaryPrecomputedScoreSource.MISSING));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "A, C, 0",
+            "A, G, 1",
+            "A, T, 2",
+            "C, A, 0",
+            "C, G, 1",
+            "G, T, 2",
+            "T, G, 2",
+            "t, a, 0",
+            "A, A, -1",
+            "N, A, -1",
+    })
+    public void slot(char ref, char alt, int expected) {
+        assertThat(BinaryPrecomputedScoreSource.slot(ref, alt), equalTo(expected));
+    }
+
+    @Test
+    public void write_overlappingBlocks() throws IOException {
+        try (BinaryScoreStoreWriter writer = BinaryScoreStoreWriter.open(TMP.resolve("overlapping.bin"), .5)) {
+            writer.startBlock("1", 100, 200);
+            assertThrows(IllegalStateException.class, () -> writer.startBlock("1", 150, 250));
+        }
+    }
+
+    @Test
+    public void write_interleavedContigs() throws IOException {
+        try (BinaryScoreStoreWriter writer = BinaryScoreStoreWriter.open(TMP.resolve("interleaved.bin"), .5)) {
+            writer.startBlock("1", 100, 200);
+            writer.startBlock("2", 100, 200);
+            assertThrows(IllegalStateException.class, () -> writer.startBlock("1", 300, 400));
+        }
+    }
+}
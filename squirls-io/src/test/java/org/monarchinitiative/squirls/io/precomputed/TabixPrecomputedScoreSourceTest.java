@@ -0,0 +1,229 @@
+/*
+ * SOFTWARE LICENSE AGREEMENT
+ * FOR NON-COMMERCIAL USE
+ * 	This Software License Agreement (this “Agreement”) is made between you (“You,” “Your,” or “Licensee”) and The
+ * 	Jackson Laboratory (“Licensor”). This Agreement grants to You a license to the Licensed Software subject to Your
+ * 	acceptance of all the terms and conditions contained in this Agreement. Please read the terms and conditions
+ * 	carefully. You accept the terms and conditions set forth herein by using, downloading or opening the software
+ *
+ * 1. LICENSE
+ *
+ * 1.1	Grant. Subject to the terms and conditions of this Agreement, Licensor hereby grants to Licensee a worldwide,
+ * royalty-free, non-exclusive, non-transferable, non-sublicensable license to download, copy, display, and use the
+ * Licensed Software for Non-Commercial purposes only. “Licensed Software” means the current version of the software.
+ * “Non-Commercial” means not intended or directed toward commercial advantage or monetary compensation.
+ *
+ * 1.2	License Limitations. Nothing in this Agreement shall be construed to confer any rights upon Licensee except as
+ * expressly granted herein. Licensee may not use or exploit the Licensed Software other than expressly permitted by this
+ * Agreement. Licensee may not, nor may Licensee permit any third party, to modify, translate, reverse engineer, decompile,
+ * disassemble or create derivative works based on the Licensed Software or any portion thereof. Subject to Section 1.1,
+ * Licensee may distribute the Licensed Software to a third party, provided that the recipient agrees to use the Licensed
+ * Software on the terms and conditions of this Agreement. Licensee acknowledges that Licensor reserves the right to offer
+ * to Licensee or any third party a license for commercial use and distribution of the Licensed Software on terms and
+ * conditions different than those contained in this Agreement.
+ *
+ * 2. OWNERSHIP OF INTELLECTUAL PROPERTY
+ *
+ * 2.1	Ownership Rights. Except for the limited license rights expressly granted to Licensee under this Agreement, Licensee
+ * acknowledges that all right, title and interest in and to the Licensed Software and all intellectual property rights
+ * therein shall remain with Licensor or its licensors, as applicable.
+ *
+ * 3. DISCLAIMER OF WARRANTY AND LIMITATION OF LIABILITY
+ *
+ * 3.1 	Disclaimer of Warranty. LICENSOR PROVIDES THE LICENSED SOFTWARE ON A NO-FEE BASIS “AS IS” WITHOUT WARRANTY OF
+ * ANY KIND, EXPRESS OR IMPLIED. LICENSOR EXPRESSLY DISCLAIMS ALL WARRANTIES OR CONDITIONS OF ANY KIND, INCLUDING ANY
+ * WARRANTY OF MERCHANTABILITY, TITLE, SECURITY, ACCURACY, NON-INFRINGEMENT OR FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * 3,2	Limitation of Liability.  LICENSEE ASSUMES FULL RESPONSIBILITY AND RISK FOR ANY LOSS RESULTING FROM LICENSEE’s
+ * DOWNLOADING AND USE OF THE LICENSED SOFTWARE.  IN NO EVENT SHALL LICENSOR BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, ARISING FROM THE LICENSED SOFTWARE OR LICENSEE’S USE OF
+ * THE LICENSED SOFTWARE, REGARDLESS OF WHETHER LICENSOR IS ADVISED, OR HAS OTHER REASON TO KNOW, OR IN FACT KNOWS,
+ * OF THE POSSIBILITY OF THE FOREGOING.
+ *
+ * 3.3	Acknowledgement. Without limiting the generality of Section 3.1, Licensee acknowledges that the Licensed Software
+ * is provided as an information resource only, and should not be relied on for any diagnostic or treatment purposes.
+ *
+ * 4. TERM AND TERMINATION
+ *
+ * 4.1 	Term. This Agreement commences on the date this Agreement is executed and will continue until terminated in
+ * accordance with Section 4.2.
+ *
+ * 4.2	Termination. If Licensee breaches any provision hereunder, or otherwise engages in any unauthorized use of the
+ * Licensed Software, Licensor may terminate this Agreement immediately. Licensee may terminate this Agreement at any
+ * time upon written notice to Licensor. Upon termination, the license granted hereunder will terminate and Licensee will
+ * immediately cease using the Licensed Software and destroy all copies of the Licensed Software in its possession.
+ * Licensee will certify in writing that it has complied with the foregoing obligation.
+ *
+ * 5. MISCELLANEOUS
+ *
+ * 5.1	Future Updates. Use of the Licensed Software under this Agreement is subject to the terms and conditions contained
+ * herein. New or updated software may require additional or revised terms of use. Licensor will provide notice of and
+ * make available to Licensee any such revised terms.
+ *
+ * 5.2	Entire Agreement. This Agreement, including any Attachments hereto, constitutes the sole and entire agreement
+ * between the parties as to the subject matter set forth herein and supersedes are previous license agreements,
+ * understandings, or arrangements between the parties relating to such subject matter.
+ *
+ * 5.2 	Governing Law. This Agreement shall be construed, governed, interpreted and applied in accordance with the
+ * internal laws of the State of Maine, U.S.A., without regard to conflict of laws principles. The parties agree that
+ * any disputes between them may be heard only in the state or federal courts in the State of Maine, and the parties
+ * hereby consent to venue and jurisdiction in those courts.
+ *
+ * version:6-8-18
+ *
+ * Daniel Danis, Peter N Robinson, 2020
+ */
+
+package org.monarchinitiative.squirls.io.precomputed;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.monarchinitiative.squirls.core.SquirlsResult;
+import org.monarchinitiative.squirls.io.SquirlsResourceException;
+import org.monarchinitiative.svart.CoordinateSystem;
+import org.monarchinitiative.svart.GenomicVariant;
+import org.monarchinitiative.svart.Strand;
+import org.monarchinitiative.svart.assembly.GenomicAssembly;
+import org.monarchinitiative.svart.parsers.GenomicAssemblyParser;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TabixPrecomputedScoreSourceTest {
+
+    private static final Path TEST_BASE = Paths.get("src/test/resources/org/monarchinitiative/squirls/io/precomputed");
+
+    private static final GenomicAssembly GENOMIC_ASSEMBLY = GenomicAssemblyParser.parseAssembly(Paths.get("src/test/resources/org/monarchinitiative/squirls/io/sequence/small_hg19.assembly_report.txt"));
+
+    private static final double ERROR = 1E-9;
+
+    private TabixPrecomputedScoreSource source;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        source = TabixPrecomputedScoreSource.of(TEST_BASE.resolve("scores.vcf.gz"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        source.close();
+    }
+
+    private static GenomicVariant variant(String contig, int pos, String ref, String alt) {
+        return GenomicVariant.of(GENOMIC_ASSEMBLY.contigByName(contig), ".", Strand.POSITIVE, CoordinateSystem.oneBased(), pos, ref, alt);
+    }
+
+    @Test
+    public void threshold() {
+        assertThat(source.threshold(), closeTo(.074, ERROR));
+    }
+
+    @Test
+    public void lookup_individualScores() {
+        Optional<SquirlsResult> resultOptional = source.lookup(variant("1", 100, "C", "A"));
+
+        assertThat(resultOptional.isPresent(), equalTo(true));
+        SquirlsResult result = resultOptional.get();
+        assertThat(result.txAccessionIds(), containsInAnyOrder("NM_1.1", "NM_2.1"));
+        assertThat(result.isPathogenic(), equalTo(true));
+        assertThat(result.maxPathogenicity(), closeTo(.9, ERROR));
+        assertThat(result.maxPathogenicityTranscriptAccession().orElseThrow(), equalTo("NM_1.1"));
+        assertThat(result.predictionForTranscript("NM_1.1").orElseThrow().isPositive(), equalTo(true));
+        assertThat(result.predictionForTranscript("NM_2.1").orElseThrow().isPositive(), equalTo(false));
+        assertThat(result.pathogenicityForTranscript("NM_2.1").orElseThrow(), closeTo(.05, ERROR));
+    }
+
+    @Test
+    public void lookup_maxScore() {
+        Optional<SquirlsResult> resultOptional = source.lookup(variant("1", 200, "AC", "A"));
+
+        assertThat(resultOptional.isPresent(), equalTo(true));
+        SquirlsResult result = resultOptional.get();
+        assertThat(result.txAccessionIds(), contains(TabixPrecomputedScoreSource.UNKNOWN_ACCESSION));
+        assertThat(result.isPathogenic(), equalTo(true));
+        assertThat(result.maxPathogenicity(), closeTo(.5, ERROR));
+    }
+
+    @Test
+    public void lookup_scoreRoundedToThreshold() {
+        // the score 0.074004 is just above the threshold 0.074, and is rounded to the threshold in the file
+        SquirlsResult maxScore = source.lookup(variant("1", 400, "A", "C")).orElseThrow();
+        assertThat(maxScore.isPathogenic(), equalTo(true));
+        assertThat(maxScore.maxPathogenicity(), closeTo(.074, ERROR));
+
+        SquirlsResult individualScores = source.lookup(variant("1", 400, "A", "G")).orElseThrow();
+        assertThat(individualScores.isPathogenic(), equalTo(true));
+        assertThat(individualScores.predictionForTranscript("NM_1.1").orElseThrow().isPositive(), equalTo(true));
+        assertThat(individualScores.predictionForTranscript("NM_2.1").orElseThrow().isPositive(), equalTo(false));
+        assertThat(individualScores.maxPathogenicity(), closeTo(.074, ERROR));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            // SNVs
+            "1, 100,   C,   A, .9",
+            "1, 100,   C,   T, .03",
+            "2,  50,   T,   G, .02",
+            // the deletion and insertion in the VCF notation
+            "1, 200,  AC,   A, .5",
+            "1, 300,   G, GTT, .01",
+            // the deletion and insertion without the common base
+            "1, 201,   C,  '', .5",
+            "1, 301,  '',  TT, .01",
+    })
+    public void lookup(String contig, int pos, String ref, String alt, double score) {
+        GenomicVariant variant = variant(contig, pos, ref, alt);
+
+        assertThat(source.lookup(variant).orElseThrow().maxPathogenicity(), closeTo(score, ERROR));
+        // the strand of the query must not matter
+        assertThat(source.lookup(variant.withStrand(Strand.NEGATIVE)).orElseThrow().maxPathogenicity(), closeTo(score, ERROR));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "1,  100,  C,   G",  // different alt allele
+            "1,  101,  C,   A",  // different position
+            "1,  300,  G,  GT",  // different insertion
+            "1,  201,  '',  C",  // insertion instead of a deletion
+            "MT, 100,  C,   A",  // contig not present in the file
+    })
+    public void lookup_missing(String contig, int pos, String ref, String alt) {
+        assertThat(source.lookup(variant(contig, pos, ref, alt)).isPresent(), equalTo(false));
+    }
+
+    @Test
+    public void lookup_missingThreshold() throws Exception {
+        try (TabixPrecomputedScoreSource noThreshold = TabixPrecomputedScoreSource.of(TEST_BASE.resolve("scores.no_threshold.vcf.gz"))) {
+            assertThat(Double.isNaN(noThreshold.threshold()), equalTo(true));
+
+            SquirlsResult pathogenic = noThreshold.lookup(variant("1", 100, "C", "A")).orElseThrow();
+            assertThat(pathogenic.isPathogenic(), equalTo(true));
+            assertThat(pathogenic.maxPathogenicity(), closeTo(.9, ERROR));
+
+            SquirlsResult benign = noThreshold.lookup(variant("1", 100, "C", "T")).orElseThrow();
+            assertThat(benign.isPathogenic(), equalTo(false));
+            assertThat(benign.maxPathogenicity(), closeTo(.03, ERROR));
+
+            // the filter decides the pathogenicity even if the score is rounded to zero
+            SquirlsResult roundedToZero = noThreshold.lookup(variant("1", 400, "A", "C")).orElseThrow();
+            assertThat(roundedToZero.isPathogenic(), equalTo(true));
+            assertThat(roundedToZero.maxPathogenicity(), closeTo(0., ERROR));
+        }
+    }
+
+    @Test
+    public void of_missingIndex() {
+        Path scoresPath = TEST_BASE.resolve("scores.vcf.gz");
+        SquirlsResourceException e = assertThrows(SquirlsResourceException.class, () -> TabixPrecomputedScoreSource.of(scoresPath, TEST_BASE.resolve("missing.tbi")));
+
+        assertThat(e.getMessage(), containsString("missing.tbi"));
+    }
+}
@@ -91,6 +91,18 @@ public class AnnotatorPropertiesImpl implements AnnotatorProperties {
      */
     private String version = "agez";
 
+    /**
+     * Which phyloP conservation score reader to use, choose from {bigwig, dense} (`bigwig` by default).
+     */
+    private String conservationReader = "bigwig";
+
+    /**
+     * How to fetch the reference sequence of the evaluated variants, choose from {transcript-span, neighborhood}
+     * (`transcript-span` by default). The `neighborhood` mode fetches only the sequence around the variant
+     * and the relevant splice sites of each transcript.
+     */
+    private String sequenceFetchMode = "transcript-span";
+
     @Override
     public String getVersion() {
         return version;
@@ -99,4 +111,22 @@ public class AnnotatorPropertiesImpl implements AnnotatorProperties {
     public void setVersion(String version) {
         this.version = version;
     }
+
+    @Override
+    public String getConservationReader() {
+        return conservationReader;
+    }
+
+    public void setConservationReader(String conservationReader) {
+        this.conservationReader = conservationReader;
+    }
+
+    @Override
+    public String getSequenceFetchMode() {
+        return sequenceFetchMode;
+    }
+
+    public void setSequenceFetchMode(String sequenceFetchMode) {
+        this.sequenceFetchMode = sequenceFetchMode;
+    }
 }
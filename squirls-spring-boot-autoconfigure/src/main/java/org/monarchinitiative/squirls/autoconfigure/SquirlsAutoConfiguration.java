@@ -80,23 +80,31 @@ package org.monarchinitiative.squirls.autoconfigure;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import org.monarchinitiative.squirls.autoconfigure.exception.InvalidSquirlsResourceException;
+import org.monarchinitiative.squirls.core.EvaluationExecutors;
+import org.monarchinitiative.squirls.core.PrecomputedScoreSource;
 import org.monarchinitiative.squirls.core.classifier.SquirlsClassifier;
+import org.monarchinitiative.squirls.core.config.SequenceFetchMode;
 import org.monarchinitiative.squirls.core.reference.SplicingPwmData;
 import org.monarchinitiative.squirls.core.reference.StrandedSequenceService;
 import org.monarchinitiative.squirls.core.scoring.AGEZSplicingAnnotator;
 import org.monarchinitiative.squirls.core.scoring.DenseSplicingAnnotator;
 import org.monarchinitiative.squirls.core.scoring.SplicingAnnotator;
 import org.monarchinitiative.squirls.core.scoring.calculators.conservation.BigWigAccessor;
+import org.monarchinitiative.squirls.core.scoring.calculators.conservation.ConservationTrack;
 import org.monarchinitiative.squirls.initialize.*;
 import org.monarchinitiative.squirls.initialize.UndefinedSquirlsResourceException;
 import org.monarchinitiative.squirls.io.ClassifierFactory;
 import org.monarchinitiative.squirls.io.CorruptedPwmException;
 import org.monarchinitiative.squirls.io.SquirlsClassifierVersion;
+import org.monarchinitiative.squirls.io.SquirlsResourceException;
 import org.monarchinitiative.squirls.io.db.DbClassifierFactory;
 import org.monarchinitiative.squirls.io.db.DbKMerDao;
 import org.monarchinitiative.squirls.io.db.DbSplicingPositionalWeightMatrixParser;
+import org.monarchinitiative.squirls.io.conservation.DenseConservationTrack;
+import org.monarchinitiative.squirls.io.precomputed.PrecomputedScoreSources;
 import org.monarchinitiative.squirls.io.sequence.FastaStrandedSequenceService;
-import org.monarchinitiative.squirls.io.sequence.InvalidFastaFileException;
+import org.monarchinitiative.squirls.io.sequence.MemoryMappedFastaStrandedSequenceService;
+import org.monarchinitiative.squirls.io.sequence.PackedGenomeStrandedSequenceService;
 import org.monarchinitiative.svart.assembly.GenomicAssembly;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -113,6 +121,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 
@@ -130,16 +140,44 @@ import java.util.stream.Collectors;
 @EnableConfigurationProperties({
         SquirlsPropertiesImpl.class,
         ClassifierPropertiesImpl.class,
-        AnnotatorPropertiesImpl.class})
+        AnnotatorPropertiesImpl.class,
+        ReferencePropertiesImpl.class,
+        PrecomputedPropertiesImpl.class,
+        AsyncPropertiesImpl.class})
 @Deprecated(forRemoval = true, since = "2.0.0")
 public class SquirlsAutoConfiguration {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SquirlsAutoConfiguration.class);
 
     @Bean
-    public BigWigAccessor phylopBigwigAccessor(SquirlsDataResolver squirlsDataResolver) throws IOException {
-        LOGGER.debug("Using phyloP bigwig file at `{}`", squirlsDataResolver.phylopPath());
-        return new BigWigAccessor(squirlsDataResolver.phylopPath());
+    public ConservationTrack phylopConservationTrack(SquirlsProperties properties,
+                                                     SquirlsDataResolver squirlsDataResolver) throws IOException, UndefinedSquirlsResourceException, MissingSquirlsResourceException {
+        String conservationReader = properties.getAnnotator().getConservationReader();
+        switch (conservationReader) {
+            case "bigwig":
+                LOGGER.debug("Using phyloP bigwig file at `{}`", squirlsDataResolver.phylopPath());
+                return new BigWigAccessor(squirlsDataResolver.phylopPath());
+            case "dense":
+                if (!Files.isRegularFile(squirlsDataResolver.phylopTrackPath()))
+                    throw new MissingSquirlsResourceException(String.format("The file `%s` is missing in SQUIRLS directory", squirlsDataResolver.phylopTrackPath().toFile().getName()));
+                LOGGER.debug("Using phyloP conservation track at `{}`", squirlsDataResolver.phylopTrackPath());
+                return DenseConservationTrack.open(squirlsDataResolver.phylopTrackPath());
+            default:
+                throw new UndefinedSquirlsResourceException(String.format("invalid 'squirls.annotator.conservation-reader' property value: `%s`", conservationReader));
+        }
+    }
+
+    @Bean
+    public SequenceFetchMode sequenceFetchMode(SquirlsProperties properties) throws UndefinedSquirlsResourceException {
+        String sequenceFetchMode = properties.getAnnotator().getSequenceFetchMode();
+        switch (sequenceFetchMode) {
+            case "transcript-span":
+                return SequenceFetchMode.TRANSCRIPT_SPAN;
+            case "neighborhood":
+                return SequenceFetchMode.NEIGHBORHOOD;
+            default:
+                throw new UndefinedSquirlsResourceException(String.format("invalid 'squirls.annotator.sequence-fetch-mode' property value: `%s`", sequenceFetchMode));
+        }
     }
 
     @Bean
@@ -149,11 +187,66 @@ public class SquirlsAutoConfiguration {
 
 
     @Bean
-    public StrandedSequenceService strandedSequenceService(SquirlsDataResolver squirlsDataResolver) throws InvalidFastaFileException {
-        return new FastaStrandedSequenceService(squirlsDataResolver.genomeAssemblyReportPath(),
-                squirlsDataResolver.genomeFastaPath(),
-                squirlsDataResolver.genomeFastaFaiPath(),
-                squirlsDataResolver.genomeFastaDictPath());
+    public StrandedSequenceService strandedSequenceService(SquirlsProperties properties,
+                                                           SquirlsDataResolver squirlsDataResolver) throws SquirlsResourceException {
+        String sequenceReader = properties.getReference().getSequenceReader();
+        if (LOGGER.isDebugEnabled()) LOGGER.debug("Using `{}` reference sequence reader", sequenceReader);
+        switch (sequenceReader) {
+            case "htsjdk":
+                return new FastaStrandedSequenceService(squirlsDataResolver.genomeAssemblyReportPath(),
+                        squirlsDataResolver.genomeFastaPath(),
+                        squirlsDataResolver.genomeFastaFaiPath(),
+                        squirlsDataResolver.genomeFastaDictPath());
+            case "mmap":
+                return new MemoryMappedFastaStrandedSequenceService(squirlsDataResolver.genomeAssemblyReportPath(),
+                        squirlsDataResolver.genomeFastaPath(),
+                        squirlsDataResolver.genomeFastaFaiPath(),
+                        squirlsDataResolver.genomeFastaDictPath());
+            case "packed":
+                if (!Files.isRegularFile(squirlsDataResolver.genomePackedPath()))
+                    throw new MissingSquirlsResourceException(String.format("The file `%s` is missing in SQUIRLS directory", squirlsDataResolver.genomePackedPath().toFile().getName()));
+                return new PackedGenomeStrandedSequenceService(squirlsDataResolver.genomeAssemblyReportPath(), squirlsDataResolver.genomePackedPath());
+            default:
+                throw new UndefinedSquirlsResourceException(String.format("invalid 'squirls.reference.sequence-reader' property value: `%s`", sequenceReader));
+        }
+    }
+
+    @Bean
+    public PrecomputedScoreSource precomputedScoreSource(SquirlsProperties properties) throws SquirlsResourceException {
+        String scoresPath = properties.getPrecomputed().getScoresPath();
+        if (scoresPath == null || scoresPath.isBlank())
+            return PrecomputedScoreSource.empty();
+
+        Path path = Paths.get(scoresPath);
+        if (!Files.isRegularFile(path))
+            throw new MissingSquirlsResourceException(String.format("Precomputed scores file `%s` does not exist", path.toAbsolutePath()));
+        LOGGER.debug("Using precomputed scores from `{}`", path.toAbsolutePath());
+        return PrecomputedScoreSources.open(path);
+    }
+
+    /**
+     * @return executor for running the asynchronous variant evaluations
+     */
+    @Bean
+    public Executor squirlsEvaluationExecutor(SquirlsProperties properties) throws UndefinedSquirlsResourceException {
+        AsyncProperties asyncProperties = properties.getAsync();
+        String executor = asyncProperties.getExecutor();
+        if (LOGGER.isDebugEnabled()) LOGGER.debug("Using `{}` executor for asynchronous evaluation", executor);
+        switch (executor) {
+            case "common-pool":
+                return ForkJoinPool.commonPool();
+            case "fixed":
+                int threads = asyncProperties.getThreads() > 0
+                        ? asyncProperties.getThreads()
+                        : Runtime.getRuntime().availableProcessors();
+                return EvaluationExecutors.fixed(threads);
+            case "virtual":
+                if (!EvaluationExecutors.virtualThreadsAvailable())
+                    throw new UndefinedSquirlsResourceException(String.format("The `virtual` executor requires Java 21 or newer, but Java %d is used", Runtime.version().feature()));
+                return EvaluationExecutors.virtualThreadPerTask();
+            default:
+                throw new UndefinedSquirlsResourceException(String.format("invalid 'squirls.async.executor' property value: `%s`", executor));
+        }
     }
 
     @Bean
@@ -202,15 +295,15 @@ public class SquirlsAutoConfiguration {
     public SplicingAnnotator splicingAnnotator(SquirlsProperties properties,
                                                SplicingPwmData splicingPwmData,
                                                DbKMerDao dbKMerDao,
-                                               BigWigAccessor phylopBigwigAccessor) throws UndefinedSquirlsResourceException {
+                                               ConservationTrack phylopConservationTrack) throws UndefinedSquirlsResourceException {
         AnnotatorProperties annotatorProperties = properties.getAnnotator();
         String version = annotatorProperties.getVersion();
         if (LOGGER.isDebugEnabled()) LOGGER.debug("Using `{}` splicing annotator", version);
         switch (version) {
             case "dense":
-                return new DenseSplicingAnnotator(splicingPwmData, dbKMerDao.getHexamerMap(), dbKMerDao.getSeptamerMap(), phylopBigwigAccessor);
+                return new DenseSplicingAnnotator(splicingPwmData, dbKMerDao.getHexamerMap(), dbKMerDao.getSeptamerMap(), phylopConservationTrack);
             case "agez":
-                return new AGEZSplicingAnnotator(splicingPwmData, dbKMerDao.getHexamerMap(), dbKMerDao.getSeptamerMap(), phylopBigwigAccessor);
+                return new AGEZSplicingAnnotator(splicingPwmData, dbKMerDao.getHexamerMap(), dbKMerDao.getSeptamerMap(), phylopConservationTrack);
             default:
                 throw new UndefinedSquirlsResourceException(String.format("invalid 'squirls.annotator.version' property value: `%s`", version));
         }
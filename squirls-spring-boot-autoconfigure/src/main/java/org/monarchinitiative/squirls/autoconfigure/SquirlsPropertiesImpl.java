@@ -77,7 +77,10 @@
 package org.monarchinitiative.squirls.autoconfigure;
 
 import org.monarchinitiative.squirls.initialize.AnnotatorProperties;
+import org.monarchinitiative.squirls.initialize.AsyncProperties;
 import org.monarchinitiative.squirls.initialize.ClassifierProperties;
+import org.monarchinitiative.squirls.initialize.PrecomputedProperties;
+import org.monarchinitiative.squirls.initialize.ReferenceProperties;
 import org.monarchinitiative.squirls.initialize.SquirlsProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
@@ -112,6 +115,15 @@ public class SquirlsPropertiesImpl implements SquirlsProperties {
     @NestedConfigurationProperty // squirls.annotator
     private AnnotatorProperties annotator = new AnnotatorPropertiesImpl();
 
+    @NestedConfigurationProperty // squirls.reference
+    private ReferenceProperties reference = new ReferencePropertiesImpl();
+
+    @NestedConfigurationProperty // squirls.precomputed
+    private PrecomputedProperties precomputed = new PrecomputedPropertiesImpl();
+
+    @NestedConfigurationProperty // squirls.async
+    private AsyncProperties async = new AsyncPropertiesImpl();
+
     @Override
     public String getDataDirectory() {
         return dataDirectory;
@@ -157,4 +169,31 @@ public class SquirlsPropertiesImpl implements SquirlsProperties {
         this.annotator = annotator;
     }
 
+    @Override
+    public ReferenceProperties getReference() {
+        return reference;
+    }
+
+    public void setReference(ReferenceProperties reference) {
+        this.reference = reference;
+    }
+
+    @Override
+    public PrecomputedProperties getPrecomputed() {
+        return precomputed;
+    }
+
+    public void setPrecomputed(PrecomputedProperties precomputed) {
+        this.precomputed = precomputed;
+    }
+
+    @Override
+    public AsyncProperties getAsync() {
+        return async;
+    }
+
+    public void setAsync(AsyncProperties async) {
+        this.async = async;
+    }
+
 }
@@ -77,15 +77,22 @@
 package org.monarchinitiative.squirls.autoconfigure;
 
 import org.junit.jupiter.api.Test;
+import org.monarchinitiative.squirls.core.PrecomputedScoreSource;
 import org.monarchinitiative.squirls.core.classifier.SquirlsClassifier;
+import org.monarchinitiative.squirls.core.config.SequenceFetchMode;
 import org.monarchinitiative.squirls.core.reference.StrandedSequenceService;
 import org.monarchinitiative.squirls.core.scoring.SplicingAnnotator;
 import org.monarchinitiative.squirls.initialize.SquirlsProperties;
+import org.monarchinitiative.squirls.io.sequence.MemoryMappedFastaStrandedSequenceService;
 import org.monarchinitiative.svart.assembly.GenomicAssembly;
 import org.springframework.beans.factory.BeanCreationException;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -125,6 +132,9 @@ class SquirlsAutoConfigurationTest extends AbstractAutoConfigurationTest {
         assertThat(context.getBean(SquirlsClassifier.class), is(notNullValue()));
         assertThat(context.getBean(SplicingAnnotator.class), is(notNullValue()));
         assertThat(context.getBean(SplicingAnnotator.class), is(notNullValue()));
+        assertThat(context.getBean(PrecomputedScoreSource.class), is(sameInstance(PrecomputedScoreSource.empty())));
+        assertThat(context.getBean("squirlsEvaluationExecutor", Executor.class), is(sameInstance(ForkJoinPool.commonPool())));
+        assertThat(context.getBean(SequenceFetchMode.class), is(SequenceFetchMode.TRANSCRIPT_SPAN));
     }
 
     @Test
@@ -132,13 +142,28 @@ class SquirlsAutoConfigurationTest extends AbstractAutoConfigurationTest {
         load(SquirlsAutoConfiguration.class, "squirls.data-directory=" + TEST_DATA,
                 "squirls.classifier.version=v0.4.4",
                 "squirls.classifier.max-variant-length=50",
-                "squirls.annotator.version=agez"
+                "squirls.annotator.version=agez",
+                "squirls.annotator.sequence-fetch-mode=neighborhood",
+                "squirls.reference.sequence-reader=mmap",
+                "squirls.reference.sequence-cache-size=1000",
+                "squirls.async.executor=fixed",
+                "squirls.async.threads=2",
+                "squirls.async.timeout=500ms"
         );
 
         SquirlsProperties properties = context.getBean(SquirlsProperties.class);
         assertThat(properties.getClassifier().getVersion(), is("v0.4.4"));
         assertThat(properties.getClassifier().getMaxVariantLength(), is(50));
         assertThat(properties.getAnnotator().getVersion(), is("agez"));
+        assertThat(properties.getAnnotator().getSequenceFetchMode(), is("neighborhood"));
+        assertThat(properties.getReference().getSequenceReader(), is("mmap"));
+        assertThat(properties.getReference().getSequenceCacheSize(), is(1000L));
+        assertThat(properties.getAsync().getExecutor(), is("fixed"));
+        assertThat(properties.getAsync().getThreads(), is(2));
+        assertThat(properties.getAsync().getTimeout(), is(Duration.ofMillis(500)));
+        assertThat(context.getBean("squirlsEvaluationExecutor", Executor.class), is(instanceOf(ExecutorService.class)));
+        assertThat(context.getBean(StrandedSequenceService.class), is(instanceOf(MemoryMappedFastaStrandedSequenceService.class)));
+        assertThat(context.getBean(SequenceFetchMode.class), is(SequenceFetchMode.NEIGHBORHOOD));
     }
 
     @Test
@@ -173,4 +198,45 @@ class SquirlsAutoConfigurationTest extends AbstractAutoConfigurationTest {
                 "squirls.annotator.version=non-existing"));
         assertThat(thrown.getMessage(), containsString("invalid 'squirls.annotator.version' property value: `non-existing`"));
     }
+
+    @Test
+    void testNonExistingSequenceReader() {
+        Throwable thrown = assertThrows(BeanCreationException.class, () -> load(SquirlsAutoConfiguration.class,
+                "squirls.data-directory=" + TEST_DATA,
+                "squirls.reference.sequence-reader=non-existing"));
+        assertThat(thrown.getMessage(), containsString("invalid 'squirls.reference.sequence-reader' property value: `non-existing`"));
+    }
+
+    @Test
+    void testNonExistingSequenceFetchMode() {
+        Throwable thrown = assertThrows(BeanCreationException.class, () -> load(SquirlsAutoConfiguration.class,
+                "squirls.data-directory=" + TEST_DATA,
+                "squirls.annotator.sequence-fetch-mode=non-existing"));
+        assertThat(thrown.getMessage(), containsString("invalid 'squirls.annotator.sequence-fetch-mode' property value: `non-existing`"));
+    }
+
+    @Test
+    void testNonExistingConservationReader() {
+        Throwable thrown = assertThrows(BeanCreationException.class, () -> load(SquirlsAutoConfiguration.class,
+                "squirls.data-directory=" + TEST_DATA,
+                "squirls.annotator.conservation-reader=non-existing"));
+        assertThat(thrown.getMessage(), containsString("invalid 'squirls.annotator.conservation-reader' property value: `non-existing`"));
+    }
+
+    @Test
+    void testNonExistingExecutor() {
+        Throwable thrown = assertThrows(BeanCreationException.class, () -> load(SquirlsAutoConfiguration.class,
+                "squirls.data-directory=" + TEST_DATA,
+                "squirls.async.executor=non-existing"));
+        assertThat(thrown.getMessage(), containsString("invalid 'squirls.async.executor' property value: `non-existing`"));
+    }
+
+    @Test
+    void testNonExistingPrecomputedScores() {
+        Path scoresPath = TEST_DATA.resolve("scores.vcf.gz");
+        Throwable thrown = assertThrows(BeanCreationException.class, () -> load(SquirlsAutoConfiguration.class,
+                "squirls.data-directory=" + TEST_DATA,
+                "squirls.precomputed.scores-path=" + scoresPath));
+        assertThat(thrown.getMessage(), containsString(String.format("Precomputed scores file `%s` does not exist", scoresPath.toAbsolutePath())));
+    }
 }
\ No newline at end of file